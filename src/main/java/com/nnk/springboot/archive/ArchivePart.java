@@ -0,0 +1,113 @@
+package com.nnk.springboot.archive;
+
+import com.nnk.springboot.dedup.BloomFilter;
+import com.nnk.springboot.model.Trade;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.util.EnumSet;
+import java.util.List;
+
+/**
+ * One archived file of a month partition, with the statistics stored in its header.
+ * The statistics let a query skip the file without decompressing any column.
+ * <p>
+ * The sourceListIds of the file are kept in a {@link BloomFilter} of their own, built when the file
+ * is written, or from its sourceListId column the first time it is looked up, so that a lookup
+ * only decompresses the files that may hold the id.
+ * </p>
+ */
+public final class ArchivePart {
+
+    private static final double SOURCE_LIST_ID_FALSE_POSITIVE_RATE = 0.001;
+
+    private final Path path;
+    private final int rowCount;
+    private final int minTradeId;
+    private final int maxTradeId;
+    private final long minTradeDate;
+    private final long maxTradeDate;
+    private volatile BloomFilter sourceListIds;
+
+    ArchivePart(Path path, int rowCount, int minTradeId, int maxTradeId, long minTradeDate, long maxTradeDate,
+                BloomFilter sourceListIds) {
+        this.path = path;
+        this.rowCount = rowCount;
+        this.minTradeId = minTradeId;
+        this.maxTradeId = maxTradeId;
+        this.minTradeDate = minTradeDate;
+        this.maxTradeDate = maxTradeDate;
+        this.sourceListIds = sourceListIds;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public int getMinTradeId() {
+        return minTradeId;
+    }
+
+    public int getMaxTradeId() {
+        return maxTradeId;
+    }
+
+    /**
+     * @return the earliest trade date in the file, in epoch milliseconds
+     */
+    public long getMinTradeDate() {
+        return minTradeDate;
+    }
+
+    /**
+     * @return the latest trade date in the file, in epoch milliseconds
+     */
+    public long getMaxTradeDate() {
+        return maxTradeDate;
+    }
+
+    /**
+     * @param from the start of the range, inclusive, or null for no lower bound
+     * @param to   the end of the range, exclusive, or null for no upper bound
+     * @return false if no trade of the file can have a trade date in the range
+     */
+    public boolean overlaps(Timestamp from, Timestamp to) {
+        return (from == null || maxTradeDate >= from.getTime()) && (to == null || minTradeDate < to.getTime());
+    }
+
+    /**
+     * @param sourceListId the sourceListId to look up
+     * @return false if no trade of the file has the sourceListId, true if one probably has
+     * @throws IOException if the sourceListId column must be read and reading fails
+     */
+    boolean mightContainSourceListId(String sourceListId) throws IOException {
+        BloomFilter filter = sourceListIds;
+        return (filter != null ? filter : loadSourceListIds()).mightContain(sourceListId);
+    }
+
+    private synchronized BloomFilter loadSourceListIds() throws IOException {
+        if (sourceListIds == null) {
+            sourceListIds = sourceListIdsOf(ColumnarTradeFile.read(path, EnumSet.of(TradeColumn.SOURCE_LIST_ID)));
+        }
+        return sourceListIds;
+    }
+
+    static BloomFilter sourceListIdsOf(List<Trade> trades) {
+        BloomFilter filter = new BloomFilter(trades.size(), SOURCE_LIST_ID_FALSE_POSITIVE_RATE);
+        for (Trade trade : trades) {
+            if (trade.getSourceListId() != null) {
+                filter.add(trade.getSourceListId());
+            }
+        }
+        return filter;
+    }
+
+    ArchivePart movedTo(Path target) {
+        return new ArchivePart(target, rowCount, minTradeId, maxTradeId, minTradeDate, maxTradeDate, sourceListIds);
+    }
+}
@@ -0,0 +1,325 @@
+package com.nnk.springboot.archive;
+
+import com.nnk.springboot.model.Trade;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Reads and writes the column-oriented file format of the trade archive.
+ * <p>
+ * A file holds the values of each column in a separate Deflate-compressed block, so reading
+ * a few columns only decompresses those blocks. Text columns are dictionary-encoded, which is
+ * what makes repetitive columns such as book, account or status compress well. The header
+ * holds the row count, the min/max trade id and trade date of the file, and the offset of each
+ * block; it is read on its own to decide whether a file needs to be opened at all.
+ * </p>
+ * <pre>
+ * int    magic
+ * int    header length
+ * header rowCount, minTradeId, maxTradeId, minTradeDate, maxTradeDate, columnCount,
+ *        then per column: name, raw length, compressed length
+ * blocks the compressed block of each column, in header order
+ * </pre>
+ */
+public final class ColumnarTradeFile {
+
+    private static final int MAGIC = 0x50544331;
+    private static final int NULL_CODE = -1;
+
+    private ColumnarTradeFile() {
+    }
+
+    /**
+     * Writes trades to a new file and forces it to disk.
+     *
+     * @param path   the file to create; must not exist
+     * @param trades the trades, each with an id and a trade date
+     * @return the written file and its statistics
+     * @throws IOException if writing fails
+     */
+    public static ArchivePart write(Path path, List<Trade> trades) throws IOException {
+        int minId = Integer.MAX_VALUE;
+        int maxId = Integer.MIN_VALUE;
+        long minDate = Long.MAX_VALUE;
+        long maxDate = Long.MIN_VALUE;
+        for (Trade trade : trades) {
+            minId = Math.min(minId, trade.getTradeId());
+            maxId = Math.max(maxId, trade.getTradeId());
+            minDate = Math.min(minDate, trade.getTradeDate().getTime());
+            maxDate = Math.max(maxDate, trade.getTradeDate().getTime());
+        }
+
+        List<byte[]> blocks = new ArrayList<>();
+        ByteArrayOutputStream headerBytes = new ByteArrayOutputStream();
+        DataOutputStream header = new DataOutputStream(headerBytes);
+        header.writeInt(trades.size());
+        header.writeInt(minId);
+        header.writeInt(maxId);
+        header.writeLong(minDate);
+        header.writeLong(maxDate);
+        header.writeShort(TradeColumn.values().length);
+        for (TradeColumn column : TradeColumn.values()) {
+            byte[] raw = encode(column, trades);
+            byte[] compressed = deflate(raw);
+            header.writeUTF(column.name());
+            header.writeInt(raw.length);
+            header.writeInt(compressed.length);
+            blocks.add(compressed);
+        }
+        header.flush();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            ByteBuffer prefix = ByteBuffer.allocate(8).putInt(MAGIC).putInt(headerBytes.size()).flip();
+            writeFully(channel, prefix);
+            writeFully(channel, ByteBuffer.wrap(headerBytes.toByteArray()));
+            for (byte[] block : blocks) {
+                writeFully(channel, ByteBuffer.wrap(block));
+            }
+            channel.force(true);
+        }
+        return new ArchivePart(path, trades.size(), minId, maxId, minDate, maxDate,
+                ArchivePart.sourceListIdsOf(trades));
+    }
+
+    /**
+     * Reads the statistics of a file without reading its columns.
+     *
+     * @param path the file
+     * @return the file and its statistics
+     * @throws IOException if reading fails or the file is not an archive file
+     */
+    public static ArchivePart readPart(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            Header header = readHeader(channel, path);
+            return new ArchivePart(path, header.rowCount, header.minTradeId, header.maxTradeId,
+                    header.minTradeDate, header.maxTradeDate, null);
+        }
+    }
+
+    /**
+     * Reads the trades of a file, decompressing only the requested columns.
+     * The other properties of the returned trades are left null.
+     *
+     * @param path    the file
+     * @param columns the columns to read
+     * @return the trades, in the order they were written
+     * @throws IOException if reading fails or the file is not an archive file
+     */
+    public static List<Trade> read(Path path, Set<TradeColumn> columns) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            Header header = readHeader(channel, path);
+            List<Trade> trades = new ArrayList<>(header.rowCount);
+            for (int i = 0; i < header.rowCount; i++) {
+                trades.add(new Trade());
+            }
+            long offset = header.blocksOffset;
+            for (BlockEntry block : header.blocks) {
+                if (block.column != null && columns.contains(block.column)) {
+                    ByteBuffer compressed = ByteBuffer.allocate(block.compressedLength);
+                    readFully(channel, compressed, offset, path);
+                    decode(block.column, inflate(compressed.array(), block.rawLength, path), trades);
+                }
+                offset += block.compressedLength;
+            }
+            return trades;
+        }
+    }
+
+    private static byte[] encode(TradeColumn column, List<Trade> trades) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        if (column.getType() == TradeColumn.Type.STRING) {
+            Map<String, Integer> dictionary = new HashMap<>();
+            List<String> entries = new ArrayList<>();
+            int[] codes = new int[trades.size()];
+            for (int i = 0; i < trades.size(); i++) {
+                String value = (String) column.get(trades.get(i));
+                codes[i] = value == null ? NULL_CODE : dictionary.computeIfAbsent(value, key -> {
+                    entries.add(key);
+                    return entries.size() - 1;
+                });
+            }
+            out.writeInt(entries.size());
+            for (String entry : entries) {
+                out.writeUTF(entry);
+            }
+            for (int code : codes) {
+                out.writeInt(code);
+            }
+        } else {
+            for (Trade trade : trades) {
+                Object value = column.get(trade);
+                out.writeBoolean(value != null);
+                if (value == null) {
+                    continue;
+                }
+                switch (column.getType()) {
+                    case INT -> out.writeInt((Integer) value);
+                    case DOUBLE -> out.writeDouble((Double) value);
+                    case TIMESTAMP -> {
+                        out.writeLong(((Timestamp) value).getTime());
+                        out.writeInt(((Timestamp) value).getNanos());
+                    }
+                    default -> throw new IllegalStateException("Unexpected column type " + column.getType());
+                }
+            }
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static void decode(TradeColumn column, byte[] raw, List<Trade> trades) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(raw));
+        if (column.getType() == TradeColumn.Type.STRING) {
+            String[] entries = new String[in.readInt()];
+            for (int i = 0; i < entries.length; i++) {
+                entries[i] = in.readUTF();
+            }
+            for (Trade trade : trades) {
+                int code = in.readInt();
+                column.set(trade, code == NULL_CODE ? null : entries[code]);
+            }
+            return;
+        }
+        for (Trade trade : trades) {
+            if (!in.readBoolean()) {
+                continue;
+            }
+            switch (column.getType()) {
+                case INT -> column.set(trade, in.readInt());
+                case DOUBLE -> column.set(trade, in.readDouble());
+                case TIMESTAMP -> {
+                    Timestamp timestamp = new Timestamp(in.readLong());
+                    timestamp.setNanos(in.readInt());
+                    column.set(trade, timestamp);
+                }
+                default -> throw new IllegalStateException("Unexpected column type " + column.getType());
+            }
+        }
+    }
+
+    private static Header readHeader(FileChannel channel, Path path) throws IOException {
+        ByteBuffer prefix = ByteBuffer.allocate(8);
+        readFully(channel, prefix, 0, path);
+        if (prefix.getInt(0) != MAGIC) {
+            throw new IOException("Not a trade archive file: " + path);
+        }
+        ByteBuffer headerBytes = ByteBuffer.allocate(prefix.getInt(4));
+        readFully(channel, headerBytes, 8, path);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(headerBytes.array()));
+
+        Header header = new Header();
+        header.rowCount = in.readInt();
+        header.minTradeId = in.readInt();
+        header.maxTradeId = in.readInt();
+        header.minTradeDate = in.readLong();
+        header.maxTradeDate = in.readLong();
+        int columnCount = in.readShort();
+        for (int i = 0; i < columnCount; i++) {
+            String name = in.readUTF();
+            BlockEntry block = new BlockEntry();
+            block.column = columnNamed(name);
+            block.rawLength = in.readInt();
+            block.compressedLength = in.readInt();
+            header.blocks.add(block);
+        }
+        header.blocksOffset = 8L + headerBytes.capacity();
+        return header;
+    }
+
+    private static TradeColumn columnNamed(String name) {
+        try {
+            return TradeColumn.valueOf(name);
+        } catch (IllegalArgumentException e) {
+            // a column of a newer format, skipped by this reader
+            return null;
+        }
+    }
+
+    private static byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] compressed, int rawLength, Path path) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            byte[] raw = new byte[rawLength];
+            int length = 0;
+            while (length < rawLength && !inflater.finished()) {
+                int inflated = inflater.inflate(raw, length, rawLength - length);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                length += inflated;
+            }
+            if (length != rawLength) {
+                throw new IOException("Truncated column block in " + path);
+            }
+            return raw;
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt column block in " + path, e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position, Path path) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Truncated trade archive file: " + path);
+            }
+        }
+    }
+
+    private static final class Header {
+        private int rowCount;
+        private int minTradeId;
+        private int maxTradeId;
+        private long minTradeDate;
+        private long maxTradeDate;
+        private long blocksOffset;
+        private final List<BlockEntry> blocks = new ArrayList<>();
+    }
+
+    private static final class BlockEntry {
+        private TradeColumn column;
+        private int rawLength;
+        private int compressedLength;
+    }
+}
@@ -0,0 +1,49 @@
+package com.nnk.springboot.archive;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Merges two iterators that are each sorted by the same comparator into one sorted iteration,
+ * holding only the next element of each. On a tie the element of the first iterator comes first.
+ *
+ * @param <T> the element type
+ */
+public final class MergingIterator<T> implements Iterator<T> {
+
+    private final Iterator<? extends T> first;
+    private final Iterator<? extends T> second;
+    private final Comparator<? super T> order;
+    private T nextFirst;
+    private T nextSecond;
+
+    public MergingIterator(Iterator<? extends T> first, Iterator<? extends T> second, Comparator<? super T> order) {
+        this.first = first;
+        this.second = second;
+        this.order = order;
+        this.nextFirst = first.hasNext() ? first.next() : null;
+        this.nextSecond = second.hasNext() ? second.next() : null;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return nextFirst != null || nextSecond != null;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        T next;
+        if (nextSecond == null || (nextFirst != null && order.compare(nextFirst, nextSecond) <= 0)) {
+            next = nextFirst;
+            nextFirst = first.hasNext() ? first.next() : null;
+        } else {
+            next = nextSecond;
+            nextSecond = second.hasNext() ? second.next() : null;
+        }
+        return next;
+    }
+}
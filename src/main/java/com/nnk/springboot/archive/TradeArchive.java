@@ -0,0 +1,434 @@
+package com.nnk.springboot.archive;
+
+import com.nnk.springboot.model.Trade;
+import jakarta.annotation.PostConstruct;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Timestamp;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * The archived trades, stored as columnar files in one directory per trade month.
+ * <p>
+ * The statistics of every file are read once when the application starts and kept in memory,
+ * so a query first skips the months outside its date range, then the files whose min/max trade
+ * date do not overlap it, and only decompresses the columns it asks for in the files that remain.
+ * </p>
+ * <p>
+ * Files are written under a {@code .pending} name and only published once the transaction
+ * that deleted their trades from the database has committed, so a trade is never visible
+ * in both tiers, nor in neither.
+ * </p>
+ * <p>
+ * Every file is written in (tradeDate, tradeId) order, and the files of a month are compacted into
+ * one, so the number of files does not grow with the number of archive runs. A compaction writes the
+ * merged file under a {@code .compacting} name, renames the files it replaces to {@code .replaced},
+ * then publishes the merged file; a compaction interrupted before that last rename is undone on the
+ * next start, one interrupted after it is completed.
+ * </p>
+ * <p>
+ * A sourceListId is looked up in the files whose own sourceListId filter may hold it, pending files
+ * included, so that an id is found from the moment its trades leave the database.
+ * </p>
+ */
+@Component
+public class TradeArchive {
+
+    private static final Logger logger = LogManager.getLogger(TradeArchive.class);
+
+    private static final String PART_SUFFIX = ".ptc";
+    private static final String PENDING_SUFFIX = PART_SUFFIX + ".pending";
+    private static final String COMPACTING_SUFFIX = PART_SUFFIX + ".compacting";
+    private static final String REPLACED_SUFFIX = PART_SUFFIX + ".replaced";
+    private static final Set<TradeColumn> SOURCE_LIST_ID = EnumSet.of(TradeColumn.SOURCE_LIST_ID);
+
+    /**
+     * The order of the trades in every file, and of {@link #iterate}.
+     */
+    public static final Comparator<Trade> ORDER = Comparator.comparing(Trade::getTradeDate)
+            .thenComparing(Trade::getTradeId);
+
+    @Value("${app.trade-archive.directory:archive/trade}")
+    private String directory = "archive/trade";
+
+    private final NavigableMap<YearMonth, List<ArchivePart>> partitions = new ConcurrentSkipListMap<>();
+    private final Map<Path, ArchivePart> pending = new ConcurrentHashMap<>();
+    // Read while files are opened, written while a compaction swaps them
+    private final ReadWriteLock filesLock = new ReentrantReadWriteLock();
+
+    /**
+     * Read the statistics of every published file.
+     *
+     * @throws IOException if the archive directory cannot be read
+     */
+    @PostConstruct
+    public void load() throws IOException {
+        partitions.clear();
+        for (Path monthDirectory : monthDirectories()) {
+            YearMonth month = YearMonth.parse(monthDirectory.getFileName().toString());
+            recoverCompaction(monthDirectory);
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(monthDirectory, "*" + PART_SUFFIX)) {
+                for (Path file : files) {
+                    partition(month).add(ColumnarTradeFile.readPart(file));
+                }
+            }
+        }
+        logger.info("Trade archive loaded: {} files over {} months", getParts().size(), partitions.size());
+    }
+
+    /**
+     * Write trades of one month to a new pending file, not yet visible to queries.
+     *
+     * @param month  the trade month of every trade
+     * @param trades the trades, each with an id and a trade date, in any order
+     * @return the pending file
+     * @throws IOException if writing fails
+     */
+    public ArchivePart writePending(YearMonth month, List<Trade> trades) throws IOException {
+        Path monthDirectory = Files.createDirectories(root().resolve(month.toString()));
+        int minId = trades.stream().mapToInt(Trade::getTradeId).min().orElseThrow();
+        int maxId = trades.stream().mapToInt(Trade::getTradeId).max().orElseThrow();
+        Path path = monthDirectory.resolve("trades-" + minId + "-" + maxId + PENDING_SUFFIX);
+        // left over by an attempt that rolled back
+        Files.deleteIfExists(path);
+        ArchivePart part = ColumnarTradeFile.write(path, trades.stream().sorted(ORDER).toList());
+        pending.put(path, part);
+        return part;
+    }
+
+    /**
+     * Make a pending file visible to queries.
+     *
+     * @param pending the pending file
+     * @throws IOException if renaming fails
+     */
+    public synchronized void publish(ArchivePart pending) throws IOException {
+        String name = pending.getPath().getFileName().toString();
+        Path target = pending.getPath()
+                .resolveSibling(name.substring(0, name.length() - PENDING_SUFFIX.length()) + PART_SUFFIX);
+        filesLock.writeLock().lock();
+        try {
+            Files.move(pending.getPath(), target, StandardCopyOption.ATOMIC_MOVE);
+            partition(YearMonth.parse(target.getParent().getFileName().toString())).add(pending.movedTo(target));
+            this.pending.remove(pending.getPath());
+        } finally {
+            filesLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Delete a pending file whose trades stayed in the database.
+     *
+     * @param pending the pending file
+     * @throws IOException if deleting fails
+     */
+    public void discard(Path pending) throws IOException {
+        filesLock.writeLock().lock();
+        try {
+            this.pending.remove(pending);
+            Files.deleteIfExists(pending);
+        } finally {
+            filesLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Merge the published files of a month into one, in (tradeDate, tradeId) order.
+     * Queries keep reading the replaced files until the merged one is published.
+     *
+     * @param month the trade month
+     * @return the number of files replaced, 0 if the month had fewer than two
+     * @throws IOException if reading, writing or renaming a file fails
+     */
+    public synchronized int compact(YearMonth month) throws IOException {
+        List<ArchivePart> parts = List.copyOf(partitions.getOrDefault(month, List.of()));
+        if (parts.size() < 2) {
+            return 0;
+        }
+        List<Trade> trades = new ArrayList<>();
+        for (ArchivePart part : parts) {
+            trades.addAll(ColumnarTradeFile.read(part.getPath(), TradeColumn.ALL));
+        }
+        trades.sort(ORDER);
+        Path target = parts.get(0).getPath().resolveSibling("compacted-" + System.currentTimeMillis() + PART_SUFFIX);
+        Path compacting = withSuffix(target, PART_SUFFIX, COMPACTING_SUFFIX);
+        Files.deleteIfExists(compacting);
+        ArchivePart merged = ColumnarTradeFile.write(compacting, trades);
+
+        List<Path> replaced = new ArrayList<>();
+        filesLock.writeLock().lock();
+        try {
+            for (ArchivePart part : parts) {
+                Path moved = withSuffix(part.getPath(), PART_SUFFIX, REPLACED_SUFFIX);
+                Files.move(part.getPath(), moved, StandardCopyOption.ATOMIC_MOVE);
+                replaced.add(moved);
+            }
+            Files.move(compacting, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            for (Path moved : replaced) {
+                Files.move(moved, withSuffix(moved, REPLACED_SUFFIX, PART_SUFFIX), StandardCopyOption.ATOMIC_MOVE);
+            }
+            Files.deleteIfExists(compacting);
+            throw e;
+        } finally {
+            List<ArchivePart> remaining = new CopyOnWriteArrayList<>(partition(month));
+            if (Files.exists(target)) {
+                remaining.removeAll(parts);
+                remaining.add(merged.movedTo(target));
+            }
+            partitions.put(month, remaining);
+            filesLock.writeLock().unlock();
+        }
+        for (Path moved : replaced) {
+            Files.deleteIfExists(moved);
+        }
+        logger.info("Trade archive compacted: month={}, files={}, trades={}", month, parts.size(), trades.size());
+        return parts.size();
+    }
+
+    /**
+     * List the pending files left by a run that stopped before publishing them.
+     *
+     * @return the pending files
+     * @throws IOException if the archive directory cannot be read
+     */
+    public List<Path> findPending() throws IOException {
+        List<Path> pending = new ArrayList<>();
+        for (Path monthDirectory : monthDirectories()) {
+            pending.addAll(list(monthDirectory, "*" + PENDING_SUFFIX));
+        }
+        return pending;
+    }
+
+    /**
+     * @return every published file, ordered by month
+     */
+    public List<ArchivePart> getParts() {
+        return partitions.values().stream().flatMap(Collection::stream).toList();
+    }
+
+    /**
+     * Read the archived trades whose trade date falls in a range.
+     * <p>
+     * Months outside the range and files whose statistics do not overlap it are skipped
+     * without being opened. Only the requested columns are decompressed, plus the trade
+     * date when the range has a bound.
+     * </p>
+     *
+     * @param from     the start of the range, inclusive, or null for no lower bound
+     * @param to       the end of the range, exclusive, or null for no upper bound
+     * @param columns  the columns to read; the other properties of the trades are left null
+     * @param consumer receives the trades, month by month
+     * @throws UncheckedIOException if reading a file fails
+     */
+    public void scan(Timestamp from, Timestamp to, Set<TradeColumn> columns, Consumer<Trade> consumer) {
+        for (YearMonth month : monthsOverlapping(from, to)) {
+            readMonth(month, from, to, columns).forEach(consumer);
+        }
+    }
+
+    /**
+     * Tell whether an archived trade, published or pending, has a sourceListId. Only the sourceListId
+     * column of the files whose filter may hold the id is decompressed, stopping at the first match.
+     *
+     * @param sourceListId the sourceListId
+     * @return true if an archived trade has it
+     * @throws UncheckedIOException if reading a file fails
+     */
+    public boolean containsSourceListId(String sourceListId) {
+        filesLock.readLock().lock();
+        try {
+            for (ArchivePart part : Stream.concat(pending.values().stream(), getParts().stream()).toList()) {
+                if (part.mightContainSourceListId(sourceListId)
+                        && ColumnarTradeFile.read(part.getPath(), SOURCE_LIST_ID).stream()
+                        .anyMatch(trade -> sourceListId.equals(trade.getSourceListId()))) {
+                    return true;
+                }
+            }
+            return false;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            filesLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Iterate over the archived trades whose trade date falls in a range, in (tradeDate, tradeId)
+     * order. The months are read one at a time, as the iteration reaches them, so at most one
+     * month of trades is held in memory.
+     *
+     * @param from    the start of the range, inclusive, or null for no lower bound
+     * @param to      the end of the range, exclusive, or null for no upper bound
+     * @param columns the columns to read; the trade id and date are always read
+     * @return the trades, in order
+     * @throws UncheckedIOException if reading a file fails, when the iteration reaches it
+     */
+    public Iterator<Trade> iterate(Timestamp from, Timestamp to, Set<TradeColumn> columns) {
+        Set<TradeColumn> read = EnumSet.copyOf(columns);
+        read.add(TradeColumn.TRADE_ID);
+        read.add(TradeColumn.TRADE_DATE);
+        Iterator<YearMonth> months = monthsOverlapping(from, to).iterator();
+        return new Iterator<>() {
+
+            private Iterator<Trade> month = Collections.emptyIterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!month.hasNext() && months.hasNext()) {
+                    List<Trade> trades = readMonth(months.next(), from, to, read);
+                    trades.sort(ORDER);
+                    month = trades.iterator();
+                }
+                return month.hasNext();
+            }
+
+            @Override
+            public Trade next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return month.next();
+            }
+        };
+    }
+
+    private List<YearMonth> monthsOverlapping(Timestamp from, Timestamp to) {
+        if (partitions.isEmpty()) {
+            return List.of();
+        }
+        YearMonth first = from == null ? partitions.firstKey() : YearMonth.from(from.toLocalDateTime());
+        YearMonth last = to == null ? partitions.lastKey() : YearMonth.from(to.toLocalDateTime().minusNanos(1));
+        if (first.isAfter(last)) {
+            return List.of();
+        }
+        return List.copyOf(partitions.subMap(first, true, last, true).keySet());
+    }
+
+    private List<Trade> readMonth(YearMonth month, Timestamp from, Timestamp to, Set<TradeColumn> columns) {
+        Set<TradeColumn> read = EnumSet.copyOf(columns);
+        if (from != null || to != null) {
+            read.add(TradeColumn.TRADE_DATE);
+        }
+        List<Trade> trades = new ArrayList<>();
+        filesLock.readLock().lock();
+        try {
+            for (ArchivePart part : partitions.getOrDefault(month, List.of())) {
+                if (!part.overlaps(from, to)) {
+                    continue;
+                }
+                for (Trade trade : ColumnarTradeFile.read(part.getPath(), read)) {
+                    if ((from == null || !trade.getTradeDate().before(from))
+                            && (to == null || trade.getTradeDate().before(to))) {
+                        trades.add(trade);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            filesLock.readLock().unlock();
+        }
+        return trades;
+    }
+
+    /**
+     * @param from the start of the range, inclusive, or null for no lower bound
+     * @param to   the end of the range, exclusive, or null for no upper bound
+     * @return the published files that may hold trades dated in the range
+     */
+    public List<ArchivePart> partsOverlapping(Timestamp from, Timestamp to) {
+        List<ArchivePart> parts = new ArrayList<>();
+        for (YearMonth month : monthsOverlapping(from, to)) {
+            for (ArchivePart part : partitions.getOrDefault(month, List.of())) {
+                if (part.overlaps(from, to)) {
+                    parts.add(part);
+                }
+            }
+        }
+        return parts;
+    }
+
+    private List<ArchivePart> partition(YearMonth month) {
+        return partitions.computeIfAbsent(month, key -> new CopyOnWriteArrayList<>());
+    }
+
+    private static void recoverCompaction(Path monthDirectory) throws IOException {
+        List<Path> compacting = list(monthDirectory, "*" + COMPACTING_SUFFIX);
+        for (Path replaced : list(monthDirectory, "*" + REPLACED_SUFFIX)) {
+            if (compacting.isEmpty()) {
+                // the merged file was published before the application stopped
+                Files.delete(replaced);
+            } else {
+                Files.move(replaced, withSuffix(replaced, REPLACED_SUFFIX, PART_SUFFIX), StandardCopyOption.ATOMIC_MOVE);
+            }
+        }
+        for (Path file : compacting) {
+            Files.delete(file);
+            logger.info("Trade archive recovery: undid the interrupted compaction of {}", monthDirectory);
+        }
+    }
+
+    private static List<Path> list(Path directory, String glob) throws IOException {
+        List<Path> paths = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, glob)) {
+            files.forEach(paths::add);
+        }
+        return paths;
+    }
+
+    private static Path withSuffix(Path path, String suffix, String replacement) {
+        String name = path.getFileName().toString();
+        return path.resolveSibling(name.substring(0, name.length() - suffix.length()) + replacement);
+    }
+
+    private List<Path> monthDirectories() throws IOException {
+        List<Path> months = new ArrayList<>();
+        if (!Files.isDirectory(root())) {
+            return months;
+        }
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(root(), Files::isDirectory)) {
+            for (Path entry : entries) {
+                try {
+                    YearMonth.parse(entry.getFileName().toString());
+                    months.add(entry);
+                } catch (DateTimeParseException e) {
+                    logger.warn("Ignoring unexpected directory in the trade archive: {}", entry);
+                }
+            }
+        }
+        return months;
+    }
+
+    private Path root() {
+        return Path.of(directory).toAbsolutePath().normalize();
+    }
+}
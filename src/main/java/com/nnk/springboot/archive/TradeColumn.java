@@ -0,0 +1,67 @@
+package com.nnk.springboot.archive;
+
+import com.nnk.springboot.model.Trade;
+
+import java.sql.Timestamp;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * The columns of an archived Trade and how each is stored.
+ * The version column is not archived, since archived trades are never updated.
+ */
+public enum TradeColumn {
+
+    TRADE_ID(Type.INT, Trade::getTradeId, (trade, value) -> trade.setTradeId((Integer) value)),
+    ACCOUNT(Type.STRING, Trade::getAccount, (trade, value) -> trade.setAccount((String) value)),
+    TYPE(Type.STRING, Trade::getType, (trade, value) -> trade.setType((String) value)),
+    BUY_QUANTITY(Type.DOUBLE, Trade::getBuyQuantity, (trade, value) -> trade.setBuyQuantity((Double) value)),
+    SELL_QUANTITY(Type.DOUBLE, Trade::getSellQuantity, (trade, value) -> trade.setSellQuantity((Double) value)),
+    BUY_PRICE(Type.DOUBLE, Trade::getBuyPrice, (trade, value) -> trade.setBuyPrice((Double) value)),
+    SELL_PRICE(Type.DOUBLE, Trade::getSellPrice, (trade, value) -> trade.setSellPrice((Double) value)),
+    BENCHMARK(Type.STRING, Trade::getBenchmark, (trade, value) -> trade.setBenchmark((String) value)),
+    TRADE_DATE(Type.TIMESTAMP, Trade::getTradeDate, (trade, value) -> trade.setTradeDate((Timestamp) value)),
+    SECURITY(Type.STRING, Trade::getSecurity, (trade, value) -> trade.setSecurity((String) value)),
+    STATUS(Type.STRING, Trade::getStatus, (trade, value) -> trade.setStatus((String) value)),
+    TRADER(Type.STRING, Trade::getTrader, (trade, value) -> trade.setTrader((String) value)),
+    BOOK(Type.STRING, Trade::getBook, (trade, value) -> trade.setBook((String) value)),
+    CREATION_NAME(Type.STRING, Trade::getCreationName, (trade, value) -> trade.setCreationName((String) value)),
+    CREATION_DATE(Type.TIMESTAMP, Trade::getCreationDate, (trade, value) -> trade.setCreationDate((Timestamp) value)),
+    REVISION_NAME(Type.STRING, Trade::getRevisionName, (trade, value) -> trade.setRevisionName((String) value)),
+    REVISION_DATE(Type.TIMESTAMP, Trade::getRevisionDate, (trade, value) -> trade.setRevisionDate((Timestamp) value)),
+    DEAL_NAME(Type.STRING, Trade::getDealName, (trade, value) -> trade.setDealName((String) value)),
+    DEAL_TYPE(Type.STRING, Trade::getDealType, (trade, value) -> trade.setDealType((String) value)),
+    SOURCE_LIST_ID(Type.STRING, Trade::getSourceListId, (trade, value) -> trade.setSourceListId((String) value)),
+    SIDE(Type.STRING, Trade::getSide, (trade, value) -> trade.setSide((String) value));
+
+    /**
+     * How the values of a column are encoded before compression.
+     */
+    enum Type { INT, DOUBLE, TIMESTAMP, STRING }
+
+    public static final Set<TradeColumn> ALL = EnumSet.allOf(TradeColumn.class);
+
+    private final Type type;
+    private final Function<Trade, Object> getter;
+    private final BiConsumer<Trade, Object> setter;
+
+    TradeColumn(Type type, Function<Trade, Object> getter, BiConsumer<Trade, Object> setter) {
+        this.type = type;
+        this.getter = getter;
+        this.setter = setter;
+    }
+
+    Type getType() {
+        return type;
+    }
+
+    Object get(Trade trade) {
+        return getter.apply(trade);
+    }
+
+    void set(Trade trade, Object value) {
+        setter.accept(trade, value);
+    }
+}
@@ -0,0 +1,71 @@
+package com.nnk.springboot.chart;
+
+/**
+ * Largest-Triangle-Three-Buckets downsampling of a series sorted by x, for charts.
+ * <p>
+ * The first and last points are kept. The points in between are split into {@code budget - 2}
+ * buckets of equal count, and each bucket keeps the point forming the largest triangle with the
+ * point kept from the previous bucket and the average of the next bucket. Peaks and troughs
+ * survive, unlike with every-nth sampling, in one pass over the series.
+ * </p>
+ */
+public final class Lttb {
+
+    private Lttb() {
+    }
+
+    /**
+     * Select the points to draw.
+     *
+     * @param x      the x of each point, ascending
+     * @param y      the y of each point
+     * @param budget the number of points to keep, at least 3
+     * @return the indexes of the points kept, ascending; every index if the series fits the budget
+     */
+    public static int[] downsample(double[] x, double[] y, int budget) {
+        int n = x.length;
+        if (budget < 3) {
+            throw new IllegalArgumentException("A chart needs a budget of at least 3 points, got " + budget);
+        }
+        if (n <= budget) {
+            int[] all = new int[n];
+            for (int i = 0; i < n; i++) {
+                all[i] = i;
+            }
+            return all;
+        }
+        int[] kept = new int[budget];
+        double bucketSize = (double) (n - 2) / (budget - 2);
+        int previous = 0;
+        for (int bucket = 0; bucket < budget - 2; bucket++) {
+            int nextStart = (int) ((bucket + 1) * bucketSize) + 1;
+            int nextEnd = Math.min((int) ((bucket + 2) * bucketSize) + 1, n);
+            double averageX = 0;
+            double averageY = 0;
+            for (int i = nextStart; i < nextEnd; i++) {
+                averageX += x[i];
+                averageY += y[i];
+            }
+            averageX /= nextEnd - nextStart;
+            averageY /= nextEnd - nextStart;
+
+            int start = (int) (bucket * bucketSize) + 1;
+            int end = nextStart;
+            double largestArea = -1;
+            int largest = start;
+            for (int i = start; i < end; i++) {
+                // Twice the area of the triangle, which ranks the points the same
+                double area = Math.abs((x[previous] - averageX) * (y[i] - y[previous])
+                        - (x[previous] - x[i]) * (averageY - y[previous]));
+                if (area > largestArea) {
+                    largestArea = area;
+                    largest = i;
+                }
+            }
+            kept[bucket + 1] = largest;
+            previous = largest;
+        }
+        kept[budget - 1] = n - 1;
+        return kept;
+    }
+}
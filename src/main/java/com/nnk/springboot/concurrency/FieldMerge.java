@@ -0,0 +1,44 @@
+package com.nnk.springboot.concurrency;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Three-way merge of a single field, used to replay an edit made on a stale version of a row.
+ * <p>
+ * {@code base} is the value the user loaded, {@code mine} the value they submitted and
+ * {@code current} the value now in the database. A field only one side changed keeps that
+ * side's value; a field both sides changed to different values is a conflict. When the base
+ * is unknown, any difference between {@code mine} and {@code current} is a conflict.
+ * </p>
+ */
+public final class FieldMerge {
+
+    private FieldMerge() {
+    }
+
+    /**
+     * Merges one field.
+     *
+     * @param field        the field name, recorded in {@code conflicts} if it cannot be merged
+     * @param baseKnown    whether {@code base} holds the value the user loaded
+     * @param base         the value the user loaded
+     * @param mine         the value the user submitted
+     * @param current      the value now in the database
+     * @param conflicts    the list the conflicting field names are added to
+     * @return the merged value, or {@code current} on conflict
+     */
+    public static <V> V pick(String field, boolean baseKnown, V base, V mine, V current, List<String> conflicts) {
+        if (Objects.equals(mine, current)) {
+            return current;
+        }
+        if (baseKnown && Objects.equals(mine, base)) {
+            return current;
+        }
+        if (baseKnown && Objects.equals(current, base)) {
+            return mine;
+        }
+        conflicts.add(field);
+        return current;
+    }
+}
@@ -0,0 +1,60 @@
+package com.nnk.springboot.concurrency;
+
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+
+/**
+ * Fork-join aggregation of the rows of a half-open id range.
+ * <p>
+ * Ranges wider than the chunk size are split in two; each leaf loads its own slice of ids
+ * with one range query and summarizes it into a private partial result, and the partial
+ * results are combined on the way back up. No partial result is shared between threads
+ * until it is combined, so the summarize and combine functions need no locking.
+ * </p>
+ *
+ * @param <T> the row type
+ * @param <R> the result type
+ */
+public class IdRangeAggregation<T, R> extends RecursiveTask<R> {
+
+    private final int fromId;
+    private final int toId;
+    private final int chunkSize;
+    private final BiFunction<Integer, Integer, List<T>> loader;
+    private final Function<List<T>, R> summarize;
+    private final BinaryOperator<R> combine;
+
+    /**
+     * @param fromId    the first id of the range, inclusive
+     * @param toId      the last id of the range, exclusive
+     * @param chunkSize the widest id range loaded by a single query
+     * @param loader    loads the rows of a {@code [from, to)} id range
+     * @param summarize turns the rows of one chunk into a partial result
+     * @param combine   merges two partial results; may reuse either argument
+     */
+    public IdRangeAggregation(int fromId, int toId, int chunkSize, BiFunction<Integer, Integer, List<T>> loader,
+                              Function<List<T>, R> summarize, BinaryOperator<R> combine) {
+        this.fromId = fromId;
+        this.toId = toId;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.loader = loader;
+        this.summarize = summarize;
+        this.combine = combine;
+    }
+
+    @Override
+    protected R compute() {
+        if ((long) toId - fromId <= chunkSize) {
+            return summarize.apply(loader.apply(fromId, toId));
+        }
+        int middle = (int) (((long) fromId + toId) >>> 1);
+        IdRangeAggregation<T, R> left = new IdRangeAggregation<>(fromId, middle, chunkSize, loader, summarize, combine);
+        IdRangeAggregation<T, R> right = new IdRangeAggregation<>(middle, toId, chunkSize, loader, summarize, combine);
+        left.fork();
+        R rightResult = right.compute();
+        return combine.apply(left.join(), rightResult);
+    }
+}
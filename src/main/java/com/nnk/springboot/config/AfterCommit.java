@@ -0,0 +1,33 @@
+package com.nnk.springboot.config;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Defers an update of an in-memory view until the transaction that wrote the rows commits, so that
+ * a rolled-back write never shows up in the view.
+ */
+public final class AfterCommit {
+
+    private AfterCommit() {
+    }
+
+    /**
+     * Runs an update once the current transaction commits, or right away outside a transaction.
+     * A rolled-back transaction drops the update.
+     *
+     * @param update the update to run
+     */
+    public static void run(Runnable update) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            update.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                update.run();
+            }
+        });
+    }
+}
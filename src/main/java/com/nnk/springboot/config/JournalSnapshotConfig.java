@@ -0,0 +1,29 @@
+package com.nnk.springboot.config;
+
+import com.nnk.springboot.services.contracts.IJournalService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Takes a journal snapshot on a fixed delay when {@code app.journal.scheduled-snapshots} is true,
+ * so that a point-in-time replay never reads more than one delay worth of events.
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "app.journal.scheduled-snapshots", havingValue = "true")
+public class JournalSnapshotConfig {
+
+    private final IJournalService journalService;
+
+    public JournalSnapshotConfig(IJournalService journalService) {
+        this.journalService = journalService;
+    }
+
+    @Scheduled(initialDelayString = "${app.journal.snapshot-delay-ms:600000}",
+            fixedDelayString = "${app.journal.snapshot-delay-ms:600000}")
+    public void snapshot() {
+        journalService.snapshot();
+    }
+}
@@ -0,0 +1,29 @@
+package com.nnk.springboot.config;
+
+import com.nnk.springboot.services.contracts.IPnlService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Recomputes the P&L on a fixed delay when {@code app.pnl.scheduled-refresh} is true,
+ * so that reads of {@code /pnl} never wait for a run.
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "app.pnl.scheduled-refresh", havingValue = "true")
+public class PnlRefreshConfig {
+
+    private final IPnlService pnlService;
+
+    public PnlRefreshConfig(IPnlService pnlService) {
+        this.pnlService = pnlService;
+    }
+
+    @Scheduled(initialDelayString = "${app.pnl.refresh-delay-ms:60000}",
+            fixedDelayString = "${app.pnl.refresh-delay-ms:60000}")
+    public void refresh() {
+        pnlService.refresh();
+    }
+}
@@ -0,0 +1,29 @@
+package com.nnk.springboot.config;
+
+import com.nnk.springboot.services.contracts.IRollupService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Writes the completed trade rollup buckets on a fixed delay when {@code app.rollup.scheduled-flush}
+ * is true, so that the rollup table trails the trades by at most one delay.
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "app.rollup.scheduled-flush", havingValue = "true")
+public class RollupFlushConfig {
+
+    private final IRollupService rollupService;
+
+    public RollupFlushConfig(IRollupService rollupService) {
+        this.rollupService = rollupService;
+    }
+
+    @Scheduled(initialDelayString = "${app.rollup.flush-delay-ms:60000}",
+            fixedDelayString = "${app.rollup.flush-delay-ms:60000}")
+    public void flush() {
+        rollupService.flush();
+    }
+}
@@ -4,11 +4,15 @@ import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.servlet.util.matcher.MvcRequestMatcher;
@@ -46,8 +50,9 @@ public class SpringSecurityConfig {
     }
 
     /**
-     * Defines the security filter chain including access control rules,
-     * login, logout behavior, and exception handling.
+     * Defines the security filter chain of the machine APIs: bulk uploads and admin jobs called by
+     * upstream systems. They authenticate with HTTP Basic on every request, hold no session and
+     * carry no CSRF token. This chain is checked before the UI chain.
      *
      * @param http             the HttpSecurity object to configure
      * @param daoAuthProvider  the authentication provider (DAO-based)
@@ -56,6 +61,39 @@ public class SpringSecurityConfig {
      * @throws Exception in case of configuration errors
      */
     @Bean
+    @Order(1)
+    public SecurityFilterChain apiFilterChain(HttpSecurity http, DaoAuthenticationProvider daoAuthProvider,
+                                              MvcRequestMatcher.Builder mvc) throws Exception {
+        return http
+                .securityMatchers(matchers -> matchers
+                        .requestMatchers(mvc.pattern("/bidList/bulk"), mvc.pattern("/curvePoint/bulk"),
+                                mvc.pattern("/admin/trades/import"), mvc.pattern("/admin/trades/archive"),
+                                mvc.pattern("/admin/journal/snapshots"), mvc.pattern("/admin/rollups/backfill"),
+                                mvc.pattern("/admin/reconciliations"))
+                )
+                .authorizeHttpRequests(auth -> auth
+                        .requestMatchers(mvc.pattern("/admin/**")).hasRole("ADMIN")
+                        .anyRequest().authenticated()
+                )
+                .csrf(AbstractHttpConfigurer::disable)
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .httpBasic(Customizer.withDefaults())
+                .authenticationProvider(daoAuthProvider)
+                .build();
+    }
+
+    /**
+     * Defines the security filter chain of the UI, including access control rules,
+     * login, logout behavior, and exception handling. Users sign in with the login form only.
+     *
+     * @param http             the HttpSecurity object to configure
+     * @param daoAuthProvider  the authentication provider (DAO-based)
+     * @param mvc              the MvcRequestMatcher builder
+     * @return a configured SecurityFilterChain
+     * @throws Exception in case of configuration errors
+     */
+    @Bean
+    @Order(2)
     public SecurityFilterChain filterChain(HttpSecurity http, DaoAuthenticationProvider daoAuthProvider,
                                            MvcRequestMatcher.Builder mvc) throws Exception {
         return http
@@ -66,6 +104,7 @@ public class SpringSecurityConfig {
                         .requestMatchers("/app/error").permitAll()
                         .requestMatchers(mvc.pattern("/user")).hasRole("ADMIN")
                         .requestMatchers(mvc.pattern("/user/**")).hasRole("ADMIN")
+                        .requestMatchers(mvc.pattern("/admin/**")).hasRole("ADMIN")
                         .anyRequest().authenticated()
                 )
                 // Configure custom login page
@@ -0,0 +1,28 @@
+package com.nnk.springboot.config;
+
+import com.nnk.springboot.services.contracts.ITradeArchiveService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Runs the trade archival job on the {@code app.trade-archive.cron} schedule
+ * when {@code app.trade-archive.scheduled} is true.
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "app.trade-archive.scheduled", havingValue = "true")
+public class TradeArchiveConfig {
+
+    private final ITradeArchiveService tradeArchiveService;
+
+    public TradeArchiveConfig(ITradeArchiveService tradeArchiveService) {
+        this.tradeArchiveService = tradeArchiveService;
+    }
+
+    @Scheduled(cron = "${app.trade-archive.cron:0 30 2 * * *}")
+    public void archive() {
+        tradeArchiveService.archive();
+    }
+}
@@ -0,0 +1,42 @@
+package com.nnk.springboot.config;
+
+import com.nnk.springboot.dto.TradeImportProgress;
+import com.nnk.springboot.services.contracts.ITradeImportService;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+
+/**
+ * Imports the trade files named on the command line with {@code --import-trades=<path>},
+ * once the application has started. The option may be repeated; files are imported in order.
+ */
+@Component
+public class TradeImportRunner implements ApplicationRunner {
+
+    private static final Logger logger = LogManager.getLogger(TradeImportRunner.class);
+
+    static final String OPTION = "import-trades";
+
+    private final ITradeImportService tradeImportService;
+
+    public TradeImportRunner(ITradeImportService tradeImportService) {
+        this.tradeImportService = tradeImportService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        if (!args.containsOption(OPTION)) {
+            return;
+        }
+        for (String file : args.getOptionValues(OPTION)) {
+            TradeImportProgress progress = tradeImportService.importFile(Path.of(file));
+            logger.info("Trade import of {} {}: {} rows imported, {} rejected, {} rows/s", file,
+                    progress.getState(), progress.getRowsImported(), progress.getRowsRejected(),
+                    progress.getRowsPerSecond());
+        }
+    }
+}
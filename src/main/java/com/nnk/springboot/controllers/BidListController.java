@@ -1,17 +1,39 @@
 package com.nnk.springboot.controllers;
 
+import com.nnk.springboot.dto.BidListSortKey;
+import com.nnk.springboot.dto.BidListSummary;
+import com.nnk.springboot.dto.BulkIngestResult;
+import com.nnk.springboot.dto.DealFilter;
+import com.nnk.springboot.exception.ConcurrentUpdateConflictException;
+import com.nnk.springboot.exception.DuplicateSourceListIdException;
+import com.nnk.springboot.export.ExportFormat;
+import com.nnk.springboot.ingest.BidListCsvReader;
 import com.nnk.springboot.model.BidList;
 import com.nnk.springboot.services.contracts.IBidListService;
+import com.nnk.springboot.services.contracts.IWriteBehindService;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Controller for handling BidList CRUD operations.
  */
@@ -24,19 +46,67 @@ public class BidListController {
     @Autowired
     private IBidListService iBidListService;
 
+    @Autowired
+    private IWriteBehindService iWriteBehindService;
+
+    @Autowired
+    private Validator validator;
+
     /**
-     * Displays the list of all bid lists.
+     * Displays one keyset-paginated page of bid lists, narrowed by the filter form.
      *
-     * @param model Spring MVC model
+     * @param filter   the filters, kept in the model to refill the form and links
+     * @param sort     the sort key
+     * @param dir      the sort direction
+     * @param size     the page size, or null for the configured default
+     * @param afterId  id of the last bid list of the previous page
+     * @param afterKey sort key value of that bid list
+     * @param model    Spring MVC model
      * @return view name for bid list
      */
     @RequestMapping("/bidList/list")
-    public String home(Model model) {
-        model.addAttribute("bidLists", iBidListService.getAllBidLists());
-        logger.info("Displaying list of bid lists");
+    public String home(@ModelAttribute("filter") DealFilter filter,
+                       @RequestParam(value = "sort", defaultValue = "ID") BidListSortKey sort,
+                       @RequestParam(value = "dir", defaultValue = "ASC") Sort.Direction dir,
+                       @RequestParam(value = "size", required = false) Integer size,
+                       @RequestParam(value = "afterId", required = false) Integer afterId,
+                       @RequestParam(value = "afterKey", required = false) String afterKey,
+                       Model model) {
+        Window<BidListSummary> window = iBidListService.getBidListWindow(filter, sort, dir, size, afterId, afterKey);
+
+        model.addAttribute("bidLists", window.getContent());
+        model.addAttribute("sort", sort);
+        model.addAttribute("dir", dir);
+        model.addAttribute("size", size);
+        model.addAttribute("hasNext", window.hasNext());
+        if (!window.isEmpty()) {
+            BidListSummary last = window.getContent().get(window.size() - 1);
+            model.addAttribute("nextAfterId", last.getBidListId());
+            model.addAttribute("nextAfterKey", sort.cursorValue(last));
+        }
+        logger.info("Displaying page of bid lists: sort={}, dir={}, afterId={}, rows={}",
+                sort, dir, afterId, window.size());
         return "bidList/list";
     }
 
+    /**
+     * Streams the whole bid list table as a CSV or NDJSON download.
+     *
+     * @param format   the export format
+     * @param response the HTTP response the rows are written to
+     * @throws IOException if writing the response fails
+     */
+    @GetMapping("/bidList/export")
+    public void exportBidLists(@RequestParam(value = "format", defaultValue = "CSV") ExportFormat format,
+                               HttpServletResponse response) throws IOException {
+        response.setContentType(format.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"bidlist." + format.getExtension() + "\"");
+
+        long rows = iBidListService.exportBidLists(response.getOutputStream(), format);
+        logger.info("BidList export completed: format={}, rows={}", format, rows);
+    }
+
     /**
      * Shows the form to add a new bid.
      *
@@ -63,11 +133,73 @@ public class BidListController {
             return "bidList/add";
         }
 
-        iBidListService.saveBidList(bid);
+        try {
+            if (iWriteBehindService.isEnabled()) {
+                long offset = iWriteBehindService.submit(bid);
+                logger.info("BidList queued for write-behind at offset {}", offset);
+            } else {
+                iBidListService.saveBidList(bid);
+            }
+        } catch (DuplicateSourceListIdException e) {
+            logger.warn("BidList rejected: {}", e.getMessage());
+            result.reject("duplicate", "A bid list with source list id " + e.getSourceListId() + " already exists.");
+            return "bidList/add";
+        }
         logger.info("BidList created: account={}, type={}, quantity={}", bid.getAccount(), bid.getType(), bid.getBidQuantity());
         return REDIRECT_BIDLIST_LIST;
     }
 
+    /**
+     * Ingests a batch of bid lists sent as a JSON array.
+     *
+     * @param bidLists the bid lists to save
+     * @return the ingestion result, with HTTP 400 if any bid list is invalid
+     */
+    @PostMapping(value = "/bidList/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public ResponseEntity<BulkIngestResult> bulkIngestJson(@RequestBody List<BidList> bidLists) {
+        return bulkIngest(bidLists);
+    }
+
+    /**
+     * Ingests a batch of bid lists sent as CSV, with a header line naming the columns.
+     *
+     * @param body the CSV request body
+     * @return the ingestion result, with HTTP 400 if the CSV or any bid list is invalid
+     * @throws IOException if reading the request body fails
+     */
+    @PostMapping(value = "/bidList/bulk", consumes = "text/csv")
+    @ResponseBody
+    public ResponseEntity<BulkIngestResult> bulkIngestCsv(Reader body) throws IOException {
+        List<BidList> bidLists;
+        try {
+            bidLists = BidListCsvReader.read(body);
+        } catch (IllegalArgumentException e) {
+            logger.warn("BidList bulk CSV rejected: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(new BulkIngestResult(0, 0, 0, List.of(e.getMessage())));
+        }
+        return bulkIngest(bidLists);
+    }
+
+    private ResponseEntity<BulkIngestResult> bulkIngest(List<BidList> bidLists) {
+        List<String> errors = new ArrayList<>();
+        for (int i = 0; i < bidLists.size(); i++) {
+            for (ConstraintViolation<BidList> violation : validator.validate(bidLists.get(i))) {
+                errors.add("Row " + (i + 1) + ": " + violation.getPropertyPath() + " " + violation.getMessage());
+            }
+        }
+        if (!errors.isEmpty()) {
+            logger.warn("BidList bulk ingestion rejected: {} rows, {} errors", bidLists.size(), errors.size());
+            return ResponseEntity.badRequest().body(new BulkIngestResult(bidLists.size(), 0, 0, errors));
+        }
+
+        long start = System.nanoTime();
+        int saved = iBidListService.saveBidLists(bidLists);
+        logger.info("BidList bulk ingestion completed: rows={}, duplicates={}, elapsedMs={}",
+                saved, bidLists.size() - saved, (System.nanoTime() - start) / 1_000_000);
+        return ResponseEntity.ok(new BulkIngestResult(bidLists.size(), saved, bidLists.size() - saved, List.of()));
+    }
+
     /**
      * Shows the update form for a given bid list.
      *
@@ -84,16 +216,25 @@ public class BidListController {
                 });
 
         model.addAttribute("bidList", bidList);
+        model.addAttribute("base", bidList);
         logger.info("Displaying update form for bidList ID: {}", id);
         return "bidList/update";
     }
 
     /**
      * Updates an existing bid list.
+     * <p>
+     * The form posts the version it was loaded at and the values it started from, so that an
+     * edit racing with another user's is merged rather than lost. A field both users changed
+     * sends the form back with the latest values as its new starting point.
+     * </p>
      *
      * @param id bid list ID
      * @param bidList updated data
      * @param result validation result
+     * @param baseAccount account shown when the form was loaded
+     * @param baseType type shown when the form was loaded
+     * @param baseBidQuantity bid quantity shown when the form was loaded
      * @param model Spring MVC model
      * @return redirect or update view if errors
      */
@@ -101,25 +242,36 @@ public class BidListController {
     public String updateBid(@PathVariable("id") Integer id,
                             @Valid @ModelAttribute("bidList") BidList bidList,
                             BindingResult result,
+                            @RequestParam(value = "baseAccount", required = false) String baseAccount,
+                            @RequestParam(value = "baseType", required = false) String baseType,
+                            @RequestParam(value = "baseBidQuantity", required = false) Double baseBidQuantity,
                             Model model) {
+        BidList base = null;
+        if (baseAccount != null || baseType != null || baseBidQuantity != null) {
+            base = new BidList(baseAccount, baseType, baseBidQuantity);
+        }
+        model.addAttribute("base", base != null ? base : bidList);
         if (result.hasErrors()) {
             logger.warn("BidList update failed for ID {}: {}", id, result.getAllErrors());
             return "bidList/update";
         }
 
-        // On récupère l'objet existant
-        BidList existingBid = iBidListService.findBidListById(id)
-                .orElseThrow(() -> {
-                    logger.error("Invalid BidList ID during update: {}", id);
-                    return new IllegalArgumentException("Invalid BidList ID: " + id);
-                });
-
-        // Mise à jour des champs autorisés
-        existingBid.setAccount(bidList.getAccount());
-        existingBid.setType(bidList.getType());
-        existingBid.setBidQuantity(bidList.getBidQuantity());
-
-        iBidListService.saveBidList(existingBid);
+        // Mise à jour des champs autorisés, sans relire l'objet existant
+        try {
+            if (!iBidListService.updateBidList(id, bidList, base)) {
+                logger.error("Invalid BidList ID during update: {}", id);
+                throw new IllegalArgumentException("Invalid BidList ID: " + id);
+            }
+        } catch (ConcurrentUpdateConflictException e) {
+            logger.warn("BidList update conflict for ID {} on {}", id, e.getConflictingFields());
+            BidList current = iBidListService.findBidListById(id)
+                    .orElseThrow(() -> new IllegalArgumentException("Invalid BidList ID: " + id));
+            bidList.setVersion(current.getVersion());
+            model.addAttribute("base", current);
+            result.reject("conflict", "This bid list was changed by another user meanwhile "
+                    + e.getConflictingFields() + ". Check the current values and submit again.");
+            return "bidList/update";
+        }
         logger.info("BidList updated: ID={}, account={}, type={}, quantity={}",
                 id, bidList.getAccount(), bidList.getType(), bidList.getBidQuantity());
 
@@ -135,17 +287,12 @@ public class BidListController {
      */
     @GetMapping("/bidList/delete/{id}")
     public String deleteBid(@PathVariable("id") Integer id, Model model) {
-        BidList existingBid = iBidListService.findBidListById(id)
-                .orElseThrow(() -> {
-                    logger.error("Invalid BidList ID for deletion: {}", id);
-                    return new IllegalArgumentException("Invalid BidList ID: " + id);
-                });
-
-        iBidListService.deleteBidListById(existingBid.getBidListId());
-        logger.info("BidList deleted: ID={}, account={}, type={}",
-                existingBid.getBidListId(), existingBid.getAccount(), existingBid.getType());
+        if (!iBidListService.deleteBidListById(id)) {
+            logger.error("Invalid BidList ID for deletion: {}", id);
+            throw new IllegalArgumentException("Invalid BidList ID: " + id);
+        }
+        logger.info("BidList deleted: ID={}", id);
 
-        model.addAttribute("bidLists", iBidListService.getAllBidLists());
         return REDIRECT_BIDLIST_LIST;
     }
 
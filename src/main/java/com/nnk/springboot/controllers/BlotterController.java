@@ -0,0 +1,91 @@
+package com.nnk.springboot.controllers;
+
+import com.nnk.springboot.dto.BlotterPage;
+import com.nnk.springboot.export.ExportFormat;
+import com.nnk.springboot.services.contracts.IBlotterService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+/**
+ * Controller exposing the trade blotter: the trades of a book over a time range.
+ */
+@RestController
+public class BlotterController {
+
+    private static final Logger logger = LogManager.getLogger(BlotterController.class);
+
+    @Autowired
+    private IBlotterService iBlotterService;
+
+    /**
+     * Returns one keyset-paginated page of the trades of a book in {@code [from, to)}.
+     *
+     * @param book      the book
+     * @param from      the start of the range, inclusive
+     * @param to        the end of the range, exclusive
+     * @param afterDate trade date of the last row of the previous page
+     * @param afterId   trade id of that row
+     * @param limit     the page size, capped at 1000
+     * @return the page and the cursor of the next one
+     */
+    @GetMapping("/blotter/{book}")
+    public BlotterPage page(@PathVariable("book") String book,
+                            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                            @RequestParam(value = "afterDate", required = false)
+                            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterDate,
+                            @RequestParam(value = "afterId", required = false) Integer afterId,
+                            @RequestParam(value = "limit", required = false) Integer limit) {
+        return iBlotterService.getPage(book, from, to, afterDate, afterId, limit);
+    }
+
+    /**
+     * Returns the trades of a book committed since the given cursor, in commit order, for live views.
+     *
+     * @param book     the book
+     * @param afterSeq commit sequence of the last row already seen
+     * @param afterId  trade id of that row
+     * @param limit    the maximum number of trades, capped at 1000
+     * @return the new trades and the cursor to tail from next
+     */
+    @GetMapping("/blotter/{book}/tail")
+    public BlotterPage tail(@PathVariable("book") String book,
+                            @RequestParam(value = "afterSeq", required = false) Long afterSeq,
+                            @RequestParam(value = "afterId", required = false) Integer afterId,
+                            @RequestParam(value = "limit", required = false) Integer limit) {
+        return iBlotterService.tail(book, afterSeq, afterId, limit);
+    }
+
+    /**
+     * Streams every trade of a book in {@code [from, to)} as NDJSON or CSV, without paging.
+     *
+     * @param book     the book
+     * @param from     the start of the range, inclusive
+     * @param to       the end of the range, exclusive
+     * @param format   the output format
+     * @param response the HTTP response the rows are written to
+     * @throws IOException if writing the response fails
+     */
+    @GetMapping("/blotter/{book}/stream")
+    public void stream(@PathVariable("book") String book,
+                       @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                       @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                       @RequestParam(value = "format", defaultValue = "NDJSON") ExportFormat format,
+                       HttpServletResponse response) throws IOException {
+        response.setContentType(format.getContentType());
+        response.setCharacterEncoding("UTF-8");
+
+        long rows = iBlotterService.stream(book, from, to, response.getOutputStream(), format);
+        logger.info("Blotter streamed: book={}, from={}, to={}, rows={}", book, from, to, rows);
+    }
+}
@@ -1,5 +1,8 @@
 package com.nnk.springboot.controllers;
 
+import com.nnk.springboot.dto.CurvePointFilter;
+import com.nnk.springboot.dto.CurveUpload;
+import com.nnk.springboot.dto.CurveUploadResult;
 import com.nnk.springboot.model.CurvePoint;
 import com.nnk.springboot.services.contracts.ICurvePointService;
 import jakarta.servlet.http.HttpServletRequest;
@@ -7,6 +10,9 @@ import jakarta.validation.Valid;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
@@ -25,14 +31,22 @@ public class CurveController {
     private ICurvePointService iCurvePointService;
 
     /**
-     * Displays the list of all curve points.
+     * Displays the list of curve points, filtered and sorted in the database.
      *
-     * @param model Spring MVC model
+     * @param filter the filters, kept in the model to refill the form and links
+     * @param sort   the property to sort on
+     * @param dir    the sort direction
+     * @param model  Spring MVC model
      * @return view name for curvePoint list
      */
     @RequestMapping("/curvePoint/list")
-    public String listCurvePoints(Model model) {
-        model.addAttribute("curvePoints", iCurvePointService.getAllCurvePoints());
+    public String listCurvePoints(@ModelAttribute("filter") CurvePointFilter filter,
+                                  @RequestParam(value = "sort", required = false) String sort,
+                                  @RequestParam(value = "dir", defaultValue = "ASC") Sort.Direction dir,
+                                  Model model) {
+        model.addAttribute("curvePoints", iCurvePointService.getCurvePointSummaries(filter, sort, dir));
+        model.addAttribute("sort", sort);
+        model.addAttribute("dir", dir);
         logger.info("Displaying curve point list");
         return "curvePoint/list";
     }
@@ -70,6 +84,28 @@ public class CurveController {
         return REDIRECT_CURVEPOINT_LIST;
     }
 
+    /**
+     * Replaces a whole curve by the points of an upload, in one transaction.
+     *
+     * @param upload the curve id, as-of date and the terms and values of its points
+     * @return the upload result, with HTTP 400 and the reason if the upload is invalid
+     */
+    @PostMapping(value = "/curvePoint/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public ResponseEntity<?> replaceCurve(@RequestBody CurveUpload upload) {
+        try {
+            long start = System.nanoTime();
+            CurveUploadResult uploaded = iCurvePointService.replaceCurve(upload);
+            logger.info("Curve replaced: curveId={}, asOfDate={}, replaced={}, saved={}, elapsedMs={}",
+                    uploaded.getCurveId(), uploaded.getAsOfDate(), uploaded.getReplaced(), uploaded.getSaved(),
+                    (System.nanoTime() - start) / 1_000_000);
+            return ResponseEntity.ok(uploaded);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Curve upload rejected: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     /**
      * Displays the update form for an existing curve point.
      *
@@ -107,17 +143,11 @@ public class CurveController {
             return "curvePoint/update";
         }
 
-        CurvePoint existingCurvePoint = iCurvePointService.findCurvePointById(id)
-                .orElseThrow(() -> {
-                    logger.error("Invalid curvePoint ID during update: {}", id);
-                    return new IllegalArgumentException("Invalid curvePoint ID: " + id);
-                });
-
         // Mise à jour des champs autorisés
-        existingCurvePoint.setTerm(curvePoint.getTerm());
-        existingCurvePoint.setValue(curvePoint.getValue());
-
-        iCurvePointService.saveCurvePoint(existingCurvePoint);
+        if (!iCurvePointService.updateCurvePoint(id, curvePoint)) {
+            logger.error("Invalid curvePoint ID during update: {}", id);
+            throw new IllegalArgumentException("Invalid curvePoint ID: " + id);
+        }
         logger.info("Curve point updated: ID={}, term={}, value={}", id, curvePoint.getTerm(), curvePoint.getValue());
 
         return REDIRECT_CURVEPOINT_LIST;
@@ -132,14 +162,11 @@ public class CurveController {
      */
     @GetMapping("/curvePoint/delete/{id}")
     public String deleteCurvePoint(@PathVariable("id") Integer id, Model model) {
-        CurvePoint existingCurvePoint = iCurvePointService.findCurvePointById(id)
-                .orElseThrow(() -> {
-                    logger.error("Invalid curvePoint ID for deletion: {}", id);
-                    return new IllegalArgumentException("Invalid curvePoint ID: " + id);
-                });
-
-        iCurvePointService.deleteCurvePointById(existingCurvePoint.getId());
-        logger.info("Curve point deleted: ID={}, term={}, value={}", id, existingCurvePoint.getTerm(), existingCurvePoint.getValue());
+        if (!iCurvePointService.deleteCurvePointById(id)) {
+            logger.error("Invalid curvePoint ID for deletion: {}", id);
+            throw new IllegalArgumentException("Invalid curvePoint ID: " + id);
+        }
+        logger.info("Curve point deleted: ID={}", id);
 
         return REDIRECT_CURVEPOINT_LIST;
     }
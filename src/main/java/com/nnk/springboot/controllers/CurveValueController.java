@@ -0,0 +1,171 @@
+package com.nnk.springboot.controllers;
+
+import com.nnk.springboot.curve.BootstrappedCurve;
+import com.nnk.springboot.curve.Interpolation;
+import com.nnk.springboot.dto.ChartSeries;
+import com.nnk.springboot.dto.CurveSnapshot;
+import com.nnk.springboot.services.contracts.IChartService;
+import com.nnk.springboot.services.contracts.ICurveBootstrapService;
+import com.nnk.springboot.services.contracts.ICurveHistoryService;
+import com.nnk.springboot.services.contracts.ICurveService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Controller evaluating the curves built from the curve points, bootstrapping them, rebuilding
+ * past curves and serving their chart data.
+ */
+@RestController
+public class CurveValueController {
+
+    @Autowired
+    private ICurveService iCurveService;
+
+    @Autowired
+    private ICurveHistoryService iCurveHistoryService;
+
+    @Autowired
+    private ICurveBootstrapService iCurveBootstrapService;
+
+    @Autowired
+    private IChartService iChartService;
+
+    /**
+     * Evaluates a curve at the given terms.
+     *
+     * @param curveId       the curve id
+     * @param asOfDate      the as-of date of the curve points; omitted for the points without one
+     * @param terms         the terms to evaluate the curve at
+     * @param interpolation how to interpolate between two points
+     * @return the value at each term, in the order of the terms, with HTTP 400 if the curve has no
+     * point or cannot be interpolated that way
+     */
+    @GetMapping("/curves/{curveId}/values")
+    public ResponseEntity<?> values(@PathVariable("curveId") Integer curveId,
+                                    @RequestParam(value = "asOfDate", required = false)
+                                    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOfDate,
+                                    @RequestParam("term") double[] terms,
+                                    @RequestParam(value = "interpolation", defaultValue = "LINEAR")
+                                    Interpolation interpolation) {
+        try {
+            return ResponseEntity.ok(iCurveService.interpolate(curveId, asOfDate, terms, interpolation));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Returns a curve as it stood at a valid time, as known at a system time.
+     *
+     * @param curveId the curve id
+     * @param validAt the valid time; the latest as-of date up to it is used, the latest one if omitted
+     * @param knownAt the system time; now if omitted
+     * @return the snapshot, or 404 if the curve had no point then
+     */
+    @GetMapping("/curves/{curveId}/snapshot")
+    public ResponseEntity<CurveSnapshot> snapshot(@PathVariable("curveId") Integer curveId,
+                                                  @RequestParam(value = "validAt", required = false)
+                                                  @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                  LocalDateTime validAt,
+                                                  @RequestParam(value = "knownAt", required = false)
+                                                  @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                  LocalDateTime knownAt) {
+        return ResponseEntity.of(iCurveHistoryService.getSnapshot(curveId, validAt, knownAt));
+    }
+
+    /**
+     * Bootstraps the discount factors and forward rates of a curve of par rates.
+     *
+     * @param curveId  the curve id
+     * @param asOfDate the as-of date of the curve points; omitted for the points without one
+     * @return the bootstrapped curve, 404 if the curve has no point, or 400 if it cannot be bootstrapped
+     */
+    @GetMapping("/curves/{curveId}/bootstrap")
+    public ResponseEntity<?> bootstrap(@PathVariable("curveId") Integer curveId,
+                                       @RequestParam(value = "asOfDate", required = false)
+                                       @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOfDate) {
+        try {
+            return ResponseEntity.of(iCurveBootstrapService.bootstrap(curveId, asOfDate));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Bootstraps many curves of one as-of date concurrently.
+     *
+     * @param curveIds the curve ids
+     * @param asOfDate the as-of date of the curve points; omitted for the points without one
+     * @return the bootstrapped curves in the order of the ids, leaving out the curves without a point,
+     * or 400 if one cannot be bootstrapped
+     */
+    @GetMapping("/curves/bootstrap")
+    public ResponseEntity<?> bootstrapAll(@RequestParam("curveId") List<Integer> curveIds,
+                                          @RequestParam(value = "asOfDate", required = false)
+                                          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                          LocalDateTime asOfDate) {
+        try {
+            List<BootstrappedCurve> curves = iCurveBootstrapService.bootstrapAll(curveIds, asOfDate);
+            return ResponseEntity.ok(curves);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the chart data of a curve, downsampled to a point budget.
+     *
+     * @param curveId  the curve id
+     * @param asOfDate the as-of date of the curve points; omitted for the points without one
+     * @param points   the most points to return
+     * @return the term and value of each point kept, 404 if the curve has no point, or 400 if the
+     * budget is out of range
+     */
+    @GetMapping("/curves/{curveId}/chart")
+    public ResponseEntity<?> chart(@PathVariable("curveId") Integer curveId,
+                                   @RequestParam(value = "asOfDate", required = false)
+                                   @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOfDate,
+                                   @RequestParam(value = "points", defaultValue = "500") int points) {
+        try {
+            return ResponseEntity.of(iChartService.getCurveChart(curveId, asOfDate, points));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the chart data of the value of one term of a curve over its as-of dates, downsampled
+     * to a point budget.
+     *
+     * @param curveId the curve id
+     * @param term    the term
+     * @param from    the first as-of date; omitted from the first one
+     * @param to      the last as-of date; omitted up to the last one
+     * @param points  the most points to return
+     * @return the as-of date in epoch milliseconds and value of each point kept, or 400 if the budget
+     * is out of range
+     */
+    @GetMapping("/curves/{curveId}/history-chart")
+    public ResponseEntity<?> historyChart(@PathVariable("curveId") Integer curveId,
+                                          @RequestParam("term") double term,
+                                          @RequestParam(value = "from", required = false)
+                                          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                          @RequestParam(value = "to", required = false)
+                                          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                          @RequestParam(value = "points", defaultValue = "500") int points) {
+        try {
+            ChartSeries chart = iChartService.getHistoryChart(curveId, term, from, to, points);
+            return ResponseEntity.ok(chart);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+}
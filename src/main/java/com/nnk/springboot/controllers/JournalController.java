@@ -0,0 +1,70 @@
+package com.nnk.springboot.controllers;
+
+import com.nnk.springboot.dto.JournalSnapshotResult;
+import com.nnk.springboot.journal.JournalEntity;
+import com.nnk.springboot.journal.JournalEvent;
+import com.nnk.springboot.services.contracts.IJournalService;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Admin controller reading the change history of trades and bids back from the event journal.
+ */
+@RestController
+public class JournalController {
+
+    private static final Logger logger = LogManager.getLogger(JournalController.class);
+
+    @Autowired
+    private IJournalService iJournalService;
+
+    /**
+     * Returns every journaled change of an entity, oldest first.
+     *
+     * @param entity the entity type, TRADE or BID_LIST
+     * @param id     the entity id
+     * @return the events of the entity
+     */
+    @GetMapping("/admin/journal/{entity}/{id}")
+    public List<JournalEvent> history(@PathVariable JournalEntity entity, @PathVariable Integer id) {
+        return iJournalService.getHistory(entity, id);
+    }
+
+    /**
+     * Returns the fields of an entity as they stood at a point in time.
+     *
+     * @param entity the entity type, TRADE or BID_LIST
+     * @param id     the entity id
+     * @param at     the point in time, as an ISO local date-time
+     * @return the fields of the entity, or 404 if it did not exist then
+     */
+    @GetMapping("/admin/journal/{entity}/{id}/as-of")
+    public ResponseEntity<Map<String, Object>> asOf(@PathVariable JournalEntity entity, @PathVariable Integer id,
+                                                    @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                    LocalDateTime at) {
+        return ResponseEntity.of(iJournalService.getStateAsOf(entity, id, at));
+    }
+
+    /**
+     * Takes a journal snapshot now.
+     *
+     * @return the sequence and size of the snapshot
+     */
+    @PostMapping("/admin/journal/snapshots")
+    public JournalSnapshotResult snapshot() {
+        logger.info("Journal snapshot requested");
+        return iJournalService.snapshot();
+    }
+}
@@ -0,0 +1,62 @@
+package com.nnk.springboot.controllers;
+
+import com.nnk.springboot.orderbook.OrderBookDepth;
+import com.nnk.springboot.orderbook.TopOfBook;
+import com.nnk.springboot.orderbook.TopOfBookStats;
+import com.nnk.springboot.services.contracts.IOrderBookService;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Controller exposing the in-memory order books built from bid lists.
+ */
+@RestController
+public class OrderBookController {
+
+    private static final Logger logger = LogManager.getLogger(OrderBookController.class);
+    private static final int MAX_DEPTH = 100;
+
+    @Autowired
+    private IOrderBookService iOrderBookService;
+
+    /**
+     * Returns the best bid and ask levels of a security, read from memory.
+     *
+     * @param security the security
+     * @param depth    the number of levels per side, capped at 100
+     * @return the bids by descending price and the asks by ascending price
+     */
+    @GetMapping("/orderBook/{security}")
+    public OrderBookDepth depth(@PathVariable("security") String security,
+                                @RequestParam(value = "depth", defaultValue = "10") int depth) {
+        logger.debug("Fetching order book depth {} for security {}", depth, security);
+        return iOrderBookService.getDepth(security, Math.max(1, Math.min(depth, MAX_DEPTH)));
+    }
+
+    /**
+     * Returns the best bid and ask of a security from the top-of-book cache.
+     *
+     * @param security the security
+     * @return the best bid and ask, or 404 if the security has no quote
+     */
+    @GetMapping("/orderBook/{security}/top")
+    public ResponseEntity<TopOfBook> top(@PathVariable("security") String security) {
+        return ResponseEntity.of(iOrderBookService.getTopOfBook(security));
+    }
+
+    /**
+     * Returns the hit, miss and rebuild counters of the top-of-book cache.
+     *
+     * @return the cache counters
+     */
+    @GetMapping("/orderBook/cache/stats")
+    public TopOfBookStats stats() {
+        return iOrderBookService.getTopOfBookStats();
+    }
+}
@@ -0,0 +1,57 @@
+package com.nnk.springboot.controllers;
+
+import com.nnk.springboot.pnl.PnlReport;
+import com.nnk.springboot.pnl.TradePnl;
+import com.nnk.springboot.services.contracts.IPnlService;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Controller exposing the realized and unrealized P&L of trades.
+ */
+@RestController
+public class PnlController {
+
+    private static final Logger logger = LogManager.getLogger(PnlController.class);
+
+    @Autowired
+    private IPnlService iPnlService;
+
+    /**
+     * Returns the P&L of every book from the last run.
+     *
+     * @return the per-book P&L and their totals
+     */
+    @GetMapping("/pnl")
+    public PnlReport report() {
+        return iPnlService.getReport();
+    }
+
+    /**
+     * Recomputes the P&L of every book against the current mark prices.
+     *
+     * @return the new per-book P&L and their totals
+     */
+    @PostMapping("/pnl/refresh")
+    public PnlReport refresh() {
+        logger.info("P&L refresh requested");
+        return iPnlService.refresh();
+    }
+
+    /**
+     * Returns the P&L of one trade against the current mark price of its security.
+     *
+     * @param id the trade id
+     * @return the trade P&L, or 404 if the trade does not exist
+     */
+    @GetMapping("/pnl/trades/{id}")
+    public ResponseEntity<TradePnl> trade(@PathVariable("id") Integer id) {
+        return ResponseEntity.of(iPnlService.getTradePnl(id));
+    }
+}
@@ -0,0 +1,52 @@
+package com.nnk.springboot.controllers;
+
+import com.nnk.springboot.position.Position;
+import com.nnk.springboot.services.contracts.IPositionService;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Controller exposing the in-memory net positions aggregated from trades.
+ */
+@RestController
+public class PositionController {
+
+    private static final Logger logger = LogManager.getLogger(PositionController.class);
+
+    @Autowired
+    private IPositionService iPositionService;
+
+    /**
+     * Returns the net positions of an account, or of every account, read from memory.
+     *
+     * @param account the account, or absent for every account
+     * @return the positions ordered by account, book and security
+     */
+    @GetMapping("/positions")
+    public List<Position> positions(@RequestParam(value = "account", required = false) String account) {
+        logger.debug("Fetching positions for account {}", account);
+        return iPositionService.getPositions(account);
+    }
+
+    /**
+     * Returns the net position of one (account, book, security), read from memory.
+     *
+     * @param account  the account
+     * @param book     the book, or absent for trades without one
+     * @param security the security, or absent for trades without one
+     * @return the position, or 404 if no trade is booked on that key
+     */
+    @GetMapping("/positions/position")
+    public ResponseEntity<Position> position(@RequestParam("account") String account,
+                                             @RequestParam(value = "book", required = false) String book,
+                                             @RequestParam(value = "security", required = false) String security) {
+        return ResponseEntity.of(iPositionService.getPosition(account, book, security));
+    }
+}
@@ -7,6 +7,7 @@ import jakarta.validation.Valid;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
@@ -26,14 +27,20 @@ public class RatingController {
     private IRatingService iRatingService;
 
     /**
-     * Displays the list of all ratings.
+     * Displays the list of ratings, sorted in the database.
      *
+     * @param sort  the property to sort on
+     * @param dir   the sort direction
      * @param model Spring MVC model
      * @return view name for the rating list
      */
     @RequestMapping("/rating/list")
-    public String listRatings(Model model) {
-        model.addAttribute("ratings", iRatingService.getAllRatings());
+    public String listRatings(@RequestParam(value = "sort", required = false) String sort,
+                              @RequestParam(value = "dir", defaultValue = "ASC") Sort.Direction dir,
+                              Model model) {
+        model.addAttribute("ratings", iRatingService.getRatingSummaries(sort, dir));
+        model.addAttribute("sort", sort);
+        model.addAttribute("dir", dir);
         logger.info("Displaying rating list");
         return "rating/list";
     }
@@ -110,19 +117,11 @@ public class RatingController {
             return "rating/update";
         }
 
-        // Retrieve and update the existing rating
-        Rating existingRating = iRatingService.findRatingById(id)
-                .orElseThrow(() -> {
-                    logger.error("Invalid rating ID during update: {}", id);
-                    return new IllegalArgumentException("Invalid rating ID: " + id);
-                });
-
-        existingRating.setMoodysRating(rating.getMoodysRating());
-        existingRating.setSandPRating(rating.getSandPRating());
-        existingRating.setFitchRating(rating.getFitchRating());
-        existingRating.setOrderNumber(rating.getOrderNumber());
-
-        iRatingService.saveRating(existingRating);
+        // Update the existing rating in place
+        if (!iRatingService.updateRating(id, rating)) {
+            logger.error("Invalid rating ID during update: {}", id);
+            throw new IllegalArgumentException("Invalid rating ID: " + id);
+        }
         logger.info("Rating updated: ID={}, Moody's={}, S&P={}, Fitch={}, Order={}",
                 id, rating.getMoodysRating(), rating.getSandPRating(),
                 rating.getFitchRating(), rating.getOrderNumber());
@@ -139,16 +138,11 @@ public class RatingController {
      */
     @GetMapping("/rating/delete/{id}")
     public String deleteRating(@PathVariable("id") Integer id, Model model) {
-        Rating existingRating = iRatingService.findRatingById(id)
-                .orElseThrow(() -> {
-                    logger.error("Invalid rating ID for deletion: {}", id);
-                    return new IllegalArgumentException("Invalid rating ID: " + id);
-                });
-
-        iRatingService.deleteRatingById(existingRating.getId());
-        logger.info("Rating deleted: ID={}, Moody's={}, S&P={}, Fitch={}",
-                id, existingRating.getMoodysRating(), existingRating.getSandPRating(),
-                existingRating.getFitchRating());
+        if (!iRatingService.deleteRatingById(id)) {
+            logger.error("Invalid rating ID for deletion: {}", id);
+            throw new IllegalArgumentException("Invalid rating ID: " + id);
+        }
+        logger.info("Rating deleted: ID={}", id);
 
         return REDIRECT_RATING_LIST;
     }
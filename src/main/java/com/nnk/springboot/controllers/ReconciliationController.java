@@ -0,0 +1,77 @@
+package com.nnk.springboot.controllers;
+
+import com.nnk.springboot.dto.ReconciliationResult;
+import com.nnk.springboot.recon.ReconField;
+import com.nnk.springboot.services.contracts.IReconciliationService;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Admin controller running the BidList-to-Trade reconciliation and serving its breaks.
+ */
+@RestController
+public class ReconciliationController {
+
+    private static final Logger logger = LogManager.getLogger(ReconciliationController.class);
+
+    @Autowired
+    private IReconciliationService iReconciliationService;
+
+    /**
+     * Reconciles the BidLists and Trades of a day.
+     *
+     * @param date the day to reconcile
+     * @param keys the columns to match on, comma-separated
+     * @return the counts and the first breaks, with HTTP 400 if no key is given
+     */
+    @PostMapping("/admin/reconciliations")
+    public ResponseEntity<?> reconcile(
+            @RequestParam("date") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(value = "keys", defaultValue = "DEAL_NAME,SOURCE_LIST_ID") List<ReconField> keys) {
+        logger.info("Reconciliation requested for {} on {}", date, keys);
+        try {
+            return ResponseEntity.ok(iReconciliationService.reconcile(date, keys));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * @return the result of the last reconciliation, or 404 if none has run
+     */
+    @GetMapping("/admin/reconciliations/latest")
+    public ResponseEntity<ReconciliationResult> latest() {
+        return ResponseEntity.of(iReconciliationService.getLatest());
+    }
+
+    /**
+     * Downloads every break of a reconciliation as CSV.
+     *
+     * @param id the id of the reconciliation
+     * @return the report, or 404 if the id is unknown
+     */
+    @GetMapping("/admin/reconciliations/{id}/breaks")
+    public ResponseEntity<Resource> breaks(@PathVariable("id") String id) {
+        return iReconciliationService.getReport(id)
+                .<ResponseEntity<Resource>>map(report -> ResponseEntity.ok()
+                        .contentType(new MediaType("text", "csv"))
+                        .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + id + ".csv\"")
+                        .body(new FileSystemResource(report)))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,62 @@
+package com.nnk.springboot.controllers;
+
+import com.nnk.springboot.dto.RollupBackfillResult;
+import com.nnk.springboot.dto.RollupBar;
+import com.nnk.springboot.rollup.RollupInterval;
+import com.nnk.springboot.services.contracts.IRollupService;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Controller exposing the per-security OHLC, volume and VWAP rollups of the trades.
+ */
+@RestController
+public class RollupController {
+
+    private static final Logger logger = LogManager.getLogger(RollupController.class);
+
+    @Autowired
+    private IRollupService iRollupService;
+
+    /**
+     * Returns the non-empty buckets of a security in {@code [from, to)}, oldest first.
+     *
+     * @param security the security
+     * @param interval the width of the buckets
+     * @param from     the start of the range; the bucket holding it is included
+     * @param to       the end of the range, exclusive
+     * @return the buckets of the range
+     */
+    @GetMapping("/rollups/{security}")
+    public List<RollupBar> bars(@PathVariable("security") String security,
+                                @RequestParam(value = "interval", defaultValue = "MINUTE") RollupInterval interval,
+                                @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return iRollupService.getBars(security, interval, from, to);
+    }
+
+    /**
+     * Recomputes the rollups of a past range from the trade table and the archive.
+     *
+     * @param from the start of the range
+     * @param to   the end of the range
+     * @return the number of trades read and buckets written
+     */
+    @PostMapping("/admin/rollups/backfill")
+    public RollupBackfillResult backfill(
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        logger.info("Rollup backfill requested from {} to {}", from, to);
+        return iRollupService.backfill(from, to);
+    }
+}
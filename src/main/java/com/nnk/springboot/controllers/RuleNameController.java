@@ -7,6 +7,7 @@ import jakarta.validation.Valid;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
@@ -26,14 +27,20 @@ public class RuleNameController {
     private IRuleNameService iRuleNameService;
 
     /**
-     * Displays the list of all RuleName entities.
+     * Displays the list of rule names, sorted in the database.
      *
+     * @param sort  the property to sort on
+     * @param dir   the sort direction
      * @param model Spring MVC model
      * @return view name for rule list
      */
     @RequestMapping("/ruleName/list")
-    public String listRuleNames(Model model) {
-        model.addAttribute("ruleNames", iRuleNameService.getAllRuleNames());
+    public String listRuleNames(@RequestParam(value = "sort", required = false) String sort,
+                                @RequestParam(value = "dir", defaultValue = "ASC") Sort.Direction dir,
+                                Model model) {
+        model.addAttribute("ruleNames", iRuleNameService.getRuleNameSummaries(sort, dir));
+        model.addAttribute("sort", sort);
+        model.addAttribute("dir", dir);
         logger.info("Displaying rule name list");
         return "ruleName/list";
     }
@@ -108,22 +115,11 @@ public class RuleNameController {
             return "ruleName/update";
         }
 
-        // Fetch existing RuleName
-        RuleName existingRuleName = iRuleNameService.findRuleNameById(id)
-                .orElseThrow(() -> {
-                    logger.error("Invalid RuleName ID during update: {}", id);
-                    return new IllegalArgumentException("Invalid RuleName ID: " + id);
-                });
-
-        // Update fields
-        existingRuleName.setName(ruleName.getName());
-        existingRuleName.setDescription(ruleName.getDescription());
-        existingRuleName.setJson(ruleName.getJson());
-        existingRuleName.setTemplate(ruleName.getTemplate());
-        existingRuleName.setSqlStr(ruleName.getSqlStr());
-        existingRuleName.setSqlPart(ruleName.getSqlPart());
-
-        iRuleNameService.saveRuleName(existingRuleName);
+        // Update fields of the existing RuleName
+        if (!iRuleNameService.updateRuleName(id, ruleName)) {
+            logger.error("Invalid RuleName ID during update: {}", id);
+            throw new IllegalArgumentException("Invalid RuleName ID: " + id);
+        }
         logger.info("RuleName updated: ID={}, name={}", id, ruleName.getName());
 
         return REDIRECT_RULE_LIST;
@@ -138,14 +134,11 @@ public class RuleNameController {
      */
     @GetMapping("/ruleName/delete/{id}")
     public String deleteRuleName(@PathVariable("id") Integer id, Model model) {
-        RuleName existingRuleName = iRuleNameService.findRuleNameById(id)
-                .orElseThrow(() -> {
-                    logger.error("Invalid RuleName ID for deletion: {}", id);
-                    return new IllegalArgumentException("Invalid RuleName ID: " + id);
-                });
-
-        iRuleNameService.deleteRuleNameById(existingRuleName.getId());
-        logger.info("RuleName deleted: ID={}, name={}", id, existingRuleName.getName());
+        if (!iRuleNameService.deleteRuleNameById(id)) {
+            logger.error("Invalid RuleName ID for deletion: {}", id);
+            throw new IllegalArgumentException("Invalid RuleName ID: " + id);
+        }
+        logger.info("RuleName deleted: ID={}", id);
 
         return REDIRECT_RULE_LIST;
     }
@@ -0,0 +1,32 @@
+package com.nnk.springboot.controllers;
+
+import com.nnk.springboot.dto.TradeArchiveResult;
+import com.nnk.springboot.services.contracts.ITradeArchiveService;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Admin controller running the trade archival job on demand.
+ */
+@RestController
+public class TradeArchiveController {
+
+    private static final Logger logger = LogManager.getLogger(TradeArchiveController.class);
+
+    @Autowired
+    private ITradeArchiveService iTradeArchiveService;
+
+    /**
+     * Moves the trades older than the configured age from the trade table to the archive.
+     *
+     * @return the number of trades archived and files written
+     */
+    @PostMapping("/admin/trades/archive")
+    public TradeArchiveResult archive() {
+        logger.info("Trade archival requested");
+        return iTradeArchiveService.archive();
+    }
+}
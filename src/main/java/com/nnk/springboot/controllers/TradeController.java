@@ -1,17 +1,30 @@
 package com.nnk.springboot.controllers;
 
+import com.nnk.springboot.dto.DealFilter;
+import com.nnk.springboot.dto.TradeHistoryPage;
+import com.nnk.springboot.exception.ConcurrentUpdateConflictException;
+import com.nnk.springboot.exception.DuplicateSourceListIdException;
+import com.nnk.springboot.export.ExportFormat;
 import com.nnk.springboot.model.Trade;
 import com.nnk.springboot.services.contracts.ITradeService;
+import com.nnk.springboot.services.contracts.IWriteBehindService;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.time.LocalDateTime;
+
 /**
  * Controller for managing {@link Trade} entities.
  * Provides endpoints for listing, adding, updating, and deleting trades.
@@ -25,19 +38,90 @@ public class TradeController {
     @Autowired
     private ITradeService iTradeService;
 
+    @Autowired
+    private IWriteBehindService iWriteBehindService;
+
     /**
-     * Displays the list of all trades.
+     * Displays the list of trades, filtered and sorted in the database.
      *
-     * @param model Spring MVC model
+     * @param filter the filters, kept in the model to refill the form and links
+     * @param sort   the property to sort on
+     * @param dir    the sort direction
+     * @param model  Spring MVC model
      * @return view name for trade list
      */
     @RequestMapping("/trade/list")
-    public String listTrades(Model model) {
-        model.addAttribute("trades", iTradeService.getAllTrades());
+    public String listTrades(@ModelAttribute("filter") DealFilter filter,
+                             @RequestParam(value = "sort", required = false) String sort,
+                             @RequestParam(value = "dir", defaultValue = "ASC") Sort.Direction dir,
+                             Model model) {
+        model.addAttribute("trades", iTradeService.getTradeSummaries(filter, sort, dir));
+        model.addAttribute("sort", sort);
+        model.addAttribute("dir", dir);
         logger.info("Displaying trade list");
         return "trade/list";
     }
 
+    /**
+     * Streams the whole trade table as a CSV or NDJSON download.
+     *
+     * @param format   the export format
+     * @param response the HTTP response the rows are written to
+     * @throws IOException if writing the response fails
+     */
+    @GetMapping("/trade/export")
+    public void exportTrades(@RequestParam(value = "format", defaultValue = "CSV") ExportFormat format,
+                             HttpServletResponse response) throws IOException {
+        response.setContentType(format.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"trade." + format.getExtension() + "\"");
+
+        long rows = iTradeService.exportTrades(response.getOutputStream(), format);
+        logger.info("Trade export completed: format={}, rows={}", format, rows);
+    }
+
+    /**
+     * Streams the trades matching the filters, from the trade table and the archive,
+     * as a CSV or NDJSON download ordered by trade date.
+     *
+     * @param filter   the filters, bound from the query string
+     * @param format   the export format
+     * @param response the HTTP response the rows are written to
+     * @throws IOException if writing the response fails
+     */
+    @GetMapping("/trade/history")
+    public void exportTradeHistory(@ModelAttribute("filter") DealFilter filter,
+                                   @RequestParam(value = "format", defaultValue = "CSV") ExportFormat format,
+                                   HttpServletResponse response) throws IOException {
+        response.setContentType(format.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"trade-history." + format.getExtension() + "\"");
+
+        long rows = iTradeService.exportTradeHistory(filter, response.getOutputStream(), format);
+        logger.info("Trade history export completed: format={}, rows={}", format, rows);
+    }
+
+    /**
+     * Returns one keyset-paginated page of the trades matching the filters, from the trade table
+     * and the archive, ordered by trade date.
+     *
+     * @param filter    the filters, bound from the query string
+     * @param afterDate trade date of the last trade of the previous page
+     * @param afterId   trade id of that trade
+     * @param limit     the page size, capped at 1000
+     * @return the page and the cursor of the next one
+     */
+    @GetMapping("/trade/history/page")
+    @ResponseBody
+    public TradeHistoryPage tradeHistoryPage(@ModelAttribute("filter") DealFilter filter,
+                                             @RequestParam(value = "afterDate", required = false)
+                                             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterDate,
+                                             @RequestParam(value = "afterId", required = false) Integer afterId,
+                                             @RequestParam(value = "limit", required = false) Integer limit) {
+        return iTradeService.getTradeHistory(filter, afterDate, afterId, limit);
+    }
+
     /**
      * Displays the form to add a new trade.
      *
@@ -65,7 +149,18 @@ public class TradeController {
             return "trade/add";
         }
 
-        iTradeService.saveTrade(trade);
+        try {
+            if (iWriteBehindService.isEnabled()) {
+                long offset = iWriteBehindService.submit(trade);
+                logger.info("Trade queued for write-behind at offset {}", offset);
+            } else {
+                iTradeService.saveTrade(trade);
+            }
+        } catch (DuplicateSourceListIdException e) {
+            logger.warn("Trade rejected: {}", e.getMessage());
+            result.reject("duplicate", "A trade with source list id " + e.getSourceListId() + " already exists.");
+            return "trade/add";
+        }
         logger.info("Trade created: account={}, type={}, quantity={}",
                 trade.getAccount(), trade.getType(), trade.getBuyQuantity());
 
@@ -88,39 +183,59 @@ public class TradeController {
                 });
 
         model.addAttribute("trade", trade);
+        model.addAttribute("base", trade);
         logger.info("Displaying update form for trade ID: {}", id);
         return "trade/update";
     }
 
     /**
      * Validates and updates an existing trade.
+     * <p>
+     * Concurrent edits of different fields are merged by the service; a field changed by
+     * someone else in the meantime brings the form back with the latest values.
+     * </p>
      *
-     * @param id     ID of the trade to update
-     * @param trade  form data for update
-     * @param result validation result
-     * @param model  Spring MVC model
+     * @param id              ID of the trade to update
+     * @param trade           form data for update, including the version it was loaded at
+     * @param result          validation result
+     * @param baseAccount     account shown when the form was loaded
+     * @param baseType        type shown when the form was loaded
+     * @param baseBuyQuantity buy quantity shown when the form was loaded
+     * @param model           Spring MVC model
      * @return redirect to trade list if valid, else back to update form
      */
     @PostMapping("/trade/update/{id}")
-    public String updateTrade(@PathVariable("id") Integer id, @Valid Trade trade,
-                              BindingResult result, Model model) {
+    public String updateTrade(@PathVariable("id") Integer id, @Valid Trade trade, BindingResult result,
+                              @RequestParam(value = "baseAccount", required = false) String baseAccount,
+                              @RequestParam(value = "baseType", required = false) String baseType,
+                              @RequestParam(value = "baseBuyQuantity", required = false) Double baseBuyQuantity,
+                              Model model) {
+        Trade base = null;
+        if (baseAccount != null || baseType != null || baseBuyQuantity != null) {
+            base = new Trade(baseAccount, baseType, baseBuyQuantity);
+        }
+        model.addAttribute("base", base != null ? base : trade);
         if (result.hasErrors()) {
             logger.warn("Trade update failed for ID {}: {}", id, result.getAllErrors());
             return "trade/update";
         }
 
-        // Retrieve and update the existing trade
-        Trade existingTrade = iTradeService.findTradeById(id)
-                .orElseThrow(() -> {
-                    logger.error("Invalid trade ID during update: {}", id);
-                    return new IllegalArgumentException("Invalid trade ID: " + id);
-                });
-
-        existingTrade.setAccount(trade.getAccount());
-        existingTrade.setType(trade.getType());
-        existingTrade.setBuyQuantity(trade.getBuyQuantity());
-
-        iTradeService.saveTrade(existingTrade);
+        // Update the existing trade in place
+        try {
+            if (!iTradeService.updateTrade(id, trade, base)) {
+                logger.error("Invalid trade ID during update: {}", id);
+                throw new IllegalArgumentException("Invalid trade ID: " + id);
+            }
+        } catch (ConcurrentUpdateConflictException e) {
+            logger.warn("Trade update conflict for ID {} on {}", id, e.getConflictingFields());
+            Trade current = iTradeService.findTradeById(id)
+                    .orElseThrow(() -> new IllegalArgumentException("Invalid trade ID: " + id));
+            trade.setVersion(current.getVersion());
+            model.addAttribute("base", current);
+            result.reject("conflict", "This trade was changed by another user meanwhile "
+                    + e.getConflictingFields() + ". Check the current values and submit again.");
+            return "trade/update";
+        }
         logger.info("Trade updated: ID={}, account={}, type={}, quantity={}",
                 id, trade.getAccount(), trade.getType(), trade.getBuyQuantity());
 
@@ -136,15 +251,11 @@ public class TradeController {
      */
     @GetMapping("/trade/delete/{id}")
     public String deleteTrade(@PathVariable("id") Integer id, Model model) {
-        Trade existingTrade = iTradeService.findTradeById(id)
-                .orElseThrow(() -> {
-                    logger.error("Invalid trade ID for deletion: {}", id);
-                    return new IllegalArgumentException("Invalid trade ID: " + id);
-                });
-
-        iTradeService.deleteTradeById(existingTrade.getTradeId());
-        logger.info("Trade deleted: ID={}, account={}, type={}",
-                id, existingTrade.getAccount(), existingTrade.getType());
+        if (!iTradeService.deleteTradeById(id)) {
+            logger.error("Invalid trade ID for deletion: {}", id);
+            throw new IllegalArgumentException("Invalid trade ID: " + id);
+        }
+        logger.info("Trade deleted: ID={}", id);
 
         return REDIRECT_TRADE_LIST;
     }
@@ -0,0 +1,58 @@
+package com.nnk.springboot.controllers;
+
+import com.nnk.springboot.dto.TradeImportProgress;
+import com.nnk.springboot.services.contracts.ITradeImportService;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Admin controller starting and monitoring imports of end-of-day trade files.
+ */
+@RestController
+public class TradeImportController {
+
+    private static final Logger logger = LogManager.getLogger(TradeImportController.class);
+
+    @Autowired
+    private ITradeImportService iTradeImportService;
+
+    /**
+     * Starts importing a file of the import directory in the background.
+     * A file imported before resumes from its checkpoint.
+     *
+     * @param file the name of the file, relative to the import directory
+     * @return the progress of the import with HTTP 202, HTTP 400 if there is no such file,
+     * or HTTP 409 if an import is already running
+     */
+    @PostMapping("/admin/trades/import")
+    public ResponseEntity<?> start(@RequestParam("file") String file) {
+        try {
+            TradeImportProgress progress = iTradeImportService.start(file);
+            logger.info("Trade import started: file={}", file);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(progress);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Trade import rejected: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IllegalStateException e) {
+            logger.warn("Trade import rejected: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the progress of the running import, or of the last one.
+     *
+     * @return the progress, or 404 if no import has run
+     */
+    @GetMapping("/admin/trades/import")
+    public ResponseEntity<TradeImportProgress> progress() {
+        return ResponseEntity.of(iTradeImportService.getProgress());
+    }
+}
@@ -7,7 +7,7 @@ import jakarta.validation.Valid;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
@@ -27,14 +27,20 @@ public class UserController {
     private IUserService iUserService;
 
     /**
-     * Displays the list of all users.
+     * Displays the list of users, sorted in the database.
      *
+     * @param sort  the property to sort on
+     * @param dir   the sort direction
      * @param model Spring MVC model
      * @return view name for user list
      */
     @RequestMapping("/user/list")
-    public String listUsers(Model model) {
-        model.addAttribute("users", iUserService.getAllUsers());
+    public String listUsers(@RequestParam(value = "sort", required = false) String sort,
+                            @RequestParam(value = "dir", defaultValue = "ASC") Sort.Direction dir,
+                            Model model) {
+        model.addAttribute("users", iUserService.getUserSummaries(sort, dir));
+        model.addAttribute("sort", sort);
+        model.addAttribute("dir", dir);
         logger.info("Displaying user list");
         return "user/list";
     }
@@ -53,7 +59,7 @@ public class UserController {
 
     /**
      * Validates and saves a new user to the database.
-     * Password is hashed using BCrypt before saving.
+     * Password is hashed by the service before saving.
      *
      * @param user   the user to validate and save
      * @param result binding result for validation
@@ -67,10 +73,6 @@ public class UserController {
             return "user/add";
         }
 
-        // Hash password before saving
-        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder();
-        user.setPassword(encoder.encode(user.getPassword()));
-
         iUserService.saveUser(user);
         logger.info("User created: {}", user.getUsername());
 
@@ -102,7 +104,7 @@ public class UserController {
 
     /**
      * Updates an existing user in the database.
-     * Password is re-hashed even if unchanged (can be improved).
+     * Password is re-hashed by the service even if unchanged.
      *
      * @param id     ID of the user being updated
      * @param user   the updated user data
@@ -118,12 +120,10 @@ public class UserController {
             return "user/update";
         }
 
-        // Re-encode password (even if it didn't change)
-        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder();
-        user.setPassword(encoder.encode(user.getPassword()));
-        user.setId(id);
-
-        iUserService.saveUser(user);
+        if (!iUserService.updateUser(id, user)) {
+            logger.error("Invalid user ID during update: {}", id);
+            throw new IllegalArgumentException("Invalid user ID: " + id);
+        }
         logger.info("User updated: ID={}, username={}", id, user.getUsername());
 
         return REDIRECT_USER_LIST;
@@ -138,14 +138,11 @@ public class UserController {
      */
     @GetMapping("/user/delete/{id}")
     public String deleteUser(@PathVariable("id") Integer id, Model model) {
-        User user = iUserService.findById(id)
-                .orElseThrow(() -> {
-                    logger.error("Invalid user ID for deletion: {}", id);
-                    return new IllegalArgumentException("Invalid user ID: " + id);
-                });
-
-        iUserService.deleteById(id);
-        logger.info("User deleted: ID={}, username={}", id, user.getUsername());
+        if (!iUserService.deleteById(id)) {
+            logger.error("Invalid user ID for deletion: {}", id);
+            throw new IllegalArgumentException("Invalid user ID: " + id);
+        }
+        logger.info("User deleted: ID={}", id);
 
         return REDIRECT_USER_LIST;
     }
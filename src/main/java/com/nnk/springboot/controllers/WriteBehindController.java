@@ -0,0 +1,27 @@
+package com.nnk.springboot.controllers;
+
+import com.nnk.springboot.dto.WriteBehindStats;
+import com.nnk.springboot.services.contracts.IWriteBehindService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Admin controller exposing the metrics of the write-behind queue.
+ */
+@RestController
+public class WriteBehindController {
+
+    @Autowired
+    private IWriteBehindService iWriteBehindService;
+
+    /**
+     * Returns the depth, counters and drain latency of the write-behind queue.
+     *
+     * @return the write-behind metrics
+     */
+    @GetMapping("/admin/write-behind")
+    public WriteBehindStats stats() {
+        return iWriteBehindService.getStats();
+    }
+}
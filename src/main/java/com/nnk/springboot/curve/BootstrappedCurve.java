@@ -0,0 +1,93 @@
+package com.nnk.springboot.curve;
+
+import java.time.LocalDateTime;
+
+/**
+ * The discount factors and forward rates bootstrapped from a curve of par rates.
+ * <p>
+ * The term of each point is read in years and its value as an annual par rate in percent, paying
+ * a coupon at each term of the curve up to its own. Going through the terms in order, the discount
+ * factor of term {@code t(i)} is the one pricing its par instrument at 1 given the discount factors
+ * already found:
+ * {@code DF(i) = (1 - r(i) * sum(tau(j) * DF(j), j < i)) / (1 + r(i) * tau(i))}, with
+ * {@code tau(i) = t(i) - t(i - 1)} and {@code t(0) = 0}. The forward rate of each term is the simply
+ * compounded rate from the previous term, {@code (DF(i - 1) / DF(i) - 1) / tau(i)}, in percent.
+ * </p>
+ */
+public final class BootstrappedCurve {
+
+    private final int curveId;
+    private final LocalDateTime asOfDate;
+    private final double[] terms;
+    private final double[] discountFactors;
+    private final double[] forwardRates;
+
+    private BootstrappedCurve(int curveId, LocalDateTime asOfDate, double[] terms, double[] discountFactors,
+                              double[] forwardRates) {
+        this.curveId = curveId;
+        this.asOfDate = asOfDate;
+        this.terms = terms;
+        this.discountFactors = discountFactors;
+        this.forwardRates = forwardRates;
+    }
+
+    /**
+     * Bootstrap a curve of par rates, in O(points).
+     *
+     * @param key   the key of the curve
+     * @param curve the curve, one par rate per distinct term
+     * @return the bootstrapped curve
+     * @throws IllegalArgumentException if a term is negative, or the rates give a discount factor
+     *                                  that is not positive
+     */
+    public static BootstrappedCurve bootstrap(CurveKey key, Curve curve) {
+        double[] terms = curve.getTerms();
+        double[] rates = curve.getValues();
+        int n = terms.length;
+        double[] discountFactors = new double[n];
+        double[] forwardRates = new double[n];
+        double previousTerm = 0;
+        double previousDiscountFactor = 1;
+        double annuity = 0;
+        for (int i = 0; i < n; i++) {
+            if (terms[i] < 0) {
+                throw new IllegalArgumentException("Curve " + key.getCurveId() + " has a negative term " + terms[i]);
+            }
+            double rate = rates[i] / 100;
+            double tau = terms[i] - previousTerm;
+            double discountFactor = (1 - rate * annuity) / (1 + rate * tau);
+            if (!(discountFactor > 0)) {
+                throw new IllegalArgumentException("Curve " + key.getCurveId() + " cannot be bootstrapped: "
+                        + "the par rate " + rates[i] + " at term " + terms[i] + " gives a discount factor of "
+                        + discountFactor);
+            }
+            discountFactors[i] = discountFactor;
+            // A point at term 0 discounts nothing: its forward rate is its own rate
+            forwardRates[i] = tau > 0 ? (previousDiscountFactor / discountFactor - 1) / tau * 100 : rates[i];
+            annuity += tau * discountFactor;
+            previousTerm = terms[i];
+            previousDiscountFactor = discountFactor;
+        }
+        return new BootstrappedCurve(key.getCurveId(), key.getAsOfDate(), terms, discountFactors, forwardRates);
+    }
+
+    public int getCurveId() {
+        return curveId;
+    }
+
+    public LocalDateTime getAsOfDate() {
+        return asOfDate;
+    }
+
+    public double[] getTerms() {
+        return terms.clone();
+    }
+
+    public double[] getDiscountFactors() {
+        return discountFactors.clone();
+    }
+
+    public double[] getForwardRates() {
+        return forwardRates.clone();
+    }
+}
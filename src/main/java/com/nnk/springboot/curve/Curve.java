@@ -0,0 +1,308 @@
+package com.nnk.springboot.curve;
+
+import java.util.Arrays;
+
+/**
+ * An immutable curve: the points of one {@link CurveKey}, sorted by term then id, in primitive arrays.
+ * <p>
+ * Points sharing a term collapse to the one with the highest id when the curve is evaluated, and the
+ * curve is extrapolated flat outside its first and last terms. The knots used for evaluation, their
+ * logarithms and the second derivatives of the natural cubic spline are computed on first use and
+ * cached, so that each version of a curve pays for them once. A change to a point makes a new version
+ * with {@link #withPoint} or {@link #withoutPoint}, in O(points), without touching the other curves.
+ * </p>
+ */
+public final class Curve {
+
+    private final int[] ids;
+    private final double[] terms;
+    private final double[] values;
+    private volatile Knots knots;
+
+    private Curve(int[] ids, double[] terms, double[] values) {
+        this.ids = ids;
+        this.terms = terms;
+        this.values = values;
+    }
+
+    /**
+     * Build a curve from points in any order.
+     *
+     * @param ids    the ids of the curve points
+     * @param terms  their terms
+     * @param values their values
+     * @return the curve
+     */
+    public static Curve of(int[] ids, double[] terms, double[] values) {
+        Integer[] order = new Integer[ids.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> terms[a] != terms[b] ? Double.compare(terms[a], terms[b])
+                : Integer.compare(ids[a], ids[b]));
+        int[] sortedIds = new int[ids.length];
+        double[] sortedTerms = new double[ids.length];
+        double[] sortedValues = new double[ids.length];
+        for (int i = 0; i < order.length; i++) {
+            sortedIds[i] = ids[order[i]];
+            sortedTerms[i] = terms[order[i]];
+            sortedValues[i] = values[order[i]];
+        }
+        return new Curve(sortedIds, sortedTerms, sortedValues);
+    }
+
+    /**
+     * Wrap points already sorted by term then id, without copying them.
+     */
+    static Curve ofSorted(int[] ids, double[] terms, double[] values) {
+        return new Curve(ids, terms, values);
+    }
+
+    /**
+     * @return the number of points, including points hidden by a later point of the same term
+     */
+    public int size() {
+        return ids.length;
+    }
+
+    int pointId(int index) {
+        return ids[index];
+    }
+
+    double pointTerm(int index) {
+        return terms[index];
+    }
+
+    double pointValue(int index) {
+        return values[index];
+    }
+
+    /**
+     * @return the distinct terms of the curve, in ascending order
+     */
+    public double[] getTerms() {
+        return knots().x.clone();
+    }
+
+    /**
+     * @return the value of each distinct term, in the order of {@link #getTerms()}
+     */
+    public double[] getValues() {
+        return knots().y.clone();
+    }
+
+    /**
+     * Return a curve with the point of an id added, or moved to its new term and value.
+     *
+     * @param id    the id of the curve point
+     * @param term  its term
+     * @param value its value
+     * @return the new curve
+     */
+    public Curve withPoint(int id, double term, double value) {
+        Curve base = withoutPoint(id);
+        int n = base.ids.length;
+        int at = 0;
+        while (at < n && (base.terms[at] < term || base.terms[at] == term && base.ids[at] < id)) {
+            at++;
+        }
+        int[] newIds = new int[n + 1];
+        double[] newTerms = new double[n + 1];
+        double[] newValues = new double[n + 1];
+        System.arraycopy(base.ids, 0, newIds, 0, at);
+        System.arraycopy(base.terms, 0, newTerms, 0, at);
+        System.arraycopy(base.values, 0, newValues, 0, at);
+        newIds[at] = id;
+        newTerms[at] = term;
+        newValues[at] = value;
+        System.arraycopy(base.ids, at, newIds, at + 1, n - at);
+        System.arraycopy(base.terms, at, newTerms, at + 1, n - at);
+        System.arraycopy(base.values, at, newValues, at + 1, n - at);
+        return new Curve(newIds, newTerms, newValues);
+    }
+
+    /**
+     * Return a curve without the point of an id.
+     *
+     * @param id the id of the curve point
+     * @return the new curve, or this curve if it has no such point
+     */
+    public Curve withoutPoint(int id) {
+        int at = -1;
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] == id) {
+                at = i;
+                break;
+            }
+        }
+        if (at < 0) {
+            return this;
+        }
+        int n = ids.length - 1;
+        int[] newIds = new int[n];
+        double[] newTerms = new double[n];
+        double[] newValues = new double[n];
+        System.arraycopy(ids, 0, newIds, 0, at);
+        System.arraycopy(terms, 0, newTerms, 0, at);
+        System.arraycopy(values, 0, newValues, 0, at);
+        System.arraycopy(ids, at + 1, newIds, at, n - at);
+        System.arraycopy(terms, at + 1, newTerms, at, n - at);
+        System.arraycopy(values, at + 1, newValues, at, n - at);
+        return new Curve(newIds, newTerms, newValues);
+    }
+
+    /**
+     * Evaluate the curve at one term.
+     *
+     * @param term          the term
+     * @param interpolation how to interpolate between two terms of the curve
+     * @return the value of the curve at the term
+     * @throws IllegalStateException    if the curve has no point
+     * @throws IllegalArgumentException if log-linear interpolation meets a value that is not positive
+     */
+    public double valueAt(double term, Interpolation interpolation) {
+        Knots k = knots();
+        return k.evaluate(term, k.segment(term, 0), interpolation);
+    }
+
+    /**
+     * Evaluate the curve at many terms. Ascending terms are the fastest, each search starting from
+     * the segment of the previous term.
+     *
+     * @param terms         the terms
+     * @param interpolation how to interpolate between two terms of the curve
+     * @param out           receives the value at each term, at the same index
+     * @throws IllegalStateException    if the curve has no point
+     * @throws IllegalArgumentException if log-linear interpolation meets a value that is not positive
+     */
+    public void valuesAt(double[] terms, Interpolation interpolation, double[] out) {
+        Knots k = knots();
+        int segment = 0;
+        for (int i = 0; i < terms.length; i++) {
+            segment = k.segment(terms[i], segment);
+            out[i] = k.evaluate(terms[i], segment, interpolation);
+        }
+    }
+
+    private Knots knots() {
+        Knots k = knots;
+        if (k == null) {
+            k = new Knots(terms, values);
+            knots = k;
+        }
+        return k;
+    }
+
+    /**
+     * The distinct terms of a curve and their values, with what each interpolation precomputes.
+     */
+    private static final class Knots {
+
+        private final double[] x;
+        private final double[] y;
+        private final double[] logY;
+        private volatile double[] secondDerivatives;
+
+        private Knots(double[] terms, double[] values) {
+            int n = 0;
+            double[] xs = new double[terms.length];
+            double[] ys = new double[terms.length];
+            for (int i = 0; i < terms.length; i++) {
+                // Points are sorted by term then id, so the last point of a term wins
+                if (n > 0 && xs[n - 1] == terms[i]) {
+                    ys[n - 1] = values[i];
+                } else {
+                    xs[n] = terms[i];
+                    ys[n] = values[i];
+                    n++;
+                }
+            }
+            this.x = Arrays.copyOf(xs, n);
+            this.y = Arrays.copyOf(ys, n);
+            this.logY = new double[n];
+            for (int i = 0; i < n; i++) {
+                logY[i] = y[i] > 0 ? Math.log(y[i]) : Double.NaN;
+            }
+        }
+
+        /**
+         * @return the index of the last knot at or before the term, clamped to {@code [0, n - 2]},
+         * trying the hint and the next segment before a binary search
+         */
+        private int segment(double term, int hint) {
+            int last = x.length - 2;
+            if (last <= 0) {
+                return 0;
+            }
+            if (hint <= last && x[hint] <= term && term < x[hint + 1]) {
+                return hint;
+            }
+            if (hint + 1 <= last && x[hint + 1] <= term && term < x[hint + 2]) {
+                return hint + 1;
+            }
+            int found = Arrays.binarySearch(x, term);
+            int index = found >= 0 ? found : -found - 2;
+            return Math.max(0, Math.min(index, last));
+        }
+
+        private double evaluate(double term, int lo, Interpolation interpolation) {
+            int n = x.length;
+            if (n == 0) {
+                throw new IllegalStateException("Curve has no point");
+            }
+            if (term <= x[0]) {
+                return y[0];
+            }
+            if (term >= x[n - 1]) {
+                return y[n - 1];
+            }
+            int hi = lo + 1;
+            double h = x[hi] - x[lo];
+            double weight = (term - x[lo]) / h;
+            switch (interpolation) {
+                case LINEAR:
+                    return y[lo] + weight * (y[hi] - y[lo]);
+                case LOG_LINEAR:
+                    if (Double.isNaN(logY[lo]) || Double.isNaN(logY[hi])) {
+                        throw new IllegalArgumentException("Log-linear interpolation needs positive values, got "
+                                + y[lo] + " and " + y[hi]);
+                    }
+                    return Math.exp(logY[lo] + weight * (logY[hi] - logY[lo]));
+                default:
+                    double[] m = secondDerivatives();
+                    double a = 1 - weight;
+                    return a * y[lo] + weight * y[hi]
+                            + ((a * a * a - a) * m[lo] + (weight * weight * weight - weight) * m[hi]) * h * h / 6;
+            }
+        }
+
+        /**
+         * Solve the tridiagonal system of the natural cubic spline, whose second derivative is 0 at
+         * both ends, in O(n).
+         */
+        private double[] secondDerivatives() {
+            double[] m = secondDerivatives;
+            if (m != null) {
+                return m;
+            }
+            int n = x.length;
+            m = new double[n];
+            double[] u = new double[n];
+            for (int i = 1; i < n - 1; i++) {
+                double sig = (x[i] - x[i - 1]) / (x[i + 1] - x[i - 1]);
+                double p = sig * m[i - 1] + 2;
+                m[i] = (sig - 1) / p;
+                double slopes = (y[i + 1] - y[i]) / (x[i + 1] - x[i]) - (y[i] - y[i - 1]) / (x[i] - x[i - 1]);
+                u[i] = (6 * slopes / (x[i + 1] - x[i - 1]) - sig * u[i - 1]) / p;
+            }
+            if (n > 0) {
+                m[n - 1] = 0;
+            }
+            for (int i = n - 2; i >= 0; i--) {
+                m[i] = m[i] * m[i + 1] + u[i];
+            }
+            secondDerivatives = m;
+            return m;
+        }
+    }
+}
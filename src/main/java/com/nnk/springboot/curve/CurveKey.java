@@ -0,0 +1,47 @@
+package com.nnk.springboot.curve;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Identifies one curve: the curve points sharing a curveId and an asOfDate, which may be null.
+ */
+public final class CurveKey {
+
+    private final int curveId;
+    private final LocalDateTime asOfDate;
+
+    public CurveKey(int curveId, LocalDateTime asOfDate) {
+        this.curveId = curveId;
+        this.asOfDate = asOfDate;
+    }
+
+    public int getCurveId() {
+        return curveId;
+    }
+
+    public LocalDateTime getAsOfDate() {
+        return asOfDate;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CurveKey other)) {
+            return false;
+        }
+        return curveId == other.curveId && Objects.equals(asOfDate, other.asOfDate);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * curveId + Objects.hashCode(asOfDate);
+    }
+
+    @Override
+    public String toString() {
+        return curveId + "@" + asOfDate;
+    }
+}
@@ -0,0 +1,14 @@
+package com.nnk.springboot.curve;
+
+/**
+ * How a {@link Curve} is evaluated between two of its terms.
+ */
+public enum Interpolation {
+
+    /** Straight line between the two neighbouring values. */
+    LINEAR,
+    /** Straight line between the logarithms of the two neighbouring values, which must be positive. */
+    LOG_LINEAR,
+    /** Natural cubic spline through every value of the curve. */
+    CUBIC_SPLINE
+}
@@ -0,0 +1,452 @@
+package com.nnk.springboot.curve;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.UnaryOperator;
+
+/**
+ * Holds curves outside the Java heap, so that tens of thousands of them neither fill the heap nor
+ * lengthen garbage collections.
+ * <p>
+ * The points of each curve are one record appended to direct byte buffers (slabs): the point count,
+ * then its terms, its values and its ids, each as a column of primitives. An index maps each curve
+ * to the address of its record, and an open-addressing table, itself in a direct buffer, maps each
+ * point id to its curve. A write appends a new record and leaves the old one as garbage; once the
+ * garbage outweighs the live records, the next write that needs a new slab first copies the live
+ * records into fresh slabs, and the old slabs are freed with their buffers.
+ * </p>
+ * <p>
+ * On the heap there is one index entry per curve, plus an LRU of the {@code hotCurves} curves read
+ * last, kept decoded so that hot curves are not copied out again and keep the same {@link Curve}
+ * instance until they change. The index also keeps the version of each curve, taken from a
+ * store-wide counter on every write, so that results derived from a curve can be cached against it.
+ * Reads share a read lock; writes take the write lock.
+ * </p>
+ */
+public final class OffHeapCurveStore {
+
+    // The point count, padded so that the terms are 8-byte aligned
+    private static final int HEADER_BYTES = 8;
+    private static final long NONE = -1;
+
+    private final int slabBytes;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<CurveKey, Integer> slots = new HashMap<>();
+    private final Map<CurveKey, Curve> hot;
+    private final PointIndex points = new PointIndex(1024);
+    private List<ByteBuffer> slabs = new ArrayList<>();
+    private int position;
+    private long[] addresses = new long[64];
+    private long[] versions = new long[64];
+    private CurveKey[] keys = new CurveKey[64];
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+    private int slotCount;
+    private long allocatedBytes;
+    private long liveBytes;
+    private long generation;
+
+    /**
+     * @param slabBytes the size of each direct buffer the records are appended to; a larger record
+     *                  gets a buffer of its own
+     * @param hotCurves how many curves are kept decoded on the heap, 0 for none
+     */
+    public OffHeapCurveStore(int slabBytes, int hotCurves) {
+        if (slabBytes < HEADER_BYTES) {
+            throw new IllegalArgumentException("Slabs must hold at least " + HEADER_BYTES + " bytes");
+        }
+        this.slabBytes = slabBytes;
+        this.hot = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CurveKey, Curve> eldest) {
+                return size() > hotCurves;
+            }
+        });
+    }
+
+    /**
+     * Read a curve.
+     *
+     * @param key the key of the curve
+     * @return the curve, or null if the store does not hold it
+     */
+    public Curve get(CurveKey key) {
+        lock.readLock().lock();
+        try {
+            Curve curve = hot.get(key);
+            if (curve != null) {
+                return curve;
+            }
+            Integer slot = slots.get(key);
+            if (slot == null) {
+                return null;
+            }
+            // Still under the read lock, so no write can replace the record before the curve is hot
+            curve = decode(addresses[slot]);
+            hot.put(key, curve);
+            return curve;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Read the version of a curve. Read it before the curve: a curve read afterwards is then at least
+     * as recent as the version, so a result cached against the version can only be recomputed too
+     * often, never served stale.
+     *
+     * @param key the key of the curve
+     * @return the version, changed by every write of the curve, or 0 if the store does not hold it
+     */
+    public long version(CurveKey key) {
+        lock.readLock().lock();
+        try {
+            Integer slot = slots.get(key);
+            return slot == null ? 0 : versions[slot];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Replace a curve by a function of its current value, atomically with respect to every other
+     * read and write.
+     *
+     * @param key       the key of the curve
+     * @param remapping receives the current curve, or null if the store does not hold it, and returns
+     *                  the new curve, or null or an empty curve to remove it
+     * @return the new curve, or null if the store no longer holds it
+     */
+    public Curve compute(CurveKey key, UnaryOperator<Curve> remapping) {
+        lock.writeLock().lock();
+        try {
+            Integer slot = slots.get(key);
+            Curve current = hot.get(key);
+            if (current == null && slot != null) {
+                current = decode(addresses[slot]);
+            }
+            Curve next = remapping.apply(current);
+            if (next == current) {
+                return current;
+            }
+            if (slot != null) {
+                release(slot);
+            }
+            if (next == null || next.size() == 0) {
+                if (slot != null) {
+                    slots.remove(key);
+                    freeSlot(slot);
+                }
+                hot.remove(key);
+                return null;
+            }
+            if (slot == null) {
+                slot = newSlot(key);
+                slots.put(key, slot);
+            }
+            addresses[slot] = write(next);
+            versions[slot] = ++generation;
+            for (int i = 0; i < next.size(); i++) {
+                points.put(next.pointId(i), slot);
+            }
+            hot.put(key, next);
+            return next;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Find the curve holding a point.
+     *
+     * @param pointId the id of the point
+     * @return the key of its curve, or null if no curve held by the store has the point
+     */
+    public CurveKey keyOfPoint(int pointId) {
+        lock.readLock().lock();
+        try {
+            int slot = points.get(pointId);
+            return slot < 0 ? null : keys[slot];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the number of curves held
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slots.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the bytes of direct buffers allocated, records and point table included
+     */
+    public long getAllocatedBytes() {
+        lock.readLock().lock();
+        try {
+            return allocatedBytes + points.bytes();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the bytes of the records still in use
+     */
+    public long getLiveBytes() {
+        lock.readLock().lock();
+        try {
+            return liveBytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static int recordBytes(int pointCount) {
+        return (HEADER_BYTES + 20 * pointCount + 7) & ~7;
+    }
+
+    private ByteBuffer slab(long address) {
+        return slabs.get((int) (address >>> 32));
+    }
+
+    private static int offset(long address) {
+        return (int) address;
+    }
+
+    private Curve decode(long address) {
+        ByteBuffer slab = slab(address);
+        int offset = offset(address);
+        int n = slab.getInt(offset);
+        int terms = offset + HEADER_BYTES;
+        int values = terms + 8 * n;
+        int ids = values + 8 * n;
+        int[] pointIds = new int[n];
+        double[] pointTerms = new double[n];
+        double[] pointValues = new double[n];
+        for (int i = 0; i < n; i++) {
+            pointTerms[i] = slab.getDouble(terms + 8 * i);
+            pointValues[i] = slab.getDouble(values + 8 * i);
+            pointIds[i] = slab.getInt(ids + 4 * i);
+        }
+        return Curve.ofSorted(pointIds, pointTerms, pointValues);
+    }
+
+    private long write(Curve curve) {
+        int n = curve.size();
+        int size = recordBytes(n);
+        boolean needsSlab = slabs.isEmpty() || position + size > slabs.get(slabs.size() - 1).capacity();
+        if (needsSlab && allocatedBytes - liveBytes >= allocatedBytes / 2 && allocatedBytes > 0) {
+            compact();
+        }
+        long address = allocate(size);
+        ByteBuffer slab = slab(address);
+        int offset = offset(address);
+        int terms = offset + HEADER_BYTES;
+        int values = terms + 8 * n;
+        int ids = values + 8 * n;
+        slab.putInt(offset, n);
+        for (int i = 0; i < n; i++) {
+            slab.putDouble(terms + 8 * i, curve.pointTerm(i));
+            slab.putDouble(values + 8 * i, curve.pointValue(i));
+            slab.putInt(ids + 4 * i, curve.pointId(i));
+        }
+        liveBytes += size;
+        return address;
+    }
+
+    private long allocate(int size) {
+        if (slabs.isEmpty() || position + size > slabs.get(slabs.size() - 1).capacity()) {
+            int capacity = Math.max(slabBytes, size);
+            slabs.add(ByteBuffer.allocateDirect(capacity).order(ByteOrder.nativeOrder()));
+            allocatedBytes += capacity;
+            position = 0;
+        }
+        long address = ((long) (slabs.size() - 1) << 32) | position;
+        position += size;
+        return address;
+    }
+
+    /**
+     * Copy the live records into fresh slabs, in slot order, dropping the garbage.
+     */
+    private void compact() {
+        List<ByteBuffer> old = slabs;
+        slabs = new ArrayList<>();
+        allocatedBytes = 0;
+        position = 0;
+        for (int slot = 0; slot < slotCount; slot++) {
+            long address = addresses[slot];
+            if (address == NONE) {
+                continue;
+            }
+            ByteBuffer source = old.get((int) (address >>> 32));
+            int size = recordBytes(source.getInt(offset(address)));
+            long moved = allocate(size);
+            slab(moved).put(offset(moved), source, offset(address), size);
+            addresses[slot] = moved;
+        }
+    }
+
+    /**
+     * Drop the record of a slot: its bytes become garbage and its points leave the point table.
+     */
+    private void release(int slot) {
+        long address = addresses[slot];
+        ByteBuffer slab = slab(address);
+        int offset = offset(address);
+        int n = slab.getInt(offset);
+        int ids = offset + HEADER_BYTES + 16 * n;
+        for (int i = 0; i < n; i++) {
+            points.remove(slab.getInt(ids + 4 * i), slot);
+        }
+        liveBytes -= recordBytes(n);
+        addresses[slot] = NONE;
+    }
+
+    private int newSlot(CurveKey key) {
+        int slot;
+        if (freeCount > 0) {
+            slot = freeSlots[--freeCount];
+        } else {
+            if (slotCount == addresses.length) {
+                addresses = Arrays.copyOf(addresses, slotCount * 2);
+                versions = Arrays.copyOf(versions, slotCount * 2);
+                keys = Arrays.copyOf(keys, slotCount * 2);
+            }
+            slot = slotCount++;
+        }
+        keys[slot] = key;
+        addresses[slot] = NONE;
+        return slot;
+    }
+
+    private void freeSlot(int slot) {
+        keys[slot] = null;
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = slot;
+    }
+
+    /**
+     * An open-addressing table from point id to slot in a direct buffer, with linear probing and
+     * backward-shift deletion. Each entry is the id then the slot plus one, so that 0 marks an empty
+     * entry of a freshly allocated, zeroed buffer.
+     */
+    private static final class PointIndex {
+
+        private ByteBuffer table;
+        private int mask;
+        private int size;
+
+        private PointIndex(int capacity) {
+            allocate(capacity);
+        }
+
+        private void allocate(int capacity) {
+            table = ByteBuffer.allocateDirect(capacity * 8).order(ByteOrder.nativeOrder());
+            mask = capacity - 1;
+            size = 0;
+        }
+
+        private long bytes() {
+            return table.capacity();
+        }
+
+        private static int hash(int id) {
+            int h = id * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+
+        private int get(int id) {
+            for (int i = hash(id) & mask; ; i = (i + 1) & mask) {
+                int value = table.getInt(8 * i + 4);
+                if (value == 0) {
+                    return -1;
+                }
+                if (table.getInt(8 * i) == id) {
+                    return value - 1;
+                }
+            }
+        }
+
+        private void put(int id, int slot) {
+            if (4 * (size + 1) > 3 * (mask + 1)) {
+                grow();
+            }
+            for (int i = hash(id) & mask; ; i = (i + 1) & mask) {
+                int value = table.getInt(8 * i + 4);
+                if (value == 0) {
+                    table.putInt(8 * i, id);
+                    table.putInt(8 * i + 4, slot + 1);
+                    size++;
+                    return;
+                }
+                if (table.getInt(8 * i) == id) {
+                    table.putInt(8 * i + 4, slot + 1);
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Remove a point if it still belongs to the slot: it may have moved to another curve since.
+         */
+        private void remove(int id, int slot) {
+            int hole = hash(id) & mask;
+            while (true) {
+                int value = table.getInt(8 * hole + 4);
+                if (value == 0) {
+                    return;
+                }
+                if (table.getInt(8 * hole) == id) {
+                    if (value - 1 != slot) {
+                        return;
+                    }
+                    break;
+                }
+                hole = (hole + 1) & mask;
+            }
+            // Move back each following entry of the run that may not sit between its home and the hole
+            for (int i = (hole + 1) & mask; table.getInt(8 * i + 4) != 0; i = (i + 1) & mask) {
+                int home = hash(table.getInt(8 * i)) & mask;
+                boolean stays = hole <= i ? hole < home && home <= i : hole < home || home <= i;
+                if (!stays) {
+                    table.putInt(8 * hole, table.getInt(8 * i));
+                    table.putInt(8 * hole + 4, table.getInt(8 * i + 4));
+                    hole = i;
+                }
+            }
+            table.putInt(8 * hole, 0);
+            table.putInt(8 * hole + 4, 0);
+            size--;
+        }
+
+        private void grow() {
+            ByteBuffer old = table;
+            int oldCapacity = mask + 1;
+            allocate(oldCapacity * 2);
+            for (int i = 0; i < oldCapacity; i++) {
+                int value = old.getInt(8 * i + 4);
+                if (value != 0) {
+                    put(old.getInt(8 * i), value - 1);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.nnk.springboot.dto;
+
+/**
+ * The price and quantity columns of a BidList row, used to build the in-memory order book.
+ */
+public class BidListQuote {
+
+    private final Integer bidListId;
+    private final String security;
+    private final Double bid;
+    private final Double bidQuantity;
+    private final Double ask;
+    private final Double askQuantity;
+
+    public BidListQuote(Integer bidListId, String security, Double bid, Double bidQuantity, Double ask, Double askQuantity) {
+        this.bidListId = bidListId;
+        this.security = security;
+        this.bid = bid;
+        this.bidQuantity = bidQuantity;
+        this.ask = ask;
+        this.askQuantity = askQuantity;
+    }
+
+    public Integer getBidListId() {
+        return bidListId;
+    }
+
+    public String getSecurity() {
+        return security;
+    }
+
+    public Double getBid() {
+        return bid;
+    }
+
+    public Double getBidQuantity() {
+        return bidQuantity;
+    }
+
+    public Double getAsk() {
+        return ask;
+    }
+
+    public Double getAskQuantity() {
+        return askQuantity;
+    }
+
+    /**
+     * @return true if this quote contributes a bid level
+     */
+    public boolean hasBid() {
+        return bid != null && bidQuantity != null && bidQuantity > 0;
+    }
+
+    /**
+     * @return true if this quote contributes an ask level
+     */
+    public boolean hasAsk() {
+        return ask != null && askQuantity != null && askQuantity > 0;
+    }
+}
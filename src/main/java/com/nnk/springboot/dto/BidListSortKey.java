@@ -0,0 +1,84 @@
+package com.nnk.springboot.dto;
+
+import org.springframework.data.domain.ScrollPosition;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Columns the BidList list page can be keyset-paginated on.
+ * <p>
+ * Every key is combined with {@code bidListId} as a tie-breaker so that the seek
+ * predicate is always unique, and each key is backed by an index on {@code bidlist}.
+ * </p>
+ */
+public enum BidListSortKey {
+
+    ID("bidListId", BidListSummary::getBidListId, Integer::valueOf),
+    ACCOUNT("account", BidListSummary::getAccount, Function.identity()),
+    TYPE("type", BidListSummary::getType, Function.identity()),
+    BID_QUANTITY("bidQuantity", BidListSummary::getBidQuantity, Double::valueOf);
+
+    public static final String ID_PROPERTY = "bidListId";
+
+    private final String property;
+    private final Function<BidListSummary, Object> extractor;
+    private final Function<String, Object> parser;
+
+    BidListSortKey(String property, Function<BidListSummary, ?> extractor, Function<String, ?> parser) {
+        this.property = property;
+        this.extractor = extractor::apply;
+        this.parser = parser::apply;
+    }
+
+    /**
+     * @return the entity attribute this key sorts on
+     */
+    public String getProperty() {
+        return property;
+    }
+
+    /**
+     * Extracts the value of this key from a row, as rendered in the next-page cursor.
+     *
+     * @param summary the last row of the current window
+     * @return the key value as a string
+     */
+    public String cursorValue(BidListSummary summary) {
+        Object value = extractor.apply(summary);
+        return value == null ? null : value.toString();
+    }
+
+    /**
+     * Parses the sort key value of a cursor back into the attribute type.
+     *
+     * @param afterId  id of the last row already displayed, or null for the first window
+     * @param afterKey value of this key on that row, ignored for {@link #ID}
+     * @return the typed key value, or null when sorting by id or starting from the first window
+     */
+    public Object parseCursorValue(Integer afterId, String afterKey) {
+        if (afterId == null || this == ID) {
+            return null;
+        }
+        if (afterKey == null) {
+            throw new IllegalArgumentException("Missing cursor value for sort key: " + name());
+        }
+        return parser.apply(afterKey);
+    }
+
+    /**
+     * Builds the keyset scroll position that follows the given row.
+     *
+     * @param summary a row of the current window
+     * @return the position to resume scrolling after that row
+     */
+    public ScrollPosition positionAfter(BidListSummary summary) {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        if (this != ID) {
+            keys.put(property, extractor.apply(summary));
+        }
+        keys.put(ID_PROPERTY, summary.getBidListId());
+        return ScrollPosition.forward(keys);
+    }
+}
@@ -0,0 +1,39 @@
+package com.nnk.springboot.dto;
+
+/**
+ * Read-only projection of a BidList row, holding only the columns shown on the bid list page.
+ * <p>
+ * Instances are built by a constructor expression rather than loaded as entities, so they
+ * are never attached to the persistence context and carry no dirty-checking snapshot.
+ * </p>
+ */
+public class BidListSummary {
+
+    private final Integer bidListId;
+    private final String account;
+    private final String type;
+    private final Double bidQuantity;
+
+    public BidListSummary(Integer bidListId, String account, String type, Double bidQuantity) {
+        this.bidListId = bidListId;
+        this.account = account;
+        this.type = type;
+        this.bidQuantity = bidQuantity;
+    }
+
+    public Integer getBidListId() {
+        return bidListId;
+    }
+
+    public String getAccount() {
+        return account;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public Double getBidQuantity() {
+        return bidQuantity;
+    }
+}
@@ -0,0 +1,47 @@
+package com.nnk.springboot.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * One page of the trade blotter, with the cursor to pass back for the following page.
+ * The cursor is the (tradeDate, tradeId) of the last row, or null when the page is empty;
+ * a tail page is followed by the (commitSeq, tradeId) of its last row instead.
+ */
+public class BlotterPage {
+
+    private final List<BlotterRow> rows;
+    private final boolean hasNext;
+    private final LocalDateTime nextAfterDate;
+    private final Integer nextAfterId;
+    private final Long nextAfterSeq;
+
+    public BlotterPage(List<BlotterRow> rows, boolean hasNext) {
+        this.rows = rows;
+        this.hasNext = hasNext;
+        BlotterRow last = rows.isEmpty() ? null : rows.get(rows.size() - 1);
+        this.nextAfterDate = last == null ? null : last.getTradeDate();
+        this.nextAfterId = last == null ? null : last.getTradeId();
+        this.nextAfterSeq = last == null ? null : last.getCommitSeq();
+    }
+
+    public List<BlotterRow> getRows() {
+        return rows;
+    }
+
+    public boolean isHasNext() {
+        return hasNext;
+    }
+
+    public LocalDateTime getNextAfterDate() {
+        return nextAfterDate;
+    }
+
+    public Integer getNextAfterId() {
+        return nextAfterId;
+    }
+
+    public Long getNextAfterSeq() {
+        return nextAfterSeq;
+    }
+}
@@ -0,0 +1,110 @@
+package com.nnk.springboot.dto;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Read-only projection of the Trade columns shown on the trade blotter.
+ */
+public class BlotterRow {
+
+    private final Integer tradeId;
+    private final LocalDateTime tradeDate;
+    private final String book;
+    private final String account;
+    private final String type;
+    private final String security;
+    private final String side;
+    private final Double buyQuantity;
+    private final Double buyPrice;
+    private final Double sellQuantity;
+    private final Double sellPrice;
+    private final String status;
+    private final String trader;
+    private final Long commitSeq;
+
+    public BlotterRow(Integer tradeId, Timestamp tradeDate, String book, String account, String type,
+                      String security, String side, Double buyQuantity, Double buyPrice, Double sellQuantity,
+                      Double sellPrice, String status, String trader) {
+        this(tradeId, tradeDate, book, account, type, security, side, buyQuantity, buyPrice, sellQuantity,
+                sellPrice, status, trader, null);
+    }
+
+    public BlotterRow(Integer tradeId, Timestamp tradeDate, String book, String account, String type,
+                      String security, String side, Double buyQuantity, Double buyPrice, Double sellQuantity,
+                      Double sellPrice, String status, String trader, Long commitSeq) {
+        this.tradeId = tradeId;
+        this.tradeDate = tradeDate == null ? null : tradeDate.toLocalDateTime();
+        this.book = book;
+        this.account = account;
+        this.type = type;
+        this.security = security;
+        this.side = side;
+        this.buyQuantity = buyQuantity;
+        this.buyPrice = buyPrice;
+        this.sellQuantity = sellQuantity;
+        this.sellPrice = sellPrice;
+        this.status = status;
+        this.trader = trader;
+        this.commitSeq = commitSeq;
+    }
+
+    public Integer getTradeId() {
+        return tradeId;
+    }
+
+    public LocalDateTime getTradeDate() {
+        return tradeDate;
+    }
+
+    public String getBook() {
+        return book;
+    }
+
+    public String getAccount() {
+        return account;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getSecurity() {
+        return security;
+    }
+
+    public String getSide() {
+        return side;
+    }
+
+    public Double getBuyQuantity() {
+        return buyQuantity;
+    }
+
+    public Double getBuyPrice() {
+        return buyPrice;
+    }
+
+    public Double getSellQuantity() {
+        return sellQuantity;
+    }
+
+    public Double getSellPrice() {
+        return sellPrice;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public String getTrader() {
+        return trader;
+    }
+
+    /**
+     * @return the commit sequence of the transaction that inserted the trade, set on tailed rows only
+     */
+    public Long getCommitSeq() {
+        return commitSeq;
+    }
+}
@@ -0,0 +1,42 @@
+package com.nnk.springboot.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk ingestion request.
+ * <p>
+ * A batch is accepted or rejected as a whole: when any row fails validation,
+ * nothing is saved and {@code errors} lists every failing row. Rows whose sourceListId
+ * is already saved are skipped and counted as duplicates, so a batch can be resent safely.
+ * </p>
+ */
+public class BulkIngestResult {
+
+    private final int received;
+    private final int saved;
+    private final int duplicates;
+    private final List<String> errors;
+
+    public BulkIngestResult(int received, int saved, int duplicates, List<String> errors) {
+        this.received = received;
+        this.saved = saved;
+        this.duplicates = duplicates;
+        this.errors = errors;
+    }
+
+    public int getReceived() {
+        return received;
+    }
+
+    public int getSaved() {
+        return saved;
+    }
+
+    public int getDuplicates() {
+        return duplicates;
+    }
+
+    public List<String> getErrors() {
+        return errors;
+    }
+}
@@ -0,0 +1,33 @@
+package com.nnk.springboot.dto;
+
+/**
+ * Points of a chart, downsampled to a point budget. For a curve, x is the term; for a series over
+ * as-of dates, x is the as-of date in epoch milliseconds.
+ */
+public class ChartSeries {
+
+    private final double[] x;
+    private final double[] y;
+    private final int sourcePoints;
+
+    public ChartSeries(double[] x, double[] y, int sourcePoints) {
+        this.x = x;
+        this.y = y;
+        this.sourcePoints = sourcePoints;
+    }
+
+    public double[] getX() {
+        return x;
+    }
+
+    public double[] getY() {
+        return y;
+    }
+
+    /**
+     * @return the number of points the chart was downsampled from
+     */
+    public int getSourcePoints() {
+        return sourcePoints;
+    }
+}
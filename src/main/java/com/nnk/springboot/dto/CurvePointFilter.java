@@ -0,0 +1,60 @@
+package com.nnk.springboot.dto;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+/**
+ * Filters of the curve point list page, bound from the query string.
+ * Null fields do not filter. The as-of date range is half-open,
+ * {@code [from 00:00, to + 1 day 00:00)}, so it includes the whole of the {@code to} day.
+ */
+public class CurvePointFilter {
+
+    private Integer curveId;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate from;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate to;
+
+    public Integer getCurveId() {
+        return curveId;
+    }
+
+    public void setCurveId(Integer curveId) {
+        this.curveId = curveId;
+    }
+
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public void setFrom(LocalDate from) {
+        this.from = from;
+    }
+
+    public LocalDate getTo() {
+        return to;
+    }
+
+    public void setTo(LocalDate to) {
+        this.to = to;
+    }
+
+    /**
+     * @return the set filters as {@code &name=value} pairs, to append to sort links
+     */
+    public String getQueryString() {
+        StringBuilder query = new StringBuilder();
+        if (curveId != null) {
+            query.append("&curveId=").append(curveId);
+        }
+        if (from != null) {
+            query.append("&from=").append(from);
+        }
+        if (to != null) {
+            query.append("&to=").append(to);
+        }
+        return query.toString();
+    }
+}
@@ -0,0 +1,35 @@
+package com.nnk.springboot.dto;
+
+/**
+ * Read-only projection of a CurvePoint row for the curve point list page.
+ */
+public class CurvePointSummary {
+
+    private final Integer id;
+    private final Integer curveId;
+    private final Double term;
+    private final Double value;
+
+    public CurvePointSummary(Integer id, Integer curveId, Double term, Double value) {
+        this.id = id;
+        this.curveId = curveId;
+        this.term = term;
+        this.value = value;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public Integer getCurveId() {
+        return curveId;
+    }
+
+    public Double getTerm() {
+        return term;
+    }
+
+    public Double getValue() {
+        return value;
+    }
+}
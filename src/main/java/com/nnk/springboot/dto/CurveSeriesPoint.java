@@ -0,0 +1,31 @@
+package com.nnk.springboot.dto;
+
+import java.sql.Timestamp;
+
+/**
+ * Read-only projection of the value of a curve point at one as-of date, for value-over-time charts.
+ */
+public class CurveSeriesPoint {
+
+    private final Integer id;
+    private final Timestamp asOfDate;
+    private final Double value;
+
+    public CurveSeriesPoint(Integer id, Timestamp asOfDate, Double value) {
+        this.id = id;
+        this.asOfDate = asOfDate;
+        this.value = value;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public Timestamp getAsOfDate() {
+        return asOfDate;
+    }
+
+    public Double getValue() {
+        return value;
+    }
+}
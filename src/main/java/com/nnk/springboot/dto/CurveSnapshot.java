@@ -0,0 +1,45 @@
+package com.nnk.springboot.dto;
+
+import com.nnk.springboot.curve.Curve;
+
+import java.time.LocalDateTime;
+
+/**
+ * A curve as it stood at an as-of date, as known at a system time.
+ */
+public class CurveSnapshot {
+
+    private final Integer curveId;
+    private final LocalDateTime asOfDate;
+    private final LocalDateTime knownAt;
+    private final Curve curve;
+
+    public CurveSnapshot(Integer curveId, LocalDateTime asOfDate, LocalDateTime knownAt, Curve curve) {
+        this.curveId = curveId;
+        this.asOfDate = asOfDate;
+        this.knownAt = knownAt;
+        this.curve = curve;
+    }
+
+    public Integer getCurveId() {
+        return curveId;
+    }
+
+    /**
+     * @return the as-of date of the points, the latest one up to the valid time asked for
+     */
+    public LocalDateTime getAsOfDate() {
+        return asOfDate;
+    }
+
+    /**
+     * @return the system time the points were read as of
+     */
+    public LocalDateTime getKnownAt() {
+        return knownAt;
+    }
+
+    public Curve getCurve() {
+        return curve;
+    }
+}
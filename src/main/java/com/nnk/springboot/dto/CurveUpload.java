@@ -0,0 +1,47 @@
+package com.nnk.springboot.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * A whole curve sent by a curve builder: the points of one (curveId, asOfDate), as parallel term
+ * and value arrays with the terms in strictly ascending order.
+ */
+public class CurveUpload {
+
+    private Integer curveId;
+    private LocalDateTime asOfDate;
+    private double[] terms;
+    private double[] values;
+
+    public Integer getCurveId() {
+        return curveId;
+    }
+
+    public void setCurveId(Integer curveId) {
+        this.curveId = curveId;
+    }
+
+    public LocalDateTime getAsOfDate() {
+        return asOfDate;
+    }
+
+    public void setAsOfDate(LocalDateTime asOfDate) {
+        this.asOfDate = asOfDate;
+    }
+
+    public double[] getTerms() {
+        return terms;
+    }
+
+    public void setTerms(double[] terms) {
+        this.terms = terms;
+    }
+
+    public double[] getValues() {
+        return values;
+    }
+
+    public void setValues(double[] values) {
+        this.values = values;
+    }
+}
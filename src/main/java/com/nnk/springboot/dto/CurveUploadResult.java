@@ -0,0 +1,37 @@
+package com.nnk.springboot.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outcome of a curve upload: how many points of the curve were replaced by how many new points.
+ */
+public class CurveUploadResult {
+
+    private final Integer curveId;
+    private final LocalDateTime asOfDate;
+    private final int replaced;
+    private final int saved;
+
+    public CurveUploadResult(Integer curveId, LocalDateTime asOfDate, int replaced, int saved) {
+        this.curveId = curveId;
+        this.asOfDate = asOfDate;
+        this.replaced = replaced;
+        this.saved = saved;
+    }
+
+    public Integer getCurveId() {
+        return curveId;
+    }
+
+    public LocalDateTime getAsOfDate() {
+        return asOfDate;
+    }
+
+    public int getReplaced() {
+        return replaced;
+    }
+
+    public int getSaved() {
+        return saved;
+    }
+}
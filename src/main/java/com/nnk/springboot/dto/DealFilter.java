@@ -0,0 +1,113 @@
+package com.nnk.springboot.dto;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.util.StringUtils;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/**
+ * Filters of the bid list and trade list pages, bound from the query string.
+ * Blank fields do not filter. The date range is half-open,
+ * {@code [from 00:00, to + 1 day 00:00)}, so it includes the whole of the {@code to} day.
+ */
+public class DealFilter {
+
+    private String account;
+    private String type;
+    private String security;
+    private String status;
+    private String book;
+    private String trader;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate from;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate to;
+
+    public String getAccount() {
+        return account;
+    }
+
+    public void setAccount(String account) {
+        this.account = account;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getSecurity() {
+        return security;
+    }
+
+    public void setSecurity(String security) {
+        this.security = security;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getBook() {
+        return book;
+    }
+
+    public void setBook(String book) {
+        this.book = book;
+    }
+
+    public String getTrader() {
+        return trader;
+    }
+
+    public void setTrader(String trader) {
+        this.trader = trader;
+    }
+
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public void setFrom(LocalDate from) {
+        this.from = from;
+    }
+
+    public LocalDate getTo() {
+        return to;
+    }
+
+    public void setTo(LocalDate to) {
+        this.to = to;
+    }
+
+    /**
+     * @return the non-blank filters as {@code &name=value} pairs, to append to sort and paging links
+     */
+    public String getQueryString() {
+        StringBuilder query = new StringBuilder();
+        append(query, "account", account);
+        append(query, "type", type);
+        append(query, "security", security);
+        append(query, "status", status);
+        append(query, "book", book);
+        append(query, "trader", trader);
+        append(query, "from", from == null ? null : from.toString());
+        append(query, "to", to == null ? null : to.toString());
+        return query.toString();
+    }
+
+    private static void append(StringBuilder query, String name, String value) {
+        if (StringUtils.hasText(value)) {
+            query.append('&').append(name).append('=').append(URLEncoder.encode(value, StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.nnk.springboot.dto;
+
+/**
+ * Outcome of one journal snapshot.
+ */
+public class JournalSnapshotResult {
+
+    private final long sequence;
+    private final int entities;
+    private final long eventsApplied;
+    private final long elapsedMillis;
+
+    public JournalSnapshotResult(long sequence, int entities, long eventsApplied, long elapsedMillis) {
+        this.sequence = sequence;
+        this.entities = entities;
+        this.eventsApplied = eventsApplied;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    /**
+     * @return the sequence of the last journal event in the snapshot
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    public int getEntities() {
+        return entities;
+    }
+
+    /**
+     * @return the number of events replayed on top of the previous snapshot
+     */
+    public long getEventsApplied() {
+        return eventsApplied;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+}
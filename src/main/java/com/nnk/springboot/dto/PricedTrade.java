@@ -0,0 +1,54 @@
+package com.nnk.springboot.dto;
+
+/**
+ * The quantity and price columns of a Trade row, used to compute its P&L.
+ */
+public class PricedTrade {
+
+    private final Integer tradeId;
+    private final String book;
+    private final String security;
+    private final Double buyQuantity;
+    private final Double buyPrice;
+    private final Double sellQuantity;
+    private final Double sellPrice;
+
+    public PricedTrade(Integer tradeId, String book, String security, Double buyQuantity, Double buyPrice,
+                       Double sellQuantity, Double sellPrice) {
+        this.tradeId = tradeId;
+        this.book = book;
+        this.security = security;
+        this.buyQuantity = buyQuantity;
+        this.buyPrice = buyPrice;
+        this.sellQuantity = sellQuantity;
+        this.sellPrice = sellPrice;
+    }
+
+    public Integer getTradeId() {
+        return tradeId;
+    }
+
+    public String getBook() {
+        return book;
+    }
+
+    public String getSecurity() {
+        return security;
+    }
+
+    public Double getBuyQuantity() {
+        return buyQuantity;
+    }
+
+    public Double getBuyPrice() {
+        return buyPrice;
+    }
+
+    public Double getSellQuantity() {
+        return sellQuantity;
+    }
+
+    public Double getSellPrice() {
+        return sellPrice;
+    }
+}
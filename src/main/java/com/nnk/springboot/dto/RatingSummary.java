@@ -0,0 +1,41 @@
+package com.nnk.springboot.dto;
+
+/**
+ * Read-only projection of a Rating row for the rating list page.
+ */
+public class RatingSummary {
+
+    private final Integer id;
+    private final String moodysRating;
+    private final String sandPRating;
+    private final String fitchRating;
+    private final Integer orderNumber;
+
+    public RatingSummary(Integer id, String moodysRating, String sandPRating, String fitchRating, Integer orderNumber) {
+        this.id = id;
+        this.moodysRating = moodysRating;
+        this.sandPRating = sandPRating;
+        this.fitchRating = fitchRating;
+        this.orderNumber = orderNumber;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public String getMoodysRating() {
+        return moodysRating;
+    }
+
+    public String getSandPRating() {
+        return sandPRating;
+    }
+
+    public String getFitchRating() {
+        return fitchRating;
+    }
+
+    public Integer getOrderNumber() {
+        return orderNumber;
+    }
+}
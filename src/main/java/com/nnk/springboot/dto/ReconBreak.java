@@ -0,0 +1,81 @@
+package com.nnk.springboot.dto;
+
+import com.nnk.springboot.recon.ReconBreakType;
+
+import java.util.List;
+
+/**
+ * One break found by a reconciliation: a key whose BidLists and Trades do not agree, or a row
+ * that has no key. The ids list at most the first few rows of each side.
+ */
+public class ReconBreak {
+
+    private final ReconBreakType type;
+    private final String key;
+    private final int bidCount;
+    private final int tradeCount;
+    private final double bidQuantity;
+    private final double buyQuantity;
+    private final double askQuantity;
+    private final double sellQuantity;
+    private final List<Integer> bidListIds;
+    private final List<Integer> tradeIds;
+
+    public ReconBreak(ReconBreakType type, String key, int bidCount, int tradeCount, double bidQuantity,
+                      double buyQuantity, double askQuantity, double sellQuantity, List<Integer> bidListIds,
+                      List<Integer> tradeIds) {
+        this.type = type;
+        this.key = key;
+        this.bidCount = bidCount;
+        this.tradeCount = tradeCount;
+        this.bidQuantity = bidQuantity;
+        this.buyQuantity = buyQuantity;
+        this.askQuantity = askQuantity;
+        this.sellQuantity = sellQuantity;
+        this.bidListIds = List.copyOf(bidListIds);
+        this.tradeIds = List.copyOf(tradeIds);
+    }
+
+    public ReconBreakType getType() {
+        return type;
+    }
+
+    /**
+     * @return the values of the key columns joined by {@code |}, or null for a {@code MISSING_KEY} break
+     */
+    public String getKey() {
+        return key;
+    }
+
+    public int getBidCount() {
+        return bidCount;
+    }
+
+    public int getTradeCount() {
+        return tradeCount;
+    }
+
+    public double getBidQuantity() {
+        return bidQuantity;
+    }
+
+    public double getBuyQuantity() {
+        return buyQuantity;
+    }
+
+    public double getAskQuantity() {
+        return askQuantity;
+    }
+
+    public double getSellQuantity() {
+        return sellQuantity;
+    }
+
+    public List<Integer> getBidListIds() {
+        return bidListIds;
+    }
+
+    public List<Integer> getTradeIds() {
+        return tradeIds;
+    }
+}
@@ -0,0 +1,70 @@
+package com.nnk.springboot.dto;
+
+/**
+ * The key and quantity columns of a BidList or Trade row, read by the reconciliation.
+ * <p>
+ * For a BidList, {@code quantity} is the bid quantity and {@code oppositeQuantity} the ask
+ * quantity; for a Trade, they are the buy and the sell quantity.
+ * </p>
+ */
+public class ReconRow {
+
+    private final Integer id;
+    private final String dealName;
+    private final String dealType;
+    private final String sourceListId;
+    private final String account;
+    private final String book;
+    private final String security;
+    private final Double quantity;
+    private final Double oppositeQuantity;
+
+    public ReconRow(Integer id, String dealName, String dealType, String sourceListId, String account, String book,
+                    String security, Double quantity, Double oppositeQuantity) {
+        this.id = id;
+        this.dealName = dealName;
+        this.dealType = dealType;
+        this.sourceListId = sourceListId;
+        this.account = account;
+        this.book = book;
+        this.security = security;
+        this.quantity = quantity;
+        this.oppositeQuantity = oppositeQuantity;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public String getDealName() {
+        return dealName;
+    }
+
+    public String getDealType() {
+        return dealType;
+    }
+
+    public String getSourceListId() {
+        return sourceListId;
+    }
+
+    public String getAccount() {
+        return account;
+    }
+
+    public String getBook() {
+        return book;
+    }
+
+    public String getSecurity() {
+        return security;
+    }
+
+    public Double getQuantity() {
+        return quantity;
+    }
+
+    public Double getOppositeQuantity() {
+        return oppositeQuantity;
+    }
+}
@@ -0,0 +1,107 @@
+package com.nnk.springboot.dto;
+
+import com.nnk.springboot.recon.ReconField;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Outcome of one BidList-to-Trade reconciliation.
+ * <p>
+ * The counts cover every key of the day; {@code breaks} only lists the first ones found, the
+ * full list being in the report downloaded by {@code id}. {@code spilledPartitions} is 0 when
+ * the keys of the day fitted in memory.
+ * </p>
+ */
+public class ReconciliationResult {
+
+    private final String id;
+    private final LocalDate date;
+    private final List<ReconField> keys;
+    private final long bidLists;
+    private final long trades;
+    private final long matched;
+    private final long unmatchedBids;
+    private final long unmatchedTrades;
+    private final long quantityMismatches;
+    private final long missingKeys;
+    private final int spilledPartitions;
+    private final long elapsedMillis;
+    private final List<ReconBreak> breaks;
+
+    public ReconciliationResult(String id, LocalDate date, List<ReconField> keys, long bidLists, long trades,
+                                long matched, long unmatchedBids, long unmatchedTrades, long quantityMismatches,
+                                long missingKeys, int spilledPartitions, long elapsedMillis, List<ReconBreak> breaks) {
+        this.id = id;
+        this.date = date;
+        this.keys = List.copyOf(keys);
+        this.bidLists = bidLists;
+        this.trades = trades;
+        this.matched = matched;
+        this.unmatchedBids = unmatchedBids;
+        this.unmatchedTrades = unmatchedTrades;
+        this.quantityMismatches = quantityMismatches;
+        this.missingKeys = missingKeys;
+        this.spilledPartitions = spilledPartitions;
+        this.elapsedMillis = elapsedMillis;
+        this.breaks = List.copyOf(breaks);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public List<ReconField> getKeys() {
+        return keys;
+    }
+
+    public long getBidLists() {
+        return bidLists;
+    }
+
+    public long getTrades() {
+        return trades;
+    }
+
+    /**
+     * @return the number of keys whose BidLists and Trades agree
+     */
+    public long getMatched() {
+        return matched;
+    }
+
+    public long getUnmatchedBids() {
+        return unmatchedBids;
+    }
+
+    public long getUnmatchedTrades() {
+        return unmatchedTrades;
+    }
+
+    public long getQuantityMismatches() {
+        return quantityMismatches;
+    }
+
+    /**
+     * @return the number of rows left out because a key column is empty
+     */
+    public long getMissingKeys() {
+        return missingKeys;
+    }
+
+    public int getSpilledPartitions() {
+        return spilledPartitions;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public List<ReconBreak> getBreaks() {
+        return breaks;
+    }
+}
@@ -0,0 +1,49 @@
+package com.nnk.springboot.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outcome of one recomputation of the trade rollups over a time range.
+ */
+public class RollupBackfillResult {
+
+    private final LocalDateTime from;
+    private final LocalDateTime to;
+    private final long trades;
+    private final int buckets;
+    private final long elapsedMillis;
+
+    public RollupBackfillResult(LocalDateTime from, LocalDateTime to, long trades, int buckets, long elapsedMillis) {
+        this.from = from;
+        this.to = to;
+        this.trades = trades;
+        this.buckets = buckets;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public LocalDateTime getFrom() {
+        return from;
+    }
+
+    public LocalDateTime getTo() {
+        return to;
+    }
+
+    /**
+     * @return the number of trades read, from the trade table and the archive
+     */
+    public long getTrades() {
+        return trades;
+    }
+
+    /**
+     * @return the number of non-empty buckets written
+     */
+    public int getBuckets() {
+        return buckets;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+}
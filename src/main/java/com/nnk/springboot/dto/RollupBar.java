@@ -0,0 +1,85 @@
+package com.nnk.springboot.dto;
+
+import com.nnk.springboot.rollup.RollupInterval;
+
+import java.time.LocalDateTime;
+
+/**
+ * The OHLC prices, volume and VWAP of the trades of one security over one time bucket.
+ */
+public class RollupBar {
+
+    private final String security;
+    private final RollupInterval interval;
+    private final LocalDateTime start;
+    private final double open;
+    private final double high;
+    private final double low;
+    private final double close;
+    private final double volume;
+    private final double vwap;
+    private final int tradeCount;
+
+    public RollupBar(String security, RollupInterval interval, LocalDateTime start, double open, double high,
+                     double low, double close, double volume, double vwap, int tradeCount) {
+        this.security = security;
+        this.interval = interval;
+        this.start = start;
+        this.open = open;
+        this.high = high;
+        this.low = low;
+        this.close = close;
+        this.volume = volume;
+        this.vwap = vwap;
+        this.tradeCount = tradeCount;
+    }
+
+    public String getSecurity() {
+        return security;
+    }
+
+    public RollupInterval getInterval() {
+        return interval;
+    }
+
+    /**
+     * @return the start of the bucket, in the system time zone
+     */
+    public LocalDateTime getStart() {
+        return start;
+    }
+
+    public double getOpen() {
+        return open;
+    }
+
+    public double getHigh() {
+        return high;
+    }
+
+    public double getLow() {
+        return low;
+    }
+
+    public double getClose() {
+        return close;
+    }
+
+    /**
+     * @return the quantity bought and sold in the bucket
+     */
+    public double getVolume() {
+        return volume;
+    }
+
+    /**
+     * @return the volume-weighted average price of the bucket
+     */
+    public double getVwap() {
+        return vwap;
+    }
+
+    public int getTradeCount() {
+        return tradeCount;
+    }
+}
@@ -0,0 +1,53 @@
+package com.nnk.springboot.dto;
+
+/**
+ * Read-only projection of a RuleName row for the rule list page.
+ */
+public class RuleNameSummary {
+
+    private final Integer id;
+    private final String name;
+    private final String description;
+    private final String json;
+    private final String template;
+    private final String sqlStr;
+    private final String sqlPart;
+
+    public RuleNameSummary(Integer id, String name, String description, String json, String template, String sqlStr, String sqlPart) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.json = json;
+        this.template = template;
+        this.sqlStr = sqlStr;
+        this.sqlPart = sqlPart;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public String getJson() {
+        return json;
+    }
+
+    public String getTemplate() {
+        return template;
+    }
+
+    public String getSqlStr() {
+        return sqlStr;
+    }
+
+    public String getSqlPart() {
+        return sqlPart;
+    }
+}
@@ -0,0 +1,40 @@
+package com.nnk.springboot.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outcome of one run of the trade archival job.
+ */
+public class TradeArchiveResult {
+
+    private final LocalDateTime cutoff;
+    private final long archivedTrades;
+    private final int filesWritten;
+    private final long elapsedMillis;
+
+    public TradeArchiveResult(LocalDateTime cutoff, long archivedTrades, int filesWritten, long elapsedMillis) {
+        this.cutoff = cutoff;
+        this.archivedTrades = archivedTrades;
+        this.filesWritten = filesWritten;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    /**
+     * @return the trade date before which trades were archived
+     */
+    public LocalDateTime getCutoff() {
+        return cutoff;
+    }
+
+    public long getArchivedTrades() {
+        return archivedTrades;
+    }
+
+    public int getFilesWritten() {
+        return filesWritten;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+}
@@ -0,0 +1,43 @@
+package com.nnk.springboot.dto;
+
+import com.nnk.springboot.model.Trade;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * One page of the trade history, merged from the trade table and the archive, with the cursor
+ * to pass back for the following page. The cursor is the (tradeDate, tradeId) of the last trade,
+ * or null when the page is empty; an undated last trade has only a nextAfterId.
+ */
+public class TradeHistoryPage {
+
+    private final List<Trade> trades;
+    private final boolean hasNext;
+    private final LocalDateTime nextAfterDate;
+    private final Integer nextAfterId;
+
+    public TradeHistoryPage(List<Trade> trades, boolean hasNext) {
+        this.trades = trades;
+        this.hasNext = hasNext;
+        Trade last = trades.isEmpty() ? null : trades.get(trades.size() - 1);
+        this.nextAfterDate = last == null || last.getTradeDate() == null ? null : last.getTradeDate().toLocalDateTime();
+        this.nextAfterId = last == null ? null : last.getTradeId();
+    }
+
+    public List<Trade> getTrades() {
+        return trades;
+    }
+
+    public boolean isHasNext() {
+        return hasNext;
+    }
+
+    public LocalDateTime getNextAfterDate() {
+        return nextAfterDate;
+    }
+
+    public Integer getNextAfterId() {
+        return nextAfterId;
+    }
+}
@@ -0,0 +1,99 @@
+package com.nnk.springboot.dto;
+
+import java.util.List;
+
+/**
+ * Snapshot of a trade file import, running or finished.
+ * <p>
+ * Chunks committed by an earlier run of the same file are counted in {@code chunksSkipped}
+ * and their bytes in {@code bytesDone}, but not their rows, so {@code rowsPerSecond} only
+ * measures this run. {@code errors} lists the first rejected lines by file offset.
+ * </p>
+ */
+public class TradeImportProgress {
+
+    public enum State { RUNNING, COMPLETED, FAILED }
+
+    private final String file;
+    private final State state;
+    private final long totalBytes;
+    private final long bytesDone;
+    private final int chunks;
+    private final int chunksDone;
+    private final int chunksSkipped;
+    private final long rowsImported;
+    private final long rowsRejected;
+    private final long elapsedMillis;
+    private final List<String> errors;
+
+    public TradeImportProgress(String file, State state, long totalBytes, long bytesDone, int chunks, int chunksDone,
+                               int chunksSkipped, long rowsImported, long rowsRejected, long elapsedMillis,
+                               List<String> errors) {
+        this.file = file;
+        this.state = state;
+        this.totalBytes = totalBytes;
+        this.bytesDone = bytesDone;
+        this.chunks = chunks;
+        this.chunksDone = chunksDone;
+        this.chunksSkipped = chunksSkipped;
+        this.rowsImported = rowsImported;
+        this.rowsRejected = rowsRejected;
+        this.elapsedMillis = elapsedMillis;
+        this.errors = List.copyOf(errors);
+    }
+
+    public String getFile() {
+        return file;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public long getBytesDone() {
+        return bytesDone;
+    }
+
+    public int getChunks() {
+        return chunks;
+    }
+
+    /**
+     * @return the chunks committed so far, including those skipped on resume
+     */
+    public int getChunksDone() {
+        return chunksDone;
+    }
+
+    public int getChunksSkipped() {
+        return chunksSkipped;
+    }
+
+    public long getRowsImported() {
+        return rowsImported;
+    }
+
+    public long getRowsRejected() {
+        return rowsRejected;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public long getRowsPerSecond() {
+        return elapsedMillis == 0 ? 0 : rowsImported * 1000 / elapsedMillis;
+    }
+
+    public double getPercentDone() {
+        return totalBytes == 0 ? 100.0 : 100.0 * bytesDone / totalBytes;
+    }
+
+    public List<String> getErrors() {
+        return errors;
+    }
+}
@@ -0,0 +1,48 @@
+package com.nnk.springboot.dto;
+
+/**
+ * The position columns of a Trade row, used to build the in-memory net positions.
+ */
+public class TradeLeg {
+
+    private final Integer tradeId;
+    private final String account;
+    private final String book;
+    private final String security;
+    private final Double buyQuantity;
+    private final Double sellQuantity;
+
+    public TradeLeg(Integer tradeId, String account, String book, String security, Double buyQuantity,
+                    Double sellQuantity) {
+        this.tradeId = tradeId;
+        this.account = account;
+        this.book = book;
+        this.security = security;
+        this.buyQuantity = buyQuantity;
+        this.sellQuantity = sellQuantity;
+    }
+
+    public Integer getTradeId() {
+        return tradeId;
+    }
+
+    public String getAccount() {
+        return account;
+    }
+
+    public String getBook() {
+        return book;
+    }
+
+    public String getSecurity() {
+        return security;
+    }
+
+    public Double getBuyQuantity() {
+        return buyQuantity;
+    }
+
+    public Double getSellQuantity() {
+        return sellQuantity;
+    }
+}
@@ -0,0 +1,35 @@
+package com.nnk.springboot.dto;
+
+/**
+ * Read-only projection of a Trade row for the trade list page.
+ */
+public class TradeSummary {
+
+    private final Integer tradeId;
+    private final String account;
+    private final String type;
+    private final Double buyQuantity;
+
+    public TradeSummary(Integer tradeId, String account, String type, Double buyQuantity) {
+        this.tradeId = tradeId;
+        this.account = account;
+        this.type = type;
+        this.buyQuantity = buyQuantity;
+    }
+
+    public Integer getTradeId() {
+        return tradeId;
+    }
+
+    public String getAccount() {
+        return account;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public Double getBuyQuantity() {
+        return buyQuantity;
+    }
+}
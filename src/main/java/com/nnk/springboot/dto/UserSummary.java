@@ -0,0 +1,35 @@
+package com.nnk.springboot.dto;
+
+/**
+ * Read-only projection of a User row for the user list page; the password hash is never loaded.
+ */
+public class UserSummary {
+
+    private final Integer id;
+    private final String username;
+    private final String fullname;
+    private final String role;
+
+    public UserSummary(Integer id, String username, String fullname, String role) {
+        this.id = id;
+        this.username = username;
+        this.fullname = fullname;
+        this.role = role;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getFullname() {
+        return fullname;
+    }
+
+    public String getRole() {
+        return role;
+    }
+}
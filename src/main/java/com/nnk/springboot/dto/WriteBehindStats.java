@@ -0,0 +1,105 @@
+package com.nnk.springboot.dto;
+
+/**
+ * Queue depth and drain latency of the write-behind queue.
+ * <p>
+ * The drain latency of an entry runs from its acknowledgement to the commit of the batch that
+ * wrote it. {@code acknowledgedOffset} is the last journal offset on disk, {@code appliedOffset}
+ * the last one below which every entry is in the database or dead-lettered.
+ * </p>
+ */
+public class WriteBehindStats {
+
+    private final boolean enabled;
+    private final int capacity;
+    private final int depth;
+    private final long enqueued;
+    private final long written;
+    private final long rejected;
+    private final long batches;
+    private final int lastBatchSize;
+    private final double averageDrainMillis;
+    private final double maxDrainMillis;
+    private final long acknowledgedOffset;
+    private final long appliedOffset;
+    private final long deadLettered;
+
+    public WriteBehindStats(boolean enabled, int capacity, int depth, long enqueued, long written, long rejected,
+                            long batches, int lastBatchSize, double averageDrainMillis, double maxDrainMillis,
+                            long acknowledgedOffset, long appliedOffset, long deadLettered) {
+        this.enabled = enabled;
+        this.capacity = capacity;
+        this.depth = depth;
+        this.enqueued = enqueued;
+        this.written = written;
+        this.rejected = rejected;
+        this.batches = batches;
+        this.lastBatchSize = lastBatchSize;
+        this.averageDrainMillis = averageDrainMillis;
+        this.maxDrainMillis = maxDrainMillis;
+        this.acknowledgedOffset = acknowledgedOffset;
+        this.appliedOffset = appliedOffset;
+        this.deadLettered = deadLettered;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return the number of entries acknowledged or being acknowledged, and not yet written
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    public long getEnqueued() {
+        return enqueued;
+    }
+
+    public long getWritten() {
+        return written;
+    }
+
+    /**
+     * @return the number of submissions refused because the queue stayed full
+     */
+    public long getRejected() {
+        return rejected;
+    }
+
+    public long getBatches() {
+        return batches;
+    }
+
+    public int getLastBatchSize() {
+        return lastBatchSize;
+    }
+
+    public double getAverageDrainMillis() {
+        return averageDrainMillis;
+    }
+
+    public double getMaxDrainMillis() {
+        return maxDrainMillis;
+    }
+
+    public long getAcknowledgedOffset() {
+        return acknowledgedOffset;
+    }
+
+    public long getAppliedOffset() {
+        return appliedOffset;
+    }
+
+    /**
+     * @return the number of entries moved to the dead letter file since start
+     */
+    public long getDeadLettered() {
+        return deadLettered;
+    }
+}
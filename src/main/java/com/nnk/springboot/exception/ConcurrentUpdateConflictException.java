@@ -0,0 +1,27 @@
+package com.nnk.springboot.exception;
+
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.util.List;
+
+/**
+ * Thrown when an update made on a stale version cannot be merged with the changes committed since.
+ */
+public class ConcurrentUpdateConflictException extends ObjectOptimisticLockingFailureException {
+
+    private final List<String> conflictingFields;
+
+    public ConcurrentUpdateConflictException(Class<?> entityClass, Integer id, List<String> conflictingFields) {
+        super(entityClass, id, "Concurrent update of " + entityClass.getSimpleName() + " " + id
+                + " conflicts on " + conflictingFields, null);
+        this.conflictingFields = List.copyOf(conflictingFields);
+    }
+
+    /**
+     * @return the fields changed both by this update and by a concurrent one, or empty if the
+     * update kept losing the race without a field conflict
+     */
+    public List<String> getConflictingFields() {
+        return conflictingFields;
+    }
+}
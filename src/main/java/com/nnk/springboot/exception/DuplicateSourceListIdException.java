@@ -0,0 +1,42 @@
+package com.nnk.springboot.exception;
+
+import org.springframework.dao.DuplicateKeyException;
+
+import java.util.Locale;
+
+/**
+ * Thrown when a new entity carries the sourceListId of an entity already saved.
+ */
+public class DuplicateSourceListIdException extends DuplicateKeyException {
+
+    private final String sourceListId;
+
+    public DuplicateSourceListIdException(Class<?> entityClass, String sourceListId) {
+        super(entityClass.getSimpleName() + " with sourceListId " + sourceListId + " already exists");
+        this.sourceListId = sourceListId;
+    }
+
+    public String getSourceListId() {
+        return sourceListId;
+    }
+
+    /**
+     * Tell whether a failed write broke the unique index on sourceListId, as an insert racing
+     * another insert of the same id does once both have passed the duplicate check.
+     *
+     * @param failure the exception thrown by the write
+     * @return true if the exception or one of its causes names a sourceListId unique index
+     */
+    public static boolean isSourceListIdViolation(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DuplicateSourceListIdException) {
+                return true;
+            }
+            String message = cause.getMessage();
+            if (message != null && message.toLowerCase(Locale.ROOT).contains("source_list_id")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
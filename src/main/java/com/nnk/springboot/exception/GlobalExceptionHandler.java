@@ -1,5 +1,9 @@
 package com.nnk.springboot.exception;
 
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -30,6 +34,26 @@ public class GlobalExceptionHandler {
         return "error/404";
     }
 
+    /**
+     * Handles a write that broke the unique index on sourceListId, which an insert racing another
+     * insert of the same id does after both passed the duplicate check, as a duplicate: HTTP 409.
+     * Any other integrity violation is left to the default handling.
+     *
+     * @param ex the exception thrown
+     * @return the duplicate response
+     * @throws RuntimeException the exception itself, if it is not about sourceListId
+     */
+    @ExceptionHandler({DataIntegrityViolationException.class, ConstraintViolationException.class})
+    public ResponseEntity<String> handleIntegrityViolation(RuntimeException ex) {
+        if (!DuplicateSourceListIdException.isSourceListIdViolation(ex)) {
+            throw ex;
+        }
+        String message = ex instanceof DuplicateSourceListIdException duplicate
+                ? duplicate.getMessage()
+                : "An entity with the same sourceListId already exists";
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(message);
+    }
+
     /**
      * Handles 404 errors (no matching handler found for the request).
      *
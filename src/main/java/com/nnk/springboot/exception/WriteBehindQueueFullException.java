@@ -0,0 +1,15 @@
+package com.nnk.springboot.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when the write-behind queue stayed full for longer than a writer may wait.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class WriteBehindQueueFullException extends RuntimeException {
+
+    public WriteBehindQueueFullException(int capacity, long waitedMillis) {
+        super("Write-behind queue of " + capacity + " entries still full after " + waitedMillis + " ms");
+    }
+}
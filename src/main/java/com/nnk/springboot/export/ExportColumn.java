@@ -0,0 +1,27 @@
+package com.nnk.springboot.export;
+
+import java.util.function.Function;
+
+/**
+ * A named column of an export, with the function reading its value from a row.
+ *
+ * @param <T> the exported row type
+ */
+public class ExportColumn<T> {
+
+    private final String name;
+    private final Function<T, ?> extractor;
+
+    public ExportColumn(String name, Function<T, ?> extractor) {
+        this.name = name;
+        this.extractor = extractor;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Object valueOf(T row) {
+        return extractor.apply(row);
+    }
+}
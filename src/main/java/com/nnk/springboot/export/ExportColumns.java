@@ -0,0 +1,97 @@
+package com.nnk.springboot.export;
+
+import com.nnk.springboot.dto.BlotterRow;
+import com.nnk.springboot.dto.ReconBreak;
+import com.nnk.springboot.model.BidList;
+import com.nnk.springboot.model.Trade;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Column layouts of the BidList and Trade exports, in table column order, of the trade blotter
+ * and of the reconciliation breaks.
+ */
+public final class ExportColumns {
+
+    public static final List<ExportColumn<BidList>> BID_LIST = List.of(
+            new ExportColumn<>("bidListId", BidList::getBidListId),
+            new ExportColumn<>("account", BidList::getAccount),
+            new ExportColumn<>("type", BidList::getType),
+            new ExportColumn<>("bidQuantity", BidList::getBidQuantity),
+            new ExportColumn<>("askQuantity", BidList::getAskQuantity),
+            new ExportColumn<>("bid", BidList::getBid),
+            new ExportColumn<>("ask", BidList::getAsk),
+            new ExportColumn<>("benchmark", BidList::getBenchmark),
+            new ExportColumn<>("bidListDate", BidList::getBidListDate),
+            new ExportColumn<>("commentary", BidList::getCommentary),
+            new ExportColumn<>("security", BidList::getSecurity),
+            new ExportColumn<>("status", BidList::getStatus),
+            new ExportColumn<>("trader", BidList::getTrader),
+            new ExportColumn<>("book", BidList::getBook),
+            new ExportColumn<>("creationName", BidList::getCreationName),
+            new ExportColumn<>("creationDate", BidList::getCreationDate),
+            new ExportColumn<>("revisionName", BidList::getRevisionName),
+            new ExportColumn<>("revisionDate", BidList::getRevisionDate),
+            new ExportColumn<>("dealName", BidList::getDealName),
+            new ExportColumn<>("dealType", BidList::getDealType),
+            new ExportColumn<>("sourceListId", BidList::getSourceListId),
+            new ExportColumn<>("side", BidList::getSide));
+
+    public static final List<ExportColumn<Trade>> TRADE = List.of(
+            new ExportColumn<>("tradeId", Trade::getTradeId),
+            new ExportColumn<>("account", Trade::getAccount),
+            new ExportColumn<>("type", Trade::getType),
+            new ExportColumn<>("buyQuantity", Trade::getBuyQuantity),
+            new ExportColumn<>("sellQuantity", Trade::getSellQuantity),
+            new ExportColumn<>("buyPrice", Trade::getBuyPrice),
+            new ExportColumn<>("sellPrice", Trade::getSellPrice),
+            new ExportColumn<>("tradeDate", Trade::getTradeDate),
+            new ExportColumn<>("security", Trade::getSecurity),
+            new ExportColumn<>("status", Trade::getStatus),
+            new ExportColumn<>("trader", Trade::getTrader),
+            new ExportColumn<>("benchmark", Trade::getBenchmark),
+            new ExportColumn<>("book", Trade::getBook),
+            new ExportColumn<>("creationName", Trade::getCreationName),
+            new ExportColumn<>("creationDate", Trade::getCreationDate),
+            new ExportColumn<>("revisionName", Trade::getRevisionName),
+            new ExportColumn<>("revisionDate", Trade::getRevisionDate),
+            new ExportColumn<>("dealName", Trade::getDealName),
+            new ExportColumn<>("dealType", Trade::getDealType),
+            new ExportColumn<>("sourceListId", Trade::getSourceListId),
+            new ExportColumn<>("side", Trade::getSide));
+
+    public static final List<ExportColumn<BlotterRow>> BLOTTER = List.of(
+            new ExportColumn<>("tradeId", BlotterRow::getTradeId),
+            new ExportColumn<>("tradeDate", BlotterRow::getTradeDate),
+            new ExportColumn<>("book", BlotterRow::getBook),
+            new ExportColumn<>("account", BlotterRow::getAccount),
+            new ExportColumn<>("type", BlotterRow::getType),
+            new ExportColumn<>("security", BlotterRow::getSecurity),
+            new ExportColumn<>("side", BlotterRow::getSide),
+            new ExportColumn<>("buyQuantity", BlotterRow::getBuyQuantity),
+            new ExportColumn<>("buyPrice", BlotterRow::getBuyPrice),
+            new ExportColumn<>("sellQuantity", BlotterRow::getSellQuantity),
+            new ExportColumn<>("sellPrice", BlotterRow::getSellPrice),
+            new ExportColumn<>("status", BlotterRow::getStatus),
+            new ExportColumn<>("trader", BlotterRow::getTrader));
+
+    public static final List<ExportColumn<ReconBreak>> RECON_BREAK = List.of(
+            new ExportColumn<>("type", ReconBreak::getType),
+            new ExportColumn<>("key", ReconBreak::getKey),
+            new ExportColumn<>("bidCount", ReconBreak::getBidCount),
+            new ExportColumn<>("tradeCount", ReconBreak::getTradeCount),
+            new ExportColumn<>("bidQuantity", ReconBreak::getBidQuantity),
+            new ExportColumn<>("buyQuantity", ReconBreak::getBuyQuantity),
+            new ExportColumn<>("askQuantity", ReconBreak::getAskQuantity),
+            new ExportColumn<>("sellQuantity", ReconBreak::getSellQuantity),
+            new ExportColumn<>("bidListIds", row -> ids(row.getBidListIds())),
+            new ExportColumn<>("tradeIds", row -> ids(row.getTradeIds())));
+
+    private ExportColumns() {
+    }
+
+    private static String ids(List<Integer> ids) {
+        return ids.stream().map(String::valueOf).collect(Collectors.joining(" "));
+    }
+}
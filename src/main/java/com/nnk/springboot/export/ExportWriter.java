@@ -0,0 +1,133 @@
+package com.nnk.springboot.export;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Writes rows one at a time to an output stream as CSV or newline-delimited JSON.
+ * <p>
+ * Nothing is buffered beyond the underlying writer, so memory use does not depend
+ * on the number of rows written.
+ * </p>
+ *
+ * @param <T> the exported row type
+ */
+public class ExportWriter<T> {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final ExportFormat format;
+    private final List<ExportColumn<T>> columns;
+    private final Writer writer;
+    private final JsonGenerator json;
+
+    public ExportWriter(OutputStream out, ExportFormat format, List<ExportColumn<T>> columns) throws IOException {
+        this.format = format;
+        this.columns = columns;
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == ExportFormat.NDJSON) {
+            this.json = JSON_FACTORY.createGenerator(writer);
+            // Rows are separated by the newline written after each object
+            json.setRootValueSeparator(null);
+        } else {
+            this.json = null;
+            writeCsvHeader();
+        }
+    }
+
+    /**
+     * Writes one row.
+     *
+     * @param row the row to write
+     * @throws IOException if the output stream fails
+     */
+    public void write(T row) throws IOException {
+        if (format == ExportFormat.CSV) {
+            writeCsvRow(row);
+        } else {
+            writeJsonRow(row);
+        }
+    }
+
+    /**
+     * Flushes everything written so far to the output stream, without closing it.
+     *
+     * @throws IOException if the output stream fails
+     */
+    public void flush() throws IOException {
+        if (json != null) {
+            json.flush();
+        }
+        writer.flush();
+    }
+
+    private void writeCsvHeader() throws IOException {
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(columns.get(i).getName());
+        }
+        writer.write('\n');
+    }
+
+    private void writeCsvRow(T row) throws IOException {
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            Object value = columns.get(i).valueOf(row);
+            if (value != null) {
+                writeCsvValue(format(value));
+            }
+        }
+        writer.write('\n');
+    }
+
+    private void writeCsvValue(String value) throws IOException {
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private void writeJsonRow(T row) throws IOException {
+        json.writeStartObject();
+        for (ExportColumn<T> column : columns) {
+            Object value = column.valueOf(row);
+            json.writeFieldName(column.getName());
+            if (value == null) {
+                json.writeNull();
+            } else if (value instanceof Integer number) {
+                json.writeNumber(number);
+            } else if (value instanceof Double number) {
+                json.writeNumber(number);
+            } else {
+                json.writeString(format(value));
+            }
+        }
+        json.writeEndObject();
+        json.writeRaw('\n');
+    }
+
+    private static String format(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime().toString();
+        }
+        return value.toString();
+    }
+}
@@ -0,0 +1,111 @@
+package com.nnk.springboot.ingest;
+
+import com.nnk.springboot.model.BidList;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+import static java.util.Map.entry;
+
+/**
+ * Reads BidList rows from a CSV document whose first line names the columns.
+ * <p>
+ * Column names are those of the BidList export, so an exported file can be
+ * ingested again; the {@code bidListId} column is ignored since ingested rows
+ * always get a new id.
+ * </p>
+ */
+public final class BidListCsvReader {
+
+    private static final Map<String, BiConsumer<BidList, String>> COLUMNS = Map.ofEntries(
+            entry("bidListId", (bid, value) -> { }),
+            entry("account", BidList::setAccount),
+            entry("type", BidList::setType),
+            entry("bidQuantity", (bid, value) -> bid.setBidQuantity(Double.valueOf(value))),
+            entry("askQuantity", (bid, value) -> bid.setAskQuantity(Double.valueOf(value))),
+            entry("bid", (bid, value) -> bid.setBid(Double.valueOf(value))),
+            entry("ask", (bid, value) -> bid.setAsk(Double.valueOf(value))),
+            entry("benchmark", BidList::setBenchmark),
+            entry("bidListDate", (bid, value) -> bid.setBidListDate(toTimestamp(value))),
+            entry("commentary", BidList::setCommentary),
+            entry("security", BidList::setSecurity),
+            entry("status", BidList::setStatus),
+            entry("trader", BidList::setTrader),
+            entry("book", BidList::setBook),
+            entry("creationName", BidList::setCreationName),
+            entry("creationDate", (bid, value) -> bid.setCreationDate(toTimestamp(value))),
+            entry("revisionName", BidList::setRevisionName),
+            entry("revisionDate", (bid, value) -> bid.setRevisionDate(toTimestamp(value))),
+            entry("dealName", BidList::setDealName),
+            entry("dealType", BidList::setDealType),
+            entry("sourceListId", BidList::setSourceListId),
+            entry("side", BidList::setSide));
+
+    private BidListCsvReader() {
+    }
+
+    /**
+     * Reads every row of the document.
+     *
+     * @param reader the CSV document
+     * @return the parsed BidList rows, in document order
+     * @throws IOException              if reading fails
+     * @throws IllegalArgumentException if the header names an unknown column or a value cannot be parsed
+     */
+    public static List<BidList> read(Reader reader) throws IOException {
+        BufferedReader lines = new BufferedReader(reader);
+        String header = lines.readLine();
+        if (header == null) {
+            return List.of();
+        }
+
+        List<BiConsumer<BidList, String>> setters = new ArrayList<>();
+        for (String name : CsvLineParser.parse(header)) {
+            BiConsumer<BidList, String> setter = name == null ? null : COLUMNS.get(name.trim());
+            if (setter == null) {
+                throw new IllegalArgumentException("Unknown BidList CSV column: " + name);
+            }
+            setters.add(setter);
+        }
+
+        List<BidList> bidLists = new ArrayList<>();
+        String line;
+        int lineNumber = 1;
+        while ((line = lines.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            List<String> values = CsvLineParser.parse(line);
+            if (values.size() != setters.size()) {
+                throw new IllegalArgumentException("Line " + lineNumber + ": expected " + setters.size()
+                        + " fields but found " + values.size());
+            }
+            BidList bidList = new BidList();
+            for (int i = 0; i < values.size(); i++) {
+                if (values.get(i) == null) {
+                    continue;
+                }
+                try {
+                    setters.get(i).accept(bidList, values.get(i).trim());
+                } catch (NumberFormatException | DateTimeParseException e) {
+                    throw new IllegalArgumentException("Line " + lineNumber + ": invalid value '" + values.get(i) + "'", e);
+                }
+            }
+            bidLists.add(bidList);
+        }
+        return bidLists;
+    }
+
+    private static Timestamp toTimestamp(String value) {
+        return Timestamp.valueOf(LocalDateTime.parse(value));
+    }
+}
@@ -0,0 +1,28 @@
+package com.nnk.springboot.ingest;
+
+/**
+ * A byte range {@code [start, end)} of a file that begins at the start of a line
+ * and ends just after a line terminator, or at the end of the file.
+ */
+public final class FileChunk {
+
+    private final long start;
+    private final long end;
+
+    public FileChunk(long start, long end) {
+        this.start = start;
+        this.end = end;
+    }
+
+    public long getStart() {
+        return start;
+    }
+
+    public long getEnd() {
+        return end;
+    }
+
+    public long getLength() {
+        return end - start;
+    }
+}
@@ -0,0 +1,110 @@
+package com.nnk.springboot.ingest;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Records which chunks of an import file have been committed, in a properties file
+ * kept next to it.
+ * <p>
+ * Chunks are named by their start offset, which only identifies them for a given
+ * chunk size, so the chunk size is stored with them and reused on resume. The file
+ * size and modification time are stored too: a checkpoint written for another
+ * version of the file is ignored. Every update replaces the checkpoint file
+ * atomically, so a crash leaves either the old or the new set of chunks on disk.
+ * </p>
+ */
+public final class ImportCheckpoint {
+
+    private static final String SUFFIX = ".checkpoint";
+
+    private final Path path;
+    private final long fileSize;
+    private final long lastModified;
+    private final long chunkSize;
+    private final Set<Long> done;
+
+    private ImportCheckpoint(Path path, long fileSize, long lastModified, long chunkSize, Set<Long> done) {
+        this.path = path;
+        this.fileSize = fileSize;
+        this.lastModified = lastModified;
+        this.chunkSize = chunkSize;
+        this.done = done;
+    }
+
+    /**
+     * Loads the checkpoint of an import file, or starts a new one if there is none for this version of the file.
+     *
+     * @param file             the import file
+     * @param defaultChunkSize the chunk size of a new checkpoint
+     * @return the checkpoint
+     * @throws IOException if reading the file attributes or the checkpoint fails
+     */
+    public static ImportCheckpoint load(Path file, long defaultChunkSize) throws IOException {
+        Path path = file.resolveSibling(file.getFileName() + SUFFIX);
+        long fileSize = Files.size(file);
+        long lastModified = Files.getLastModifiedTime(file).toMillis();
+        if (Files.isRegularFile(path)) {
+            Properties properties = new Properties();
+            try (Reader reader = Files.newBufferedReader(path)) {
+                properties.load(reader);
+            }
+            if (String.valueOf(fileSize).equals(properties.getProperty("fileSize"))
+                    && String.valueOf(lastModified).equals(properties.getProperty("lastModified"))) {
+                Set<Long> done = new TreeSet<>();
+                String chunks = properties.getProperty("done", "");
+                for (String start : chunks.split(",")) {
+                    if (!start.isBlank()) {
+                        done.add(Long.valueOf(start.trim()));
+                    }
+                }
+                return new ImportCheckpoint(path, fileSize, lastModified,
+                        Long.parseLong(properties.getProperty("chunkSize")), done);
+            }
+        }
+        return new ImportCheckpoint(path, fileSize, lastModified, defaultChunkSize, new TreeSet<>());
+    }
+
+    /**
+     * @return the chunk size the file must be split with
+     */
+    public long getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * @param chunk a chunk of the file
+     * @return true if the chunk was committed by an earlier run
+     */
+    public synchronized boolean isDone(FileChunk chunk) {
+        return done.contains(chunk.getStart());
+    }
+
+    /**
+     * Records a committed chunk and writes the checkpoint.
+     *
+     * @param chunk the committed chunk
+     * @throws IOException if writing the checkpoint fails
+     */
+    public synchronized void markDone(FileChunk chunk) throws IOException {
+        done.add(chunk.getStart());
+        Properties properties = new Properties();
+        properties.setProperty("fileSize", String.valueOf(fileSize));
+        properties.setProperty("lastModified", String.valueOf(lastModified));
+        properties.setProperty("chunkSize", String.valueOf(chunkSize));
+        properties.setProperty("done", done.stream().map(String::valueOf).collect(Collectors.joining(",")));
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temporary)) {
+            properties.store(writer, "Trade import checkpoint");
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
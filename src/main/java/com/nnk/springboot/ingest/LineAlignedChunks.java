@@ -0,0 +1,104 @@
+package com.nnk.springboot.ingest;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits a text file into chunks of roughly equal size that never cut a line in two.
+ * <p>
+ * Only the few bytes around each nominal boundary are read to find the next line
+ * terminator, so splitting a file costs the same whatever its size. Chunks are
+ * deterministic for a given file and chunk size, which lets an import checkpoint
+ * name them by their start offset.
+ * </p>
+ */
+public final class LineAlignedChunks {
+
+    private static final int SCAN_BUFFER_SIZE = 8192;
+    private static final int MAX_HEADER_SIZE = 64 * 1024;
+    private static final byte LF = '\n';
+
+    private LineAlignedChunks() {
+    }
+
+    /**
+     * Splits the file from the given offset to its end.
+     *
+     * @param channel   the file
+     * @param from      the offset of the first line to include, normally just after the header
+     * @param chunkSize the nominal chunk size in bytes; a chunk extends to the end of the line it cuts
+     * @return the chunks, in file order
+     * @throws IOException if reading the file fails
+     */
+    public static List<FileChunk> split(FileChannel channel, long from, long chunkSize) throws IOException {
+        long size = channel.size();
+        List<FileChunk> chunks = new ArrayList<>();
+        long start = from;
+        while (start < size) {
+            long end = size - start <= chunkSize ? size : nextLineStart(channel, start + chunkSize, size);
+            chunks.add(new FileChunk(start, end));
+            start = end;
+        }
+        return chunks;
+    }
+
+    /**
+     * Returns the offset just after the first line terminator at or after the given position.
+     *
+     * @param channel  the file
+     * @param position the offset to scan from
+     * @param size     the size of the file
+     * @return the start of the next line, or the file size if no terminator follows
+     * @throws IOException if reading the file fails
+     */
+    public static long nextLineStart(FileChannel channel, long position, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+        long offset = position;
+        while (offset < size) {
+            buffer.clear();
+            int read = channel.read(buffer, offset);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == LF) {
+                    return offset + i + 1;
+                }
+            }
+            offset += read;
+        }
+        return size;
+    }
+
+    /**
+     * Reads the first line of the file, without its terminator and without a UTF-8 byte order mark.
+     *
+     * @param channel the file
+     * @return the first line, or null if the file is empty
+     * @throws IOException              if reading the file fails
+     * @throws IllegalArgumentException if the first line is longer than 64 KiB
+     */
+    public static String readFirstLine(FileChannel channel) throws IOException {
+        long size = channel.size();
+        if (size == 0) {
+            return null;
+        }
+        long end = nextLineStart(channel, 0, size);
+        if (end > MAX_HEADER_SIZE) {
+            throw new IllegalArgumentException("First line is longer than " + MAX_HEADER_SIZE + " bytes");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) end);
+        while (buffer.hasRemaining() && channel.read(buffer, buffer.position()) > 0) {
+            // keep reading until the whole line is in the buffer
+        }
+        String line = new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8);
+        if (line.startsWith("\uFEFF")) {
+            line = line.substring(1);
+        }
+        return line.stripTrailing();
+    }
+}
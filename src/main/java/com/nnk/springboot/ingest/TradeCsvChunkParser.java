@@ -0,0 +1,359 @@
+package com.nnk.springboot.ingest;
+
+import com.nnk.springboot.model.Trade;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Map.entry;
+
+/**
+ * Parses the Trade rows of one chunk of a CSV file straight from its bytes.
+ * <p>
+ * Column names are those of the Trade export, so an exported file can be imported again;
+ * the {@code tradeId} column is ignored since imported rows always get a new id. Each line
+ * is scanned once to record where its fields start and end. Numbers and timestamps are
+ * decoded from those bytes directly, and a field only becomes a String when it is assigned
+ * to a text property, so no per-line String or per-field split array is allocated.
+ * </p>
+ * <p>
+ * A parser holds no per-chunk state and can be shared by threads parsing different chunks.
+ * Quoted fields may contain commas and escaped quotes, but not line breaks.
+ * </p>
+ */
+public final class TradeCsvChunkParser {
+
+    /**
+     * Receives the outcome of each line of a chunk.
+     */
+    public interface RowHandler {
+
+        /**
+         * @param trade  the parsed trade, not yet validated
+         * @param offset the file offset of its line
+         */
+        void row(Trade trade, long offset);
+
+        /**
+         * @param offset the file offset of the line
+         * @param reason why the line could not be parsed
+         */
+        void reject(long offset, String reason);
+    }
+
+    @FunctionalInterface
+    private interface FieldDecoder {
+        void decode(Trade trade, LineFields fields, int index);
+    }
+
+    private static final FieldDecoder IGNORED = (trade, fields, index) -> { };
+
+    private static final Map<String, FieldDecoder> COLUMNS = Map.ofEntries(
+            entry("tradeId", IGNORED),
+            entry("account", (trade, fields, i) -> trade.setAccount(fields.text(i))),
+            entry("type", (trade, fields, i) -> trade.setType(fields.text(i))),
+            entry("buyQuantity", (trade, fields, i) -> trade.setBuyQuantity(fields.decimal(i))),
+            entry("sellQuantity", (trade, fields, i) -> trade.setSellQuantity(fields.decimal(i))),
+            entry("buyPrice", (trade, fields, i) -> trade.setBuyPrice(fields.decimal(i))),
+            entry("sellPrice", (trade, fields, i) -> trade.setSellPrice(fields.decimal(i))),
+            entry("tradeDate", (trade, fields, i) -> trade.setTradeDate(fields.timestamp(i))),
+            entry("security", (trade, fields, i) -> trade.setSecurity(fields.text(i))),
+            entry("status", (trade, fields, i) -> trade.setStatus(fields.text(i))),
+            entry("trader", (trade, fields, i) -> trade.setTrader(fields.text(i))),
+            entry("benchmark", (trade, fields, i) -> trade.setBenchmark(fields.text(i))),
+            entry("book", (trade, fields, i) -> trade.setBook(fields.text(i))),
+            entry("creationName", (trade, fields, i) -> trade.setCreationName(fields.text(i))),
+            entry("creationDate", (trade, fields, i) -> trade.setCreationDate(fields.timestamp(i))),
+            entry("revisionName", (trade, fields, i) -> trade.setRevisionName(fields.text(i))),
+            entry("revisionDate", (trade, fields, i) -> trade.setRevisionDate(fields.timestamp(i))),
+            entry("dealName", (trade, fields, i) -> trade.setDealName(fields.text(i))),
+            entry("dealType", (trade, fields, i) -> trade.setDealType(fields.text(i))),
+            entry("sourceListId", (trade, fields, i) -> trade.setSourceListId(fields.text(i))),
+            entry("side", (trade, fields, i) -> trade.setSide(fields.text(i))));
+
+    private final FieldDecoder[] decoders;
+
+    private TradeCsvChunkParser(FieldDecoder[] decoders) {
+        this.decoders = decoders;
+    }
+
+    /**
+     * Creates a parser for the columns named by a header line.
+     *
+     * @param header the first line of the file
+     * @return the parser
+     * @throws IllegalArgumentException if the header is missing or names an unknown column
+     */
+    public static TradeCsvChunkParser forHeader(String header) {
+        if (header == null || header.isBlank()) {
+            throw new IllegalArgumentException("Trade CSV file has no header line");
+        }
+        List<String> names = CsvLineParser.parse(header);
+        FieldDecoder[] decoders = new FieldDecoder[names.size()];
+        for (int i = 0; i < names.size(); i++) {
+            String name = names.get(i);
+            decoders[i] = name == null ? null : COLUMNS.get(name.trim());
+            if (decoders[i] == null) {
+                throw new IllegalArgumentException("Unknown Trade CSV column: " + name);
+            }
+        }
+        return new TradeCsvChunkParser(decoders);
+    }
+
+    /**
+     * Parses every line of a chunk. Blank lines are skipped.
+     *
+     * @param chunk      the bytes of the chunk, from position 0 to its limit
+     * @param baseOffset the file offset of the first byte of the chunk, used to locate rejected lines
+     * @param handler    receives each parsed trade and each rejected line
+     * @return the number of trades parsed
+     */
+    public int parse(ByteBuffer chunk, long baseOffset, RowHandler handler) {
+        LineFields fields = new LineFields(chunk, decoders.length + 1);
+        int limit = chunk.limit();
+        int position = 0;
+        int rows = 0;
+        while (position < limit) {
+            int next = fields.scan(position, limit);
+            long offset = baseOffset + position;
+            position = next;
+            if (fields.isBlank()) {
+                continue;
+            }
+            if (fields.count() != decoders.length) {
+                handler.reject(offset, "expected " + decoders.length + " fields but found " + fields.count());
+                continue;
+            }
+            Trade trade = new Trade();
+            try {
+                for (int i = 0; i < decoders.length; i++) {
+                    decoders[i].decode(trade, fields, i);
+                }
+            } catch (IllegalArgumentException | DateTimeException e) {
+                handler.reject(offset, "invalid value: " + e.getMessage());
+                continue;
+            }
+            handler.row(trade, offset);
+            rows++;
+        }
+        return rows;
+    }
+
+    /**
+     * The field boundaries of the current line, over the bytes of the chunk.
+     */
+    private static final class LineFields {
+
+        private static final double[] POWERS_OF_TEN = {
+                1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+                1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+        private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+        private final ByteBuffer buffer;
+        private final int[] starts;
+        private final int[] ends;
+        private final boolean[] quoted;
+        private int count;
+        private byte[] scratch = new byte[128];
+
+        LineFields(ByteBuffer buffer, int capacity) {
+            this.buffer = buffer;
+            this.starts = new int[capacity];
+            this.ends = new int[capacity];
+            this.quoted = new boolean[capacity];
+        }
+
+        /**
+         * Records the fields of the line starting at {@code from}.
+         *
+         * @return the start of the next line
+         */
+        int scan(int from, int limit) {
+            count = 0;
+            int fieldStart = from;
+            boolean inQuotes = false;
+            boolean fieldQuoted = false;
+            int i = from;
+            for (; i < limit; i++) {
+                byte b = buffer.get(i);
+                if (inQuotes) {
+                    if (b == '"') {
+                        if (i + 1 < limit && buffer.get(i + 1) == '"') {
+                            i++;
+                        } else {
+                            inQuotes = false;
+                        }
+                    }
+                } else if (b == '"') {
+                    inQuotes = true;
+                    fieldQuoted = true;
+                } else if (b == ',') {
+                    add(fieldStart, i, fieldQuoted);
+                    fieldStart = i + 1;
+                    fieldQuoted = false;
+                } else if (b == '\n') {
+                    break;
+                }
+            }
+            int end = i > fieldStart && buffer.get(i - 1) == '\r' ? i - 1 : i;
+            add(fieldStart, end, fieldQuoted);
+            return i < limit ? i + 1 : limit;
+        }
+
+        private void add(int start, int end, boolean isQuoted) {
+            if (count < starts.length) {
+                starts[count] = trimStart(start, end);
+                ends[count] = trimEnd(starts[count], end);
+                quoted[count] = isQuoted;
+            }
+            count++;
+        }
+
+        int count() {
+            return count;
+        }
+
+        boolean isBlank() {
+            return count == 1 && !quoted[0] && starts[0] == ends[0];
+        }
+
+        String text(int index) {
+            int start = starts[index];
+            int end = ends[index];
+            if (!quoted[index]) {
+                return start == end ? null : decode(start, end);
+            }
+            int length = 0;
+            boolean inQuotes = false;
+            ensureScratch(end - start);
+            for (int i = start; i < end; i++) {
+                byte b = buffer.get(i);
+                if (b == '"' && inQuotes && i + 1 < end && buffer.get(i + 1) == '"') {
+                    scratch[length++] = '"';
+                    i++;
+                } else if (b == '"') {
+                    inQuotes = !inQuotes;
+                } else {
+                    scratch[length++] = b;
+                }
+            }
+            return new String(scratch, 0, length, StandardCharsets.UTF_8).trim();
+        }
+
+        Double decimal(int index) {
+            int start = starts[index];
+            int end = ends[index];
+            if (quoted[index]) {
+                String value = text(index);
+                return value == null || value.isEmpty() ? null : Double.valueOf(value);
+            }
+            if (start == end) {
+                return null;
+            }
+            int i = start;
+            boolean negative = buffer.get(i) == '-';
+            if (negative || buffer.get(i) == '+') {
+                i++;
+            }
+            long mantissa = 0;
+            int scale = 0;
+            boolean digits = false;
+            boolean point = false;
+            for (; i < end; i++) {
+                byte b = buffer.get(i);
+                if (b >= '0' && b <= '9') {
+                    mantissa = mantissa * 10 + (b - '0');
+                    digits = true;
+                    if (point) {
+                        scale++;
+                    }
+                    if (mantissa >= MAX_EXACT_MANTISSA || scale >= POWERS_OF_TEN.length) {
+                        return Double.valueOf(decode(start, end));
+                    }
+                } else if (b == '.' && !point) {
+                    point = true;
+                } else {
+                    return Double.valueOf(decode(start, end));
+                }
+            }
+            if (!digits) {
+                throw new NumberFormatException("For input string: \"" + decode(start, end) + "\"");
+            }
+            // Both operands are exact doubles, so the single division is correctly rounded
+            double value = mantissa / POWERS_OF_TEN[scale];
+            return negative ? -value : value;
+        }
+
+        Timestamp timestamp(int index) {
+            int start = starts[index];
+            int end = ends[index];
+            if (!quoted[index] && start == end) {
+                return null;
+            }
+            int length = end - start;
+            if (!quoted[index] && (length == 16 || length == 19)
+                    && buffer.get(start + 4) == '-' && buffer.get(start + 7) == '-'
+                    && buffer.get(start + 10) == 'T' && buffer.get(start + 13) == ':'
+                    && (length == 16 || buffer.get(start + 16) == ':')) {
+                int year = digits(start, 4);
+                int month = digits(start + 5, 2);
+                int day = digits(start + 8, 2);
+                int hour = digits(start + 11, 2);
+                int minute = digits(start + 14, 2);
+                int second = length == 19 ? digits(start + 17, 2) : 0;
+                if ((year | month | day | hour | minute | second) >= 0) {
+                    return Timestamp.valueOf(LocalDateTime.of(year, month, day, hour, minute, second));
+                }
+            }
+            String value = text(index);
+            return value == null || value.isEmpty() ? null : Timestamp.valueOf(LocalDateTime.parse(value));
+        }
+
+        private int digits(int start, int length) {
+            int value = 0;
+            for (int i = start; i < start + length; i++) {
+                byte b = buffer.get(i);
+                if (b < '0' || b > '9') {
+                    return -1;
+                }
+                value = value * 10 + (b - '0');
+            }
+            return value;
+        }
+
+        private String decode(int start, int end) {
+            ensureScratch(end - start);
+            buffer.get(start, scratch, 0, end - start);
+            return new String(scratch, 0, end - start, StandardCharsets.UTF_8);
+        }
+
+        private void ensureScratch(int length) {
+            if (scratch.length < length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+        }
+
+        private int trimStart(int start, int end) {
+            while (start < end && isSpace(buffer.get(start))) {
+                start++;
+            }
+            return start;
+        }
+
+        private int trimEnd(int start, int end) {
+            while (end > start && isSpace(buffer.get(end - 1))) {
+                end--;
+            }
+            return end;
+        }
+
+        private static boolean isSpace(byte b) {
+            return b == ' ' || b == '\t';
+        }
+    }
+}
@@ -0,0 +1,492 @@
+package com.nnk.springboot.journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.zip.CRC32C;
+
+/**
+ * An append-only log of journal events, stored in memory-mapped segment files of a fixed size.
+ * <p>
+ * Each record is laid out as {@code [int length][int crc32c][long sequence][long timestamp]
+ * [byte entity][byte kind][int entity id][payload]}. The length is written last, so a record
+ * torn by a crash reads as the end of the log, and the checksum and the sequence, which has
+ * no gap, catch pages written back out of order.
+ * </p>
+ * <p>
+ * {@link #append} only copies the record into the mapping and returns. {@link #force()} writes
+ * every record appended since its previous call to disk with a single fsync, so the cost of
+ * the fsync is shared by all the records of the batch.
+ * </p>
+ * <p>
+ * An indexed journal keeps the position of every record in memory by entity and id, so the
+ * history of one entity is read straight from its records rather than by scanning the log.
+ * The index is rebuilt by reading every segment when the journal is opened.
+ * </p>
+ */
+public final class EventJournal implements Closeable {
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int HEADER_LENGTH = 8;
+    private static final int FIXED_BODY_LENGTH = 8 + 8 + 1 + 1 + 4;
+    private static final int ZEROES = 64 * 1024;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final NavigableMap<Long, Path> segments = new ConcurrentSkipListMap<>();
+    private final Object forceLock = new Object();
+    private final AtomicLong durableSequence = new AtomicLong();
+    // (entity, id) -> the sequence and position of each of its records, null if not indexed; guarded by this
+    private final Map<Long, Postings> index;
+
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private long nextSequence = 1;
+    private long lastTimestamp;
+    private int forcedPosition;
+
+    private EventJournal(Path directory, int segmentSize, boolean indexed) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.index = indexed ? new HashMap<>() : null;
+    }
+
+    /**
+     * Open the journal in a directory, without an index, creating it if needed, and find the end of the log.
+     *
+     * @param directory   the directory of the segment files
+     * @param segmentSize the size in bytes of new segment files
+     * @return the journal, positioned after its last complete record
+     * @throws IOException if a segment file cannot be opened or mapped
+     */
+    public static EventJournal open(Path directory, int segmentSize) throws IOException {
+        return open(directory, segmentSize, false);
+    }
+
+    /**
+     * Open the journal in a directory, creating it if needed, and find the end of the log.
+     *
+     * @param directory   the directory of the segment files
+     * @param segmentSize the size in bytes of new segment files
+     * @param indexed     whether to index the records by entity, for {@link #read}
+     * @return the journal, positioned after its last complete record
+     * @throws IOException if a segment file cannot be opened or mapped
+     */
+    public static EventJournal open(Path directory, int segmentSize, boolean indexed) throws IOException {
+        Files.createDirectories(directory);
+        EventJournal journal = new EventJournal(directory, segmentSize, indexed);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                journal.segments.put(firstSequenceOf(file), file);
+            }
+        }
+        if (journal.segments.isEmpty()) {
+            journal.openSegment(1);
+        } else {
+            journal.recover();
+            if (indexed) {
+                journal.rebuildIndex();
+            }
+        }
+        journal.durableSequence.set(journal.nextSequence - 1);
+        return journal;
+    }
+
+    private void rebuildIndex() throws IOException {
+        long activeFirstSequence = segments.lastKey();
+        for (Map.Entry<Long, Path> segment : segments.headMap(activeFirstSequence, false).entrySet()) {
+            try (FileChannel file = FileChannel.open(segment.getValue(), StandardOpenOption.READ)) {
+                MappedByteBuffer data = file.map(FileChannel.MapMode.READ_ONLY, 0, file.size());
+                readRecords(data, data.capacity(), segment.getKey(), this::index);
+            }
+        }
+        readRecords(buffer, buffer.position(), activeFirstSequence, this::index);
+    }
+
+    private void recover() throws IOException {
+        Map.Entry<Long, Path> last = segments.lastEntry();
+        channel = FileChannel.open(last.getValue(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(channel.size(), segmentSize));
+        nextSequence = last.getKey();
+        int end = readRecords(buffer, buffer.capacity(), last.getKey(), event -> {
+            nextSequence = event.getSequence() + 1;
+            lastTimestamp = event.getTimestamp();
+            return true;
+        });
+        // Clear what follows the last complete record, so that appends never run into stale bytes
+        byte[] zeroes = new byte[ZEROES];
+        for (int position = end; position < buffer.capacity(); position += ZEROES) {
+            buffer.put(position, zeroes, 0, Math.min(ZEROES, buffer.capacity() - position));
+        }
+        buffer.force();
+        buffer.position(end);
+        forcedPosition = end;
+    }
+
+    /**
+     * Append one event to the log. The event is visible to {@link #scan} at once and
+     * durable after the next {@link #force()}.
+     *
+     * @param entity   the entity changed
+     * @param entityId the id of the entity
+     * @param kind     what happened to the entity
+     * @param payload  the encoded fields of the event
+     * @return the sequence of the event
+     * @throws IOException if a new segment file cannot be created
+     */
+    public synchronized long append(JournalEntity entity, int entityId, JournalEventKind kind, byte[] payload)
+            throws IOException {
+        if (buffer == null) {
+            throw new IllegalStateException("Journal is closed");
+        }
+        int length = FIXED_BODY_LENGTH + payload.length;
+        if (HEADER_LENGTH + length > segmentSize) {
+            throw new IllegalArgumentException("Journal record of " + length + " bytes does not fit in a segment");
+        }
+        if (buffer.position() + HEADER_LENGTH + length > buffer.capacity()) {
+            roll();
+        }
+        long sequence = nextSequence++;
+        long timestamp = Math.max(System.currentTimeMillis(), lastTimestamp);
+        lastTimestamp = timestamp;
+
+        int start = buffer.position();
+        buffer.position(start + HEADER_LENGTH);
+        buffer.putLong(sequence)
+                .putLong(timestamp)
+                .put((byte) entity.ordinal())
+                .put((byte) kind.ordinal())
+                .putInt(entityId)
+                .put(payload);
+        CRC32C checksum = new CRC32C();
+        checksum.update(buffer.slice(start + HEADER_LENGTH, length));
+        buffer.putInt(start + 4, (int) checksum.getValue());
+        buffer.putInt(start, length);
+        if (index != null) {
+            index.computeIfAbsent(JournalSnapshot.key(entity, entityId), key -> new Postings()).add(sequence, start);
+        }
+        return sequence;
+    }
+
+    /**
+     * Write every record appended so far to disk.
+     */
+    public void force() {
+        synchronized (forceLock) {
+            MappedByteBuffer target;
+            int from;
+            int to;
+            long sequence;
+            synchronized (this) {
+                if (buffer == null) {
+                    return;
+                }
+                target = buffer;
+                from = forcedPosition;
+                to = buffer.position();
+                sequence = nextSequence - 1;
+                forcedPosition = to;
+            }
+            if (to > from) {
+                target.force(from, to - from);
+            }
+            durableSequence.accumulateAndGet(sequence, Math::max);
+        }
+    }
+
+    /**
+     * @return the sequence of the last event appended, or 0 if the journal is empty
+     */
+    public synchronized long getLastSequence() {
+        return nextSequence - 1;
+    }
+
+    /**
+     * @return the sequence of the last event written to disk, or 0 if none
+     */
+    public long getDurableSequence() {
+        return durableSequence.get();
+    }
+
+    /**
+     * Read the events from a sequence on, in order, until the end of the log or until the
+     * visitor returns false. Appends are not blocked while the log is read.
+     *
+     * @param fromSequence the sequence of the first event to read
+     * @param visitor      called with each event; returns false to stop reading
+     * @throws IOException if a segment file cannot be read
+     */
+    public void scan(long fromSequence, Predicate<JournalEvent> visitor) throws IOException {
+        ByteBuffer active;
+        int activeLimit;
+        long activeFirstSequence;
+        synchronized (this) {
+            if (buffer == null) {
+                throw new IllegalStateException("Journal is closed");
+            }
+            active = buffer.duplicate();
+            activeLimit = buffer.position();
+            activeFirstSequence = segments.lastKey();
+        }
+        Predicate<JournalEvent> wanted = event -> event.getSequence() < fromSequence || visitor.test(event);
+
+        Long first = segments.floorKey(fromSequence);
+        for (Map.Entry<Long, Path> segment : segments.subMap(first == null ? segments.firstKey() : first, true,
+                activeFirstSequence, false).entrySet()) {
+            try (FileChannel file = FileChannel.open(segment.getValue(), StandardOpenOption.READ)) {
+                MappedByteBuffer data = file.map(FileChannel.MapMode.READ_ONLY, 0, file.size());
+                if (readRecords(data, data.capacity(), segment.getKey(), wanted) < 0) {
+                    return;
+                }
+            }
+        }
+        readRecords(active, activeLimit, activeFirstSequence, wanted);
+    }
+
+    /**
+     * Read the events of one entity, in order, from the positions indexed for it.
+     * Appends are not blocked while the events are read.
+     *
+     * @param entity   the entity type
+     * @param entityId the id of the entity
+     * @return the events of the entity still in the log
+     * @throws IOException if a segment file cannot be read
+     * @throws IllegalStateException if the journal is closed or not indexed
+     */
+    public List<JournalEvent> read(JournalEntity entity, int entityId) throws IOException {
+        ByteBuffer active;
+        long activeFirstSequence;
+        long[] sequences;
+        int[] positions;
+        synchronized (this) {
+            if (buffer == null) {
+                throw new IllegalStateException("Journal is closed");
+            }
+            if (index == null) {
+                throw new IllegalStateException("Journal is not indexed");
+            }
+            active = buffer.duplicate();
+            activeFirstSequence = segments.lastKey();
+            Postings postings = index.get(JournalSnapshot.key(entity, entityId));
+            if (postings == null) {
+                return List.of();
+            }
+            sequences = Arrays.copyOf(postings.sequences, postings.size);
+            positions = Arrays.copyOf(postings.positions, postings.size);
+        }
+        List<JournalEvent> events = new ArrayList<>(sequences.length);
+        Long openSegment = null;
+        FileChannel file = null;
+        MappedByteBuffer data = null;
+        try {
+            for (int i = 0; i < sequences.length; i++) {
+                Map.Entry<Long, Path> segment = segments.floorEntry(sequences[i]);
+                if (segment == null) {
+                    // deleted with its segment
+                    continue;
+                }
+                if (segment.getKey() == activeFirstSequence) {
+                    events.add(readRecord(active, positions[i]));
+                    continue;
+                }
+                if (!segment.getKey().equals(openSegment)) {
+                    if (file != null) {
+                        file.close();
+                    }
+                    file = FileChannel.open(segment.getValue(), StandardOpenOption.READ);
+                    data = file.map(FileChannel.MapMode.READ_ONLY, 0, file.size());
+                    openSegment = segment.getKey();
+                }
+                events.add(readRecord(data, positions[i]));
+            }
+        } finally {
+            if (file != null) {
+                file.close();
+            }
+        }
+        return events;
+    }
+
+    /**
+     * Delete the closed segment files holding only events before a sequence.
+     *
+     * @param sequence the sequence of the first event to keep
+     * @return the number of segment files deleted
+     * @throws IOException if a segment file cannot be deleted
+     */
+    public int deleteSegmentsBefore(long sequence) throws IOException {
+        int deleted = 0;
+        Map.Entry<Long, Path> segment = segments.firstEntry();
+        while (segment != null) {
+            Long next = segments.higherKey(segment.getKey());
+            if (next == null || next > sequence) {
+                break;
+            }
+            Files.deleteIfExists(segment.getValue());
+            segments.remove(segment.getKey());
+            deleted++;
+            segment = segments.firstEntry();
+        }
+        if (deleted > 0 && index != null) {
+            long first = segments.firstKey();
+            synchronized (this) {
+                index.values().removeIf(postings -> postings.dropBefore(first));
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * Write every record to disk and unmap the active segment.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (forceLock) {
+            synchronized (this) {
+                if (buffer == null) {
+                    return;
+                }
+                buffer.force();
+                durableSequence.set(nextSequence - 1);
+                channel.close();
+                buffer = null;
+            }
+        }
+    }
+
+    private void roll() throws IOException {
+        buffer.force();
+        durableSequence.accumulateAndGet(nextSequence - 1, Math::max);
+        channel.close();
+        openSegment(nextSequence);
+    }
+
+    private void openSegment(long firstSequence) throws IOException {
+        Path file = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+        channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        forcedPosition = 0;
+        segments.put(firstSequence, file);
+    }
+
+    private boolean index(JournalEvent event, int position) {
+        index.computeIfAbsent(JournalSnapshot.key(event.getEntity(), event.getEntityId()), key -> new Postings())
+                .add(event.getSequence(), position);
+        return true;
+    }
+
+    private static JournalEvent readRecord(ByteBuffer data, int position) {
+        return decode(data, position + HEADER_LENGTH, data.getInt(position));
+    }
+
+    private static int readRecords(ByteBuffer data, int limit, long firstSequence, Predicate<JournalEvent> visitor) {
+        return readRecords(data, limit, firstSequence, (event, position) -> visitor.test(event));
+    }
+
+    /**
+     * Read the complete records of one segment in order.
+     *
+     * @return the position after the last complete record, or -1 if the visitor stopped the read
+     */
+    private static int readRecords(ByteBuffer data, int limit, long firstSequence, RecordVisitor visitor) {
+        int position = 0;
+        long expected = firstSequence;
+        while (position + HEADER_LENGTH + FIXED_BODY_LENGTH <= limit) {
+            int length = data.getInt(position);
+            if (length < FIXED_BODY_LENGTH || length > limit - position - HEADER_LENGTH) {
+                break;
+            }
+            CRC32C checksum = new CRC32C();
+            checksum.update(data.slice(position + HEADER_LENGTH, length));
+            if ((int) checksum.getValue() != data.getInt(position + 4)) {
+                break;
+            }
+            JournalEvent event = decode(data, position + HEADER_LENGTH, length);
+            if (event.getSequence() != expected) {
+                break;
+            }
+            int start = position;
+            position += HEADER_LENGTH + length;
+            expected++;
+            if (!visitor.visit(event, start)) {
+                return -1;
+            }
+        }
+        return position;
+    }
+
+    private static JournalEvent decode(ByteBuffer data, int offset, int length) {
+        byte[] payload = new byte[length - FIXED_BODY_LENGTH];
+        data.get(offset + FIXED_BODY_LENGTH, payload);
+        return new JournalEvent(
+                data.getLong(offset),
+                data.getLong(offset + 8),
+                JournalEntity.values()[data.get(offset + 16)],
+                data.getInt(offset + 18),
+                JournalEventKind.values()[data.get(offset + 17)],
+                payload);
+    }
+
+    private static long firstSequenceOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    @FunctionalInterface
+    private interface RecordVisitor {
+        boolean visit(JournalEvent event, int position);
+    }
+
+    /**
+     * The records of one entity, in sequence order.
+     */
+    private static final class Postings {
+
+        private long[] sequences = new long[2];
+        private int[] positions = new int[2];
+        private int size;
+
+        private void add(long sequence, int position) {
+            if (size == sequences.length) {
+                sequences = Arrays.copyOf(sequences, size * 2);
+                positions = Arrays.copyOf(positions, size * 2);
+            }
+            sequences[size] = sequence;
+            positions[size] = position;
+            size++;
+        }
+
+        /**
+         * @return true if no record is left
+         */
+        private boolean dropBefore(long sequence) {
+            int dropped = 0;
+            while (dropped < size && sequences[dropped] < sequence) {
+                dropped++;
+            }
+            if (dropped > 0) {
+                System.arraycopy(sequences, dropped, sequences, 0, size - dropped);
+                System.arraycopy(positions, dropped, positions, 0, size - dropped);
+                size -= dropped;
+            }
+            return size == 0;
+        }
+    }
+}
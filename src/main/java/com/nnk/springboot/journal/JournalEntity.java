@@ -0,0 +1,12 @@
+package com.nnk.springboot.journal;
+
+/**
+ * The entities whose changes are recorded in the event journal.
+ * <p>
+ * Stored in journal records and snapshots by ordinal: new constants go at the end.
+ * </p>
+ */
+public enum JournalEntity {
+    TRADE,
+    BID_LIST
+}
@@ -0,0 +1,77 @@
+package com.nnk.springboot.journal;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+
+/**
+ * One change of one entity, as read back from the event journal.
+ */
+public class JournalEvent {
+
+    private final long sequence;
+    private final long timestamp;
+    private final JournalEntity entity;
+    private final int entityId;
+    private final JournalEventKind kind;
+    private final byte[] payload;
+
+    public JournalEvent(long sequence, long timestamp, JournalEntity entity, int entityId,
+                        JournalEventKind kind, byte[] payload) {
+        this.sequence = sequence;
+        this.timestamp = timestamp;
+        this.entity = entity;
+        this.entityId = entityId;
+        this.kind = kind;
+        this.payload = payload;
+    }
+
+    /**
+     * @return the position of the event in the journal, starting at 1 with no gap
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * @return the epoch millisecond the event was appended at, never lower than that of the previous event
+     */
+    @JsonIgnore
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public LocalDateTime getRecordedAt() {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(timestamp), ZoneId.systemDefault());
+    }
+
+    public JournalEntity getEntity() {
+        return entity;
+    }
+
+    public int getEntityId() {
+        return entityId;
+    }
+
+    public JournalEventKind getKind() {
+        return kind;
+    }
+
+    /**
+     * @return the encoded fields of the event, as appended
+     */
+    @JsonIgnore
+    public byte[] getPayload() {
+        return payload;
+    }
+
+    /**
+     * @return the fields written by the event, decoded on every call
+     */
+    public Map<String, Object> getChanges() {
+        return JournalPayloads.decode(payload);
+    }
+}
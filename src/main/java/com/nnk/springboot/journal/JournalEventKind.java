@@ -0,0 +1,16 @@
+package com.nnk.springboot.journal;
+
+/**
+ * What happened to an entity in a journal event.
+ * <p>
+ * Stored in journal records by ordinal: new constants go at the end.
+ * </p>
+ */
+public enum JournalEventKind {
+    /** The entity was inserted; the event carries every field. */
+    CREATED,
+    /** Some fields of the entity were written; the event carries only those. */
+    UPDATED,
+    /** The entity was deleted; the event carries no field. */
+    DELETED
+}
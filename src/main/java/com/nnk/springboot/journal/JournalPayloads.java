@@ -0,0 +1,91 @@
+package com.nnk.springboot.journal;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nnk.springboot.export.ExportColumn;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the field maps carried by journal events and encodes them as JSON.
+ * <p>
+ * Timestamps are written as ISO local date-times, so a replayed state reads the same
+ * as the export of the entity.
+ * </p>
+ */
+public final class JournalPayloads {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final TypeReference<LinkedHashMap<String, Object>> MAP = new TypeReference<>() {
+    };
+    private static final byte[] EMPTY = new byte[0];
+
+    private JournalPayloads() {
+    }
+
+    /**
+     * Every field of a row, in column order, nulls included.
+     *
+     * @param columns the columns of the row type
+     * @param row     the row
+     * @param <T>     the row type
+     * @return the field values by column name
+     */
+    public static <T> Map<String, Object> state(List<ExportColumn<T>> columns, T row) {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        for (ExportColumn<T> column : columns) {
+            fields.put(column.getName(), value(column.valueOf(row)));
+        }
+        return fields;
+    }
+
+    /**
+     * The given fields, in order, nulls included.
+     *
+     * @param namesAndValues alternating field names and values
+     * @return the field values by name
+     */
+    public static Map<String, Object> fields(Object... namesAndValues) {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        for (int i = 0; i + 1 < namesAndValues.length; i += 2) {
+            fields.put((String) namesAndValues[i], value(namesAndValues[i + 1]));
+        }
+        return fields;
+    }
+
+    /**
+     * @param fields the fields, or null for none
+     * @return the fields as UTF-8 JSON, or no byte for none
+     */
+    public static byte[] encode(Map<String, Object> fields) {
+        if (fields == null || fields.isEmpty()) {
+            return EMPTY;
+        }
+        try {
+            return JSON.writeValueAsBytes(fields);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Fields cannot be journaled: " + fields.keySet(), e);
+        }
+    }
+
+    static Map<String, Object> decode(byte[] payload) {
+        if (payload.length == 0) {
+            return new LinkedHashMap<>();
+        }
+        try {
+            return JSON.readValue(payload, MAP);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Corrupt journal payload", e);
+        }
+    }
+
+    private static Object value(Object value) {
+        return value instanceof Timestamp timestamp ? timestamp.toLocalDateTime().toString() : value;
+    }
+}
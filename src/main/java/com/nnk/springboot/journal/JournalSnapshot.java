@@ -0,0 +1,174 @@
+package com.nnk.springboot.journal;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.LongPredicate;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The state of the journaled entities after a given journal event.
+ * <p>
+ * Snapshot files are named after the sequence and timestamp of that event, so the snapshot
+ * to start a replay from is chosen without opening any file. A file is written under a
+ * temporary name and moved into place, so a snapshot is either complete or absent.
+ * </p>
+ */
+public final class JournalSnapshot {
+
+    private static final String PREFIX = "snapshot-";
+    private static final String SUFFIX = ".snap";
+    private static final int MAGIC = 0x4A534E50;
+
+    private final Map<Long, Map<String, Object>> states = new HashMap<>();
+    private long sequence;
+    private long timestamp;
+
+    private JournalSnapshot(long sequence, long timestamp) {
+        this.sequence = sequence;
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * @return a snapshot taken before the first event
+     */
+    public static JournalSnapshot empty() {
+        return new JournalSnapshot(0, 0);
+    }
+
+    /**
+     * Read the most recent snapshot taken at or before a point in time.
+     *
+     * @param directory  the directory of the snapshot files
+     * @param atOrBefore the latest epoch millisecond of the last event of the snapshot
+     * @param wanted     the keys, as built by {@link #key}, of the entities to load
+     * @return the snapshot, or empty if none was taken by then
+     * @throws IOException if the directory or the snapshot file cannot be read
+     */
+    public static Optional<JournalSnapshot> latest(Path directory, long atOrBefore, LongPredicate wanted)
+            throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return Optional.empty();
+        }
+        TreeMap<Long, Path> candidates = new TreeMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            for (Path file : files) {
+                String[] parts = file.getFileName().toString()
+                        .substring(PREFIX.length(), file.getFileName().toString().length() - SUFFIX.length())
+                        .split("-");
+                if (Long.parseLong(parts[1]) <= atOrBefore) {
+                    candidates.put(Long.parseLong(parts[0]), file);
+                }
+            }
+        }
+        return candidates.isEmpty() ? Optional.empty() : Optional.of(read(candidates.lastEntry().getValue(), wanted));
+    }
+
+    private static JournalSnapshot read(Path file, LongPredicate wanted) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(file))))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a journal snapshot: " + file);
+            }
+            JournalSnapshot snapshot = new JournalSnapshot(in.readLong(), in.readLong());
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                long key = in.readLong();
+                byte[] payload = new byte[in.readInt()];
+                in.readFully(payload);
+                if (wanted.test(key)) {
+                    snapshot.states.put(key, JournalPayloads.decode(payload));
+                }
+            }
+            return snapshot;
+        }
+    }
+
+    /**
+     * Write the snapshot to a new file of a directory.
+     *
+     * @param directory the directory of the snapshot files
+     * @return the snapshot file
+     * @throws IOException if the file cannot be written
+     */
+    public Path writeTo(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Path target = directory.resolve(String.format("%s%020d-%020d%s", PREFIX, sequence, timestamp, SUFFIX));
+        Path temporary = directory.resolve(target.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new GZIPOutputStream(Files.newOutputStream(temporary))))) {
+            out.writeInt(MAGIC);
+            out.writeLong(sequence);
+            out.writeLong(timestamp);
+            out.writeInt(states.size());
+            for (Map.Entry<Long, Map<String, Object>> state : states.entrySet()) {
+                byte[] payload = JournalPayloads.encode(state.getValue());
+                out.writeLong(state.getKey());
+                out.writeInt(payload.length);
+                out.write(payload);
+            }
+        }
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+        return target;
+    }
+
+    /**
+     * Apply the next event of the journal to the state of its entity.
+     *
+     * @param event the event following the last one applied
+     */
+    public void apply(JournalEvent event) {
+        long key = key(event.getEntity(), event.getEntityId());
+        switch (event.getKind()) {
+            case CREATED -> states.put(key, event.getChanges());
+            case UPDATED -> states.computeIfAbsent(key, k -> new LinkedHashMap<>()).putAll(event.getChanges());
+            case DELETED -> states.remove(key);
+        }
+        sequence = event.getSequence();
+        timestamp = event.getTimestamp();
+    }
+
+    /**
+     * @param entity   the entity type
+     * @param entityId the entity id
+     * @return the fields of the entity, or null if it did not exist or was not loaded
+     */
+    public Map<String, Object> get(JournalEntity entity, int entityId) {
+        return states.get(key(entity, entityId));
+    }
+
+    /**
+     * @return the sequence of the last event applied, or 0 if none
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * @return the number of entities held
+     */
+    public int size() {
+        return states.size();
+    }
+
+    /**
+     * @param entity   the entity type
+     * @param entityId the entity id
+     * @return the key of the entity in snapshot files
+     */
+    public static long key(JournalEntity entity, int entityId) {
+        return ((long) entity.ordinal() << 32) | (entityId & 0xFFFFFFFFL);
+    }
+}
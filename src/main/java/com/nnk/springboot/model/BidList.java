@@ -10,11 +10,22 @@ import jakarta.validation.constraints.PositiveOrZero;
 import java.sql.Timestamp;
 
 @Entity
-@Table(name = "bidlist")
+@Table(name = "bidlist", indexes = {
+        @Index(name = "idx_bidlist_account", columnList = "account"),
+        @Index(name = "idx_bidlist_type", columnList = "type"),
+        @Index(name = "idx_bidlist_bid_quantity", columnList = "bidQuantity"),
+        @Index(name = "idx_bidlist_security_date", columnList = "security, bidListDate"),
+        @Index(name = "idx_bidlist_status", columnList = "status"),
+        @Index(name = "idx_bidlist_book", columnList = "book"),
+        @Index(name = "idx_bidlist_trader", columnList = "trader"),
+        @Index(name = "idx_bidlist_date", columnList = "bidListDate")
+}, uniqueConstraints = @UniqueConstraint(name = "uk_bidlist_source_list_id", columnNames = "sourceListId"))
 public class BidList {
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
-    private Integer BidListId;
+    // Same sequence, and increment, as the one GenerationType.AUTO created, so existing databases keep their ids
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bidlist_seq_gen")
+    @SequenceGenerator(name = "bidlist_seq_gen", sequenceName = "BidList_SEQ", allocationSize = 50)
+    private Integer bidListId;
     @NotBlank(message = "Account is mandatory")
     private String account;
     @NotBlank(message = "Type is mandatory")
@@ -41,6 +52,8 @@ public class BidList {
     private String dealType;
     private String sourceListId;
     private String side;
+    @Version
+    private Integer version;
 
     public BidList() {
 
@@ -53,11 +66,11 @@ public class BidList {
     }
 
     public Integer getBidListId() {
-        return BidListId;
+        return bidListId;
     }
 
     public void setBidListId(Integer bidListId) {
-        BidListId = bidListId;
+        this.bidListId = bidListId;
     }
 
     public String getAccount() {
@@ -187,4 +200,52 @@ public class BidList {
     public void setRevisionName(String revisionName) {
         this.revisionName = revisionName;
     }
+
+    public Timestamp getRevisionDate() {
+        return revisionDate;
+    }
+
+    public void setRevisionDate(Timestamp revisionDate) {
+        this.revisionDate = revisionDate;
+    }
+
+    public String getDealName() {
+        return dealName;
+    }
+
+    public void setDealName(String dealName) {
+        this.dealName = dealName;
+    }
+
+    public String getDealType() {
+        return dealType;
+    }
+
+    public void setDealType(String dealType) {
+        this.dealType = dealType;
+    }
+
+    public String getSourceListId() {
+        return sourceListId;
+    }
+
+    public void setSourceListId(String sourceListId) {
+        this.sourceListId = sourceListId;
+    }
+
+    public String getSide() {
+        return side;
+    }
+
+    public void setSide(String side) {
+        this.side = side;
+    }
+
+    public Integer getVersion() {
+        return version;
+    }
+
+    public void setVersion(Integer version) {
+        this.version = version;
+    }
 }
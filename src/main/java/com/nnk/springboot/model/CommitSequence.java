@@ -0,0 +1,41 @@
+package com.nnk.springboot.model;
+
+
+import jakarta.persistence.*;
+
+/**
+ * A named counter, read and incremented under a row lock held until the transaction commits,
+ * so that the values it hands out follow commit order.
+ */
+@Entity
+@Table(name = "commit_sequence")
+public class CommitSequence {
+    @Id
+    @Column(length = 64)
+    private String name;
+    private long value;
+
+    public CommitSequence() {
+
+    }
+
+    public CommitSequence(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public long getValue() {
+        return value;
+    }
+
+    public void setValue(long value) {
+        this.value = value;
+    }
+}
@@ -8,7 +8,10 @@ import jakarta.validation.constraints.PositiveOrZero;
 import java.sql.Timestamp;
 
 @Entity
-@Table(name = "curvepoint")
+@Table(name = "curvepoint", indexes = {
+        @Index(name = "idx_curvepoint_curve_as_of", columnList = "curveId, asOfDate"),
+        @Index(name = "idx_curvepoint_as_of", columnList = "asOfDate")
+})
 public class CurvePoint {
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
@@ -0,0 +1,108 @@
+package com.nnk.springboot.model;
+
+
+import jakarta.persistence.*;
+
+import java.sql.Timestamp;
+
+/**
+ * One version of a curve point, as recorded at a system time. Versions are only ever inserted:
+ * a version stays current until the next version of the same curve point, and a deleted point
+ * ends with a version flagged {@code deleted}.
+ */
+@Entity
+@Table(name = "curve_point_version", indexes = {
+        @Index(name = "idx_curve_point_version_curve", columnList = "curveId, asOfDate, recordedAt"),
+        @Index(name = "idx_curve_point_version_point", columnList = "curvePointId, recordedAt")
+})
+public class CurvePointVersion {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @Column(nullable = false)
+    private Integer curvePointId;
+    private Integer curveId;
+    private Timestamp asOfDate;
+    private Double term;
+    private Double value;
+    @Column(nullable = false)
+    private Timestamp recordedAt;
+    private boolean deleted;
+
+    public CurvePointVersion() {
+
+    }
+
+    public CurvePointVersion(CurvePoint curvePoint, Timestamp recordedAt) {
+        this.curvePointId = curvePoint.getId();
+        this.curveId = curvePoint.getCurveId();
+        this.asOfDate = curvePoint.getAsOfDate();
+        this.term = curvePoint.getTerm();
+        this.value = curvePoint.getValue();
+        this.recordedAt = recordedAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Integer getCurvePointId() {
+        return curvePointId;
+    }
+
+    public void setCurvePointId(Integer curvePointId) {
+        this.curvePointId = curvePointId;
+    }
+
+    public Integer getCurveId() {
+        return curveId;
+    }
+
+    public void setCurveId(Integer curveId) {
+        this.curveId = curveId;
+    }
+
+    public Timestamp getAsOfDate() {
+        return asOfDate;
+    }
+
+    public void setAsOfDate(Timestamp asOfDate) {
+        this.asOfDate = asOfDate;
+    }
+
+    public Double getTerm() {
+        return term;
+    }
+
+    public void setTerm(Double term) {
+        this.term = term;
+    }
+
+    public Double getValue() {
+        return value;
+    }
+
+    public void setValue(Double value) {
+        this.value = value;
+    }
+
+    public Timestamp getRecordedAt() {
+        return recordedAt;
+    }
+
+    public void setRecordedAt(Timestamp recordedAt) {
+        this.recordedAt = recordedAt;
+    }
+
+    public boolean isDeleted() {
+        return deleted;
+    }
+
+    public void setDeleted(boolean deleted) {
+        this.deleted = deleted;
+    }
+}
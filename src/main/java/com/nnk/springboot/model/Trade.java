@@ -9,7 +9,17 @@ import jakarta.validation.constraints.PositiveOrZero;
 import java.sql.Timestamp;
 
 @Entity
-@Table(name = "trade")
+@Table(name = "trade", indexes = {
+        @Index(name = "idx_trade_account", columnList = "account"),
+        @Index(name = "idx_trade_type", columnList = "type"),
+        @Index(name = "idx_trade_buy_quantity", columnList = "buyQuantity"),
+        @Index(name = "idx_trade_security_date", columnList = "security, tradeDate"),
+        @Index(name = "idx_trade_status", columnList = "status"),
+        @Index(name = "idx_trade_book_date", columnList = "book, tradeDate"),
+        @Index(name = "idx_trade_trader", columnList = "trader"),
+        @Index(name = "idx_trade_date", columnList = "tradeDate"),
+        @Index(name = "idx_trade_commit_token", columnList = "commitToken, book")
+}, uniqueConstraints = @UniqueConstraint(name = "uk_trade_source_list_id", columnNames = "sourceListId"))
 public class Trade {
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
@@ -38,6 +48,11 @@ public class Trade {
     private String dealType;
     private String sourceListId;
     private String side;
+    // Token of the transaction that inserted the trade, resolved to its commit sequence by trade_commit
+    @Column(updatable = false)
+    private Long commitToken;
+    @Version
+    private Integer version;
 
     public Trade(String account, String type, Double buyQuantity) {
         this.account = account;
@@ -183,4 +198,52 @@ public class Trade {
     public void setRevisionDate(Timestamp revisionDate) {
         this.revisionDate = revisionDate;
     }
+
+    public String getDealName() {
+        return dealName;
+    }
+
+    public void setDealName(String dealName) {
+        this.dealName = dealName;
+    }
+
+    public String getDealType() {
+        return dealType;
+    }
+
+    public void setDealType(String dealType) {
+        this.dealType = dealType;
+    }
+
+    public String getSourceListId() {
+        return sourceListId;
+    }
+
+    public void setSourceListId(String sourceListId) {
+        this.sourceListId = sourceListId;
+    }
+
+    public String getSide() {
+        return side;
+    }
+
+    public void setSide(String side) {
+        this.side = side;
+    }
+
+    public Long getCommitToken() {
+        return commitToken;
+    }
+
+    public void setCommitToken(Long commitToken) {
+        this.commitToken = commitToken;
+    }
+
+    public Integer getVersion() {
+        return version;
+    }
+
+    public void setVersion(Integer version) {
+        this.version = version;
+    }
 }
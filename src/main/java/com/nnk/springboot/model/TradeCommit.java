@@ -0,0 +1,43 @@
+package com.nnk.springboot.model;
+
+
+import jakarta.persistence.*;
+
+/**
+ * One committed transaction that inserted trades. Its trades carry its {@code token}; its
+ * {@code seq} is taken under a lock held until the commit, so sequences follow commit order.
+ */
+@Entity
+@Table(name = "trade_commit", uniqueConstraints = @UniqueConstraint(name = "uk_trade_commit_token",
+        columnNames = "token"))
+public class TradeCommit {
+    @Id
+    private Long seq;
+    @Column(nullable = false)
+    private Long token;
+
+    public TradeCommit() {
+
+    }
+
+    public TradeCommit(Long seq, Long token) {
+        this.seq = seq;
+        this.token = token;
+    }
+
+    public Long getSeq() {
+        return seq;
+    }
+
+    public void setSeq(Long seq) {
+        this.seq = seq;
+    }
+
+    public Long getToken() {
+        return token;
+    }
+
+    public void setToken(Long token) {
+        this.token = token;
+    }
+}
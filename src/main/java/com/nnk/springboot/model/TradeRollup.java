@@ -0,0 +1,118 @@
+package com.nnk.springboot.model;
+
+
+import com.nnk.springboot.rollup.RollupInterval;
+import jakarta.persistence.*;
+
+import java.sql.Timestamp;
+
+@Entity
+@Table(name = "trade_rollup", uniqueConstraints = @UniqueConstraint(name = "uk_trade_rollup_bucket",
+        columnNames = {"security", "bucketInterval", "bucketStart"}))
+public class TradeRollup {
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private Integer id;
+    @Column(nullable = false)
+    private String security;
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private RollupInterval bucketInterval;
+    @Column(nullable = false)
+    private Timestamp bucketStart;
+    private double openPrice;
+    private double highPrice;
+    private double lowPrice;
+    private double closePrice;
+    private double volume;
+    private double notional;
+    private int tradeCount;
+
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    public String getSecurity() {
+        return security;
+    }
+
+    public void setSecurity(String security) {
+        this.security = security;
+    }
+
+    public RollupInterval getBucketInterval() {
+        return bucketInterval;
+    }
+
+    public void setBucketInterval(RollupInterval bucketInterval) {
+        this.bucketInterval = bucketInterval;
+    }
+
+    public Timestamp getBucketStart() {
+        return bucketStart;
+    }
+
+    public void setBucketStart(Timestamp bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+
+    public double getOpenPrice() {
+        return openPrice;
+    }
+
+    public void setOpenPrice(double openPrice) {
+        this.openPrice = openPrice;
+    }
+
+    public double getHighPrice() {
+        return highPrice;
+    }
+
+    public void setHighPrice(double highPrice) {
+        this.highPrice = highPrice;
+    }
+
+    public double getLowPrice() {
+        return lowPrice;
+    }
+
+    public void setLowPrice(double lowPrice) {
+        this.lowPrice = lowPrice;
+    }
+
+    public double getClosePrice() {
+        return closePrice;
+    }
+
+    public void setClosePrice(double closePrice) {
+        this.closePrice = closePrice;
+    }
+
+    public double getVolume() {
+        return volume;
+    }
+
+    public void setVolume(double volume) {
+        this.volume = volume;
+    }
+
+    public double getNotional() {
+        return notional;
+    }
+
+    public void setNotional(double notional) {
+        this.notional = notional;
+    }
+
+    public int getTradeCount() {
+        return tradeCount;
+    }
+
+    public void setTradeCount(int tradeCount) {
+        this.tradeCount = tradeCount;
+    }
+}
@@ -0,0 +1,32 @@
+package com.nnk.springboot.model;
+
+
+import jakarta.persistence.*;
+
+/**
+ * The journal offset of a write-behind entry, inserted in the transaction that saves the entry.
+ * An entry replayed after a crash is skipped when its offset is found here, even without a
+ * sourceListId. Rows at or below the applied offset kept on disk are deleted.
+ */
+@Entity
+@Table(name = "write_behind_applied")
+public class WriteBehindApplied {
+    @Id
+    private Long seq;
+
+    public WriteBehindApplied() {
+
+    }
+
+    public WriteBehindApplied(Long seq) {
+        this.seq = seq;
+    }
+
+    public Long getSeq() {
+        return seq;
+    }
+
+    public void setSeq(Long seq) {
+        this.seq = seq;
+    }
+}
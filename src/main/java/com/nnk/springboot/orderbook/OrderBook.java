@@ -0,0 +1,76 @@
+package com.nnk.springboot.orderbook;
+
+import com.nnk.springboot.dto.BidListQuote;
+
+/**
+ * Aggregated bid and ask price levels of one security.
+ */
+public class OrderBook {
+
+    private final String security;
+    private final PriceLevels bids = new PriceLevels();
+    private final PriceLevels asks = new PriceLevels();
+
+    public OrderBook(String security) {
+        this.security = security;
+    }
+
+    /**
+     * Adds the bid and ask sides of a quote to this book.
+     *
+     * @param quote the quote to add
+     */
+    public synchronized void add(BidListQuote quote) {
+        if (quote.hasBid()) {
+            bids.add(quote.getBid(), quote.getBidQuantity());
+        }
+        if (quote.hasAsk()) {
+            asks.add(quote.getAsk(), quote.getAskQuantity());
+        }
+    }
+
+    /**
+     * Removes the bid and ask sides of a quote previously added to this book.
+     *
+     * @param quote the quote to remove
+     */
+    public synchronized void remove(BidListQuote quote) {
+        if (quote.hasBid()) {
+            bids.remove(quote.getBid(), quote.getBidQuantity());
+        }
+        if (quote.hasAsk()) {
+            asks.remove(quote.getAsk(), quote.getAskQuantity());
+        }
+    }
+
+    /**
+     * Copies the best levels of each side.
+     *
+     * @param depth the maximum number of levels per side
+     * @return the bids by descending price and the asks by ascending price
+     */
+    public synchronized OrderBookDepth depth(int depth) {
+        return new OrderBookDepth(security, bids.top(depth, true), asks.top(depth, false));
+    }
+
+    /**
+     * @return true if neither side has any level left
+     */
+    public synchronized boolean isEmpty() {
+        return bids.size() == 0 && asks.size() == 0;
+    }
+
+    /**
+     * Copies the best bid and best ask.
+     *
+     * @return the top of this book, stamped with the current time
+     */
+    public synchronized TopOfBook top() {
+        PriceLevel bestBid = bids.size() == 0 ? null : bids.top(1, true).get(0);
+        PriceLevel bestAsk = asks.size() == 0 ? null : asks.top(1, false).get(0);
+        return new TopOfBook(security,
+                bestBid == null ? null : bestBid.getPrice(), bestBid == null ? null : bestBid.getQuantity(),
+                bestAsk == null ? null : bestAsk.getPrice(), bestAsk == null ? null : bestAsk.getQuantity(),
+                System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,31 @@
+package com.nnk.springboot.orderbook;
+
+import java.util.List;
+
+/**
+ * Snapshot of the best price levels of one security.
+ */
+public class OrderBookDepth {
+
+    private final String security;
+    private final List<PriceLevel> bids;
+    private final List<PriceLevel> asks;
+
+    public OrderBookDepth(String security, List<PriceLevel> bids, List<PriceLevel> asks) {
+        this.security = security;
+        this.bids = bids;
+        this.asks = asks;
+    }
+
+    public String getSecurity() {
+        return security;
+    }
+
+    public List<PriceLevel> getBids() {
+        return bids;
+    }
+
+    public List<PriceLevel> getAsks() {
+        return asks;
+    }
+}
@@ -0,0 +1,23 @@
+package com.nnk.springboot.orderbook;
+
+/**
+ * One price level of an order book side, with the quantity aggregated over all quotes at that price.
+ */
+public class PriceLevel {
+
+    private final double price;
+    private final double quantity;
+
+    public PriceLevel(double price, double quantity) {
+        this.price = price;
+        this.quantity = quantity;
+    }
+
+    public double getPrice() {
+        return price;
+    }
+
+    public double getQuantity() {
+        return quantity;
+    }
+}
@@ -0,0 +1,78 @@
+package com.nnk.springboot.orderbook;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * One side of an order book: price levels kept sorted ascending in parallel primitive arrays.
+ * <p>
+ * Lookups are binary searches over a {@code double[]}, so neither prices nor quantities are
+ * boxed. Inserting or removing a level shifts the tail of the arrays, which is cheap for the
+ * few hundred levels a security typically has. Not thread-safe; {@link OrderBook} guards it.
+ * </p>
+ */
+class PriceLevels {
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final double EPSILON = 1e-9;
+
+    private double[] prices = new double[INITIAL_CAPACITY];
+    private double[] quantities = new double[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * Adds quantity at a price, creating the level if needed.
+     */
+    void add(double price, double quantity) {
+        int index = Arrays.binarySearch(prices, 0, size, price);
+        if (index >= 0) {
+            quantities[index] += quantity;
+            return;
+        }
+        int insertAt = -index - 1;
+        if (size == prices.length) {
+            prices = Arrays.copyOf(prices, size * 2);
+            quantities = Arrays.copyOf(quantities, size * 2);
+        }
+        System.arraycopy(prices, insertAt, prices, insertAt + 1, size - insertAt);
+        System.arraycopy(quantities, insertAt, quantities, insertAt + 1, size - insertAt);
+        prices[insertAt] = price;
+        quantities[insertAt] = quantity;
+        size++;
+    }
+
+    /**
+     * Removes quantity at a price, dropping the level once it is empty.
+     */
+    void remove(double price, double quantity) {
+        int index = Arrays.binarySearch(prices, 0, size, price);
+        if (index < 0) {
+            return;
+        }
+        quantities[index] -= quantity;
+        if (quantities[index] <= EPSILON) {
+            System.arraycopy(prices, index + 1, prices, index, size - index - 1);
+            System.arraycopy(quantities, index + 1, quantities, index, size - index - 1);
+            size--;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns up to {@code depth} levels, starting from the highest price if {@code descending}
+     * (bids) or from the lowest price otherwise (asks).
+     */
+    List<PriceLevel> top(int depth, boolean descending) {
+        int count = Math.min(depth, size);
+        List<PriceLevel> levels = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int index = descending ? size - 1 - i : i;
+            levels.add(new PriceLevel(prices[index], quantities[index]));
+        }
+        return levels;
+    }
+}
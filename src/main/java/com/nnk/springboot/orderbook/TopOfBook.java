@@ -0,0 +1,50 @@
+package com.nnk.springboot.orderbook;
+
+/**
+ * Immutable best bid and best ask of one security. A side with no level has null price and quantity.
+ */
+public class TopOfBook {
+
+    private final String security;
+    private final Double bid;
+    private final Double bidQuantity;
+    private final Double ask;
+    private final Double askQuantity;
+    private final long updatedAt;
+
+    public TopOfBook(String security, Double bid, Double bidQuantity, Double ask, Double askQuantity, long updatedAt) {
+        this.security = security;
+        this.bid = bid;
+        this.bidQuantity = bidQuantity;
+        this.ask = ask;
+        this.askQuantity = askQuantity;
+        this.updatedAt = updatedAt;
+    }
+
+    public String getSecurity() {
+        return security;
+    }
+
+    public Double getBid() {
+        return bid;
+    }
+
+    public Double getBidQuantity() {
+        return bidQuantity;
+    }
+
+    public Double getAsk() {
+        return ask;
+    }
+
+    public Double getAskQuantity() {
+        return askQuantity;
+    }
+
+    /**
+     * @return when this snapshot was published, in epoch milliseconds
+     */
+    public long getUpdatedAt() {
+        return updatedAt;
+    }
+}
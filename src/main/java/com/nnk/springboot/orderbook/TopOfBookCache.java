@@ -0,0 +1,73 @@
+package com.nnk.springboot.orderbook;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Best bid and ask per security, published by the order books for readers that poll them.
+ * <p>
+ * Each entry is an immutable {@link TopOfBook} replaced as a whole, so a reader never takes
+ * a lock and never sees a half-updated quote. A rebuild swaps the entire map at once.
+ * </p>
+ */
+@Component
+public class TopOfBookCache {
+
+    private volatile Map<String, TopOfBook> entries = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder rebuilds = new LongAdder();
+
+    /**
+     * Looks up the best bid and ask of a security.
+     *
+     * @param security the security
+     * @return the last published snapshot, or empty if the security has no quote
+     */
+    public Optional<TopOfBook> get(String security) {
+        TopOfBook top = entries.get(security);
+        if (top == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(top);
+    }
+
+    /**
+     * Publishes a new snapshot, or removes the entry if both sides are empty.
+     */
+    public void publish(TopOfBook top) {
+        if (top.getBid() == null && top.getAsk() == null) {
+            entries.remove(top.getSecurity());
+        } else {
+            entries.put(top.getSecurity(), top);
+        }
+    }
+
+    /**
+     * Replaces every entry with freshly built snapshots.
+     */
+    public void replaceAll(Map<String, TopOfBook> snapshots) {
+        Map<String, TopOfBook> fresh = new ConcurrentHashMap<>();
+        snapshots.forEach((security, top) -> {
+            if (top.getBid() != null || top.getAsk() != null) {
+                fresh.put(security, top);
+            }
+        });
+        entries = fresh;
+        rebuilds.increment();
+    }
+
+    /**
+     * @return the hit, miss and rebuild counters and the number of cached securities
+     */
+    public TopOfBookStats stats() {
+        return new TopOfBookStats(hits.sum(), misses.sum(), rebuilds.sum(), entries.size());
+    }
+}
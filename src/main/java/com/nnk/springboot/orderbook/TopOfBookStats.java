@@ -0,0 +1,35 @@
+package com.nnk.springboot.orderbook;
+
+/**
+ * Counters of the top-of-book cache since the application started.
+ */
+public class TopOfBookStats {
+
+    private final long hits;
+    private final long misses;
+    private final long rebuilds;
+    private final int securities;
+
+    public TopOfBookStats(long hits, long misses, long rebuilds, int securities) {
+        this.hits = hits;
+        this.misses = misses;
+        this.rebuilds = rebuilds;
+        this.securities = securities;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getRebuilds() {
+        return rebuilds;
+    }
+
+    public int getSecurities() {
+        return securities;
+    }
+}
@@ -0,0 +1,63 @@
+package com.nnk.springboot.pnl;
+
+/**
+ * Immutable P&L of one book, summed over its trades.
+ * Trades whose unrealized P&L could not be marked are counted but add nothing to it.
+ */
+public final class BookPnl {
+
+    private final String book;
+    private final double realized;
+    private final double unrealized;
+    private final int tradeCount;
+    private final int unmarkedTradeCount;
+
+    private BookPnl(String book, double realized, double unrealized, int tradeCount, int unmarkedTradeCount) {
+        this.book = book;
+        this.realized = realized;
+        this.unrealized = unrealized;
+        this.tradeCount = tradeCount;
+        this.unmarkedTradeCount = unmarkedTradeCount;
+    }
+
+    /**
+     * @return the P&L of a book made of the given trade alone
+     */
+    public static BookPnl of(TradePnl trade) {
+        boolean marked = trade.getUnrealized() != null;
+        return new BookPnl(trade.getBook(), trade.getRealized(), marked ? trade.getUnrealized() : 0.0, 1,
+                marked ? 0 : 1);
+    }
+
+    /**
+     * @return this P&L with the trades of another P&L of the same book added
+     */
+    public BookPnl plus(BookPnl other) {
+        return new BookPnl(book, realized + other.realized, unrealized + other.unrealized,
+                tradeCount + other.tradeCount, unmarkedTradeCount + other.unmarkedTradeCount);
+    }
+
+    public String getBook() {
+        return book;
+    }
+
+    public double getRealized() {
+        return realized;
+    }
+
+    public double getUnrealized() {
+        return unrealized;
+    }
+
+    public double getTotal() {
+        return realized + unrealized;
+    }
+
+    public int getTradeCount() {
+        return tradeCount;
+    }
+
+    public int getUnmarkedTradeCount() {
+        return unmarkedTradeCount;
+    }
+}
@@ -0,0 +1,13 @@
+package com.nnk.springboot.pnl;
+
+/**
+ * Supplies the price open trade quantities are marked at to compute unrealized P&L.
+ */
+public interface MarkPriceSource {
+
+    /**
+     * @param security the security
+     * @return the current mark price of the security, or null if it has none
+     */
+    Double markPrice(String security);
+}
@@ -0,0 +1,56 @@
+package com.nnk.springboot.pnl;
+
+import java.util.List;
+
+/**
+ * Immutable result of one P&L run over every trade: the P&L of each book and their totals.
+ */
+public final class PnlReport {
+
+    private final List<BookPnl> books;
+    private final double realized;
+    private final double unrealized;
+    private final int tradeCount;
+    private final long computedAt;
+    private final long durationMillis;
+
+    public PnlReport(List<BookPnl> books, long computedAt, long durationMillis) {
+        this.books = List.copyOf(books);
+        this.realized = books.stream().mapToDouble(BookPnl::getRealized).sum();
+        this.unrealized = books.stream().mapToDouble(BookPnl::getUnrealized).sum();
+        this.tradeCount = books.stream().mapToInt(BookPnl::getTradeCount).sum();
+        this.computedAt = computedAt;
+        this.durationMillis = durationMillis;
+    }
+
+    public List<BookPnl> getBooks() {
+        return books;
+    }
+
+    public double getRealized() {
+        return realized;
+    }
+
+    public double getUnrealized() {
+        return unrealized;
+    }
+
+    public double getTotal() {
+        return realized + unrealized;
+    }
+
+    public int getTradeCount() {
+        return tradeCount;
+    }
+
+    /**
+     * @return when the run finished, in epoch milliseconds
+     */
+    public long getComputedAt() {
+        return computedAt;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+}
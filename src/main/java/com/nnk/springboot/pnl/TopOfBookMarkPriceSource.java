@@ -0,0 +1,34 @@
+package com.nnk.springboot.pnl;
+
+import com.nnk.springboot.orderbook.TopOfBook;
+import com.nnk.springboot.services.contracts.IOrderBookService;
+import org.springframework.stereotype.Component;
+
+/**
+ * Marks securities at the latest BidList quotes: the mid of the best bid and ask from the
+ * top-of-book cache, or the only side quoted when the other side is empty.
+ */
+@Component
+public class TopOfBookMarkPriceSource implements MarkPriceSource {
+
+    private final IOrderBookService orderBookService;
+
+    public TopOfBookMarkPriceSource(IOrderBookService orderBookService) {
+        this.orderBookService = orderBookService;
+    }
+
+    @Override
+    public Double markPrice(String security) {
+        if (security == null) {
+            return null;
+        }
+        return orderBookService.getTopOfBook(security).map(TopOfBookMarkPriceSource::mid).orElse(null);
+    }
+
+    private static Double mid(TopOfBook top) {
+        if (top.getBid() != null && top.getAsk() != null) {
+            return (top.getBid() + top.getAsk()) / 2;
+        }
+        return top.getBid() != null ? top.getBid() : top.getAsk();
+    }
+}
@@ -0,0 +1,97 @@
+package com.nnk.springboot.pnl;
+
+import com.nnk.springboot.dto.PricedTrade;
+
+/**
+ * Immutable P&L of one trade.
+ * <p>
+ * The quantity both bought and sold within the trade is realized at the difference between
+ * its sell and buy prices. The remaining open quantity, long or short, is unrealized and
+ * marked against the mark price; it is null when the security has no mark or the price of
+ * the open side is missing. Missing quantities count as zero.
+ * </p>
+ */
+public final class TradePnl {
+
+    private final Integer tradeId;
+    private final String book;
+    private final String security;
+    private final double openQuantity;
+    private final double realized;
+    private final Double unrealized;
+    private final Double markPrice;
+
+    private TradePnl(Integer tradeId, String book, String security, double openQuantity, double realized,
+                     Double unrealized, Double markPrice) {
+        this.tradeId = tradeId;
+        this.book = book;
+        this.security = security;
+        this.openQuantity = openQuantity;
+        this.realized = realized;
+        this.unrealized = unrealized;
+        this.markPrice = markPrice;
+    }
+
+    /**
+     * @param trade     the trade quantities and prices
+     * @param markPrice the mark price of its security, or null if it has none
+     * @return the P&L of the trade
+     */
+    public static TradePnl of(PricedTrade trade, Double markPrice) {
+        double bought = valueOf(trade.getBuyQuantity());
+        double sold = valueOf(trade.getSellQuantity());
+        double matched = Math.min(bought, sold);
+        double realized = matched > 0 && trade.getBuyPrice() != null && trade.getSellPrice() != null
+                ? matched * (trade.getSellPrice() - trade.getBuyPrice())
+                : 0.0;
+
+        double open = bought - sold;
+        Double unrealized;
+        if (open == 0) {
+            unrealized = 0.0;
+        } else if (markPrice == null) {
+            unrealized = null;
+        } else if (open > 0) {
+            unrealized = trade.getBuyPrice() == null ? null : open * (markPrice - trade.getBuyPrice());
+        } else {
+            unrealized = trade.getSellPrice() == null ? null : -open * (trade.getSellPrice() - markPrice);
+        }
+        return new TradePnl(trade.getTradeId(), trade.getBook(), trade.getSecurity(), open, realized, unrealized,
+                markPrice);
+    }
+
+    private static double valueOf(Double quantity) {
+        return quantity == null ? 0.0 : quantity;
+    }
+
+    public Integer getTradeId() {
+        return tradeId;
+    }
+
+    public String getBook() {
+        return book;
+    }
+
+    public String getSecurity() {
+        return security;
+    }
+
+    /**
+     * @return the bought quantity minus the sold quantity; negative for a short
+     */
+    public double getOpenQuantity() {
+        return openQuantity;
+    }
+
+    public double getRealized() {
+        return realized;
+    }
+
+    public Double getUnrealized() {
+        return unrealized;
+    }
+
+    public Double getMarkPrice() {
+        return markPrice;
+    }
+}
@@ -0,0 +1,83 @@
+package com.nnk.springboot.position;
+
+import com.nnk.springboot.dto.TradeLeg;
+
+/**
+ * Immutable net position of one (account, book, security): the bought and sold quantities
+ * summed over its trades. Missing quantities count as zero.
+ */
+public final class Position {
+
+    private final PositionKey key;
+    private final double buyQuantity;
+    private final double sellQuantity;
+    private final int tradeCount;
+
+    private Position(PositionKey key, double buyQuantity, double sellQuantity, int tradeCount) {
+        this.key = key;
+        this.buyQuantity = buyQuantity;
+        this.sellQuantity = sellQuantity;
+        this.tradeCount = tradeCount;
+    }
+
+    /**
+     * @return the position made of the given trade leg alone
+     */
+    public static Position of(TradeLeg leg) {
+        return new Position(PositionKey.of(leg), valueOf(leg.getBuyQuantity()), valueOf(leg.getSellQuantity()), 1);
+    }
+
+    /**
+     * @return this position with the trades of another position of the same key added
+     */
+    public Position plus(Position other) {
+        return new Position(key, buyQuantity + other.buyQuantity, sellQuantity + other.sellQuantity,
+                tradeCount + other.tradeCount);
+    }
+
+    /**
+     * @return this position without the given trade leg, or null if it was its last trade
+     */
+    public Position minus(TradeLeg leg) {
+        if (tradeCount <= 1) {
+            return null;
+        }
+        return new Position(key, buyQuantity - valueOf(leg.getBuyQuantity()),
+                sellQuantity - valueOf(leg.getSellQuantity()), tradeCount - 1);
+    }
+
+    private static double valueOf(Double quantity) {
+        return quantity == null ? 0.0 : quantity;
+    }
+
+    public String getAccount() {
+        return key.getAccount();
+    }
+
+    public String getBook() {
+        return key.getBook();
+    }
+
+    public String getSecurity() {
+        return key.getSecurity();
+    }
+
+    public double getBuyQuantity() {
+        return buyQuantity;
+    }
+
+    public double getSellQuantity() {
+        return sellQuantity;
+    }
+
+    /**
+     * @return the bought quantity minus the sold quantity; negative for a short position
+     */
+    public double getNetQuantity() {
+        return buyQuantity - sellQuantity;
+    }
+
+    public int getTradeCount() {
+        return tradeCount;
+    }
+}
@@ -0,0 +1,64 @@
+package com.nnk.springboot.position;
+
+import com.nnk.springboot.dto.TradeLeg;
+
+import java.util.Objects;
+
+/**
+ * The (account, book, security) triple a net position is aggregated on.
+ * Book and security may be null; a null only matches another null.
+ */
+public final class PositionKey {
+
+    private final String account;
+    private final String book;
+    private final String security;
+
+    public PositionKey(String account, String book, String security) {
+        this.account = account;
+        this.book = book;
+        this.security = security;
+    }
+
+    /**
+     * @return the key the given trade leg is aggregated on
+     */
+    public static PositionKey of(TradeLeg leg) {
+        return new PositionKey(leg.getAccount(), leg.getBook(), leg.getSecurity());
+    }
+
+    public String getAccount() {
+        return account;
+    }
+
+    public String getBook() {
+        return book;
+    }
+
+    public String getSecurity() {
+        return security;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PositionKey other)) {
+            return false;
+        }
+        return Objects.equals(account, other.account)
+                && Objects.equals(book, other.book)
+                && Objects.equals(security, other.security);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(account, book, security);
+    }
+
+    @Override
+    public String toString() {
+        return account + "/" + book + "/" + security;
+    }
+}
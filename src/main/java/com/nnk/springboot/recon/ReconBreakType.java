@@ -0,0 +1,16 @@
+package com.nnk.springboot.recon;
+
+/**
+ * Why a reconciliation key, or a row without one, did not reconcile.
+ */
+public enum ReconBreakType {
+
+    /** BidLists with no Trade of the same key. */
+    UNMATCHED_BID,
+    /** Trades with no BidList of the same key. */
+    UNMATCHED_TRADE,
+    /** BidLists and Trades of the same key whose total quantities differ. */
+    QUANTITY_MISMATCH,
+    /** A row with an empty key column, which cannot be matched. */
+    MISSING_KEY
+}
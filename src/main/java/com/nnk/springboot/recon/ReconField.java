@@ -0,0 +1,28 @@
+package com.nnk.springboot.recon;
+
+import com.nnk.springboot.dto.ReconRow;
+
+import java.util.function.Function;
+
+/**
+ * The columns shared by BidList and Trade that a reconciliation can match rows on.
+ */
+public enum ReconField {
+
+    DEAL_NAME(ReconRow::getDealName),
+    DEAL_TYPE(ReconRow::getDealType),
+    SOURCE_LIST_ID(ReconRow::getSourceListId),
+    ACCOUNT(ReconRow::getAccount),
+    BOOK(ReconRow::getBook),
+    SECURITY(ReconRow::getSecurity);
+
+    private final Function<ReconRow, String> extractor;
+
+    ReconField(Function<ReconRow, String> extractor) {
+        this.extractor = extractor;
+    }
+
+    public String valueOf(ReconRow row) {
+        return extractor.apply(row);
+    }
+}
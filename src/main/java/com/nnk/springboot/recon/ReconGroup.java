@@ -0,0 +1,166 @@
+package com.nnk.springboot.recon;
+
+import com.nnk.springboot.dto.ReconRow;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The BidList and Trade totals of one reconciliation key.
+ * <p>
+ * Only the counts, the summed quantities and the first {@link #MAX_IDS} ids of each side are
+ * kept, so a group takes the same memory whatever the number of rows sharing its key, and two
+ * partial groups of the same key, such as one spilled to disk and one still in memory, merge
+ * into the group of all their rows.
+ * </p>
+ */
+public final class ReconGroup {
+
+    public static final int MAX_IDS = 5;
+
+    private final String key;
+    private final Side bids;
+    private final Side trades;
+
+    public ReconGroup(String key) {
+        this(key, new Side(), new Side());
+    }
+
+    private ReconGroup(String key, Side bids, Side trades) {
+        this.key = key;
+        this.bids = bids;
+        this.trades = trades;
+    }
+
+    public void addBid(ReconRow row) {
+        bids.add(row);
+    }
+
+    public void addTrade(ReconRow row) {
+        trades.add(row);
+    }
+
+    /**
+     * Add the rows of another group of the same key to this one.
+     *
+     * @param other the group to merge
+     */
+    public void merge(ReconGroup other) {
+        bids.merge(other.bids);
+        trades.merge(other.trades);
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public Side getBids() {
+        return bids;
+    }
+
+    public Side getTrades() {
+        return trades;
+    }
+
+    /**
+     * Write the group in the binary layout read by {@link #read}.
+     *
+     * @param out the output to write to
+     * @throws IOException if the output fails
+     */
+    public void write(DataOutput out) throws IOException {
+        out.writeUTF(key);
+        bids.write(out);
+        trades.write(out);
+    }
+
+    /**
+     * Read a group written by {@link #write}.
+     *
+     * @param in the input to read from
+     * @return the group
+     * @throws IOException if the input fails or ends early
+     */
+    public static ReconGroup read(DataInput in) throws IOException {
+        return new ReconGroup(in.readUTF(), Side.read(in), Side.read(in));
+    }
+
+    /**
+     * The rows of one table under a key: for BidLists, {@code quantity} sums the bid quantities and
+     * {@code oppositeQuantity} the ask quantities; for Trades, the buy and the sell quantities.
+     */
+    public static final class Side {
+
+        private int count;
+        private double quantity;
+        private double oppositeQuantity;
+        private final int[] ids = new int[MAX_IDS];
+        private int idCount;
+
+        void add(ReconRow row) {
+            count++;
+            quantity += row.getQuantity() == null ? 0 : row.getQuantity();
+            oppositeQuantity += row.getOppositeQuantity() == null ? 0 : row.getOppositeQuantity();
+            addId(row.getId());
+        }
+
+        void merge(Side other) {
+            count += other.count;
+            quantity += other.quantity;
+            oppositeQuantity += other.oppositeQuantity;
+            for (int i = 0; i < other.idCount; i++) {
+                addId(other.ids[i]);
+            }
+        }
+
+        private void addId(int id) {
+            if (idCount < MAX_IDS) {
+                ids[idCount++] = id;
+            }
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public double getQuantity() {
+            return quantity;
+        }
+
+        public double getOppositeQuantity() {
+            return oppositeQuantity;
+        }
+
+        /**
+         * @return the first ids of the side, at most {@link #MAX_IDS}, in no particular order
+         */
+        public List<Integer> getIds() {
+            return Arrays.stream(ids, 0, idCount).boxed().toList();
+        }
+
+        private void write(DataOutput out) throws IOException {
+            out.writeInt(count);
+            out.writeDouble(quantity);
+            out.writeDouble(oppositeQuantity);
+            out.writeByte(idCount);
+            for (int i = 0; i < idCount; i++) {
+                out.writeInt(ids[i]);
+            }
+        }
+
+        private static Side read(DataInput in) throws IOException {
+            Side side = new Side();
+            side.count = in.readInt();
+            side.quantity = in.readDouble();
+            side.oppositeQuantity = in.readDouble();
+            side.idCount = in.readByte();
+            for (int i = 0; i < side.idCount; i++) {
+                side.ids[i] = in.readInt();
+            }
+            return side;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.nnk.springboot.recon;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Hash partitions of reconciliation groups spilled to disk.
+ * <p>
+ * Each group goes to the partition file chosen by the hash of its key, so every partial group of
+ * a key lands in the same file, and one partition at a time can be read back and merged in memory.
+ * The files live in a temporary directory deleted by {@link #close()}.
+ * </p>
+ */
+public final class ReconSpill implements Closeable {
+
+    private final Path directory;
+    private final DataOutputStream[] outputs;
+    private long spilledGroups;
+
+    /**
+     * @param parent     the directory to create the temporary directory in
+     * @param partitions the number of partition files
+     * @throws IOException if the temporary directory cannot be created
+     */
+    public ReconSpill(Path parent, int partitions) throws IOException {
+        Files.createDirectories(parent);
+        this.directory = Files.createTempDirectory(parent, "spill-");
+        this.outputs = new DataOutputStream[partitions];
+    }
+
+    /**
+     * Append a group to its partition file.
+     *
+     * @param group the group, possibly holding only part of the rows of its key
+     * @throws IOException if the partition file cannot be written
+     */
+    public void write(ReconGroup group) throws IOException {
+        int partition = partitionOf(group.getKey());
+        if (outputs[partition] == null) {
+            outputs[partition] = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file(partition))));
+        }
+        group.write(outputs[partition]);
+        spilledGroups++;
+    }
+
+    public int getPartitions() {
+        return outputs.length;
+    }
+
+    /**
+     * @return the number of partial groups written so far
+     */
+    public long getSpilledGroups() {
+        return spilledGroups;
+    }
+
+    /**
+     * Read one partition back, merging the partial groups of each key, and pass every group to
+     * the visitor. Must be called once every group has been written.
+     *
+     * @param partition the partition to read
+     * @param visitor   called once with each group of the partition
+     * @throws IOException if the partition file cannot be read
+     */
+    public void read(int partition, Consumer<ReconGroup> visitor) throws IOException {
+        if (outputs[partition] == null) {
+            return;
+        }
+        outputs[partition].close();
+        Map<String, ReconGroup> groups = new HashMap<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file(partition))))) {
+            while (true) {
+                ReconGroup group;
+                try {
+                    group = ReconGroup.read(in);
+                } catch (EOFException end) {
+                    break;
+                }
+                ReconGroup existing = groups.putIfAbsent(group.getKey(), group);
+                if (existing != null) {
+                    existing.merge(group);
+                }
+            }
+        }
+        groups.values().forEach(visitor);
+    }
+
+    /**
+     * Close and delete every partition file and the temporary directory.
+     */
+    @Override
+    public void close() throws IOException {
+        for (DataOutputStream output : outputs) {
+            if (output != null) {
+                output.close();
+            }
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(directory);
+    }
+
+    private int partitionOf(String key) {
+        // Spread the hash bits, as HashMap does, so that keys differing only in their last characters
+        // still fall in different partitions
+        int hash = key.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), outputs.length);
+    }
+
+    private Path file(int partition) {
+        return directory.resolve("partition-" + partition + ".bin");
+    }
+}
@@ -1,9 +1,106 @@
 package com.nnk.springboot.repositories;
 
+import com.nnk.springboot.dto.BidListQuote;
+import com.nnk.springboot.dto.ReconRow;
 import com.nnk.springboot.model.BidList;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
+import java.util.stream.Stream;
 
-public interface BidListRepository extends JpaRepository<BidList, Integer> {
 
+public interface BidListRepository extends JpaRepository<BidList, Integer>, JpaSpecificationExecutor<BidList>,
+        BidListRepositoryCustom {
+
+    /**
+     * Streams every BidList over a forward-only cursor, in id order.
+     * Must be consumed inside a transaction and closed afterwards.
+     */
+    @Query("select b from BidList b order by b.bidListId")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    Stream<BidList> streamAllOrderById();
+
+    /**
+     * Streams the sourceListId of every BidList that has one, used to rebuild the duplicate filter.
+     * Must be consumed inside a transaction.
+     */
+    @Query("select b.sourceListId from BidList b where b.sourceListId is not null")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<String> streamSourceListIds();
+
+    long countBySourceListIdNotNull();
+
+    boolean existsBySourceListId(String sourceListId);
+
+    /**
+     * Streams the price and quantity columns of every BidList that has a security,
+     * used to rebuild the in-memory order book. Must be consumed inside a transaction.
+     */
+    @Query("select new com.nnk.springboot.dto.BidListQuote(b.bidListId, b.security, b.bid, b.bidQuantity, b.ask, b.askQuantity) "
+            + "from BidList b where b.security is not null")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<BidListQuote> streamAllQuotes();
+
+    /**
+     * Streams the reconciliation columns of the BidLists dated in {@code [from, to)}, over a
+     * forward-only cursor. Must be consumed inside a transaction and closed afterwards.
+     */
+    @Query("select new com.nnk.springboot.dto.ReconRow(b.bidListId, b.dealName, b.dealType, b.sourceListId, "
+            + "b.account, b.book, b.security, b.bidQuantity, b.askQuantity) "
+            + "from BidList b where b.bidListDate >= :from and b.bidListDate < :to")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    Stream<ReconRow> streamReconRows(@Param("from") Timestamp from, @Param("to") Timestamp to);
+
+    /**
+     * Deletes one BidList with a single DELETE statement, without loading it first.
+     *
+     * @return the number of rows deleted, 0 if the id does not exist
+     */
+    @Modifying
+    @Query("delete from BidList b where b.bidListId = :id")
+    int deleteRowById(@Param("id") Integer id);
+
+    /**
+     * Updates the fields editable from the update form with a single UPDATE statement,
+     * whatever the current version, and bumps the version.
+     *
+     * @return the number of rows updated, 0 if the id does not exist
+     */
+    @Transactional
+    @Modifying
+    @Query("update BidList b set b.account = :account, b.type = :type, b.bidQuantity = :bidQuantity, "
+            + "b.version = coalesce(b.version, 0) + 1 where b.bidListId = :id")
+    int updateEditableFields(@Param("id") Integer id, @Param("account") String account, @Param("type") String type,
+                             @Param("bidQuantity") Double bidQuantity);
+
+    /**
+     * Updates the fields editable from the update form only if the row is still at the given
+     * version, and bumps the version. Rows saved before versioning was added count as version 0.
+     *
+     * @return the number of rows updated, 0 if the id does not exist or the version has moved on
+     */
+    @Transactional
+    @Modifying
+    @Query("update BidList b set b.account = :account, b.type = :type, b.bidQuantity = :bidQuantity, "
+            + "b.version = coalesce(b.version, 0) + 1 "
+            + "where b.bidListId = :id and coalesce(b.version, 0) = :version")
+    int updateEditableFieldsIfVersion(@Param("id") Integer id, @Param("version") Integer version,
+                                      @Param("account") String account, @Param("type") String type,
+                                      @Param("bidQuantity") Double bidQuantity);
 }
@@ -0,0 +1,18 @@
+package com.nnk.springboot.repositories;
+
+import com.nnk.springboot.dto.BidListSummary;
+import com.nnk.springboot.dto.BidListSortKey;
+import com.nnk.springboot.model.BidList;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/**
+ * Hand-written BidList queries that Spring Data cannot derive.
+ */
+public interface BidListRepositoryCustom {
+
+    List<BidListSummary> findSummariesAfter(Specification<BidList> filter, BidListSortKey sortKey,
+                                            Sort.Direction direction, Integer afterId, Object afterKey, int limit);
+}
@@ -0,0 +1,85 @@
+package com.nnk.springboot.repositories;
+
+import com.nnk.springboot.dto.BidListSummary;
+import com.nnk.springboot.model.BidList;
+import com.nnk.springboot.dto.BidListSortKey;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Criteria-based implementation of {@link BidListRepositoryCustom}.
+ */
+public class BidListRepositoryImpl implements BidListRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Seeks past the given cursor and projects the following rows straight into
+     * {@link BidListSummary}, without any OFFSET and without managed entities.
+     * The filter is ANDed with the seek predicate, so it narrows every window alike.
+     *
+     * @param filter    the list page filters, may be null
+     * @param sortKey   the column to sort on, with the id as tie-breaker
+     * @param direction the sort direction
+     * @param afterId   id of the last row of the previous window, or null for the first window
+     * @param afterKey  sort key value of that row, null when sorting by id
+     * @param limit     the maximum number of rows to return
+     * @return the rows following the cursor
+     */
+    @Override
+    public List<BidListSummary> findSummariesAfter(Specification<BidList> filter, BidListSortKey sortKey,
+                                                   Sort.Direction direction, Integer afterId, Object afterKey,
+                                                   int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<BidListSummary> query = cb.createQuery(BidListSummary.class);
+        Root<BidList> root = query.from(BidList.class);
+
+        query.select(cb.construct(BidListSummary.class,
+                root.get(BidListSortKey.ID_PROPERTY), root.get("account"), root.get("type"), root.get("bidQuantity")));
+
+        boolean ascending = direction.isAscending();
+        Expression<Comparable<Object>> id = root.get(BidListSortKey.ID_PROPERTY);
+        Expression<Comparable<Object>> key = root.get(sortKey.getProperty());
+
+        List<Predicate> where = new ArrayList<>(2);
+        Predicate filtered = filter == null ? null : filter.toPredicate(root, query, cb);
+        if (filtered != null) {
+            where.add(filtered);
+        }
+        if (afterId != null) {
+            Predicate idAfter = after(cb, id, afterId, ascending);
+            where.add(sortKey == BidListSortKey.ID
+                    ? idAfter
+                    : cb.or(after(cb, key, afterKey, ascending), cb.and(cb.equal(key, afterKey), idAfter)));
+        }
+        query.where(where.toArray(new Predicate[0]));
+
+        if (sortKey == BidListSortKey.ID) {
+            query.orderBy(ascending ? cb.asc(id) : cb.desc(id));
+        } else {
+            query.orderBy(ascending ? cb.asc(key) : cb.desc(key), ascending ? cb.asc(id) : cb.desc(id));
+        }
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Predicate after(CriteriaBuilder cb, Expression<Comparable<Object>> path, Object value,
+                                   boolean ascending) {
+        Comparable<Object> bound = (Comparable<Object>) value;
+        return ascending ? cb.greaterThan(path, bound) : cb.lessThan(path, bound);
+    }
+}
@@ -0,0 +1,55 @@
+package com.nnk.springboot.repositories;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+import static org.springframework.data.jpa.repository.query.QueryUtils.toOrders;
+
+/**
+ * Runs a Specification as a constructor-expression query, so that filtered list pages
+ * still read projections rather than managed entities.
+ */
+final class CriteriaSummaries {
+
+    private CriteriaSummaries() {
+    }
+
+    /**
+     * @param entityManager the entity manager
+     * @param entityClass   the entity to query
+     * @param summaryClass  the projection, with a constructor taking {@code attributes} in order
+     * @param spec          the filter, may be null
+     * @param sort          the ordering
+     * @param attributes    the entity attributes passed to the projection constructor
+     * @return the matching rows as projections
+     */
+    static <T, S> List<S> find(EntityManager entityManager, Class<T> entityClass, Class<S> summaryClass,
+                               Specification<T> spec, Sort sort, String... attributes) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<S> query = cb.createQuery(summaryClass);
+        Root<T> root = query.from(entityClass);
+
+        Selection<?>[] selections = new Selection<?>[attributes.length];
+        for (int i = 0; i < attributes.length; i++) {
+            selections[i] = root.get(attributes[i]);
+        }
+        query.select(cb.construct(summaryClass, selections));
+
+        if (spec != null) {
+            Predicate predicate = spec.toPredicate(root, query, cb);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+        query.orderBy(toOrders(sort, root, cb));
+        return entityManager.createQuery(query).getResultList();
+    }
+}
@@ -1,9 +1,62 @@
 package com.nnk.springboot.repositories;
 
+import com.nnk.springboot.dto.CurveSeriesPoint;
 import com.nnk.springboot.model.CurvePoint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.sql.Timestamp;
+import java.util.List;
 
-public interface CurvePointRepository extends JpaRepository<CurvePoint, Integer> {
 
+public interface CurvePointRepository extends JpaRepository<CurvePoint, Integer>, JpaSpecificationExecutor<CurvePoint>,
+        CurvePointRepositoryCustom {
+
+    /**
+     * Loads the points of one curve, in term order. A null asOfDate selects the points without one.
+     */
+    List<CurvePoint> findByCurveIdAndAsOfDateOrderByTermAscIdAsc(Integer curveId, Timestamp asOfDate);
+
+    /**
+     * Reads the value of one term of a curve at each as-of date in a range, ordered by as-of date then id.
+     * Null bounds do not filter.
+     */
+    @Query("select new com.nnk.springboot.dto.CurveSeriesPoint(c.id, c.asOfDate, c.value) from CurvePoint c "
+            + "where c.curveId = :curveId and c.term = :term and c.asOfDate is not null and c.value is not null "
+            + "and (:from is null or c.asOfDate >= :from) and (:to is null or c.asOfDate <= :to) "
+            + "order by c.asOfDate, c.id")
+    List<CurveSeriesPoint> findSeries(@Param("curveId") Integer curveId, @Param("term") Double term,
+                                      @Param("from") Timestamp from, @Param("to") Timestamp to);
+
+    /**
+     * Deletes every point of one curve with a single DELETE statement. A null asOfDate selects the
+     * points without one.
+     *
+     * @return the number of rows deleted
+     */
+    @Modifying
+    @Query("delete from CurvePoint c where c.curveId = :curveId "
+            + "and (c.asOfDate = :asOfDate or (:asOfDate is null and c.asOfDate is null))")
+    int deleteCurve(@Param("curveId") Integer curveId, @Param("asOfDate") Timestamp asOfDate);
+
+    /**
+     * Deletes one CurvePoint with a single DELETE statement, without loading it first.
+     *
+     * @return the number of rows deleted, 0 if the id does not exist
+     */
+    @Modifying
+    @Query("delete from CurvePoint c where c.id = :id")
+    int deleteRowById(@Param("id") Integer id);
+
+    /**
+     * Updates the fields editable from the update form with a single UPDATE statement.
+     *
+     * @return the number of rows updated, 0 if the id does not exist
+     */
+    @Modifying
+    @Query("update CurvePoint c set c.term = :term, c.value = :value where c.id = :id")
+    int updateEditableFields(@Param("id") Integer id, @Param("term") Double term, @Param("value") Double value);
 }
@@ -0,0 +1,16 @@
+package com.nnk.springboot.repositories;
+
+import com.nnk.springboot.dto.CurvePointSummary;
+import com.nnk.springboot.model.CurvePoint;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/**
+ * Hand-written CurvePoint queries that Spring Data cannot derive.
+ */
+public interface CurvePointRepositoryCustom {
+
+    List<CurvePointSummary> findSummaries(Specification<CurvePoint> filter, Sort sort);
+}
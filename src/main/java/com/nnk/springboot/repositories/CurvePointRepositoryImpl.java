@@ -0,0 +1,32 @@
+package com.nnk.springboot.repositories;
+
+import com.nnk.springboot.dto.CurvePointSummary;
+import com.nnk.springboot.model.CurvePoint;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/**
+ * Criteria-based implementation of {@link CurvePointRepositoryCustom}.
+ */
+public class CurvePointRepositoryImpl implements CurvePointRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Projects the CurvePoint rows matching the filter straight into {@link CurvePointSummary}.
+     *
+     * @param filter the list page filters, may be null
+     * @param sort   the ordering
+     * @return the matching rows
+     */
+    @Override
+    public List<CurvePointSummary> findSummaries(Specification<CurvePoint> filter, Sort sort) {
+        return CriteriaSummaries.find(entityManager, CurvePoint.class, CurvePointSummary.class, filter, sort,
+                "id", "curveId", "term", "value");
+    }
+}
@@ -0,0 +1,33 @@
+package com.nnk.springboot.repositories;
+
+import com.nnk.springboot.model.CurvePointVersion;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+
+public interface CurvePointVersionRepository extends JpaRepository<CurvePointVersion, Long> {
+
+    /**
+     * Finds the as-of dates of a curve up to a valid time, as known at a system time, latest first.
+     */
+    @Query("select distinct v.asOfDate from CurvePointVersion v where v.curveId = :curveId "
+            + "and v.asOfDate <= :validAt and v.recordedAt <= :knownAt order by v.asOfDate desc")
+    List<Timestamp> findAsOfDates(@Param("curveId") Integer curveId, @Param("validAt") Timestamp validAt,
+                                  @Param("knownAt") Timestamp knownAt, Pageable pageable);
+
+    /**
+     * Finds the points of one curve as known at a system time: the last version of each curve point
+     * recorded by then, unless it moved to another curve or was deleted.
+     */
+    @Query("select v from CurvePointVersion v where v.curveId = :curveId and v.asOfDate = :asOfDate "
+            + "and v.recordedAt <= :knownAt and v.deleted = false and not exists ("
+            + "select w.id from CurvePointVersion w where w.curvePointId = v.curvePointId and w.recordedAt <= :knownAt "
+            + "and (w.recordedAt > v.recordedAt or (w.recordedAt = v.recordedAt and w.id > v.id)))")
+    List<CurvePointVersion> findKnownAt(@Param("curveId") Integer curveId, @Param("asOfDate") Timestamp asOfDate,
+                                        @Param("knownAt") Timestamp knownAt);
+}
@@ -1,8 +1,40 @@
 package com.nnk.springboot.repositories;
 
+import com.nnk.springboot.dto.RatingSummary;
 import com.nnk.springboot.model.Rating;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface RatingRepository extends JpaRepository<Rating, Integer> {
+import java.util.List;
 
+public interface RatingRepository extends JpaRepository<Rating, Integer>, JpaSpecificationExecutor<Rating> {
+
+    @Query("select new com.nnk.springboot.dto.RatingSummary(r.id, r.moodysRating, r.sandPRating, r.fitchRating, r.orderNumber) "
+            + "from Rating r")
+    List<RatingSummary> findAllSummaries(Sort sort);
+
+    /**
+     * Deletes one Rating with a single DELETE statement, without loading it first.
+     *
+     * @return the number of rows deleted, 0 if the id does not exist
+     */
+    @Modifying
+    @Query("delete from Rating r where r.id = :id")
+    int deleteRowById(@Param("id") Integer id);
+
+    /**
+     * Updates the fields editable from the update form with a single UPDATE statement.
+     *
+     * @return the number of rows updated, 0 if the id does not exist
+     */
+    @Modifying
+    @Query("update Rating r set r.moodysRating = :moodysRating, r.sandPRating = :sandPRating, "
+            + "r.fitchRating = :fitchRating, r.orderNumber = :orderNumber where r.id = :id")
+    int updateEditableFields(@Param("id") Integer id, @Param("moodysRating") String moodysRating,
+                             @Param("sandPRating") String sandPRating, @Param("fitchRating") String fitchRating,
+                             @Param("orderNumber") Integer orderNumber);
 }
@@ -1,8 +1,42 @@
 package com.nnk.springboot.repositories;
 
+import com.nnk.springboot.dto.RuleNameSummary;
 import com.nnk.springboot.model.RuleName;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 
-public interface RuleNameRepository extends JpaRepository<RuleName, Integer> {
+
+public interface RuleNameRepository extends JpaRepository<RuleName, Integer>, JpaSpecificationExecutor<RuleName> {
+
+    @Query("select new com.nnk.springboot.dto.RuleNameSummary(r.id, r.name, r.description, r.json, r.template, r.sqlStr, r.sqlPart) "
+            + "from RuleName r")
+    List<RuleNameSummary> findAllSummaries(Sort sort);
+
+    /**
+     * Deletes one RuleName with a single DELETE statement, without loading it first.
+     *
+     * @return the number of rows deleted, 0 if the id does not exist
+     */
+    @Modifying
+    @Query("delete from RuleName r where r.id = :id")
+    int deleteRowById(@Param("id") Integer id);
+
+    /**
+     * Updates the fields editable from the update form with a single UPDATE statement.
+     *
+     * @return the number of rows updated, 0 if the id does not exist
+     */
+    @Modifying
+    @Query("update RuleName r set r.name = :name, r.description = :description, r.json = :json, "
+            + "r.template = :template, r.sqlStr = :sqlStr, r.sqlPart = :sqlPart where r.id = :id")
+    int updateEditableFields(@Param("id") Integer id, @Param("name") String name,
+                             @Param("description") String description, @Param("json") String json,
+                             @Param("template") String template, @Param("sqlStr") String sqlStr,
+                             @Param("sqlPart") String sqlPart);
 }
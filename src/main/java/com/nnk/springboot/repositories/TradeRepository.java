@@ -1,8 +1,233 @@
 package com.nnk.springboot.repositories;
 
+import com.nnk.springboot.dto.BlotterRow;
+import com.nnk.springboot.dto.PricedTrade;
+import com.nnk.springboot.dto.ReconRow;
+import com.nnk.springboot.dto.TradeLeg;
 import com.nnk.springboot.model.Trade;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface TradeRepository extends JpaRepository<Trade, Integer> {
+
+public interface TradeRepository extends JpaRepository<Trade, Integer>, JpaSpecificationExecutor<Trade>,
+        TradeRepositoryCustom {
+
+    String BLOTTER_SELECT = "select new com.nnk.springboot.dto.BlotterRow(t.tradeId, t.tradeDate, t.book, t.account, "
+            + "t.type, t.security, t.side, t.buyQuantity, t.buyPrice, t.sellQuantity, t.sellPrice, t.status, "
+            + "t.trader) from Trade t ";
+
+    /**
+     * Streams every Trade over a forward-only cursor, in id order.
+     * Must be consumed inside a transaction and closed afterwards.
+     */
+    @Query("select t from Trade t order by t.tradeId")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    Stream<Trade> streamAllOrderById();
+
+    /**
+     * Streams the sourceListId of every Trade that has one, used to rebuild the duplicate filter.
+     * Must be consumed inside a transaction.
+     */
+    @Query("select t.sourceListId from Trade t where t.sourceListId is not null")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<String> streamSourceListIds();
+
+    long countBySourceListIdNotNull();
+
+    boolean existsBySourceListId(String sourceListId);
+
+    /**
+     * Reads the first blotter rows of a book in {@code [from, to)}, in (tradeDate, tradeId) order.
+     */
+    @Query(BLOTTER_SELECT + "where t.book = :book and t.tradeDate >= :from and t.tradeDate < :to "
+            + "order by t.tradeDate, t.tradeId")
+    List<BlotterRow> findBlotterFirst(@Param("book") String book, @Param("from") Timestamp from,
+                                      @Param("to") Timestamp to, Pageable limit);
+
+    /**
+     * Reads the blotter rows of a book in {@code [from, to)} that follow the (afterDate, afterId)
+     * cursor, in (tradeDate, tradeId) order, by seeking the (book, tradeDate) index past the cursor.
+     */
+    @Query(BLOTTER_SELECT + "where t.book = :book and t.tradeDate >= :from and t.tradeDate < :to "
+            + "and (t.tradeDate > :afterDate or (t.tradeDate = :afterDate and t.tradeId > :afterId)) "
+            + "order by t.tradeDate, t.tradeId")
+    List<BlotterRow> findBlotterAfter(@Param("book") String book, @Param("from") Timestamp from,
+                                      @Param("to") Timestamp to, @Param("afterDate") Timestamp afterDate,
+                                      @Param("afterId") Integer afterId, Pageable limit);
+
+    /**
+     * Reads the trades of a book inserted by transactions committed after the (afterSeq, afterId)
+     * cursor, in (commit sequence, tradeId) order, by seeking trade_commit on its sequence and
+     * joining the trades on their commit token.
+     */
+    @Query("select new com.nnk.springboot.dto.BlotterRow(t.tradeId, t.tradeDate, t.book, t.account, "
+            + "t.type, t.security, t.side, t.buyQuantity, t.buyPrice, t.sellQuantity, t.sellPrice, t.status, "
+            + "t.trader, c.seq) from TradeCommit c, Trade t where t.commitToken = c.token and t.book = :book "
+            + "and (c.seq > :afterSeq or (c.seq = :afterSeq and t.tradeId > :afterId)) "
+            + "order by c.seq, t.tradeId")
+    List<BlotterRow> findBlotterCommittedAfter(@Param("book") String book, @Param("afterSeq") Long afterSeq,
+                                               @Param("afterId") Integer afterId, Pageable limit);
+
+    /**
+     * Streams the blotter rows of a book in {@code [from, to)} over a forward-only cursor,
+     * in (tradeDate, tradeId) order. Must be consumed inside a transaction and closed afterwards.
+     */
+    @Query(BLOTTER_SELECT + "where t.book = :book and t.tradeDate >= :from and t.tradeDate < :to "
+            + "order by t.tradeDate, t.tradeId")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    Stream<BlotterRow> streamBlotter(@Param("book") String book, @Param("from") Timestamp from,
+                                     @Param("to") Timestamp to);
+
+    @Query(BLOTTER_SELECT + "where t.tradeId = :id")
+    Optional<BlotterRow> findBlotterById(@Param("id") Integer id);
+
+    /**
+     * Reads the blotter rows of a security in {@code [from, to)}, by seeking the (security, tradeDate) index.
+     */
+    @Query(BLOTTER_SELECT + "where t.security = :security and t.tradeDate >= :from and t.tradeDate < :to")
+    List<BlotterRow> findBlotterOfSecurity(@Param("security") String security, @Param("from") Timestamp from,
+                                           @Param("to") Timestamp to);
+
+    /**
+     * Streams the blotter rows of every security dated from {@code from} on, over a forward-only cursor.
+     * Must be consumed inside a transaction and closed afterwards.
+     */
+    @Query(BLOTTER_SELECT + "where t.tradeDate >= :from")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    Stream<BlotterRow> streamBlotterSince(@Param("from") Timestamp from);
+
+    /**
+     * Streams the blotter rows of every security in {@code [from, to)}, over a forward-only cursor.
+     * Must be consumed inside a transaction and closed afterwards.
+     */
+    @Query(BLOTTER_SELECT + "where t.tradeDate >= :from and t.tradeDate < :to")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    Stream<BlotterRow> streamBlotterBetween(@Param("from") Timestamp from, @Param("to") Timestamp to);
+
+    /**
+     * Streams the reconciliation columns of the trades dated in {@code [from, to)}, over a
+     * forward-only cursor. Must be consumed inside a transaction and closed afterwards.
+     */
+    @Query("select new com.nnk.springboot.dto.ReconRow(t.tradeId, t.dealName, t.dealType, t.sourceListId, "
+            + "t.account, t.book, t.security, t.buyQuantity, t.sellQuantity) "
+            + "from Trade t where t.tradeDate >= :from and t.tradeDate < :to")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    Stream<ReconRow> streamReconRows(@Param("from") Timestamp from, @Param("to") Timestamp to);
+
+    /**
+     * Loads the position columns of the trades whose id lies in {@code [fromId, toId)}.
+     */
+    @Query("select new com.nnk.springboot.dto.TradeLeg(t.tradeId, t.account, t.book, t.security, "
+            + "t.buyQuantity, t.sellQuantity) from Trade t where t.tradeId >= :fromId and t.tradeId < :toId")
+    List<TradeLeg> findLegsInIdRange(@Param("fromId") Integer fromId, @Param("toId") Integer toId);
+
+    /**
+     * Loads the quantity and price columns of the trades whose id lies in {@code [fromId, toId)}.
+     */
+    @Query("select new com.nnk.springboot.dto.PricedTrade(t.tradeId, t.book, t.security, t.buyQuantity, "
+            + "t.buyPrice, t.sellQuantity, t.sellPrice) from Trade t where t.tradeId >= :fromId and t.tradeId < :toId")
+    List<PricedTrade> findPricedInIdRange(@Param("fromId") Integer fromId, @Param("toId") Integer toId);
+
+    @Query("select new com.nnk.springboot.dto.PricedTrade(t.tradeId, t.book, t.security, t.buyQuantity, "
+            + "t.buyPrice, t.sellQuantity, t.sellPrice) from Trade t where t.tradeId = :id")
+    Optional<PricedTrade> findPricedById(@Param("id") Integer id);
+
+    /**
+     * Loads and write-locks the oldest trades, by id, dated before the cutoff, for archival.
+     * Must be called inside a transaction; the lock keeps them from being edited until it ends.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select t from Trade t where t.tradeDate < :cutoff order by t.tradeId")
+    List<Trade> findArchivable(@Param("cutoff") Timestamp cutoff, Pageable limit);
+
+    @Query("select count(t) from Trade t where t.tradeId in :ids")
+    long countByTradeIdIn(@Param("ids") Collection<Integer> ids);
+
+    @Query("select min(t.tradeId) from Trade t")
+    Integer findMinTradeId();
+
+    @Query("select max(t.tradeId) from Trade t")
+    Integer findMaxTradeId();
+
+    /**
+     * Deletes one Trade with a single DELETE statement, without loading it first.
+     *
+     * @return the number of rows deleted, 0 if the id does not exist
+     */
+    @Modifying
+    @Query("delete from Trade t where t.tradeId = :id")
+    int deleteRowById(@Param("id") Integer id);
+
+    /**
+     * Deletes the given trades with a single DELETE statement, without loading them first.
+     *
+     * @return the number of rows deleted
+     */
+    @Modifying
+    @Query("delete from Trade t where t.tradeId in :ids")
+    int deleteRowsByIdIn(@Param("ids") Collection<Integer> ids);
+
+    /**
+     * Updates the fields editable from the update form with a single UPDATE statement,
+     * whatever the current version, and bumps the version.
+     *
+     * @return the number of rows updated, 0 if the id does not exist
+     */
+    @Transactional
+    @Modifying
+    @Query("update Trade t set t.account = :account, t.type = :type, t.buyQuantity = :buyQuantity, "
+            + "t.version = coalesce(t.version, 0) + 1 where t.tradeId = :id")
+    int updateEditableFields(@Param("id") Integer id, @Param("account") String account, @Param("type") String type,
+                             @Param("buyQuantity") Double buyQuantity);
+
+    /**
+     * Updates the fields editable from the update form only if the row is still at the given
+     * version, and bumps the version. Rows saved before versioning was added count as version 0.
+     *
+     * @return the number of rows updated, 0 if the id does not exist or the version has moved on
+     */
+    @Transactional
+    @Modifying
+    @Query("update Trade t set t.account = :account, t.type = :type, t.buyQuantity = :buyQuantity, "
+            + "t.version = coalesce(t.version, 0) + 1 "
+            + "where t.tradeId = :id and coalesce(t.version, 0) = :version")
+    int updateEditableFieldsIfVersion(@Param("id") Integer id, @Param("version") Integer version,
+                                      @Param("account") String account, @Param("type") String type,
+                                      @Param("buyQuantity") Double buyQuantity);
 }
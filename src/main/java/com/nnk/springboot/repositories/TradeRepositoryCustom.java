@@ -0,0 +1,26 @@
+package com.nnk.springboot.repositories;
+
+import com.nnk.springboot.dto.TradeSummary;
+import com.nnk.springboot.model.Trade;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Hand-written Trade queries that Spring Data cannot derive.
+ */
+public interface TradeRepositoryCustom {
+
+    List<TradeSummary> findSummaries(Specification<Trade> filter, Sort sort);
+
+    Stream<Trade> streamHistory(Specification<Trade> filter);
+
+    List<Trade> findHistoryPage(Specification<Trade> filter, Timestamp afterDate, Integer afterId, int limit);
+
+    void createCommitSequence();
+
+    long recordCommit(long token);
+}
@@ -0,0 +1,139 @@
+package com.nnk.springboot.repositories;
+
+import com.nnk.springboot.dto.TradeSummary;
+import com.nnk.springboot.model.CommitSequence;
+import com.nnk.springboot.model.Trade;
+import com.nnk.springboot.model.TradeCommit;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.query.criteria.JpaOrder;
+import org.hibernate.query.sqm.NullPrecedence;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Criteria-based implementation of {@link TradeRepositoryCustom}.
+ */
+public class TradeRepositoryImpl implements TradeRepositoryCustom {
+
+    private static final String TRADE_COMMITS = "trade";
+    private static final int HISTORY_FETCH_SIZE = 1000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Projects the Trade rows matching the filter straight into {@link TradeSummary}.
+     *
+     * @param filter the list page filters, may be null
+     * @param sort   the ordering
+     * @return the matching rows
+     */
+    @Override
+    public List<TradeSummary> findSummaries(Specification<Trade> filter, Sort sort) {
+        return CriteriaSummaries.find(entityManager, Trade.class, TradeSummary.class, filter, sort,
+                "tradeId", "account", "type", "buyQuantity");
+    }
+
+    /**
+     * Streams the Trade rows matching the filter over a forward-only cursor, in (tradeDate, tradeId)
+     * order with undated trades first. Must be consumed inside a transaction and closed afterwards.
+     *
+     * @param filter the filters, may be null
+     * @return the matching trades
+     */
+    @Override
+    public Stream<Trade> streamHistory(Specification<Trade> filter) {
+        TypedQuery<Trade> query = historyQuery(filter, null, null);
+        query.setHint(HibernateHints.HINT_FETCH_SIZE, HISTORY_FETCH_SIZE);
+        query.setHint(HibernateHints.HINT_READ_ONLY, true);
+        return query.getResultStream();
+    }
+
+    /**
+     * Reads the Trade rows matching the filter that follow a (tradeDate, tradeId) cursor, in the
+     * order of {@link #streamHistory}. A null afterDate with an afterId is the cursor of an undated trade.
+     *
+     * @param filter    the filters, may be null
+     * @param afterDate trade date of the last row already read
+     * @param afterId   trade id of that row, or null to read from the first row
+     * @param limit     the maximum number of rows
+     * @return the following rows
+     */
+    @Override
+    public List<Trade> findHistoryPage(Specification<Trade> filter, Timestamp afterDate, Integer afterId, int limit) {
+        return historyQuery(filter, afterDate, afterId).setMaxResults(limit).getResultList();
+    }
+
+    private TypedQuery<Trade> historyQuery(Specification<Trade> filter, Timestamp afterDate, Integer afterId) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Trade> query = cb.createQuery(Trade.class);
+        Root<Trade> root = query.from(Trade.class);
+        Path<Timestamp> tradeDate = root.get("tradeDate");
+        Path<Integer> tradeId = root.get("tradeId");
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (filter != null) {
+            Predicate predicate = filter.toPredicate(root, query, cb);
+            if (predicate != null) {
+                predicates.add(predicate);
+            }
+        }
+        if (afterId != null && afterDate == null) {
+            predicates.add(cb.or(tradeDate.isNotNull(), cb.greaterThan(tradeId, afterId)));
+        } else if (afterId != null) {
+            predicates.add(cb.or(cb.greaterThan(tradeDate, afterDate),
+                    cb.and(cb.equal(tradeDate, afterDate), cb.greaterThan(tradeId, afterId))));
+        }
+        query.where(predicates.toArray(Predicate[]::new));
+        query.orderBy(((JpaOrder) cb.asc(tradeDate)).nullPrecedence(NullPrecedence.FIRST), cb.asc(tradeId));
+        return entityManager.createQuery(query);
+    }
+
+    /**
+     * Creates the counter of trade commits if it does not exist yet.
+     */
+    @Override
+    @Transactional
+    public void createCommitSequence() {
+        if (entityManager.find(CommitSequence.class, TRADE_COMMITS) == null) {
+            entityManager.persist(new CommitSequence(TRADE_COMMITS));
+        }
+    }
+
+    /**
+     * Records that the current transaction inserted the trades carrying the given token. The counter
+     * row stays locked until the transaction ends, so call this last, just before the commit: the
+     * sequence numbers then follow commit order.
+     *
+     * @param token the token of the trades inserted by the current transaction
+     * @return the commit sequence of the transaction
+     * @throws IllegalStateException if the counter of trade commits does not exist
+     */
+    @Override
+    public long recordCommit(long token) {
+        CommitSequence sequence = entityManager.find(CommitSequence.class, TRADE_COMMITS,
+                LockModeType.PESSIMISTIC_WRITE);
+        if (sequence == null) {
+            throw new IllegalStateException("The trade commit sequence does not exist");
+        }
+        long seq = sequence.getValue() + 1;
+        sequence.setValue(seq);
+        entityManager.persist(new TradeCommit(seq, token));
+        return seq;
+    }
+}
@@ -0,0 +1,37 @@
+package com.nnk.springboot.repositories;
+
+import com.nnk.springboot.model.TradeRollup;
+import com.nnk.springboot.rollup.RollupInterval;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Optional;
+
+
+public interface TradeRollupRepository extends JpaRepository<TradeRollup, Integer> {
+
+    /**
+     * Reads the saved buckets of a security starting in {@code [from, to)}, oldest first,
+     * by seeking the (security, bucketInterval, bucketStart) unique index.
+     */
+    @Query("select r from TradeRollup r where r.security = :security and r.bucketInterval = :interval "
+            + "and r.bucketStart >= :from and r.bucketStart < :to order by r.bucketStart")
+    List<TradeRollup> findRange(@Param("security") String security, @Param("interval") RollupInterval interval,
+                                @Param("from") Timestamp from, @Param("to") Timestamp to);
+
+    Optional<TradeRollup> findBySecurityAndBucketIntervalAndBucketStart(String security, RollupInterval bucketInterval,
+                                                                         Timestamp bucketStart);
+
+    /**
+     * Deletes the saved buckets of every security starting in {@code [from, to)} with a single DELETE statement.
+     *
+     * @return the number of rows deleted
+     */
+    @Modifying
+    @Query("delete from TradeRollup r where r.bucketStart >= :from and r.bucketStart < :to")
+    int deleteRange(@Param("from") Timestamp from, @Param("to") Timestamp to);
+}
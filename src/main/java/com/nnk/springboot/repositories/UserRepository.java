@@ -1,12 +1,43 @@
 package com.nnk.springboot.repositories;
 
+import com.nnk.springboot.dto.UserSummary;
 import com.nnk.springboot.model.User;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
 
 
 public interface UserRepository extends JpaRepository<User, Integer>, JpaSpecificationExecutor<User> {
     Optional<User> findByUsername(String username);
+
+    @Query("select new com.nnk.springboot.dto.UserSummary(u.id, u.username, u.fullname, u.role) "
+            + "from User u")
+    List<UserSummary> findAllSummaries(Sort sort);
+
+    /**
+     * Deletes one User with a single DELETE statement, without loading it first.
+     *
+     * @return the number of rows deleted, 0 if the id does not exist
+     */
+    @Modifying
+    @Query("delete from User u where u.id = :id")
+    int deleteRowById(@Param("id") Integer id);
+
+    /**
+     * Updates the fields editable from the update form with a single UPDATE statement.
+     *
+     * @return the number of rows updated, 0 if the id does not exist
+     */
+    @Modifying
+    @Query("update User u set u.username = :username, u.password = :password, "
+            + "u.fullname = :fullname, u.role = :role where u.id = :id")
+    int updateEditableFields(@Param("id") Integer id, @Param("username") String username,
+                             @Param("password") String password, @Param("fullname") String fullname,
+                             @Param("role") String role);
 }
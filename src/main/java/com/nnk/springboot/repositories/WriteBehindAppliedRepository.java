@@ -0,0 +1,29 @@
+package com.nnk.springboot.repositories;
+
+import com.nnk.springboot.model.WriteBehindApplied;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+
+public interface WriteBehindAppliedRepository extends JpaRepository<WriteBehindApplied, Long>,
+        WriteBehindAppliedRepositoryCustom {
+
+    /**
+     * Reads the offsets of the write-behind entries saved past the given offset.
+     */
+    @Query("select a.seq from WriteBehindApplied a where a.seq > :seq")
+    List<Long> findSequencesAfter(@Param("seq") long seq);
+
+    /**
+     * Deletes the offsets at or below the given one with a single DELETE statement.
+     *
+     * @return the number of rows deleted
+     */
+    @Modifying
+    @Query("delete from WriteBehindApplied a where a.seq <= :seq")
+    int deleteUpTo(@Param("seq") long seq);
+}
@@ -0,0 +1,11 @@
+package com.nnk.springboot.repositories;
+
+import java.util.Collection;
+
+/**
+ * Hand-written write-behind offset statements that Spring Data cannot derive.
+ */
+public interface WriteBehindAppliedRepositoryCustom {
+
+    void recordApplied(Collection<Long> sequences);
+}
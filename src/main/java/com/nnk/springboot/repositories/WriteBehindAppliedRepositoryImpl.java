@@ -0,0 +1,29 @@
+package com.nnk.springboot.repositories;
+
+import com.nnk.springboot.model.WriteBehindApplied;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import java.util.Collection;
+
+/**
+ * EntityManager-based implementation of {@link WriteBehindAppliedRepositoryCustom}.
+ */
+public class WriteBehindAppliedRepositoryImpl implements WriteBehindAppliedRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Inserts the given offsets in the current transaction. They are persisted rather than saved,
+     * so that their assigned ids cost no SELECT and the INSERTs are batched.
+     *
+     * @param sequences the journal offsets of the entries saved by the current transaction
+     */
+    @Override
+    public void recordApplied(Collection<Long> sequences) {
+        for (Long sequence : sequences) {
+            entityManager.persist(new WriteBehindApplied(sequence));
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.nnk.springboot.repositories.specifications;
+
+import com.nnk.springboot.dto.CurvePointFilter;
+import com.nnk.springboot.model.CurvePoint;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Turns a {@link CurvePointFilter} into a CurvePoint Specification.
+ */
+public final class CurvePointSpecifications {
+
+    private CurvePointSpecifications() {
+    }
+
+    /**
+     * @param filter the filter, may be null
+     * @return the conjunction of every set filter
+     */
+    public static Specification<CurvePoint> matching(CurvePointFilter filter) {
+        if (filter == null) {
+            return Specification.where(null);
+        }
+        return Specification.<CurvePoint>where(Specs.equalTo("curveId", filter.getCurveId()))
+                .and(Specs.onDays("asOfDate", filter.getFrom(), filter.getTo()));
+    }
+}
@@ -0,0 +1,31 @@
+package com.nnk.springboot.repositories.specifications;
+
+import com.nnk.springboot.dto.DealFilter;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Turns a {@link DealFilter} into a Specification for BidList or Trade, which share the filtered columns.
+ */
+public final class DealSpecifications {
+
+    private DealSpecifications() {
+    }
+
+    /**
+     * @param filter        the filter, may be null
+     * @param dateAttribute the timestamp attribute the date range applies to
+     * @return the conjunction of every set filter
+     */
+    public static <T> Specification<T> matching(DealFilter filter, String dateAttribute) {
+        if (filter == null) {
+            return Specification.where(null);
+        }
+        return Specification.<T>where(Specs.equalTo("account", filter.getAccount()))
+                .and(Specs.equalTo("type", filter.getType()))
+                .and(Specs.equalTo("security", filter.getSecurity()))
+                .and(Specs.equalTo("status", filter.getStatus()))
+                .and(Specs.equalTo("book", filter.getBook()))
+                .and(Specs.equalTo("trader", filter.getTrader()))
+                .and(Specs.onDays(dateAttribute, filter.getFrom(), filter.getTo()));
+    }
+}
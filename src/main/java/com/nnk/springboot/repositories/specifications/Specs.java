@@ -0,0 +1,54 @@
+package com.nnk.springboot.repositories.specifications;
+
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.util.StringUtils;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+
+/**
+ * Null-safe building blocks for list page filters.
+ * <p>
+ * Each factory returns null when there is nothing to filter on, which
+ * {@link Specification#where} and {@link Specification#and} treat as "no restriction".
+ * Predicates compare the column itself, never a function of it, so they can use an index.
+ * </p>
+ */
+public final class Specs {
+
+    private Specs() {
+    }
+
+    /**
+     * @return a {@code attribute = value} restriction, or null if the value is null or blank
+     */
+    public static <T> Specification<T> equalTo(String attribute, Object value) {
+        if (value == null || (value instanceof String text && !StringUtils.hasText(text))) {
+            return null;
+        }
+        Object bound = value instanceof String text ? text.trim() : value;
+        return (root, query, cb) -> cb.equal(root.get(attribute), bound);
+    }
+
+    /**
+     * @return a half-open {@code [from 00:00, to + 1 day 00:00)} restriction on a timestamp
+     * column, open-ended on a null side, or null if both days are null
+     */
+    public static <T> Specification<T> onDays(String attribute, LocalDate from, LocalDate to) {
+        if (from == null && to == null) {
+            return null;
+        }
+        Timestamp lower = from == null ? null : Timestamp.valueOf(from.atStartOfDay());
+        Timestamp upper = to == null ? null : Timestamp.valueOf(to.plusDays(1).atStartOfDay());
+        return (root, query, cb) -> {
+            if (lower == null) {
+                return cb.lessThan(root.get(attribute), upper);
+            }
+            if (upper == null) {
+                return cb.greaterThanOrEqualTo(root.get(attribute), lower);
+            }
+            return cb.and(cb.greaterThanOrEqualTo(root.get(attribute), lower),
+                    cb.lessThan(root.get(attribute), upper));
+        };
+    }
+}
@@ -0,0 +1,169 @@
+package com.nnk.springboot.rollup;
+
+import java.sql.Timestamp;
+
+/**
+ * The aggregates of the trades of one security over one time bucket.
+ * <p>
+ * A trade counts as up to two executions: its bought quantity at its buy price and its sold
+ * quantity at its sell price, each only if both are set and the quantity is positive. Open and
+ * close are the prices of the first and last executions in (trade date, trade id, buy before
+ * sell) order, so adding the same trades in any order gives the same bucket.
+ * </p>
+ */
+public final class RollupBucket {
+
+    private final String security;
+    private final RollupInterval interval;
+    private final long start;
+    private double open;
+    private double high = Double.NEGATIVE_INFINITY;
+    private double low = Double.POSITIVE_INFINITY;
+    private double close;
+    private double volume;
+    private double notional;
+    private int tradeCount;
+    private long openTime = Long.MAX_VALUE;
+    private long openOrder;
+    private long closeTime = Long.MIN_VALUE;
+    private long closeOrder;
+
+    public RollupBucket(String security, RollupInterval interval, long start) {
+        this.security = security;
+        this.interval = interval;
+        this.start = start;
+    }
+
+    RollupBucket(String security, RollupInterval interval, long start, double open, double high, double low,
+                 double close, double volume, double notional, int tradeCount, long openTime, long openOrder,
+                 long closeTime, long closeOrder) {
+        this(security, interval, start);
+        this.open = open;
+        this.high = high;
+        this.low = low;
+        this.close = close;
+        this.volume = volume;
+        this.notional = notional;
+        this.tradeCount = tradeCount;
+        this.openTime = openTime;
+        this.openOrder = openOrder;
+        this.closeTime = closeTime;
+        this.closeOrder = closeOrder;
+    }
+
+    /**
+     * Add the executions of one trade.
+     *
+     * @return false if the trade has no priced execution
+     */
+    public boolean add(long time, int tradeId, Double buyQuantity, Double buyPrice, Double sellQuantity,
+                       Double sellPrice) {
+        boolean bought = isExecution(buyQuantity, buyPrice);
+        boolean sold = isExecution(sellQuantity, sellPrice);
+        if (bought) {
+            addExecution(time, order(tradeId, 0), buyPrice, buyQuantity);
+        }
+        if (sold) {
+            addExecution(time, order(tradeId, 1), sellPrice, sellQuantity);
+        }
+        if (bought || sold) {
+            tradeCount++;
+        }
+        return bought || sold;
+    }
+
+    /**
+     * @return true if the quantity and price describe an execution a rollup counts
+     */
+    public static boolean isExecution(Double quantity, Double price) {
+        return quantity != null && price != null && quantity > 0 && Double.isFinite(price);
+    }
+
+    private void addExecution(long time, long order, double price, double quantity) {
+        if (time < openTime || (time == openTime && order < openOrder)) {
+            openTime = time;
+            openOrder = order;
+            open = price;
+        }
+        if (time > closeTime || (time == closeTime && order > closeOrder)) {
+            closeTime = time;
+            closeOrder = order;
+            close = price;
+        }
+        high = Math.max(high, price);
+        low = Math.min(low, price);
+        volume += quantity;
+        notional += price * quantity;
+    }
+
+    private static long order(int tradeId, int leg) {
+        return ((long) tradeId << 1) | leg;
+    }
+
+    public String getSecurity() {
+        return security;
+    }
+
+    public RollupInterval getInterval() {
+        return interval;
+    }
+
+    /**
+     * @return the start of the bucket, in epoch milliseconds
+     */
+    public long getStart() {
+        return start;
+    }
+
+    public Timestamp getStartTimestamp() {
+        return new Timestamp(start);
+    }
+
+    public boolean isEmpty() {
+        return tradeCount == 0;
+    }
+
+    public double getOpen() {
+        return open;
+    }
+
+    public double getHigh() {
+        return high;
+    }
+
+    public double getLow() {
+        return low;
+    }
+
+    public double getClose() {
+        return close;
+    }
+
+    public double getVolume() {
+        return volume;
+    }
+
+    public double getNotional() {
+        return notional;
+    }
+
+    public int getTradeCount() {
+        return tradeCount;
+    }
+
+    long getOpenTime() {
+        return openTime;
+    }
+
+    long getOpenOrder() {
+        return openOrder;
+    }
+
+    long getCloseTime() {
+        return closeTime;
+    }
+
+    long getCloseOrder() {
+        return closeOrder;
+    }
+}
@@ -0,0 +1,31 @@
+package com.nnk.springboot.rollup;
+
+/**
+ * The widths of the time buckets trades are rolled up into. Buckets are aligned on the epoch.
+ */
+public enum RollupInterval {
+
+    MINUTE(60_000L),
+    HOUR(3_600_000L);
+
+    private final long millis;
+
+    RollupInterval(long millis) {
+        this.millis = millis;
+    }
+
+    /**
+     * @return the width of a bucket in milliseconds
+     */
+    public long getMillis() {
+        return millis;
+    }
+
+    /**
+     * @param epochMillis a point in time
+     * @return the start of the bucket holding it
+     */
+    public long bucketStart(long epochMillis) {
+        return Math.floorDiv(epochMillis, millis) * millis;
+    }
+}
@@ -0,0 +1,61 @@
+package com.nnk.springboot.rollup;
+
+import java.util.Objects;
+
+/**
+ * Identifies one bucket: a security, a bucket width and the start of the bucket.
+ */
+public final class RollupKey {
+
+    private final String security;
+    private final RollupInterval interval;
+    private final long start;
+
+    public RollupKey(String security, RollupInterval interval, long start) {
+        this.security = security;
+        this.interval = interval;
+        this.start = start;
+    }
+
+    /**
+     * @return the key of the bucket holding a point in time
+     */
+    public static RollupKey of(String security, RollupInterval interval, long epochMillis) {
+        return new RollupKey(security, interval, interval.bucketStart(epochMillis));
+    }
+
+    /**
+     * @return the key of the given bucket
+     */
+    public static RollupKey of(RollupBucket bucket) {
+        return new RollupKey(bucket.getSecurity(), bucket.getInterval(), bucket.getStart());
+    }
+
+    public String getSecurity() {
+        return security;
+    }
+
+    public RollupInterval getInterval() {
+        return interval;
+    }
+
+    public long getStart() {
+        return start;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof RollupKey other)) {
+            return false;
+        }
+        return start == other.start && interval == other.interval && security.equals(other.security);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(security, interval, start);
+    }
+}
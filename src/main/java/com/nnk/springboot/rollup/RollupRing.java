@@ -0,0 +1,219 @@
+package com.nnk.springboot.rollup;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * The most recent buckets of one security at one width, in parallel primitive arrays used as a ring.
+ * <p>
+ * The bucket starting at {@code start} lives in slot {@code (start / width) mod size}, so finding
+ * the bucket of a trade is one division and adding the trade updates a few array cells, without
+ * allocating. The ring covers the {@code size} buckets up to the newest one it has seen, and no
+ * bucket before {@code coveredFrom}, the point the trades were loaded from. A bucket pushed out
+ * of the ring while still unsaved is handed to the caller. Buckets changed since they were last
+ * saved are marked dirty until {@link #drainCompleted} returns them.
+ * </p>
+ */
+public final class RollupRing {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private final String security;
+    private final RollupInterval interval;
+    private final long width;
+    private final int size;
+    private final long coveredFrom;
+
+    private final long[] starts;
+    private final double[] opens;
+    private final double[] highs;
+    private final double[] lows;
+    private final double[] closes;
+    private final double[] volumes;
+    private final double[] notionals;
+    private final int[] tradeCounts;
+    private final long[] openTimes;
+    private final long[] openOrders;
+    private final long[] closeTimes;
+    private final long[] closeOrders;
+    private final boolean[] dirty;
+    private long newest = EMPTY;
+
+    /**
+     * @param security    the security of the trades
+     * @param interval    the width of the buckets
+     * @param size        the number of buckets kept
+     * @param coveredFrom the start of the first bucket whose trades were all loaded
+     */
+    public RollupRing(String security, RollupInterval interval, int size, long coveredFrom) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Rollup ring size must be positive: " + size);
+        }
+        this.security = security;
+        this.interval = interval;
+        this.width = interval.getMillis();
+        this.size = size;
+        this.coveredFrom = coveredFrom;
+        this.starts = new long[size];
+        this.opens = new double[size];
+        this.highs = new double[size];
+        this.lows = new double[size];
+        this.closes = new double[size];
+        this.volumes = new double[size];
+        this.notionals = new double[size];
+        this.tradeCounts = new int[size];
+        this.openTimes = new long[size];
+        this.openOrders = new long[size];
+        this.closeTimes = new long[size];
+        this.closeOrders = new long[size];
+        this.dirty = new boolean[size];
+        Arrays.fill(starts, EMPTY);
+    }
+
+    /**
+     * Add the executions of one trade to the bucket of its date.
+     *
+     * @param evicted receives a bucket pushed out of the ring before it was saved
+     * @return false if the bucket is older than the ring covers; the trade is then not added
+     */
+    public synchronized boolean add(long time, int tradeId, Double buyQuantity, Double buyPrice,
+                                    Double sellQuantity, Double sellPrice, Consumer<RollupBucket> evicted) {
+        boolean bought = RollupBucket.isExecution(buyQuantity, buyPrice);
+        boolean sold = RollupBucket.isExecution(sellQuantity, sellPrice);
+        if (!bought && !sold) {
+            return true;
+        }
+        int slot = claim(interval.bucketStart(time), evicted);
+        if (slot < 0) {
+            return false;
+        }
+        if (bought) {
+            addExecution(slot, time, ((long) tradeId << 1), buyPrice, buyQuantity);
+        }
+        if (sold) {
+            addExecution(slot, time, ((long) tradeId << 1) | 1, sellPrice, sellQuantity);
+        }
+        tradeCounts[slot]++;
+        dirty[slot] = true;
+        return true;
+    }
+
+    /**
+     * Replace a bucket with one recomputed from the trades, if the ring covers it.
+     *
+     * @param bucket  the recomputed bucket, possibly empty
+     * @param evicted receives a bucket pushed out of the ring before it was saved
+     * @return false if the bucket is older than the ring covers
+     */
+    public synchronized boolean put(RollupBucket bucket, Consumer<RollupBucket> evicted) {
+        int slot = claim(bucket.getStart(), evicted);
+        if (slot < 0) {
+            return false;
+        }
+        opens[slot] = bucket.getOpen();
+        highs[slot] = bucket.getHigh();
+        lows[slot] = bucket.getLow();
+        closes[slot] = bucket.getClose();
+        volumes[slot] = bucket.getVolume();
+        notionals[slot] = bucket.getNotional();
+        tradeCounts[slot] = bucket.getTradeCount();
+        openTimes[slot] = bucket.getOpenTime();
+        openOrders[slot] = bucket.getOpenOrder();
+        closeTimes[slot] = bucket.getCloseTime();
+        closeOrders[slot] = bucket.getCloseOrder();
+        dirty[slot] = true;
+        return true;
+    }
+
+    /**
+     * @return the start of the oldest bucket the ring covers
+     */
+    public synchronized long firstCovered() {
+        return newest == EMPTY ? coveredFrom : Math.max(coveredFrom, newest - (size - 1) * width);
+    }
+
+    /**
+     * Visit the non-empty buckets starting in {@code [from, to)}, oldest first.
+     * Costs one slot read per bucket of the range, whatever the number of trades.
+     */
+    public synchronized void forEach(long from, long to, Consumer<RollupBucket> visitor) {
+        for (long start = Math.max(interval.bucketStart(from), firstCovered()); start < to; start += width) {
+            int slot = slotOf(start);
+            if (starts[slot] == start && tradeCounts[slot] > 0) {
+                visitor.accept(read(slot));
+            }
+        }
+    }
+
+    /**
+     * Hand over every dirty bucket that ended by a point in time, and mark it saved.
+     *
+     * @param endedBy the epoch millisecond by which a bucket must have ended
+     * @param visitor receives the buckets to save; an empty one means its row must be deleted
+     */
+    public synchronized void drainCompleted(long endedBy, Consumer<RollupBucket> visitor) {
+        for (int slot = 0; slot < size; slot++) {
+            if (dirty[slot] && starts[slot] + width <= endedBy) {
+                visitor.accept(read(slot));
+                dirty[slot] = false;
+            }
+        }
+    }
+
+    /**
+     * Find the slot of a bucket, clearing it for the bucket if it holds an older one.
+     *
+     * @return the slot, or -1 if the bucket is older than the ring covers
+     */
+    private int claim(long start, Consumer<RollupBucket> evicted) {
+        if (start < coveredFrom || (newest != EMPTY && start <= newest - size * width)) {
+            return -1;
+        }
+        int slot = slotOf(start);
+        if (starts[slot] != start) {
+            if (starts[slot] != EMPTY && dirty[slot]) {
+                evicted.accept(read(slot));
+            }
+            starts[slot] = start;
+            opens[slot] = 0;
+            highs[slot] = Double.NEGATIVE_INFINITY;
+            lows[slot] = Double.POSITIVE_INFINITY;
+            closes[slot] = 0;
+            volumes[slot] = 0;
+            notionals[slot] = 0;
+            tradeCounts[slot] = 0;
+            openTimes[slot] = Long.MAX_VALUE;
+            closeTimes[slot] = Long.MIN_VALUE;
+            dirty[slot] = false;
+        }
+        newest = newest == EMPTY ? start : Math.max(newest, start);
+        return slot;
+    }
+
+    private void addExecution(int slot, long time, long order, double price, double quantity) {
+        if (time < openTimes[slot] || (time == openTimes[slot] && order < openOrders[slot])) {
+            openTimes[slot] = time;
+            openOrders[slot] = order;
+            opens[slot] = price;
+        }
+        if (time > closeTimes[slot] || (time == closeTimes[slot] && order > closeOrders[slot])) {
+            closeTimes[slot] = time;
+            closeOrders[slot] = order;
+            closes[slot] = price;
+        }
+        highs[slot] = Math.max(highs[slot], price);
+        lows[slot] = Math.min(lows[slot], price);
+        volumes[slot] += quantity;
+        notionals[slot] += price * quantity;
+    }
+
+    private int slotOf(long start) {
+        return (int) Math.floorMod(Math.floorDiv(start, width), (long) size);
+    }
+
+    private RollupBucket read(int slot) {
+        return new RollupBucket(security, interval, starts[slot], opens[slot], highs[slot], lows[slot], closes[slot],
+                volumes[slot], notionals[slot], tradeCounts[slot], openTimes[slot], openOrders[slot],
+                closeTimes[slot], closeOrders[slot]);
+    }
+}
@@ -1,12 +1,39 @@
 package com.nnk.springboot.services;
 
+import com.nnk.springboot.concurrency.FieldMerge;
+import com.nnk.springboot.dto.BidListSortKey;
+import com.nnk.springboot.dto.BidListSummary;
+import com.nnk.springboot.dto.DealFilter;
+import com.nnk.springboot.exception.ConcurrentUpdateConflictException;
+import com.nnk.springboot.exception.DuplicateSourceListIdException;
+import com.nnk.springboot.export.ExportColumns;
+import com.nnk.springboot.export.ExportFormat;
+import com.nnk.springboot.export.ExportWriter;
+import com.nnk.springboot.journal.JournalEntity;
+import com.nnk.springboot.journal.JournalEventKind;
+import com.nnk.springboot.journal.JournalPayloads;
 import com.nnk.springboot.model.BidList;
 import com.nnk.springboot.repositories.BidListRepository;
+import com.nnk.springboot.repositories.specifications.DealSpecifications;
 import com.nnk.springboot.services.contracts.IBidListService;
+import com.nnk.springboot.services.contracts.IDeduplicationService;
+import com.nnk.springboot.services.contracts.IJournalService;
+import com.nnk.springboot.services.contracts.IOrderBookService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import jakarta.persistence.EntityManager;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Service implementation for managing BidList entities.
@@ -14,15 +41,38 @@ import java.util.Optional;
 @Service
 public class BidListService implements IBidListService {
 
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int MAX_UPDATE_ATTEMPTS = 5;
+
     private final BidListRepository bidListRepository;
+    private final EntityManager entityManager;
+    private final IOrderBookService orderBookService;
+    private final IJournalService journalService;
+    private final IDeduplicationService deduplicationService;
+
+    @Value("${app.bidlist.page-size:50}")
+    private int defaultPageSize = 50;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int batchSize = 50;
 
     /**
      * Constructor for BidListService.
      *
-     * @param bidListRepository the repository used for BidList entity operations
+     * @param bidListRepository    the repository used for BidList entity operations
+     * @param entityManager        the entity manager used to detach streamed BidList entities
+     * @param orderBookService     the order books kept in step with saved and deleted BidList entities
+     * @param journalService       the journal every change of a BidList is recorded in
+     * @param deduplicationService the check rejecting new BidList entities resent with a known sourceListId
      */
-    public BidListService(BidListRepository bidListRepository) {
+    public BidListService(BidListRepository bidListRepository, EntityManager entityManager,
+                          IOrderBookService orderBookService, IJournalService journalService,
+                          IDeduplicationService deduplicationService) {
         this.bidListRepository = bidListRepository;
+        this.entityManager = entityManager;
+        this.orderBookService = orderBookService;
+        this.journalService = journalService;
+        this.deduplicationService = deduplicationService;
     }
 
     /**
@@ -30,10 +80,65 @@ public class BidListService implements IBidListService {
      *
      * @param bidList the BidList entity to save
      * @return the saved BidList entity
+     * @throws DuplicateSourceListIdException if its sourceListId is already saved, or is saved by a concurrent insert
      */
     @Override
     public BidList saveBidList(BidList bidList) {
-        return bidListRepository.save(bidList);
+        JournalEventKind kind = bidList.getBidListId() == null ? JournalEventKind.CREATED : JournalEventKind.UPDATED;
+        if (kind == JournalEventKind.CREATED && deduplicationService.isDuplicate(bidList)) {
+            throw new DuplicateSourceListIdException(BidList.class, bidList.getSourceListId());
+        }
+        BidList saved;
+        try {
+            saved = bidListRepository.save(bidList);
+        } catch (DataIntegrityViolationException e) {
+            if (!DuplicateSourceListIdException.isSourceListIdViolation(e)) {
+                throw e;
+            }
+            throw new DuplicateSourceListIdException(BidList.class, bidList.getSourceListId());
+        }
+        deduplicationService.register(saved);
+        orderBookService.apply(saved);
+        journalService.record(JournalEntity.BID_LIST, saved.getBidListId(), kind,
+                JournalPayloads.state(ExportColumns.BID_LIST, saved));
+        return saved;
+    }
+
+    /**
+     * Save a batch of new BidList entities in a single transaction.
+     * <p>
+     * Entities are persisted and flushed in chunks of the JDBC batch size, so that
+     * Hibernate sends each chunk as one batched INSERT and the persistence context is
+     * cleared before it grows. Ids are always generated, never taken from the input.
+     * Entities whose sourceListId is already saved, or repeated in the batch, are skipped,
+     * so that a resent batch is not saved twice.
+     * </p>
+     *
+     * @param bidLists the BidList entities to insert
+     * @return the number of BidList entities saved
+     */
+    @Override
+    @Transactional
+    public int saveBidLists(List<BidList> bidLists) {
+        int saved = 0;
+        for (BidList bidList : bidLists) {
+            if (deduplicationService.isDuplicate(bidList)) {
+                continue;
+            }
+            bidList.setBidListId(null);
+            entityManager.persist(bidList);
+            deduplicationService.register(bidList);
+            orderBookService.apply(bidList);
+            journalService.record(JournalEntity.BID_LIST, bidList.getBidListId(), JournalEventKind.CREATED,
+                    JournalPayloads.state(ExportColumns.BID_LIST, bidList));
+            if (++saved % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return saved;
     }
 
     /**
@@ -46,6 +151,66 @@ public class BidListService implements IBidListService {
         return bidListRepository.findAll();
     }
 
+    /**
+     * Retrieve one keyset-paginated window of BidList rows, as read-only projections.
+     * <p>
+     * The query seeks past the given cursor instead of using an OFFSET, so its cost
+     * does not depend on how deep into the table the window is. One extra row is
+     * fetched to know whether a next window exists without a count query.
+     * </p>
+     *
+     * @param filter    the list page filters, may be null
+     * @param sortKey   the column to sort on, with the id as tie-breaker
+     * @param direction the sort direction
+     * @param size      the requested window size, or null for the configured default
+     * @param afterId   id of the last BidList of the previous window, or null for the first window
+     * @param afterKey  sort key value of that BidList, ignored when sorting by id
+     * @return the window of BidList rows following the cursor
+     */
+    @Override
+    public Window<BidListSummary> getBidListWindow(DealFilter filter, BidListSortKey sortKey,
+                                                   Sort.Direction direction, Integer size,
+                                                   Integer afterId, String afterKey) {
+        int limit = size == null ? defaultPageSize : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        Object key = sortKey.parseCursorValue(afterId, afterKey);
+
+        List<BidListSummary> rows = bidListRepository.findSummariesAfter(
+                DealSpecifications.matching(filter, "bidListDate"), sortKey, direction, afterId, key, limit + 1);
+        boolean hasNext = rows.size() > limit;
+        List<BidListSummary> content = hasNext ? rows.subList(0, limit) : rows;
+        return Window.from(content, index -> sortKey.positionAfter(content.get(index)), hasNext);
+    }
+
+    /**
+     * Stream every BidList entity to the given output stream.
+     * <p>
+     * Rows are read over a forward-only cursor and detached once written, so memory
+     * use stays constant whatever the size of the table.
+     * </p>
+     *
+     * @param out    the stream to write to; it is flushed but not closed
+     * @param format the export format
+     * @return the number of BidList entities written
+     * @throws IOException if writing to the output stream fails
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long exportBidLists(OutputStream out, ExportFormat format) throws IOException {
+        ExportWriter<BidList> writer = new ExportWriter<>(out, format, ExportColumns.BID_LIST);
+        long count = 0;
+        try (Stream<BidList> bidLists = bidListRepository.streamAllOrderById()) {
+            Iterator<BidList> iterator = bidLists.iterator();
+            while (iterator.hasNext()) {
+                BidList bidList = iterator.next();
+                writer.write(bidList);
+                entityManager.detach(bidList);
+                count++;
+            }
+        }
+        writer.flush();
+        return count;
+    }
+
     /**
      * Find a BidList entity by its id.
      *
@@ -58,24 +223,101 @@ public class BidListService implements IBidListService {
     }
 
     /**
-     * Update a BidList entity by id.
+     * Update the fields of a BidList that the update form edits, whatever its current version.
      *
      * @param id      the id of the BidList to update
      * @param bidList the BidList entity containing updated data
+     * @return true if the BidList exists and was updated
      */
     @Override
-    public void updateBidList(Integer id, BidList bidList) {
-        bidList.setBidListId(id);
-        bidListRepository.save(bidList);
+    public boolean updateBidList(Integer id, BidList bidList) {
+        return updateBidList(id, bidList, null);
+    }
+
+    /**
+     * Update the fields of a BidList that the update form edits, with optimistic concurrency.
+     * <p>
+     * Without a version on {@code bidList}, the fields are overwritten by a single UPDATE.
+     * With one, the UPDATE only matches that version. If another user committed first, the
+     * submitted values are merged field by field into the latest row and the UPDATE is retried
+     * against its version, so edits of different fields by different users all survive.
+     * </p>
+     *
+     * @param id      the id of the BidList to update
+     * @param bidList the submitted values, with the version they were made on
+     * @param base    the values the user loaded, or null if unknown
+     * @return true if the BidList exists and was updated
+     * @throws ConcurrentUpdateConflictException if a concurrent update changed the same field
+     *                                           differently, or the retries ran out
+     */
+    @Override
+    public boolean updateBidList(Integer id, BidList bidList, BidList base) {
+        if (bidList.getVersion() == null) {
+            int updated = bidListRepository.updateEditableFields(id, bidList.getAccount(), bidList.getType(),
+                    bidList.getBidQuantity());
+            if (updated == 0) {
+                return false;
+            }
+            orderBookService.applyBidQuantity(id, bidList.getBidQuantity());
+            recordEdit(id, bidList);
+            return true;
+        }
+
+        BidList attempt = bidList;
+        for (int i = 0; i < MAX_UPDATE_ATTEMPTS; i++) {
+            int updated = bidListRepository.updateEditableFieldsIfVersion(id, attempt.getVersion(),
+                    attempt.getAccount(), attempt.getType(), attempt.getBidQuantity());
+            if (updated == 1) {
+                orderBookService.applyBidQuantity(id, attempt.getBidQuantity());
+                recordEdit(id, attempt);
+                return true;
+            }
+            Optional<BidList> current = bidListRepository.findById(id);
+            if (current.isEmpty()) {
+                return false;
+            }
+            entityManager.detach(current.get());
+            attempt = merge(id, base, bidList, current.get());
+        }
+        throw new ConcurrentUpdateConflictException(BidList.class, id, List.of());
+    }
+
+    private void recordEdit(Integer id, BidList bidList) {
+        journalService.record(JournalEntity.BID_LIST, id, JournalEventKind.UPDATED, JournalPayloads.fields(
+                "account", bidList.getAccount(), "type", bidList.getType(), "bidQuantity", bidList.getBidQuantity()));
+    }
+
+    private static BidList merge(Integer id, BidList base, BidList mine, BidList current) {
+        boolean baseKnown = base != null;
+        List<String> conflicts = new ArrayList<>();
+        BidList merged = new BidList();
+        merged.setAccount(FieldMerge.pick("account", baseKnown, baseKnown ? base.getAccount() : null,
+                mine.getAccount(), current.getAccount(), conflicts));
+        merged.setType(FieldMerge.pick("type", baseKnown, baseKnown ? base.getType() : null,
+                mine.getType(), current.getType(), conflicts));
+        merged.setBidQuantity(FieldMerge.pick("bidQuantity", baseKnown, baseKnown ? base.getBidQuantity() : null,
+                mine.getBidQuantity(), current.getBidQuantity(), conflicts));
+        if (!conflicts.isEmpty()) {
+            throw new ConcurrentUpdateConflictException(BidList.class, id, conflicts);
+        }
+        merged.setVersion(current.getVersion() == null ? 0 : current.getVersion());
+        return merged;
     }
 
     /**
-     * Delete a BidList entity by id.
+     * Delete a BidList entity by id with a single DELETE statement, without loading it first.
      *
      * @param id the id of the BidList to delete
+     * @return true if the BidList existed and was deleted
      */
     @Override
-    public void deleteBidListById(Integer id) {
-        bidListRepository.deleteById(id);
+    @Transactional
+    public boolean deleteBidListById(Integer id) {
+        if (bidListRepository.deleteRowById(id) == 0) {
+            return false;
+        }
+        orderBookService.remove(id);
+        journalService.record(JournalEntity.BID_LIST, id, JournalEventKind.DELETED, null);
+        return true;
     }
 }
@@ -0,0 +1,195 @@
+package com.nnk.springboot.services;
+
+import com.nnk.springboot.dto.BlotterPage;
+import com.nnk.springboot.dto.BlotterRow;
+import com.nnk.springboot.export.ExportColumns;
+import com.nnk.springboot.export.ExportFormat;
+import com.nnk.springboot.export.ExportWriter;
+import com.nnk.springboot.model.Trade;
+import com.nnk.springboot.repositories.TradeRepository;
+import com.nnk.springboot.services.contracts.IBlotterService;
+import jakarta.annotation.PostConstruct;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Stream;
+
+/**
+ * Service answering "the trades of this book between T1 and T2".
+ * <p>
+ * Every query seeks an index and reads projections, never entities. Pages are keyset-paginated
+ * on (tradeDate, tradeId), so the cost of a page does not depend on how deep into the range it is.
+ * </p>
+ * <p>
+ * Live views tail new trades in commit order, not id order: ids are handed out before their
+ * transactions commit, and concurrent transactions commit out of id order, so a cursor on the id
+ * would skip a trade committed after a higher id was read. Every transaction inserting trades
+ * stamps them with a token and, just before committing, records the token in trade_commit under
+ * a sequence taken with a lock held until the commit. A tail reads past a (commit sequence,
+ * tradeId) cursor, and a trade becomes visible to it only with a sequence above every sequence
+ * already visible. Trades inserted without a stamp, before it existed, are never tailed.
+ * </p>
+ */
+@Service
+public class BlotterService implements IBlotterService {
+
+    private static final int DEFAULT_LIMIT = 100;
+    private static final int MAX_LIMIT = 1000;
+
+    private final TradeRepository tradeRepository;
+    // Key of the commit token bound to the current transaction
+    private final Object tokenKey = new Object();
+
+    /**
+     * Constructor for BlotterService.
+     *
+     * @param tradeRepository the repository the blotter is read from
+     */
+    public BlotterService(TradeRepository tradeRepository) {
+        this.tradeRepository = tradeRepository;
+    }
+
+    /**
+     * Read one page of the trades of a book in {@code [from, to)}, in (tradeDate, tradeId) order.
+     * One extra row is fetched to know whether a next page exists without a count query.
+     *
+     * @param book      the book
+     * @param from      the start of the range, inclusive
+     * @param to        the end of the range, exclusive
+     * @param afterDate trade date of the last row of the previous page, or null for the first page
+     * @param afterId   trade id of that row, or null for the first page
+     * @param limit     the page size, or null for the default
+     * @return the page and the cursor of the next one
+     * @throws IllegalArgumentException if only one half of the cursor is given
+     */
+    @Override
+    public BlotterPage getPage(String book, LocalDateTime from, LocalDateTime to, LocalDateTime afterDate,
+                               Integer afterId, Integer limit) {
+        if ((afterDate == null) != (afterId == null)) {
+            throw new IllegalArgumentException("Blotter cursor needs both afterDate and afterId");
+        }
+        int size = clamp(limit);
+        PageRequest firstRows = PageRequest.of(0, size + 1);
+        List<BlotterRow> rows = afterId == null
+                ? tradeRepository.findBlotterFirst(book, Timestamp.valueOf(from), Timestamp.valueOf(to), firstRows)
+                : tradeRepository.findBlotterAfter(book, Timestamp.valueOf(from), Timestamp.valueOf(to),
+                Timestamp.valueOf(afterDate), afterId, firstRows);
+        return page(rows, size);
+    }
+
+    /**
+     * Create the counter of trade commits, once, if this is the first start on the database.
+     */
+    @PostConstruct
+    public void open() {
+        try {
+            tradeRepository.createCommitSequence();
+        } catch (DataIntegrityViolationException e) {
+            // Created meanwhile by another instance
+        }
+    }
+
+    /**
+     * Read the trades of a book committed since the given cursor, in (commit sequence, tradeId) order.
+     *
+     * @param book     the book
+     * @param afterSeq commit sequence of the last row already seen, or null to start from the first commit
+     * @param afterId  trade id of that row, or null with a null {@code afterSeq}
+     * @param limit    the maximum number of trades, or null for the default
+     * @return the new trades and the cursor to tail from next
+     * @throws IllegalArgumentException if only one half of the cursor is given
+     */
+    @Override
+    public BlotterPage tail(String book, Long afterSeq, Integer afterId, Integer limit) {
+        if ((afterSeq == null) != (afterId == null)) {
+            throw new IllegalArgumentException("Blotter tail cursor needs both afterSeq and afterId");
+        }
+        int size = clamp(limit);
+        List<BlotterRow> rows = tradeRepository.findBlotterCommittedAfter(book, afterSeq == null ? 0L : afterSeq,
+                afterId == null ? 0 : afterId, PageRequest.of(0, size + 1));
+        return page(rows, size);
+    }
+
+    /**
+     * Stamp a trade about to be inserted with the commit token of the current transaction, so that
+     * tails see it once the transaction commits. The first stamp of a transaction registers the
+     * recording of its token in trade_commit, just before it commits.
+     *
+     * @param trade the new trade, before it is persisted
+     * @throws IllegalStateException if no transaction is active
+     */
+    @Override
+    public void stampOnCommit(Trade trade) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Trades must be inserted inside a transaction to be tailed");
+        }
+        Long token = (Long) TransactionSynchronizationManager.getResource(tokenKey);
+        if (token == null) {
+            long newToken = ThreadLocalRandom.current().nextLong();
+            TransactionSynchronizationManager.bindResource(tokenKey, newToken);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    tradeRepository.recordCommit(newToken);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(tokenKey);
+                }
+            });
+            token = newToken;
+        }
+        trade.setCommitToken(token);
+    }
+
+    /**
+     * Stream the trades of a book in {@code [from, to)} to the given output stream,
+     * in (tradeDate, tradeId) order, over a forward-only cursor.
+     *
+     * @param book   the book
+     * @param from   the start of the range, inclusive
+     * @param to     the end of the range, exclusive
+     * @param out    the stream to write to; it is flushed but not closed
+     * @param format the output format
+     * @return the number of trades written
+     * @throws IOException if writing to the output stream fails
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long stream(String book, LocalDateTime from, LocalDateTime to, OutputStream out, ExportFormat format)
+            throws IOException {
+        ExportWriter<BlotterRow> writer = new ExportWriter<>(out, format, ExportColumns.BLOTTER);
+        long count = 0;
+        try (Stream<BlotterRow> rows = tradeRepository.streamBlotter(book, Timestamp.valueOf(from),
+                Timestamp.valueOf(to))) {
+            Iterator<BlotterRow> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                writer.write(iterator.next());
+                count++;
+            }
+        }
+        writer.flush();
+        return count;
+    }
+
+    private static int clamp(Integer limit) {
+        return limit == null ? DEFAULT_LIMIT : Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+
+    private static BlotterPage page(List<BlotterRow> rows, int size) {
+        boolean hasNext = rows.size() > size;
+        return new BlotterPage(hasNext ? rows.subList(0, size) : rows, hasNext);
+    }
+}
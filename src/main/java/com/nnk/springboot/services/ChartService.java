@@ -0,0 +1,114 @@
+package com.nnk.springboot.services;
+
+import com.nnk.springboot.chart.Lttb;
+import com.nnk.springboot.curve.Curve;
+import com.nnk.springboot.dto.ChartSeries;
+import com.nnk.springboot.dto.CurveSeriesPoint;
+import com.nnk.springboot.repositories.CurvePointRepository;
+import com.nnk.springboot.services.contracts.IChartService;
+import com.nnk.springboot.services.contracts.ICurveService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Serves chart data for the curves, downsampled with {@link Lttb} to the point budget of the client,
+ * so that the payload and the rendering stay bounded however many points are stored.
+ * <p>
+ * A curve chart is read from the in-memory curve of {@link ICurveService}. A value-over-time chart
+ * reads the value of one term at each as-of date into sorted primitive arrays, keeping the point with
+ * the highest id when an as-of date has several, before downsampling them.
+ * </p>
+ */
+@Service
+public class ChartService implements IChartService {
+
+    private final ICurveService curveService;
+    private final CurvePointRepository curvePointRepository;
+
+    @Value("${app.chart.max-points:2000}")
+    private int maxPoints = 2000;
+
+    /**
+     * Constructor for ChartService.
+     *
+     * @param curveService         the in-memory curves charted
+     * @param curvePointRepository the repository the values over time are read from
+     */
+    public ChartService(ICurveService curveService, CurvePointRepository curvePointRepository) {
+        this.curveService = curveService;
+        this.curvePointRepository = curvePointRepository;
+    }
+
+    /**
+     * Chart a curve: the value of each of its distinct terms.
+     *
+     * @param curveId  the curve id
+     * @param asOfDate the as-of date, or null for the points without one
+     * @param budget   the most points to return
+     * @return the chart, or empty if the curve has no point
+     * @throws IllegalArgumentException if the budget is below 3 or above {@code app.chart.max-points}
+     */
+    @Override
+    public Optional<ChartSeries> getCurveChart(Integer curveId, LocalDateTime asOfDate, int budget) {
+        checkBudget(budget);
+        Optional<Curve> curve = curveService.getCurve(curveId, asOfDate);
+        return curve.map(c -> downsample(c.getTerms(), c.getValues(), budget));
+    }
+
+    /**
+     * Chart the value of one term of a curve over its as-of dates.
+     *
+     * @param curveId the curve id
+     * @param term    the term
+     * @param from    the first as-of date, or null from the first one
+     * @param to      the last as-of date, or null up to the last one
+     * @param budget  the most points to return
+     * @return the chart, with x in epoch milliseconds; empty if the term has no value in the range
+     * @throws IllegalArgumentException if the budget is below 3 or above {@code app.chart.max-points}
+     */
+    @Override
+    public ChartSeries getHistoryChart(Integer curveId, double term, LocalDateTime from, LocalDateTime to,
+                                       int budget) {
+        checkBudget(budget);
+        List<CurveSeriesPoint> points = curvePointRepository.findSeries(curveId, term,
+                from == null ? null : Timestamp.valueOf(from), to == null ? null : Timestamp.valueOf(to));
+        double[] x = new double[points.size()];
+        double[] y = new double[points.size()];
+        int n = 0;
+        for (CurveSeriesPoint point : points) {
+            double time = point.getAsOfDate().getTime();
+            // Ordered by as-of date then id, so the last point of an as-of date wins
+            if (n > 0 && x[n - 1] == time) {
+                n--;
+            }
+            x[n] = time;
+            y[n] = point.getValue();
+            n++;
+        }
+        return downsample(Arrays.copyOf(x, n), Arrays.copyOf(y, n), budget);
+    }
+
+    private void checkBudget(int budget) {
+        if (budget < 3 || budget > maxPoints) {
+            throw new IllegalArgumentException("The point budget must be between 3 and " + maxPoints
+                    + ", got " + budget);
+        }
+    }
+
+    private static ChartSeries downsample(double[] x, double[] y, int budget) {
+        int[] kept = Lttb.downsample(x, y, budget);
+        double[] keptX = new double[kept.length];
+        double[] keptY = new double[kept.length];
+        for (int i = 0; i < kept.length; i++) {
+            keptX[i] = x[kept[i]];
+            keptY[i] = y[kept[i]];
+        }
+        return new ChartSeries(keptX, keptY, x.length);
+    }
+}
@@ -0,0 +1,134 @@
+package com.nnk.springboot.services;
+
+import com.nnk.springboot.curve.BootstrappedCurve;
+import com.nnk.springboot.curve.Curve;
+import com.nnk.springboot.curve.CurveKey;
+import com.nnk.springboot.services.contracts.ICurveBootstrapService;
+import com.nnk.springboot.services.contracts.ICurveService;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Bootstraps discount factors and forward rates from the curves served by {@link ICurveService}.
+ * <p>
+ * The result of each (curveId, asOfDate) is cached with the version of the curve it was computed
+ * from, read before the curve itself. Every committed write to a curve point gives its curve a new
+ * version, so a cached result is reused only while the version is unchanged: a write invalidates it
+ * without any hook, and a result can only be cached against a version older than its curve, never
+ * newer. The cache keeps the {@code app.curve-store.hot-curves} results used last, like the curves
+ * kept decoded by the curve store. A request for many curves bootstraps those not cached
+ * concurrently on a dedicated fork-join pool of {@code app.curve-bootstrap.parallelism} threads.
+ * </p>
+ */
+@Service
+public class CurveBootstrapService implements ICurveBootstrapService {
+
+    private static final Logger logger = LogManager.getLogger(CurveBootstrapService.class);
+
+    private final ICurveService curveService;
+    private final Map<CurveKey, Bootstrapped> bootstrapped;
+
+    @Value("${app.curve-bootstrap.parallelism:4}")
+    private int parallelism = 4;
+
+    @Value("${app.curve-store.hot-curves:1024}")
+    private int hotCurves = 1024;
+
+    /**
+     * Constructor for CurveBootstrapService.
+     *
+     * @param curveService the in-memory curves bootstrapped from
+     */
+    public CurveBootstrapService(ICurveService curveService) {
+        this.curveService = curveService;
+        this.bootstrapped = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CurveKey, Bootstrapped> eldest) {
+                return size() > hotCurves;
+            }
+        });
+    }
+
+    /**
+     * Bootstrap one curve, or return its cached result if the curve did not change since.
+     *
+     * @param curveId  the curve id
+     * @param asOfDate the as-of date, or null for the points without one
+     * @return the bootstrapped curve, or empty if the curve has no point
+     * @throws IllegalArgumentException if the curve cannot be bootstrapped
+     */
+    @Override
+    public Optional<BootstrappedCurve> bootstrap(Integer curveId, LocalDateTime asOfDate) {
+        if (curveId == null) {
+            throw new IllegalArgumentException("A curve id is required");
+        }
+        CurveKey key = new CurveKey(curveId, asOfDate);
+        long version = curveService.getCurveVersion(curveId, asOfDate);
+        Bootstrapped cached = bootstrapped.get(key);
+        if (cached != null && version != 0 && cached.version == version) {
+            return Optional.of(cached.result);
+        }
+        Optional<Curve> curve = curveService.getCurve(curveId, asOfDate);
+        if (curve.isEmpty()) {
+            bootstrapped.remove(key);
+            return Optional.empty();
+        }
+        BootstrappedCurve result = BootstrappedCurve.bootstrap(key, curve.get());
+        // A slower computation from an older version may overwrite this one: its version then no longer
+        // matches, and the next call computes again
+        bootstrapped.put(key, new Bootstrapped(version, result));
+        return Optional.of(result);
+    }
+
+    /**
+     * Bootstrap many curves of one as-of date concurrently.
+     *
+     * @param curveIds the curve ids
+     * @param asOfDate the as-of date, or null for the points without one
+     * @return the bootstrapped curves, in the order of the ids, leaving out the curves without a point
+     * @throws IllegalArgumentException if a curve cannot be bootstrapped
+     */
+    @Override
+    public List<BootstrappedCurve> bootstrapAll(List<Integer> curveIds, LocalDateTime asOfDate) {
+        long start = System.nanoTime();
+        List<Integer> distinct = curveIds.stream().filter(Objects::nonNull).distinct().toList();
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, parallelism));
+        try {
+            List<BootstrappedCurve> curves = pool.submit(() -> distinct.parallelStream()
+                            .map(curveId -> bootstrap(curveId, asOfDate))
+                            .flatMap(Optional::stream)
+                            .toList())
+                    .join();
+            logger.info("Curves bootstrapped: {} of {} asked as of {} in {} ms", curves.size(), distinct.size(),
+                    asOfDate, (System.nanoTime() - start) / 1_000_000);
+            return curves;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * A bootstrapped curve and the version of the curve it was computed from.
+     */
+    private static final class Bootstrapped {
+
+        private final long version;
+        private final BootstrappedCurve result;
+
+        private Bootstrapped(long version, BootstrappedCurve result) {
+            this.version = version;
+            this.result = result;
+        }
+    }
+}
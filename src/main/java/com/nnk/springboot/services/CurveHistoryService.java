@@ -0,0 +1,313 @@
+package com.nnk.springboot.services;
+
+import com.nnk.springboot.config.AfterCommit;
+import com.nnk.springboot.curve.Curve;
+import com.nnk.springboot.dto.CurveSnapshot;
+import com.nnk.springboot.model.CurvePoint;
+import com.nnk.springboot.model.CurvePointVersion;
+import com.nnk.springboot.repositories.CurvePointVersionRepository;
+import com.nnk.springboot.services.contracts.ICurveHistoryService;
+import jakarta.persistence.EntityManager;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the bitemporal history of the curve points and answers "curve X as of T, as known at S".
+ * <p>
+ * The valid time of a point is its {@code asOfDate}; its system time is when a version of it was
+ * recorded. Every save, update and delete of a curve point inserts a {@link CurvePointVersion} in
+ * the same transaction, so the curve point table keeps the current state while the version table
+ * keeps every state it went through. A snapshot takes the latest as-of date of the curve up to T,
+ * then the last version of each of its points recorded up to S, skipping deleted points; both
+ * lookups are served by the indexes of the version table.
+ * </p>
+ * <p>
+ * The latest snapshot of each curve, as of its latest date and known now, is cached until a write
+ * to the curve commits. Snapshots known at a system time older than {@code app.curve-history.settle-ms}
+ * cannot change any more, and the last {@code app.curve-history.cache-size} of them are cached too, so
+ * that reruns asking for the same past curves do not query again.
+ * </p>
+ */
+@Service
+public class CurveHistoryService implements ICurveHistoryService {
+
+    private static final Logger logger = LogManager.getLogger(CurveHistoryService.class);
+    private static final Timestamp END_OF_TIME = Timestamp.valueOf("9999-12-31 00:00:00");
+    private static final int AS_OF_DATES_PER_QUERY = 8;
+    // Insert-selects copying the fields a caller does not have from the curve point row, so that each
+    // write adds one statement. They run on the entity manager: Spring Data 3.1 cannot parse them.
+    private static final String INSERT_UPDATED = "insert into CurvePointVersion "
+            + "(curvePointId, curveId, asOfDate, term, value, recordedAt, deleted) "
+            + "select c.id, c.curveId, c.asOfDate, :term, :value, :recordedAt, false from CurvePoint c where c.id = :id";
+    private static final String INSERT_DELETED = "insert into CurvePointVersion "
+            + "(curvePointId, curveId, asOfDate, term, value, recordedAt, deleted) "
+            + "select c.id, c.curveId, c.asOfDate, c.term, c.value, :recordedAt, true from CurvePoint c where c.id = :id";
+    private static final String INSERT_CURVE = "insert into CurvePointVersion "
+            + "(curvePointId, curveId, asOfDate, term, value, recordedAt, deleted) "
+            + "select c.id, c.curveId, c.asOfDate, c.term, c.value, :recordedAt, :deleted from CurvePoint c "
+            + "where c.curveId = :curveId and (c.asOfDate = :asOfDate or (:asOfDate is null and c.asOfDate is null))";
+    private static final String INSERT_MISSING = "insert into CurvePointVersion "
+            + "(curvePointId, curveId, asOfDate, term, value, recordedAt, deleted) "
+            + "select c.id, c.curveId, c.asOfDate, c.term, c.value, coalesce(c.creationDate, :recordedAt), false "
+            + "from CurvePoint c where not exists (select v.id from CurvePointVersion v where v.curvePointId = c.id)";
+
+    private final CurvePointVersionRepository curvePointVersionRepository;
+    private final EntityManager entityManager;
+    private final Map<Integer, CurveSnapshot> latest = new ConcurrentHashMap<>();
+    private final Map<Integer, Integer> latestPointCurves = new ConcurrentHashMap<>();
+    // The points of latestPointCurves by curve, changed under the lock of the curve's entry
+    private final Map<Integer, Set<Integer>> latestCurvePoints = new ConcurrentHashMap<>();
+    private final Map<List<Object>, CurveSnapshot> past = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<List<Object>, CurveSnapshot> eldest) {
+                    return size() > cacheSize;
+                }
+            });
+    private final AtomicLong writes = new AtomicLong();
+
+    @Value("${app.curve-history.cache-size:256}")
+    private int cacheSize = 256;
+
+    @Value("${app.curve-history.settle-ms:60000}")
+    private long settleMillis = 60000;
+
+    /**
+     * Constructor for CurveHistoryService.
+     *
+     * @param curvePointVersionRepository the repository the versions are recorded in and read from
+     * @param entityManager               the entity manager the versions of updates and deletes are inserted with
+     */
+    public CurveHistoryService(CurvePointVersionRepository curvePointVersionRepository,
+                               EntityManager entityManager) {
+        this.curvePointVersionRepository = curvePointVersionRepository;
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Record a first version of the curve points written before versions were kept.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void recordMissingVersions() {
+        int recorded = entityManager.createQuery(INSERT_MISSING)
+                .setParameter("recordedAt", now())
+                .executeUpdate();
+        if (recorded > 0) {
+            logger.info("Curve history: recorded a first version of {} curve points", recorded);
+        }
+    }
+
+    /**
+     * Record the version of a curve point just saved, in the current transaction.
+     *
+     * @param curvePoint the point as saved
+     */
+    @Override
+    public void recordSaved(CurvePoint curvePoint) {
+        curvePointVersionRepository.save(new CurvePointVersion(curvePoint, now()));
+        Integer id = curvePoint.getId();
+        Integer curveId = curvePoint.getCurveId();
+        AfterCommit.run(() -> {
+            writes.incrementAndGet();
+            Integer previous = latestPointCurves.get(id);
+            if (previous != null) {
+                evictLatest(previous);
+            }
+            if (curveId != null) {
+                evictLatest(curveId);
+            }
+        });
+    }
+
+    /**
+     * Record the new term and value of a curve point, in the current transaction.
+     *
+     * @param id    the id of the point
+     * @param term  its new term
+     * @param value its new value
+     */
+    @Override
+    public void recordUpdated(Integer id, Double term, Double value) {
+        entityManager.createQuery(INSERT_UPDATED)
+                .setParameter("id", id)
+                .setParameter("term", term)
+                .setParameter("value", value)
+                .setParameter("recordedAt", now())
+                .executeUpdate();
+        AfterCommit.run(() -> evictLatestOfPoint(id));
+    }
+
+    /**
+     * Record the deletion of a curve point, in the current transaction. Must be called before the
+     * point is deleted.
+     *
+     * @param id the id of the point
+     */
+    @Override
+    public void recordDeleted(Integer id) {
+        entityManager.createQuery(INSERT_DELETED)
+                .setParameter("id", id)
+                .setParameter("recordedAt", now())
+                .executeUpdate();
+        AfterCommit.run(() -> evictLatestOfPoint(id));
+    }
+
+    /**
+     * Record the deletion of every point of a curve, in the current transaction. Must be called
+     * before the points are deleted.
+     *
+     * @param curveId    the curve id
+     * @param asOfDate   the as-of date, or null for the points without one
+     * @param recordedAt the system time of the deletion
+     */
+    @Override
+    public void recordCurveDeleted(Integer curveId, Timestamp asOfDate, Timestamp recordedAt) {
+        insertCurve(curveId, asOfDate, recordedAt, true);
+    }
+
+    /**
+     * Record the points of a curve just saved, in the current transaction. Must be called once the
+     * points are flushed.
+     *
+     * @param curveId    the curve id
+     * @param asOfDate   the as-of date, or null for the points without one
+     * @param recordedAt the system time of the save; the same as the deletion of the points it replaces,
+     *                   so that no system time sees the curve half replaced
+     */
+    @Override
+    public void recordCurveSaved(Integer curveId, Timestamp asOfDate, Timestamp recordedAt) {
+        insertCurve(curveId, asOfDate, recordedAt, false);
+    }
+
+    private void insertCurve(Integer curveId, Timestamp asOfDate, Timestamp recordedAt, boolean deleted) {
+        entityManager.createQuery(INSERT_CURVE)
+                .setParameter("curveId", curveId)
+                .setParameter("asOfDate", asOfDate)
+                .setParameter("recordedAt", recordedAt)
+                .setParameter("deleted", deleted)
+                .executeUpdate();
+        AfterCommit.run(() -> {
+            writes.incrementAndGet();
+            evictLatest(curveId);
+        });
+    }
+
+    /**
+     * Rebuild a curve as it stood at a valid time, as known at a system time.
+     *
+     * @param curveId the curve id
+     * @param validAt the valid time: the latest as-of date up to it is used; null for the latest one
+     * @param knownAt the system time; null for now
+     * @return the snapshot, or empty if the curve had no point then
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<CurveSnapshot> getSnapshot(Integer curveId, LocalDateTime validAt, LocalDateTime knownAt) {
+        if (curveId == null) {
+            throw new IllegalArgumentException("A curve id is required");
+        }
+        boolean isLatest = validAt == null && knownAt == null;
+        boolean isSettled = knownAt != null
+                && Timestamp.valueOf(knownAt).getTime() <= System.currentTimeMillis() - settleMillis;
+        List<Object> pastKey = Arrays.asList(curveId, validAt, knownAt);
+        CurveSnapshot cached = isLatest ? latest.get(curveId) : isSettled ? past.get(pastKey) : null;
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        long seen = writes.get();
+        Timestamp known = knownAt == null ? now() : Timestamp.valueOf(knownAt);
+        List<CurvePointVersion> versions = findKnownAt(curveId,
+                validAt == null ? END_OF_TIME : Timestamp.valueOf(validAt), known);
+        if (versions.isEmpty()) {
+            return Optional.empty();
+        }
+        int[] ids = new int[versions.size()];
+        double[] terms = new double[versions.size()];
+        double[] values = new double[versions.size()];
+        for (int i = 0; i < ids.length; i++) {
+            CurvePointVersion version = versions.get(i);
+            ids[i] = version.getCurvePointId();
+            terms[i] = version.getTerm() == null ? 0 : version.getTerm();
+            values[i] = version.getValue() == null ? 0 : version.getValue();
+        }
+        CurveSnapshot snapshot = new CurveSnapshot(curveId, versions.get(0).getAsOfDate().toLocalDateTime(),
+                known.toLocalDateTime(), Curve.of(ids, terms, values));
+
+        if (isSettled) {
+            past.put(pastKey, snapshot);
+        } else if (isLatest) {
+            latestCurvePoints.compute(curveId, (key, points) -> {
+                Set<Integer> curvePoints = points != null ? points : new HashSet<>();
+                for (int id : ids) {
+                    latestPointCurves.put(id, curveId);
+                    curvePoints.add(id);
+                }
+                return curvePoints;
+            });
+            // A write committed meanwhile may have been missed by the queries and found nothing to evict
+            if (writes.get() == seen) {
+                latest.put(curveId, snapshot);
+            }
+        }
+        return Optional.of(snapshot);
+    }
+
+    private List<CurvePointVersion> findKnownAt(Integer curveId, Timestamp validAt, Timestamp knownAt) {
+        for (int page = 0; ; page++) {
+            List<Timestamp> asOfDates = curvePointVersionRepository.findAsOfDates(curveId, validAt, knownAt,
+                    PageRequest.of(page, AS_OF_DATES_PER_QUERY));
+            // The points of the latest as-of date may all have been deleted, or moved, by then
+            for (Timestamp asOfDate : asOfDates) {
+                List<CurvePointVersion> versions = curvePointVersionRepository.findKnownAt(curveId, asOfDate, knownAt);
+                if (!versions.isEmpty()) {
+                    return versions;
+                }
+            }
+            if (asOfDates.size() < AS_OF_DATES_PER_QUERY) {
+                return List.of();
+            }
+        }
+    }
+
+    private void evictLatestOfPoint(Integer id) {
+        writes.incrementAndGet();
+        Integer curveId = latestPointCurves.get(id);
+        if (curveId != null) {
+            evictLatest(curveId);
+        }
+    }
+
+    private void evictLatest(Integer curveId) {
+        latest.remove(curveId);
+        latestCurvePoints.computeIfPresent(curveId, (key, points) -> {
+            // A point moved to another curve since keeps the entry of that curve
+            points.forEach(id -> latestPointCurves.remove(id, curveId));
+            return null;
+        });
+    }
+
+    private static Timestamp now() {
+        return new Timestamp(System.currentTimeMillis());
+    }
+}
@@ -1,28 +1,54 @@
 package com.nnk.springboot.services;
 
+import com.nnk.springboot.dto.CurvePointFilter;
+import com.nnk.springboot.dto.CurvePointSummary;
+import com.nnk.springboot.dto.CurveUpload;
+import com.nnk.springboot.dto.CurveUploadResult;
 import com.nnk.springboot.model.CurvePoint;
 import com.nnk.springboot.repositories.CurvePointRepository;
+import com.nnk.springboot.repositories.specifications.CurvePointSpecifications;
+import com.nnk.springboot.services.contracts.ICurveHistoryService;
 import com.nnk.springboot.services.contracts.ICurvePointService;
+import com.nnk.springboot.services.contracts.ICurveService;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Service implementation for managing CurvePoint entities.
+ * <p>
+ * Every write also records a version of the point through the {@link ICurveHistoryService}, in the
+ * same transaction, and is reported to the {@link ICurveService}, which patches the curve holding
+ * the point.
+ * </p>
  */
 @Service
 public class CurvePointService implements ICurvePointService {
 
+    private static final Set<String> SORTABLE_PROPERTIES = Set.of("curveId", "asOfDate", "term", "value");
+
     private final CurvePointRepository curvePointRepository;
+    private final ICurveService curveService;
+    private final ICurveHistoryService curveHistoryService;
 
     /**
      * Constructor for CurvePointService.
      *
      * @param curvePointRepository the repository used for CurvePoint entity operations
+     * @param curveService         the in-memory curves kept up to date with each write
+     * @param curveHistoryService  the history each write records a version in
      */
-    public CurvePointService(CurvePointRepository curvePointRepository) {
+    public CurvePointService(CurvePointRepository curvePointRepository, ICurveService curveService,
+                             ICurveHistoryService curveHistoryService) {
         this.curvePointRepository = curvePointRepository;
+        this.curveService = curveService;
+        this.curveHistoryService = curveHistoryService;
     }
 
     /**
@@ -32,8 +58,12 @@ public class CurvePointService implements ICurvePointService {
      * @return the saved CurvePoint entity
      */
     @Override
+    @Transactional
     public CurvePoint saveCurvePoint(CurvePoint curvePoint) {
-        return curvePointRepository.save(curvePoint);
+        CurvePoint saved = curvePointRepository.save(curvePoint);
+        curveHistoryService.recordSaved(saved);
+        curveService.pointSaved(saved);
+        return saved;
     }
 
     /**
@@ -46,6 +76,22 @@ public class CurvePointService implements ICurvePointService {
         return curvePointRepository.findAll();
     }
 
+    /**
+     * Retrieve the rows shown on the curve point list page as read-only projections,
+     * filtered and sorted in the database.
+     *
+     * @param filter    the list page filters, may be null
+     * @param sort      the property to sort on, or null to sort by id
+     * @param direction the sort direction, or null for ascending
+     * @return a list of CurvePoint projections
+     * @throws IllegalArgumentException if the property is not sortable
+     */
+    @Override
+    public List<CurvePointSummary> getCurvePointSummaries(CurvePointFilter filter, String sort, Sort.Direction direction) {
+        return curvePointRepository.findSummaries(CurvePointSpecifications.matching(filter),
+                ListSorts.of(sort, direction, "id", SORTABLE_PROPERTIES));
+    }
+
     /**
      * Find a CurvePoint entity by its id.
      *
@@ -58,24 +104,102 @@ public class CurvePointService implements ICurvePointService {
     }
 
     /**
-     * Update a CurvePoint entity by id.
+     * Update the fields of a CurvePoint that the update form edits, with a single UPDATE statement,
+     * and record the new version with a single INSERT statement.
      *
      * @param id         the id of the CurvePoint to update
      * @param curvePoint the CurvePoint entity containing updated data
+     * @return true if the CurvePoint exists and was updated
      */
     @Override
-    public void updateCurvePoint(Integer id, CurvePoint curvePoint) {
-        curvePoint.setCurveId(id);
-        curvePointRepository.save(curvePoint);
+    @Transactional
+    public boolean updateCurvePoint(Integer id, CurvePoint curvePoint) {
+        if (curvePointRepository.updateEditableFields(id, curvePoint.getTerm(), curvePoint.getValue()) != 1) {
+            return false;
+        }
+        curveHistoryService.recordUpdated(id, curvePoint.getTerm(), curvePoint.getValue());
+        curveService.pointUpdated(id, curvePoint.getTerm(), curvePoint.getValue());
+        return true;
     }
 
     /**
-     * Delete a CurvePoint entity by id.
+     * Delete a CurvePoint entity by id with a single DELETE statement, without loading it first,
+     * after recording its deletion with a single INSERT statement.
      *
      * @param id the id of the CurvePoint to delete
+     * @return true if the CurvePoint existed and was deleted
+     */
+    @Override
+    @Transactional
+    public boolean deleteCurvePointById(Integer id) {
+        curveHistoryService.recordDeleted(id);
+        if (curvePointRepository.deleteRowById(id) != 1) {
+            return false;
+        }
+        curveService.pointDeleted(id);
+        return true;
+    }
+
+    /**
+     * Replace every point of a curve by the points of an upload, in one transaction: one DELETE
+     * statement, the INSERT statements of the new points in JDBC batches, and one INSERT statement
+     * recording the versions of each side. The in-memory curve is swapped for the new one once the
+     * transaction commits.
+     *
+     * @param upload the curve to save
+     * @return how many points were replaced by how many new points
+     * @throws IllegalArgumentException if the upload has no curve id or no point, its arrays differ
+     *                                  in length, a term or value is negative or not a number, or
+     *                                  the terms are not strictly ascending
      */
     @Override
-    public void deleteCurvePointById(Integer id) {
-        curvePointRepository.deleteById(id);
+    @Transactional
+    public CurveUploadResult replaceCurve(CurveUpload upload) {
+        validate(upload);
+        Integer curveId = upload.getCurveId();
+        Timestamp asOfDate = upload.getAsOfDate() == null ? null : Timestamp.valueOf(upload.getAsOfDate());
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+
+        curveHistoryService.recordCurveDeleted(curveId, asOfDate, now);
+        int replaced = curvePointRepository.deleteCurve(curveId, asOfDate);
+        List<CurvePoint> curvePoints = new ArrayList<>(upload.getTerms().length);
+        for (int i = 0; i < upload.getTerms().length; i++) {
+            CurvePoint curvePoint = new CurvePoint();
+            curvePoint.setCurveId(curveId);
+            curvePoint.setAsOfDate(asOfDate);
+            curvePoint.setTerm(upload.getTerms()[i]);
+            curvePoint.setValue(upload.getValues()[i]);
+            curvePoint.setCreationDate(now);
+            curvePoints.add(curvePoint);
+        }
+        curvePointRepository.saveAllAndFlush(curvePoints);
+        curveHistoryService.recordCurveSaved(curveId, asOfDate, now);
+        curveService.curveReplaced(curveId, upload.getAsOfDate(), curvePoints);
+        return new CurveUploadResult(curveId, upload.getAsOfDate(), replaced, curvePoints.size());
+    }
+
+    private static void validate(CurveUpload upload) {
+        if (upload.getCurveId() == null) {
+            throw new IllegalArgumentException("A curve id is required");
+        }
+        double[] terms = upload.getTerms();
+        double[] values = upload.getValues();
+        if (terms == null || values == null || terms.length == 0) {
+            throw new IllegalArgumentException("A curve needs at least one term and value");
+        }
+        if (terms.length != values.length) {
+            throw new IllegalArgumentException("Got " + terms.length + " terms but " + values.length + " values");
+        }
+        for (int i = 0; i < terms.length; i++) {
+            // Negated comparisons also reject NaN
+            if (!(terms[i] >= 0) || Double.isInfinite(terms[i]) || !(values[i] >= 0) || Double.isInfinite(values[i])) {
+                throw new IllegalArgumentException("Point " + (i + 1) + ": term and value must be zero or positive, got "
+                        + terms[i] + " and " + values[i]);
+            }
+            if (i > 0 && !(terms[i] > terms[i - 1])) {
+                throw new IllegalArgumentException("Point " + (i + 1) + ": terms must be strictly ascending, got "
+                        + terms[i] + " after " + terms[i - 1]);
+            }
+        }
     }
 }
@@ -0,0 +1,284 @@
+package com.nnk.springboot.services;
+
+import com.nnk.springboot.config.AfterCommit;
+import com.nnk.springboot.curve.Curve;
+import com.nnk.springboot.curve.CurveKey;
+import com.nnk.springboot.curve.Interpolation;
+import com.nnk.springboot.curve.OffHeapCurveStore;
+import com.nnk.springboot.model.CurvePoint;
+import com.nnk.springboot.repositories.CurvePointRepository;
+import com.nnk.springboot.services.contracts.ICurveService;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Serves the curve points of each (curveId, asOfDate) as an interpolating {@link Curve} held in memory,
+ * so that pricing code evaluates curves without going through JPA.
+ * <p>
+ * A curve is loaded from the database the first time it is asked for. Afterwards
+ * {@link CurvePointService} reports every point it saves, updates or deletes, once the write has
+ * committed, and only the curve holding that point is replaced by a patched copy, with no query.
+ * </p>
+ * <p>
+ * The loaded curves are kept in an {@link OffHeapCurveStore}, which also finds the curve of a point
+ * again on an update or a delete, so the heap only holds the {@code app.curve-store.hot-curves}
+ * curves read last, however many curves are loaded.
+ * </p>
+ */
+@Service
+public class CurveService implements ICurveService {
+
+    private static final int WRITE_STRIPES = 256;
+    private static final int LOAD_ATTEMPTS = 3;
+
+    private final CurvePointRepository curvePointRepository;
+    // Writes counted by curve and by point, on stripes so that a load only retries for its own curve
+    private final AtomicLongArray curveWrites = new AtomicLongArray(WRITE_STRIPES);
+    private final AtomicLongArray pointWrites = new AtomicLongArray(WRITE_STRIPES);
+    private OffHeapCurveStore store;
+
+    @Value("${app.curve-store.slab-bytes:16777216}")
+    private int slabBytes = 16777216;
+
+    @Value("${app.curve-store.hot-curves:1024}")
+    private int hotCurves = 1024;
+
+    /**
+     * Constructor for CurveService.
+     *
+     * @param curvePointRepository the repository the curves are loaded from
+     */
+    public CurveService(CurvePointRepository curvePointRepository) {
+        this.curvePointRepository = curvePointRepository;
+    }
+
+    /**
+     * Allocate the curve store.
+     */
+    @PostConstruct
+    public void open() {
+        store = new OffHeapCurveStore(slabBytes, hotCurves);
+    }
+
+    /**
+     * Find a curve, loading it on first use.
+     *
+     * @param curveId  the curve id
+     * @param asOfDate the as-of date, or null for the points without one
+     * @return the curve, or empty if it has no point
+     */
+    @Override
+    public Optional<Curve> getCurve(Integer curveId, LocalDateTime asOfDate) {
+        CurveKey key = new CurveKey(curveId, asOfDate);
+        Curve curve = store.get(key);
+        return Optional.ofNullable(curve != null ? curve : load(key));
+    }
+
+    /**
+     * Read the version of a loaded curve, without loading it.
+     *
+     * @param curveId  the curve id
+     * @param asOfDate the as-of date, or null for the points without one
+     * @return the version, changed by every write of the curve, or 0 if it is not loaded
+     */
+    @Override
+    public long getCurveVersion(Integer curveId, LocalDateTime asOfDate) {
+        return store.version(new CurveKey(curveId, asOfDate));
+    }
+
+    /**
+     * Evaluate a curve at many terms.
+     *
+     * @param curveId       the curve id
+     * @param asOfDate      the as-of date, or null for the points without one
+     * @param terms         the terms
+     * @param interpolation how to interpolate between two points
+     * @return the value at each term, at the same index
+     * @throws IllegalArgumentException if the curve has no point, or log-linear interpolation meets
+     *                                  a value that is not positive
+     */
+    @Override
+    public double[] interpolate(Integer curveId, LocalDateTime asOfDate, double[] terms, Interpolation interpolation) {
+        Curve curve = getCurve(curveId, asOfDate).orElseThrow(
+                () -> new IllegalArgumentException("No curve " + curveId + " as of " + asOfDate));
+        double[] values = new double[terms.length];
+        curve.valuesAt(terms, interpolation, values);
+        return values;
+    }
+
+    /**
+     * Add a saved point to its curve, and take it out of its previous curve if its key changed,
+     * once the current transaction commits.
+     *
+     * @param curvePoint the point as saved
+     */
+    @Override
+    public void pointSaved(CurvePoint curvePoint) {
+        if (curvePoint.getId() == null) {
+            return;
+        }
+        int id = curvePoint.getId();
+        CurveKey key = curvePoint.getCurveId() == null || curvePoint.getTerm() == null || curvePoint.getValue() == null
+                ? null
+                : new CurveKey(curvePoint.getCurveId(),
+                curvePoint.getAsOfDate() == null ? null : curvePoint.getAsOfDate().toLocalDateTime());
+        double term = key == null ? 0 : curvePoint.getTerm();
+        double value = key == null ? 0 : curvePoint.getValue();
+        AfterCommit.run(() -> {
+            countWrite(id);
+            if (key != null) {
+                countWrite(key);
+            }
+            CurveKey previous = store.keyOfPoint(id);
+            if (previous != null && !previous.equals(key)) {
+                store.compute(previous, curve -> curve == null ? null : curve.withoutPoint(id));
+            }
+            if (key != null) {
+                store.compute(key, curve -> curve == null ? null : curve.withPoint(id, term, value));
+            }
+        });
+    }
+
+    /**
+     * Move an updated point of a loaded curve to its new term and value, once the current
+     * transaction commits.
+     *
+     * @param id    the id of the point
+     * @param term  its new term
+     * @param value its new value
+     */
+    @Override
+    public void pointUpdated(Integer id, Double term, Double value) {
+        if (term == null || value == null) {
+            pointDeleted(id);
+            return;
+        }
+        AfterCommit.run(() -> {
+            countWrite(id);
+            CurveKey key = store.keyOfPoint(id);
+            if (key != null) {
+                store.compute(key, curve -> curve == null ? null : curve.withPoint(id, term, value));
+            }
+        });
+    }
+
+    /**
+     * Take a deleted point out of its curve, once the current transaction commits.
+     *
+     * @param id the id of the point
+     */
+    @Override
+    public void pointDeleted(Integer id) {
+        AfterCommit.run(() -> {
+            countWrite(id);
+            CurveKey key = store.keyOfPoint(id);
+            if (key != null) {
+                store.compute(key, curve -> curve == null ? null : curve.withoutPoint(id));
+            }
+        });
+    }
+
+    /**
+     * Replace a whole curve by new points, once the current transaction commits. The new curve is
+     * built before it is swapped in, so readers get either the old or the new curve.
+     *
+     * @param curveId     the curve id
+     * @param asOfDate    the as-of date, or null for the points without one
+     * @param curvePoints the new points of the curve, saved with their ids
+     */
+    @Override
+    public void curveReplaced(Integer curveId, LocalDateTime asOfDate, List<CurvePoint> curvePoints) {
+        CurveKey key = new CurveKey(curveId, asOfDate);
+        int[] ids = new int[curvePoints.size()];
+        double[] terms = new double[curvePoints.size()];
+        double[] values = new double[curvePoints.size()];
+        for (int i = 0; i < ids.length; i++) {
+            CurvePoint point = curvePoints.get(i);
+            ids[i] = point.getId();
+            terms[i] = point.getTerm();
+            values[i] = point.getValue();
+        }
+        AfterCommit.run(() -> {
+            countWrite(key);
+            Curve curve = ids.length == 0 ? null : Curve.of(ids, terms, values);
+            store.compute(key, current -> curve);
+        });
+    }
+
+    /**
+     * Load a curve into the store. The load is repeated if a write of the curve, or of one of the
+     * points read, committed meanwhile, as the query may have missed it while the patch of that write
+     * found neither the curve nor the point. After {@value #LOAD_ATTEMPTS} attempts the last curve
+     * read is returned without being stored, and the next read loads it again.
+     *
+     * @return the curve, or null if it has no point
+     */
+    private Curve load(CurveKey key) {
+        Timestamp asOfDate = key.getAsOfDate() == null ? null : Timestamp.valueOf(key.getAsOfDate());
+        Curve loaded = null;
+        for (int attempt = 0; attempt < LOAD_ATTEMPTS; attempt++) {
+            long seenCurve = curveWrites.get(stripe(key.hashCode()));
+            long[] seenPoints = new long[WRITE_STRIPES];
+            for (int i = 0; i < WRITE_STRIPES; i++) {
+                seenPoints[i] = pointWrites.get(i);
+            }
+            List<CurvePoint> points = curvePointRepository.findByCurveIdAndAsOfDateOrderByTermAscIdAsc(
+                    key.getCurveId(), asOfDate).stream()
+                    .filter(point -> point.getTerm() != null && point.getValue() != null)
+                    .toList();
+            int[] ids = new int[points.size()];
+            double[] terms = new double[points.size()];
+            double[] values = new double[points.size()];
+            for (int i = 0; i < ids.length; i++) {
+                CurvePoint point = points.get(i);
+                ids[i] = point.getId();
+                terms[i] = point.getTerm();
+                values[i] = point.getValue();
+            }
+            Curve read = ids.length == 0 ? null : Curve.of(ids, terms, values);
+            loaded = read;
+            boolean[] missed = new boolean[1];
+            // Checked under the lock of the store, which the patch of a write takes after counting it
+            Curve stored = store.compute(key, current -> {
+                if (current != null) {
+                    return current;
+                }
+                missed[0] = curveWrites.get(stripe(key.hashCode())) != seenCurve || missedPoint(ids, seenPoints);
+                return missed[0] ? null : read;
+            });
+            if (stored != null || !missed[0]) {
+                return stored;
+            }
+        }
+        return loaded;
+    }
+
+    private boolean missedPoint(int[] ids, long[] seenPoints) {
+        for (int id : ids) {
+            int stripe = stripe(id);
+            if (pointWrites.get(stripe) != seenPoints[stripe]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void countWrite(CurveKey key) {
+        curveWrites.incrementAndGet(stripe(key.hashCode()));
+    }
+
+    private void countWrite(int pointId) {
+        pointWrites.incrementAndGet(stripe(pointId));
+    }
+
+    private static int stripe(int hash) {
+        return (hash ^ (hash >>> 16)) & (WRITE_STRIPES - 1);
+    }
+}
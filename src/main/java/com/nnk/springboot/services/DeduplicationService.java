@@ -0,0 +1,206 @@
+package com.nnk.springboot.services;
+
+import com.nnk.springboot.archive.ArchivePart;
+import com.nnk.springboot.archive.TradeArchive;
+import com.nnk.springboot.archive.TradeColumn;
+import com.nnk.springboot.dedup.BloomFilter;
+import com.nnk.springboot.model.BidList;
+import com.nnk.springboot.model.Trade;
+import com.nnk.springboot.repositories.BidListRepository;
+import com.nnk.springboot.repositories.TradeRepository;
+import com.nnk.springboot.services.contracts.IDeduplicationService;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Detects trades and bids resent by a broker, by their sourceListId.
+ * <p>
+ * The sourceListId of every saved trade and bid is kept in an in-memory {@link BloomFilter}, so
+ * that a new id, the common case, is accepted without a query. Only an id the filter may have
+ * seen is looked up in the database, and the unique index on the column stays the authoritative
+ * check for concurrent inserts of the same id.
+ * </p>
+ * <p>
+ * The filters are rebuilt from the database once the context is refreshed, before any
+ * {@link org.springframework.boot.ApplicationRunner} such as a command-line import runs, sized for
+ * twice the number of ids stored. Ids are added as soon as their entity is persisted: if its transaction
+ * rolls back, the id only costs a query the next time it is seen.
+ * </p>
+ * <p>
+ * Archived trades keep their sourceListId. Their ids are kept in a filter of their own, loaded
+ * from the archive on start and fed as trades are archived; an id it may have seen is looked up
+ * with {@link TradeArchive#containsSourceListId}, which only reads the files that may hold it.
+ * </p>
+ */
+@Service
+public class DeduplicationService implements IDeduplicationService {
+
+    private static final Logger logger = LogManager.getLogger(DeduplicationService.class);
+
+    private static final Set<TradeColumn> SOURCE_LIST_ID = EnumSet.of(TradeColumn.SOURCE_LIST_ID);
+
+    private final TradeRepository tradeRepository;
+    private final BidListRepository bidListRepository;
+    private final TradeArchive tradeArchive;
+
+    @Value("${app.dedup.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${app.dedup.expected-ids:1000000}")
+    private long expectedIds = 1_000_000;
+
+    @Value("${app.dedup.false-positive-rate:0.01}")
+    private double falsePositiveRate = 0.01;
+
+    private volatile BloomFilter tradeIds;
+    private volatile BloomFilter archivedTradeIds;
+    private volatile BloomFilter bidListIds;
+
+    /**
+     * Constructor for DeduplicationService.
+     *
+     * @param tradeRepository   the repository the trade ids are read from
+     * @param bidListRepository the repository the BidList ids are read from
+     * @param tradeArchive      the archive the ids of archived trades are read from
+     */
+    public DeduplicationService(TradeRepository tradeRepository, BidListRepository bidListRepository,
+                                TradeArchive tradeArchive) {
+        this.tradeRepository = tradeRepository;
+        this.bidListRepository = bidListRepository;
+        this.tradeArchive = tradeArchive;
+    }
+
+    /**
+     * Tell whether a new trade carries the sourceListId of a trade already saved, in the table
+     * or in the archive. A blank sourceListId is cleared to null first, and never a duplicate.
+     *
+     * @param trade the new trade
+     * @return true if a trade with the same sourceListId exists
+     */
+    @Override
+    public boolean isDuplicate(Trade trade) {
+        if (!StringUtils.hasText(trade.getSourceListId())) {
+            trade.setSourceListId(null);
+            return false;
+        }
+        return isDuplicate(tradeIds, trade.getSourceListId(), tradeRepository::existsBySourceListId)
+                || isDuplicate(archivedTradeIds, trade.getSourceListId(), tradeArchive::containsSourceListId);
+    }
+
+    /**
+     * Tell whether a new BidList carries the sourceListId of a BidList already saved.
+     * A blank sourceListId is cleared to null first, and never a duplicate.
+     *
+     * @param bidList the new BidList
+     * @return true if a BidList with the same sourceListId exists
+     */
+    @Override
+    public boolean isDuplicate(BidList bidList) {
+        if (!StringUtils.hasText(bidList.getSourceListId())) {
+            bidList.setSourceListId(null);
+            return false;
+        }
+        return isDuplicate(bidListIds, bidList.getSourceListId(), bidListRepository::existsBySourceListId);
+    }
+
+    /**
+     * Remember the sourceListId of a persisted trade.
+     *
+     * @param trade the trade
+     */
+    @Override
+    public void register(Trade trade) {
+        register(tradeIds, trade.getSourceListId());
+    }
+
+    /**
+     * Remember the sourceListId of a persisted BidList.
+     *
+     * @param bidList the BidList
+     */
+    @Override
+    public void register(BidList bidList) {
+        register(bidListIds, bidList.getSourceListId());
+    }
+
+    /**
+     * Remember the sourceListIds of trades moved to the archive.
+     *
+     * @param trades the archived trades
+     */
+    @Override
+    public void archived(Collection<Trade> trades) {
+        trades.forEach(trade -> register(archivedTradeIds, trade.getSourceListId()));
+    }
+
+    /**
+     * Rebuild the filters from the sourceListIds stored in the database and in the trade archive.
+     *
+     * @return the number of ids loaded
+     */
+    @Override
+    @EventListener(ContextRefreshedEvent.class)
+    @Transactional(readOnly = true)
+    public long rebuild() {
+        if (!enabled) {
+            return 0;
+        }
+        long start = System.nanoTime();
+        long tradeCount = tradeRepository.countBySourceListIdNotNull();
+        long bidListCount = bidListRepository.countBySourceListIdNotNull();
+        BloomFilter trades = load(tradeCount, tradeRepository.streamSourceListIds());
+        BloomFilter bidLists = load(bidListCount, bidListRepository.streamSourceListIds());
+        long archivedRows = tradeArchive.getParts().stream().mapToLong(ArchivePart::getRowCount).sum();
+        BloomFilter archived = new BloomFilter(Math.max(expectedIds, 2 * archivedRows), falsePositiveRate);
+        AtomicLong archivedCount = new AtomicLong();
+        tradeArchive.scan(null, null, SOURCE_LIST_ID, trade -> {
+            if (trade.getSourceListId() != null) {
+                archived.add(trade.getSourceListId());
+                archivedCount.incrementAndGet();
+            }
+        });
+        tradeIds = trades;
+        archivedTradeIds = archived;
+        bidListIds = bidLists;
+        logger.info("Duplicate filters rebuilt: {} trade, {} archived trade and {} BidList ids in {} ms",
+                tradeCount, archivedCount.get(), bidListCount, (System.nanoTime() - start) / 1_000_000);
+        return tradeCount + archivedCount.get() + bidListCount;
+    }
+
+    private BloomFilter load(long count, Stream<String> ids) {
+        BloomFilter filter = new BloomFilter(Math.max(expectedIds, 2 * count), falsePositiveRate);
+        try (ids) {
+            ids.forEach(filter::add);
+        }
+        return filter;
+    }
+
+    private boolean isDuplicate(BloomFilter filter, String sourceListId, Predicate<String> exists) {
+        if (!enabled) {
+            return false;
+        }
+        if (filter != null && !filter.mightContain(sourceListId)) {
+            return false;
+        }
+        return exists.test(sourceListId);
+    }
+
+    private void register(BloomFilter filter, String sourceListId) {
+        if (enabled && filter != null && sourceListId != null) {
+            filter.add(sourceListId);
+        }
+    }
+}
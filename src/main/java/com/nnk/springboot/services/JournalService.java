@@ -0,0 +1,252 @@
+package com.nnk.springboot.services;
+
+import com.nnk.springboot.config.AfterCommit;
+import com.nnk.springboot.dto.JournalSnapshotResult;
+import com.nnk.springboot.journal.EventJournal;
+import com.nnk.springboot.journal.JournalEntity;
+import com.nnk.springboot.journal.JournalEvent;
+import com.nnk.springboot.journal.JournalEventKind;
+import com.nnk.springboot.journal.JournalPayloads;
+import com.nnk.springboot.journal.JournalSnapshot;
+import com.nnk.springboot.services.contracts.IJournalService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Records every create, update and delete of trades and bids in an append-only {@link EventJournal}.
+ * <p>
+ * Events are appended once the transaction that made the change has committed, so the journal
+ * never holds a change that was rolled back. The converse is not guaranteed: the append runs after
+ * the database commit, outside the transaction, so a change whose process dies between the two, or
+ * whose append fails, is in the database but not in the journal. The journal is an audit trail of
+ * changes, not a source the database can be rebuilt from.
+ * </p>
+ * <p>
+ * An append only copies the event into the mapped segment; a background thread writes the events appended since its previous run to disk every
+ * {@code app.journal.flush-interval-ms}, with one fsync for the whole group. A crash of the host
+ * may therefore lose the events of the last interval, never a part of one.
+ * </p>
+ * <p>
+ * Snapshots hold the state of every entity after a given event. The state of an entity at a point
+ * in time is rebuilt from the last snapshot taken by then, plus the events that follow it up to
+ * that time.
+ * </p>
+ */
+@Service
+public class JournalService implements IJournalService {
+
+    private static final Logger logger = LogManager.getLogger(JournalService.class);
+
+    @Value("${app.journal.directory:journal}")
+    private String directory = "journal";
+
+    @Value("${app.journal.segment-size:67108864}")
+    private int segmentSize = 64 * 1024 * 1024;
+
+    @Value("${app.journal.flush-interval-ms:5}")
+    private long flushIntervalMillis = 5;
+
+    private EventJournal journal;
+    private ScheduledExecutorService flusher;
+
+    /**
+     * Open the journal and start the background flush.
+     *
+     * @throws IOException if the journal cannot be opened
+     */
+    @PostConstruct
+    public void open() throws IOException {
+        journal = EventJournal.open(Path.of(directory), segmentSize, true);
+        flusher = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "journal-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis,
+                TimeUnit.MILLISECONDS);
+        logger.info("Event journal opened at sequence {}", journal.getLastSequence());
+    }
+
+    /**
+     * Stop the background flush and write the remaining events to disk.
+     *
+     * @throws IOException if the journal cannot be closed
+     */
+    @PreDestroy
+    public void close() throws IOException {
+        flusher.shutdown();
+        journal.close();
+    }
+
+    /**
+     * Record a change of an entity, once the current transaction commits, or now if there is none.
+     * The event is lost if the application stops between the commit and the append.
+     *
+     * @param entity  the entity type
+     * @param id      the entity id
+     * @param kind    what happened to the entity
+     * @param changes every field for a creation, the fields written for an update, null for a deletion
+     */
+    @Override
+    public void record(JournalEntity entity, Integer id, JournalEventKind kind, Map<String, Object> changes) {
+        byte[] payload = JournalPayloads.encode(changes);
+        AfterCommit.run(() -> {
+            try {
+                journal.append(entity, id, kind, payload);
+            } catch (IOException | RuntimeException e) {
+                logger.error("Could not journal {} of {} {}", kind, entity, id, e);
+            }
+        });
+    }
+
+    /**
+     * Record changes of several entities of one type, once the current transaction commits, or now
+     * if there is none, with a single append registered for the transaction.
+     *
+     * @param entity      the entity type
+     * @param kind        what happened to the entities
+     * @param changesById the changes of each entity by id, in the order to record them
+     */
+    @Override
+    public void recordAll(JournalEntity entity, JournalEventKind kind, Map<Integer, Map<String, Object>> changesById) {
+        if (changesById.isEmpty()) {
+            return;
+        }
+        Map<Integer, byte[]> payloads = new LinkedHashMap<>();
+        changesById.forEach((id, changes) -> payloads.put(id, JournalPayloads.encode(changes)));
+        AfterCommit.run(() -> payloads.forEach((id, payload) -> {
+            try {
+                journal.append(entity, id, kind, payload);
+            } catch (IOException | RuntimeException e) {
+                logger.error("Could not journal {} of {} {}", kind, entity, id, e);
+            }
+        }));
+    }
+
+    /**
+     * Write every event recorded so far to disk, without waiting for the background flush.
+     */
+    @Override
+    public void flush() {
+        journal.force();
+    }
+
+    /**
+     * Retrieve every recorded change of an entity, oldest first, from the positions the journal
+     * indexes for it.
+     *
+     * @param entity the entity type
+     * @param id     the entity id
+     * @return the events of the entity
+     */
+    @Override
+    public List<JournalEvent> getHistory(JournalEntity entity, Integer id) {
+        try {
+            return journal.read(entity, id);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Rebuild the fields of an entity as they stood at a point in time.
+     *
+     * @param entity the entity type
+     * @param id     the entity id
+     * @param at     the point in time, in the system time zone
+     * @return the fields of the entity, or empty if it did not exist then
+     */
+    @Override
+    public Optional<Map<String, Object>> getStateAsOf(JournalEntity entity, Integer id, LocalDateTime at) {
+        long until = at.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        long key = JournalSnapshot.key(entity, id);
+        JournalSnapshot state;
+        try {
+            state = JournalSnapshot.latest(Path.of(directory), until, k -> k == key)
+                    .orElseGet(JournalSnapshot::empty);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        scan(state.getSequence() + 1, event -> {
+            if (event.getTimestamp() > until) {
+                return false;
+            }
+            if (event.getEntity() == entity && event.getEntityId() == id) {
+                state.apply(event);
+            }
+            return true;
+        });
+        return Optional.ofNullable(state.get(entity, id));
+    }
+
+    /**
+     * Write a new snapshot: the previous one plus every event durable since.
+     * <p>
+     * Only events already on disk are included, so a snapshot never outlives the events it holds.
+     * </p>
+     *
+     * @return the sequence and size of the snapshot
+     */
+    @Override
+    public synchronized JournalSnapshotResult snapshot() {
+        long start = System.nanoTime();
+        journal.force();
+        long durable = journal.getDurableSequence();
+        try {
+            JournalSnapshot snapshot = JournalSnapshot.latest(Path.of(directory), Long.MAX_VALUE, k -> true)
+                    .orElseGet(JournalSnapshot::empty);
+            long previous = snapshot.getSequence();
+            scan(previous + 1, event -> {
+                if (event.getSequence() > durable) {
+                    return false;
+                }
+                snapshot.apply(event);
+                return true;
+            });
+            if (snapshot.getSequence() > previous) {
+                snapshot.writeTo(Path.of(directory));
+            }
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            logger.info("Journal snapshot at sequence {}: {} entities, {} new events in {} ms",
+                    snapshot.getSequence(), snapshot.size(), snapshot.getSequence() - previous, elapsedMillis);
+            return new JournalSnapshotResult(snapshot.getSequence(), snapshot.size(),
+                    snapshot.getSequence() - previous, elapsedMillis);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void scan(long fromSequence, Predicate<JournalEvent> visitor) {
+        try {
+            journal.scan(fromSequence, visitor);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            journal.force();
+        } catch (RuntimeException e) {
+            logger.error("Could not flush the event journal", e);
+        }
+    }
+}
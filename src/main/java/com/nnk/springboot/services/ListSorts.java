@@ -0,0 +1,37 @@
+package com.nnk.springboot.services;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.util.StringUtils;
+
+import java.util.Set;
+
+/**
+ * Builds the ordering of a list page from its request parameters.
+ * Only whitelisted properties may be sorted on, so a crafted parameter can never
+ * reach an unindexed or non-existent column, and the id is always appended as a
+ * tie-breaker so that rows with equal keys keep a stable order.
+ */
+final class ListSorts {
+
+    private ListSorts() {
+    }
+
+    /**
+     * @param property   the requested sort property, or null/blank to sort by id
+     * @param direction  the requested direction, or null for ascending
+     * @param idProperty the id property of the entity
+     * @param sortable   the properties, besides the id, that may be sorted on
+     * @return the ordering to apply
+     * @throws IllegalArgumentException if the property is not sortable
+     */
+    static Sort of(String property, Sort.Direction direction, String idProperty, Set<String> sortable) {
+        Sort.Direction dir = direction == null ? Sort.Direction.ASC : direction;
+        if (!StringUtils.hasText(property) || property.equals(idProperty)) {
+            return Sort.by(dir, idProperty);
+        }
+        if (!sortable.contains(property)) {
+            throw new IllegalArgumentException("Unsupported sort property: " + property);
+        }
+        return Sort.by(dir, property).and(Sort.by(dir, idProperty));
+    }
+}
@@ -0,0 +1,235 @@
+package com.nnk.springboot.services;
+
+import com.nnk.springboot.config.AfterCommit;
+import com.nnk.springboot.dto.BidListQuote;
+import com.nnk.springboot.model.BidList;
+import com.nnk.springboot.orderbook.OrderBook;
+import com.nnk.springboot.orderbook.OrderBookDepth;
+import com.nnk.springboot.orderbook.TopOfBook;
+import com.nnk.springboot.orderbook.TopOfBookCache;
+import com.nnk.springboot.orderbook.TopOfBookStats;
+import com.nnk.springboot.repositories.BidListRepository;
+import com.nnk.springboot.services.contracts.IOrderBookService;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Keeps one in-memory order book per security, aggregated from the bid and ask sides of BidList rows.
+ * <p>
+ * The books are loaded once from the database when the application starts and are then
+ * maintained incrementally by {@link BidListService}. The last quote applied for each BidList
+ * id is remembered, so an update can withdraw the old quantities without reading the database.
+ * Every change republishes the best bid and ask of the affected books to the {@link TopOfBookCache},
+ * and a book left without any level is dropped.
+ * </p>
+ * <p>
+ * The books and quotes are published together as one snapshot, replaced as a whole by a rebuild.
+ * Changes committed while a rebuild reads the database are applied to the current snapshot and also
+ * buffered, then replayed onto the rebuilt snapshot; the cache is then replaced from that final
+ * snapshot, before any later change is applied. Replaying a change the rebuild already read leaves
+ * it unchanged.
+ * </p>
+ */
+@Service
+public class OrderBookService implements IOrderBookService {
+
+    private static final Logger logger = LogManager.getLogger(OrderBookService.class);
+
+    private final BidListRepository bidListRepository;
+    private final TopOfBookCache topOfBookCache;
+
+    private final Object rebuildLock = new Object();
+    private volatile Snapshot snapshot = new Snapshot(new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+    // Changes committed while a rebuild runs, null when none does; guarded by this
+    private List<Function<Snapshot, List<OrderBook>>> pending;
+
+    /**
+     * Constructor for OrderBookService.
+     *
+     * @param bidListRepository the repository the books are rebuilt from
+     * @param topOfBookCache    the cache the best bid and ask of each book are published to
+     */
+    public OrderBookService(BidListRepository bidListRepository, TopOfBookCache topOfBookCache) {
+        this.bidListRepository = bidListRepository;
+        this.topOfBookCache = topOfBookCache;
+    }
+
+    /**
+     * Add or replace the quote of a saved BidList.
+     * Inside a transaction, the books are only updated once it commits.
+     *
+     * @param bidList the saved BidList, with its id assigned
+     */
+    @Override
+    public void apply(BidList bidList) {
+        if (bidList.getBidListId() == null) {
+            return;
+        }
+        BidListQuote quote = new BidListQuote(bidList.getBidListId(), bidList.getSecurity(),
+                bidList.getBid(), bidList.getBidQuantity(), bidList.getAsk(), bidList.getAskQuantity());
+        AfterCommit.run(() -> update(current -> replace(current, quote.getBidListId(), quote)));
+    }
+
+    /**
+     * Change the bid quantity of a BidList updated in place, keeping the rest of its last quote.
+     * Inside a transaction, the books are only updated once it commits.
+     *
+     * @param bidListId   the id of the updated BidList
+     * @param bidQuantity the new bid quantity
+     */
+    @Override
+    public void applyBidQuantity(Integer bidListId, Double bidQuantity) {
+        AfterCommit.run(() -> update(current -> replaceBidQuantity(current, bidListId, bidQuantity)));
+    }
+
+    /**
+     * Withdraw the quote of a deleted BidList.
+     * Inside a transaction, the books are only updated once it commits.
+     *
+     * @param bidListId the id of the deleted BidList
+     */
+    @Override
+    public void remove(Integer bidListId) {
+        AfterCommit.run(() -> update(current -> replace(current, bidListId, null)));
+    }
+
+    /**
+     * Read the best levels of a security from memory.
+     *
+     * @param security the security
+     * @param depth    the maximum number of levels per side
+     * @return the bids and asks, both empty if the security has no book
+     */
+    @Override
+    public OrderBookDepth getDepth(String security, int depth) {
+        OrderBook book = snapshot.books.get(security);
+        if (book == null) {
+            return new OrderBookDepth(security, Collections.emptyList(), Collections.emptyList());
+        }
+        return book.depth(depth);
+    }
+
+    /**
+     * Read the best bid and ask of a security from the top-of-book cache.
+     *
+     * @param security the security
+     * @return the best bid and ask, or empty if the security has no quote
+     */
+    @Override
+    public Optional<TopOfBook> getTopOfBook(String security) {
+        return topOfBookCache.get(security);
+    }
+
+    /**
+     * @return the top-of-book cache counters
+     */
+    @Override
+    public TopOfBookStats getTopOfBookStats() {
+        return topOfBookCache.stats();
+    }
+
+    /**
+     * Rebuild every book from the bidlist table, on startup.
+     *
+     * @return the number of quotes loaded
+     */
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public int rebuild() {
+        synchronized (rebuildLock) {
+            synchronized (this) {
+                pending = new ArrayList<>();
+            }
+            try {
+                Snapshot rebuilt = new Snapshot(new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+                try (Stream<BidListQuote> stream = bidListRepository.streamAllQuotes()) {
+                    stream.forEach(quote -> replace(rebuilt, quote.getBidListId(), quote));
+                }
+                synchronized (this) {
+                    // replayed changes publish nothing: the cache is replaced from the final snapshot
+                    pending.forEach(change -> change.apply(rebuilt));
+                    Map<String, TopOfBook> tops = new HashMap<>();
+                    rebuilt.books.forEach((security, book) -> tops.put(security, book.top()));
+                    snapshot = rebuilt;
+                    topOfBookCache.replaceAll(tops);
+                }
+                logger.info("Order books rebuilt: {} quotes over {} securities",
+                        rebuilt.quotes.size(), rebuilt.books.size());
+                return rebuilt.quotes.size();
+            } finally {
+                synchronized (this) {
+                    pending = null;
+                }
+            }
+        }
+    }
+
+    private synchronized void update(Function<Snapshot, List<OrderBook>> change) {
+        change.apply(snapshot).forEach(book -> topOfBookCache.publish(book.top()));
+        if (pending != null) {
+            pending.add(change);
+        }
+    }
+
+    /**
+     * @return the books the change touched
+     */
+    private static List<OrderBook> replace(Snapshot current, Integer bidListId, BidListQuote quote) {
+        List<OrderBook> touched = new ArrayList<>(2);
+        BidListQuote previous = quote == null ? current.quotes.remove(bidListId) : current.quotes.put(bidListId, quote);
+        if (previous != null && previous.getSecurity() != null) {
+            OrderBook book = current.books.get(previous.getSecurity());
+            if (book != null) {
+                book.remove(previous);
+                if (book.isEmpty()) {
+                    current.books.remove(previous.getSecurity());
+                }
+                touched.add(book);
+            }
+        }
+        if (quote != null && quote.getSecurity() != null) {
+            OrderBook book = current.books.computeIfAbsent(quote.getSecurity(), OrderBook::new);
+            book.add(quote);
+            touched.add(book);
+        }
+        return touched;
+    }
+
+    private static List<OrderBook> replaceBidQuantity(Snapshot current, Integer bidListId, Double bidQuantity) {
+        BidListQuote previous = current.quotes.get(bidListId);
+        if (previous == null) {
+            return List.of();
+        }
+        return replace(current, bidListId, new BidListQuote(bidListId, previous.getSecurity(), previous.getBid(),
+                bidQuantity, previous.getAsk(), previous.getAskQuantity()));
+    }
+
+    /**
+     * The books and the last quote of every BidList, published together.
+     */
+    private static final class Snapshot {
+
+        private final Map<String, OrderBook> books;
+        private final Map<Integer, BidListQuote> quotes;
+
+        private Snapshot(Map<String, OrderBook> books, Map<Integer, BidListQuote> quotes) {
+            this.books = books;
+            this.quotes = quotes;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.nnk.springboot.services;
+
+import com.nnk.springboot.archive.TradeArchive;
+import com.nnk.springboot.archive.TradeColumn;
+import com.nnk.springboot.concurrency.IdRangeAggregation;
+import com.nnk.springboot.dto.PricedTrade;
+import com.nnk.springboot.pnl.BookPnl;
+import com.nnk.springboot.pnl.MarkPriceSource;
+import com.nnk.springboot.pnl.PnlReport;
+import com.nnk.springboot.pnl.TradePnl;
+import com.nnk.springboot.repositories.TradeRepository;
+import com.nnk.springboot.services.contracts.IPnlService;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+
+/**
+ * Computes the realized and unrealized P&L of every trade and book.
+ * <p>
+ * A run splits the trade id span into chunks aggregated concurrently on a dedicated fork-join
+ * pool; each chunk reads its trades with one primary-key range query, computes the P&L of each
+ * trade and sums it per book. Archived trades are then added, reading only the quantity and price
+ * columns of the archive files. Each security is marked once per run, so every trade of a security
+ * is valued at the same price even if quotes move while the run is in progress.
+ * </p>
+ */
+@Service
+public class PnlService implements IPnlService {
+
+    private static final Logger logger = LogManager.getLogger(PnlService.class);
+
+    private static final Double NO_MARK = Double.NaN;
+
+    private static final Set<TradeColumn> PRICED_COLUMNS = EnumSet.of(TradeColumn.TRADE_ID, TradeColumn.BOOK,
+            TradeColumn.SECURITY, TradeColumn.BUY_QUANTITY, TradeColumn.BUY_PRICE, TradeColumn.SELL_QUANTITY,
+            TradeColumn.SELL_PRICE);
+
+    private final TradeRepository tradeRepository;
+    private final MarkPriceSource markPriceSource;
+    private final TradeArchive tradeArchive;
+
+    @Value("${app.pnl.chunk-size:10000}")
+    private int chunkSize = 10000;
+
+    @Value("${app.pnl.parallelism:4}")
+    private int parallelism = 4;
+
+    private volatile PnlReport lastReport;
+
+    /**
+     * Constructor for PnlService.
+     *
+     * @param tradeRepository the repository the trades are read from
+     * @param markPriceSource the prices open quantities are marked at
+     * @param tradeArchive    the archived trades, which keep counting in the P&L
+     */
+    public PnlService(TradeRepository tradeRepository, MarkPriceSource markPriceSource, TradeArchive tradeArchive) {
+        this.tradeRepository = tradeRepository;
+        this.markPriceSource = markPriceSource;
+        this.tradeArchive = tradeArchive;
+    }
+
+    /**
+     * Return the result of the last run, running one first if none has completed yet.
+     *
+     * @return the P&L of every book
+     */
+    @Override
+    public PnlReport getReport() {
+        PnlReport report = lastReport;
+        return report != null ? report : refresh();
+    }
+
+    /**
+     * Compute the P&L of every trade against the current mark prices, and keep the result.
+     *
+     * @return the P&L of every book, ordered by book
+     */
+    @Override
+    public synchronized PnlReport refresh() {
+        long start = System.nanoTime();
+        Map<String, Double> marks = new ConcurrentHashMap<>();
+        Function<String, Double> mark = security -> {
+            if (security == null) {
+                return null;
+            }
+            Double price = marks.computeIfAbsent(security, key -> {
+                Double resolved = markPriceSource.markPrice(key);
+                return resolved == null ? NO_MARK : resolved;
+            });
+            return price.isNaN() ? null : price;
+        };
+
+        Map<String, BookPnl> books = new HashMap<>();
+        Integer minId = tradeRepository.findMinTradeId();
+        Integer maxId = tradeRepository.findMaxTradeId();
+        if (minId != null && maxId != null) {
+            ForkJoinPool pool = new ForkJoinPool(Math.max(1, parallelism));
+            try {
+                books = pool.invoke(new IdRangeAggregation<>(minId, maxId + 1, chunkSize,
+                        tradeRepository::findPricedInIdRange,
+                        chunk -> {
+                            Map<String, BookPnl> partial = new HashMap<>();
+                            for (PricedTrade trade : chunk) {
+                                TradePnl pnl = TradePnl.of(trade, mark.apply(trade.getSecurity()));
+                                partial.merge(pnl.getBook(), BookPnl.of(pnl), BookPnl::plus);
+                            }
+                            return partial;
+                        },
+                        PnlService::mergeBooks));
+            } finally {
+                pool.shutdown();
+            }
+        }
+        Map<String, BookPnl> allBooks = books;
+        tradeArchive.scan(null, null, PRICED_COLUMNS, trade -> {
+            TradePnl pnl = TradePnl.of(new PricedTrade(trade.getTradeId(), trade.getBook(), trade.getSecurity(),
+                    trade.getBuyQuantity(), trade.getBuyPrice(), trade.getSellQuantity(), trade.getSellPrice()),
+                    mark.apply(trade.getSecurity()));
+            allBooks.merge(pnl.getBook(), BookPnl.of(pnl), BookPnl::plus);
+        });
+
+        List<BookPnl> ordered = allBooks.values().stream()
+                .sorted(Comparator.comparing(BookPnl::getBook, Comparator.nullsFirst(Comparator.naturalOrder())))
+                .toList();
+        long durationMillis = (System.nanoTime() - start) / 1_000_000;
+        PnlReport report = new PnlReport(ordered, System.currentTimeMillis(), durationMillis);
+        lastReport = report;
+        logger.info("P&L computed: {} trades over {} books in {} ms", report.getTradeCount(), ordered.size(),
+                durationMillis);
+        return report;
+    }
+
+    /**
+     * Compute the P&L of one trade against the current mark price of its security.
+     *
+     * @param tradeId the trade id
+     * @return the P&L of the trade, or empty if it does not exist
+     */
+    @Override
+    public Optional<TradePnl> getTradePnl(Integer tradeId) {
+        return tradeRepository.findPricedById(tradeId)
+                .map(trade -> TradePnl.of(trade, markPriceSource.markPrice(trade.getSecurity())));
+    }
+
+    private static Map<String, BookPnl> mergeBooks(Map<String, BookPnl> left, Map<String, BookPnl> right) {
+        Map<String, BookPnl> smaller = left.size() < right.size() ? left : right;
+        Map<String, BookPnl> larger = smaller == left ? right : left;
+        smaller.forEach((book, pnl) -> larger.merge(book, pnl, BookPnl::plus));
+        return larger;
+    }
+}
@@ -0,0 +1,293 @@
+package com.nnk.springboot.services;
+
+import com.nnk.springboot.archive.TradeArchive;
+import com.nnk.springboot.archive.TradeColumn;
+import com.nnk.springboot.concurrency.IdRangeAggregation;
+import com.nnk.springboot.config.AfterCommit;
+import com.nnk.springboot.dto.TradeLeg;
+import com.nnk.springboot.model.Trade;
+import com.nnk.springboot.position.Position;
+import com.nnk.springboot.position.PositionKey;
+import com.nnk.springboot.repositories.TradeRepository;
+import com.nnk.springboot.services.contracts.IPositionService;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+/**
+ * Keeps the net position of every (account, book, security) in memory, aggregated from Trade rows.
+ * <p>
+ * The positions are rebuilt in parallel when the application starts, by a fork-join aggregation
+ * over trade id ranges followed by a scan of the archived trades, and are then maintained
+ * incrementally by {@link TradeService}. The last
+ * leg applied for each trade still in the table is remembered, so an edit or a delete can withdraw
+ * the old quantities without reading the database; archived trades, which can no longer change,
+ * only count in their positions. A position is dropped with its last trade. Looking up a position
+ * is a single map read.
+ * </p>
+ * <p>
+ * The positions and legs are published together as one snapshot, replaced as a whole by a
+ * rebuild. Changes committed while a rebuild reads the database are applied to the current snapshot
+ * and also buffered, then replayed onto the rebuilt snapshot before it is published; replaying a
+ * change the rebuild already read leaves it unchanged.
+ * </p>
+ */
+@Service
+public class PositionService implements IPositionService {
+
+    private static final Logger logger = LogManager.getLogger(PositionService.class);
+
+    private static final Comparator<Position> POSITION_ORDER = Comparator
+            .comparing(Position::getAccount, Comparator.nullsFirst(Comparator.<String>naturalOrder()))
+            .thenComparing(Position::getBook, Comparator.nullsFirst(Comparator.<String>naturalOrder()))
+            .thenComparing(Position::getSecurity, Comparator.nullsFirst(Comparator.<String>naturalOrder()));
+
+    private static final Set<TradeColumn> LEG_COLUMNS = EnumSet.of(TradeColumn.TRADE_ID, TradeColumn.ACCOUNT,
+            TradeColumn.BOOK, TradeColumn.SECURITY, TradeColumn.BUY_QUANTITY, TradeColumn.SELL_QUANTITY);
+
+    private final TradeRepository tradeRepository;
+    private final TradeArchive tradeArchive;
+
+    @Value("${app.position.rebuild-chunk-size:10000}")
+    private int chunkSize = 10000;
+
+    @Value("${app.position.rebuild-parallelism:4}")
+    private int parallelism = 4;
+
+    private final Object rebuildLock = new Object();
+    private volatile Snapshot snapshot = new Snapshot(new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+    // Changes committed while a rebuild runs, null when none does; guarded by this
+    private List<Consumer<Snapshot>> pending;
+
+    /**
+     * Constructor for PositionService.
+     *
+     * @param tradeRepository the repository the positions are rebuilt from
+     * @param tradeArchive    the archived trades, which keep counting in the positions
+     */
+    public PositionService(TradeRepository tradeRepository, TradeArchive tradeArchive) {
+        this.tradeRepository = tradeRepository;
+        this.tradeArchive = tradeArchive;
+    }
+
+    /**
+     * Add or replace the leg of a saved Trade.
+     * Inside a transaction, the positions are only updated once it commits.
+     *
+     * @param trade the saved Trade, with its id assigned
+     */
+    @Override
+    public void apply(Trade trade) {
+        applyAll(List.of(trade));
+    }
+
+    /**
+     * Add or replace the legs of saved Trades, with a single update registered for the current
+     * transaction. Inside a transaction, the positions are only updated once it commits.
+     *
+     * @param trades the saved Trades, with their ids assigned
+     */
+    @Override
+    public void applyAll(Collection<Trade> trades) {
+        List<TradeLeg> legs = trades.stream()
+                .filter(trade -> trade.getTradeId() != null)
+                .map(trade -> new TradeLeg(trade.getTradeId(), trade.getAccount(), trade.getBook(),
+                        trade.getSecurity(), trade.getBuyQuantity(), trade.getSellQuantity()))
+                .toList();
+        if (!legs.isEmpty()) {
+            AfterCommit.run(() -> update(current -> legs.forEach(leg -> replace(current, leg.getTradeId(), leg))));
+        }
+    }
+
+    /**
+     * Change the account and bought quantity of a Trade updated in place, keeping the rest of its last leg.
+     * Inside a transaction, the positions are only updated once it commits.
+     *
+     * @param tradeId     the id of the updated Trade
+     * @param account     the new account
+     * @param buyQuantity the new bought quantity
+     */
+    @Override
+    public void applyEdit(Integer tradeId, String account, Double buyQuantity) {
+        AfterCommit.run(() -> update(current -> replaceEdited(current, tradeId, account, buyQuantity)));
+    }
+
+    /**
+     * Withdraw the leg of a deleted Trade.
+     * Inside a transaction, the positions are only updated once it commits.
+     *
+     * @param tradeId the id of the deleted Trade
+     */
+    @Override
+    public void remove(Integer tradeId) {
+        AfterCommit.run(() -> update(current -> replace(current, tradeId, null)));
+    }
+
+    /**
+     * Forget the legs of trades moved to the archive. They keep counting in their positions but,
+     * gone from the table, can no longer be edited or deleted.
+     * Inside a transaction, the legs are only forgotten once it commits.
+     *
+     * @param tradeIds the ids of the archived trades
+     */
+    @Override
+    public void archived(Collection<Integer> tradeIds) {
+        List<Integer> ids = List.copyOf(tradeIds);
+        AfterCommit.run(() -> update(current -> ids.forEach(current.legs::remove)));
+    }
+
+    /**
+     * Read one net position from memory.
+     *
+     * @param account  the account
+     * @param book     the book, or null for trades without one
+     * @param security the security, or null for trades without one
+     * @return the position, or empty if no trade is booked on that key
+     */
+    @Override
+    public Optional<Position> getPosition(String account, String book, String security) {
+        return Optional.ofNullable(snapshot.positions.get(new PositionKey(account, book, security)));
+    }
+
+    /**
+     * Read the net positions of an account, or of every account, from memory.
+     *
+     * @param account the account, or null for every account
+     * @return the positions ordered by account, book and security
+     */
+    @Override
+    public List<Position> getPositions(String account) {
+        return snapshot.positions.values().stream()
+                .filter(position -> account == null || account.equals(position.getAccount()))
+                .sorted(POSITION_ORDER)
+                .toList();
+    }
+
+    /**
+     * Rebuild every position from the trade table and the archive, on startup.
+     * <p>
+     * The id span of the table is split into chunks aggregated concurrently on a dedicated
+     * fork-join pool, each chunk reading its trades with one indexed range query. The archive
+     * is then scanned, reading only the position columns of its files.
+     * </p>
+     *
+     * @return the number of trades loaded
+     */
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    public int rebuild() {
+        synchronized (rebuildLock) {
+            synchronized (this) {
+                pending = new ArrayList<>();
+            }
+            try {
+                Map<Integer, TradeLeg> newLegs = new ConcurrentHashMap<>();
+                Map<PositionKey, Position> newPositions = new ConcurrentHashMap<>();
+                Integer minId = tradeRepository.findMinTradeId();
+                Integer maxId = tradeRepository.findMaxTradeId();
+                if (minId != null && maxId != null) {
+                    ForkJoinPool pool = new ForkJoinPool(Math.max(1, parallelism));
+                    try {
+                        newPositions.putAll(pool.invoke(new IdRangeAggregation<>(minId, maxId + 1, chunkSize,
+                                tradeRepository::findLegsInIdRange,
+                                chunk -> {
+                                    Map<PositionKey, Position> partial = new HashMap<>();
+                                    for (TradeLeg leg : chunk) {
+                                        newLegs.put(leg.getTradeId(), leg);
+                                        partial.merge(PositionKey.of(leg), Position.of(leg), Position::plus);
+                                    }
+                                    return partial;
+                                },
+                                PositionService::mergePositions)));
+                    } finally {
+                        pool.shutdown();
+                    }
+                }
+                int[] archived = new int[1];
+                tradeArchive.scan(null, null, LEG_COLUMNS, trade -> {
+                    TradeLeg leg = new TradeLeg(trade.getTradeId(), trade.getAccount(), trade.getBook(),
+                            trade.getSecurity(), trade.getBuyQuantity(), trade.getSellQuantity());
+                    newPositions.merge(PositionKey.of(leg), Position.of(leg), Position::plus);
+                    archived[0]++;
+                });
+                int loaded = newLegs.size() + archived[0];
+                Snapshot rebuilt = new Snapshot(newPositions, newLegs);
+                synchronized (this) {
+                    pending.forEach(change -> change.accept(rebuilt));
+                    snapshot = rebuilt;
+                }
+                logger.info("Positions rebuilt: {} trades over {} positions", loaded, newPositions.size());
+                return loaded;
+            } finally {
+                synchronized (this) {
+                    pending = null;
+                }
+            }
+        }
+    }
+
+    private static Map<PositionKey, Position> mergePositions(Map<PositionKey, Position> left,
+                                                            Map<PositionKey, Position> right) {
+        Map<PositionKey, Position> smaller = left.size() < right.size() ? left : right;
+        Map<PositionKey, Position> larger = smaller == left ? right : left;
+        smaller.forEach((key, position) -> larger.merge(key, position, Position::plus));
+        return larger;
+    }
+
+    private synchronized void update(Consumer<Snapshot> change) {
+        change.accept(snapshot);
+        if (pending != null) {
+            pending.add(change);
+        }
+    }
+
+    private static void replace(Snapshot current, Integer tradeId, TradeLeg leg) {
+        TradeLeg previous = leg == null ? current.legs.remove(tradeId) : current.legs.put(tradeId, leg);
+        if (previous != null) {
+            current.positions.computeIfPresent(PositionKey.of(previous), (key, position) -> position.minus(previous));
+        }
+        if (leg != null) {
+            current.positions.merge(PositionKey.of(leg), Position.of(leg), Position::plus);
+        }
+    }
+
+    private static void replaceEdited(Snapshot current, Integer tradeId, String account, Double buyQuantity) {
+        TradeLeg previous = current.legs.get(tradeId);
+        if (previous != null && (!Objects.equals(previous.getAccount(), account)
+                || !Objects.equals(previous.getBuyQuantity(), buyQuantity))) {
+            replace(current, tradeId, new TradeLeg(tradeId, account, previous.getBook(), previous.getSecurity(),
+                    buyQuantity, previous.getSellQuantity()));
+        }
+    }
+
+    /**
+     * The positions and the legs of the trades still in the table, published together.
+     */
+    private static final class Snapshot {
+
+        private final Map<PositionKey, Position> positions;
+        private final Map<Integer, TradeLeg> legs;
+
+        private Snapshot(Map<PositionKey, Position> positions, Map<Integer, TradeLeg> legs) {
+            this.positions = positions;
+            this.legs = legs;
+        }
+    }
+}
@@ -1,12 +1,16 @@
 package com.nnk.springboot.services;
 
+import com.nnk.springboot.dto.RatingSummary;
 import com.nnk.springboot.model.Rating;
 import com.nnk.springboot.repositories.RatingRepository;
 import com.nnk.springboot.services.contracts.IRatingService;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Service implementation for managing Rating entities.
@@ -14,6 +18,9 @@ import java.util.Optional;
 @Service
 public class RatingService implements IRatingService {
 
+    private static final Set<String> SORTABLE_PROPERTIES = Set.of(
+            "moodysRating", "sandPRating", "fitchRating", "orderNumber");
+
     private final RatingRepository ratingRepository;
 
     /**
@@ -46,6 +53,19 @@ public class RatingService implements IRatingService {
         return ratingRepository.findAll();
     }
 
+    /**
+     * Retrieve the rows shown on the rating list page as read-only projections, sorted in the database.
+     *
+     * @param sort      the property to sort on, or null to sort by id
+     * @param direction the sort direction, or null for ascending
+     * @return a list of Rating projections
+     * @throws IllegalArgumentException if the property is not sortable
+     */
+    @Override
+    public List<RatingSummary> getRatingSummaries(String sort, Sort.Direction direction) {
+        return ratingRepository.findAllSummaries(ListSorts.of(sort, direction, "id", SORTABLE_PROPERTIES));
+    }
+
     /**
      * Find a Rating entity by its id.
      *
@@ -58,24 +78,28 @@ public class RatingService implements IRatingService {
     }
 
     /**
-     * Update a Rating entity by id.
+     * Update the fields of a Rating that the update form edits, with a single UPDATE statement.
      *
      * @param id     the id of the Rating to update
      * @param rating the Rating entity containing updated data
+     * @return true if the Rating exists and was updated
      */
     @Override
-    public void updateRating(Integer id, Rating rating) {
-        rating.setId(id);
-        ratingRepository.save(rating);
+    @Transactional
+    public boolean updateRating(Integer id, Rating rating) {
+        return ratingRepository.updateEditableFields(id, rating.getMoodysRating(), rating.getSandPRating(),
+                rating.getFitchRating(), rating.getOrderNumber()) == 1;
     }
 
     /**
-     * Delete a Rating entity by id.
+     * Delete a Rating entity by id with a single DELETE statement, without loading it first.
      *
      * @param id the id of the Rating to delete
+     * @return true if the Rating existed and was deleted
      */
     @Override
-    public void deleteRatingById(Integer id) {
-        ratingRepository.deleteById(id);
+    @Transactional
+    public boolean deleteRatingById(Integer id) {
+        return ratingRepository.deleteRowById(id) == 1;
     }
 }
@@ -0,0 +1,333 @@
+package com.nnk.springboot.services;
+
+import com.nnk.springboot.dto.ReconBreak;
+import com.nnk.springboot.dto.ReconRow;
+import com.nnk.springboot.dto.ReconciliationResult;
+import com.nnk.springboot.export.ExportColumns;
+import com.nnk.springboot.export.ExportFormat;
+import com.nnk.springboot.export.ExportWriter;
+import com.nnk.springboot.recon.ReconBreakType;
+import com.nnk.springboot.recon.ReconField;
+import com.nnk.springboot.recon.ReconGroup;
+import com.nnk.springboot.recon.ReconSpill;
+import com.nnk.springboot.repositories.BidListRepository;
+import com.nnk.springboot.repositories.TradeRepository;
+import com.nnk.springboot.services.contracts.IReconciliationService;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Reconciles the BidLists of a day against the Trades of the same day, matching them on
+ * configurable key columns such as {@code dealName} and {@code sourceListId}.
+ * <p>
+ * Both tables are streamed once over forward-only cursors and every row is added to the
+ * {@link ReconGroup} of its key, which keeps only the counts and summed quantities of each side.
+ * Each group then ends as matched, unmatched on one side, or a quantity mismatch when the bid and
+ * ask quantities of the BidLists differ from the buy and sell quantities of the Trades.
+ * </p>
+ * <p>
+ * Memory is bounded by {@code app.recon.max-groups-in-memory}: when a day has more keys, the
+ * groups in memory are spilled to hash partition files and cleared, then each partition is read
+ * back and merged on its own, in a grace hash join. Breaks are written to a CSV report as they
+ * are found, so only the first {@code app.recon.max-breaks-returned} are held in memory.
+ * </p>
+ */
+@Service
+public class ReconciliationService implements IReconciliationService {
+
+    private static final Logger logger = LogManager.getLogger(ReconciliationService.class);
+    private static final Pattern REPORT_ID = Pattern.compile("recon-[0-9-]+");
+
+    private final BidListRepository bidListRepository;
+    private final TradeRepository tradeRepository;
+    private final AtomicReference<ReconciliationResult> latest = new AtomicReference<>();
+
+    @Value("${app.recon.directory:recon}")
+    private String directory = "recon";
+
+    @Value("${app.recon.max-groups-in-memory:200000}")
+    private int maxGroupsInMemory = 200000;
+
+    @Value("${app.recon.spill-partitions:16}")
+    private int spillPartitions = 16;
+
+    @Value("${app.recon.quantity-tolerance:0.000001}")
+    private double quantityTolerance = 0.000001;
+
+    @Value("${app.recon.max-breaks-returned:100}")
+    private int maxBreaksReturned = 100;
+
+    /**
+     * Constructor for ReconciliationService.
+     *
+     * @param bidListRepository the repository the BidLists are streamed from
+     * @param tradeRepository   the repository the Trades are streamed from
+     */
+    public ReconciliationService(BidListRepository bidListRepository, TradeRepository tradeRepository) {
+        this.bidListRepository = bidListRepository;
+        this.tradeRepository = tradeRepository;
+    }
+
+    /**
+     * Reconcile the BidLists and Trades dated on a day, and write every break to a CSV report.
+     *
+     * @param date the day, by {@code bidListDate} and {@code tradeDate}
+     * @param keys the columns a BidList and a Trade must share to match
+     * @return the counts, the first breaks and the id of the report
+     * @throws IllegalArgumentException if no key column is given
+     * @throws UncheckedIOException     if the report or a spill file cannot be written
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public synchronized ReconciliationResult reconcile(LocalDate date, List<ReconField> keys) {
+        if (keys == null || keys.isEmpty()) {
+            throw new IllegalArgumentException("At least one reconciliation key is required");
+        }
+        List<ReconField> fields = keys.stream().distinct().toList();
+        long start = System.nanoTime();
+        Timestamp from = Timestamp.valueOf(date.atStartOfDay());
+        Timestamp to = Timestamp.valueOf(date.plusDays(1).atStartOfDay());
+        String id = "recon-" + date + "-" + System.currentTimeMillis();
+        Path report = Paths.get(directory).resolve(id + ".csv");
+
+        Tally tally;
+        int spilledPartitions;
+        try {
+            Files.createDirectories(report.getParent());
+            try (OutputStream out = Files.newOutputStream(report)) {
+                tally = new Tally(new ExportWriter<>(out, ExportFormat.CSV, ExportColumns.RECON_BREAK));
+                spilledPartitions = join(from, to, fields, tally);
+                tally.writer.flush();
+            }
+        } catch (IOException e) {
+            deleteQuietly(report);
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            deleteQuietly(report);
+            throw e;
+        }
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        ReconciliationResult result = new ReconciliationResult(id, date, fields, tally.bidLists, tally.trades,
+                tally.matched, tally.unmatchedBids, tally.unmatchedTrades, tally.quantityMismatches,
+                tally.missingKeys, spilledPartitions, elapsedMillis, tally.breaks);
+        latest.set(result);
+        logger.info("Reconciliation {} completed: bidLists={}, trades={}, matched={}, unmatchedBids={}, "
+                        + "unmatchedTrades={}, quantityMismatches={}, missingKeys={}, spilledPartitions={}, elapsedMs={}",
+                id, tally.bidLists, tally.trades, tally.matched, tally.unmatchedBids, tally.unmatchedTrades,
+                tally.quantityMismatches, tally.missingKeys, spilledPartitions, elapsedMillis);
+        return result;
+    }
+
+    /**
+     * @return the result of the last reconciliation since the application started, if any
+     */
+    @Override
+    public Optional<ReconciliationResult> getLatest() {
+        return Optional.ofNullable(latest.get());
+    }
+
+    /**
+     * Find the CSV report of every break of a reconciliation.
+     *
+     * @param id the id of the reconciliation
+     * @return the report file, or empty if the id is unknown
+     */
+    @Override
+    public Optional<Path> getReport(String id) {
+        if (id == null || !REPORT_ID.matcher(id).matches()) {
+            return Optional.empty();
+        }
+        Path report = Paths.get(directory).resolve(id + ".csv");
+        return Files.isRegularFile(report) ? Optional.of(report) : Optional.empty();
+    }
+
+    /**
+     * Stream both tables into the groups of their keys and evaluate every group.
+     *
+     * @return the number of spill partitions used, 0 if every group fitted in memory
+     */
+    private int join(Timestamp from, Timestamp to, List<ReconField> fields, Tally tally) throws IOException {
+        Map<String, ReconGroup> groups = new HashMap<>();
+        ReconSpill spill = null;
+        try {
+            try (Stream<ReconRow> rows = bidListRepository.streamReconRows(from, to)) {
+                spill = add(rows, fields, groups, spill, ReconGroup::addBid, tally, true);
+            }
+            try (Stream<ReconRow> rows = tradeRepository.streamReconRows(from, to)) {
+                spill = add(rows, fields, groups, spill, ReconGroup::addTrade, tally, false);
+            }
+            if (spill == null) {
+                for (ReconGroup group : groups.values()) {
+                    tally.evaluate(group);
+                }
+                return 0;
+            }
+            spill(groups, spill);
+            for (int partition = 0; partition < spill.getPartitions(); partition++) {
+                spill.read(partition, tally::evaluate);
+            }
+            logger.info("Reconciliation spilled {} partial groups to {} partitions",
+                    spill.getSpilledGroups(), spill.getPartitions());
+            return spill.getPartitions();
+        } finally {
+            if (spill != null) {
+                spill.close();
+            }
+        }
+    }
+
+    private ReconSpill add(Stream<ReconRow> rows, List<ReconField> fields, Map<String, ReconGroup> groups,
+                           ReconSpill spill, BiConsumer<ReconGroup, ReconRow> side, Tally tally, boolean bids)
+            throws IOException {
+        Iterator<ReconRow> iterator = rows.iterator();
+        while (iterator.hasNext()) {
+            ReconRow row = iterator.next();
+            tally.count(bids);
+            String key = keyOf(row, fields);
+            if (key == null) {
+                tally.missingKey(row, bids);
+                continue;
+            }
+            side.accept(groups.computeIfAbsent(key, ReconGroup::new), row);
+            if (groups.size() >= maxGroupsInMemory) {
+                if (spill == null) {
+                    spill = new ReconSpill(Paths.get(directory), spillPartitions);
+                }
+                spill(groups, spill);
+            }
+        }
+        return spill;
+    }
+
+    private static void spill(Map<String, ReconGroup> groups, ReconSpill spill) throws IOException {
+        for (ReconGroup group : groups.values()) {
+            spill.write(group);
+        }
+        groups.clear();
+    }
+
+    /**
+     * Join the values of the key columns of a row with {@code |}, escaping {@code |} and {@code \}
+     * in the values so that two different keys never join to the same string.
+     *
+     * @return the key, or null if a key column is empty
+     */
+    private static String keyOf(ReconRow row, List<ReconField> fields) {
+        StringBuilder key = new StringBuilder();
+        for (ReconField field : fields) {
+            String value = field.valueOf(row);
+            if (value == null || value.isBlank()) {
+                return null;
+            }
+            if (!key.isEmpty()) {
+                key.append('|');
+            }
+            key.append(value.trim().replace("\\", "\\\\").replace("|", "\\|"));
+        }
+        return key.toString();
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Could not delete {}", file, e);
+        }
+    }
+
+    /**
+     * The counts of a reconciliation, and the writer of its report.
+     */
+    private final class Tally {
+
+        private final ExportWriter<ReconBreak> writer;
+        private final List<ReconBreak> breaks = new ArrayList<>();
+        private long bidLists;
+        private long trades;
+        private long matched;
+        private long unmatchedBids;
+        private long unmatchedTrades;
+        private long quantityMismatches;
+        private long missingKeys;
+
+        private Tally(ExportWriter<ReconBreak> writer) {
+            this.writer = writer;
+        }
+
+        private void count(boolean bid) {
+            if (bid) {
+                bidLists++;
+            } else {
+                trades++;
+            }
+        }
+
+        private void missingKey(ReconRow row, boolean bid) {
+            missingKeys++;
+            double quantity = row.getQuantity() == null ? 0 : row.getQuantity();
+            double oppositeQuantity = row.getOppositeQuantity() == null ? 0 : row.getOppositeQuantity();
+            record(bid
+                    ? new ReconBreak(ReconBreakType.MISSING_KEY, null, 1, 0, quantity, 0, oppositeQuantity, 0,
+                    List.of(row.getId()), List.of())
+                    : new ReconBreak(ReconBreakType.MISSING_KEY, null, 0, 1, 0, quantity, 0, oppositeQuantity,
+                    List.of(), List.of(row.getId())));
+        }
+
+        private void evaluate(ReconGroup group) {
+            ReconGroup.Side bids = group.getBids();
+            ReconGroup.Side trades = group.getTrades();
+            ReconBreakType type;
+            if (trades.getCount() == 0) {
+                type = ReconBreakType.UNMATCHED_BID;
+                unmatchedBids++;
+            } else if (bids.getCount() == 0) {
+                type = ReconBreakType.UNMATCHED_TRADE;
+                unmatchedTrades++;
+            } else if (Math.abs(bids.getQuantity() - trades.getQuantity()) > quantityTolerance
+                    || Math.abs(bids.getOppositeQuantity() - trades.getOppositeQuantity()) > quantityTolerance) {
+                type = ReconBreakType.QUANTITY_MISMATCH;
+                quantityMismatches++;
+            } else {
+                matched++;
+                return;
+            }
+            record(new ReconBreak(type, group.getKey(), bids.getCount(), trades.getCount(), bids.getQuantity(),
+                    trades.getQuantity(), bids.getOppositeQuantity(), trades.getOppositeQuantity(), bids.getIds(),
+                    trades.getIds()));
+        }
+
+        private void record(ReconBreak reconBreak) {
+            if (breaks.size() < maxBreaksReturned) {
+                breaks.add(reconBreak);
+            }
+            try {
+                writer.write(reconBreak);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
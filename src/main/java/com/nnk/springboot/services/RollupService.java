@@ -0,0 +1,625 @@
+package com.nnk.springboot.services;
+
+import com.nnk.springboot.archive.TradeArchive;
+import com.nnk.springboot.archive.TradeColumn;
+import com.nnk.springboot.config.AfterCommit;
+import com.nnk.springboot.dto.BlotterRow;
+import com.nnk.springboot.dto.RollupBackfillResult;
+import com.nnk.springboot.dto.RollupBar;
+import com.nnk.springboot.model.Trade;
+import com.nnk.springboot.model.TradeRollup;
+import com.nnk.springboot.repositories.TradeRepository;
+import com.nnk.springboot.repositories.TradeRollupRepository;
+import com.nnk.springboot.rollup.RollupBucket;
+import com.nnk.springboot.rollup.RollupInterval;
+import com.nnk.springboot.rollup.RollupKey;
+import com.nnk.springboot.rollup.RollupRing;
+import com.nnk.springboot.services.contracts.IRollupService;
+import jakarta.persistence.EntityManager;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Keeps minute and hour OHLC, volume and VWAP rollups of the trades of every security.
+ * <p>
+ * The recent buckets of each security live in memory, in one {@link RollupRing} per bucket width,
+ * loaded from the trade table when the application starts. A new trade is added to its buckets
+ * once its transaction commits, in constant time. Completed buckets are written to the
+ * {@code trade_rollup} table by {@link #flush()}, which runs every {@code app.rollup.flush-delay-ms},
+ * so a range query reads each bucket once, from the ring or from the table, whatever the number
+ * of trades behind it.
+ * </p>
+ * <p>
+ * A change the rings cannot apply incrementally, such as an edit, a delete, or a trade dated
+ * before the buckets a ring covers, marks the buckets of the trade for recomputation from the
+ * trade table at the next flush, so they may lag until then. The security and date of the trades
+ * the rings cover are kept in memory, so that an edit or a delete costs no extra statement; an
+ * older trade edited is looked up at the next flush, while an older trade deleted is only
+ * withdrawn by {@link #backfill}. Archived trades are only read by {@link #backfill}, which
+ * rebuilds the buckets of a past range from both the table and the archive.
+ * </p>
+ * <p>
+ * The rings and trade stamps are published together as one snapshot, replaced as a whole by a
+ * rebuild. Changes committed while a rebuild reads the table are applied to the current snapshot
+ * and also buffered, then replayed onto the rebuilt snapshot before it is published; a trade the
+ * rebuild already read is stamped, and adding a stamped trade again leaves its buckets unchanged.
+ * </p>
+ */
+@Service
+public class RollupService implements IRollupService {
+
+    private static final Logger logger = LogManager.getLogger(RollupService.class);
+
+    private static final Set<TradeColumn> ROLLUP_COLUMNS = EnumSet.of(TradeColumn.TRADE_ID, TradeColumn.SECURITY,
+            TradeColumn.TRADE_DATE, TradeColumn.BUY_QUANTITY, TradeColumn.BUY_PRICE, TradeColumn.SELL_QUANTITY,
+            TradeColumn.SELL_PRICE);
+
+    private final TradeRepository tradeRepository;
+    private final TradeRollupRepository tradeRollupRepository;
+    private final TradeArchive tradeArchive;
+    private final EntityManager entityManager;
+
+    @Value("${app.rollup.minute-buckets:1440}")
+    private int minuteBuckets = 1440;
+
+    @Value("${app.rollup.hour-buckets:168}")
+    private int hourBuckets = 168;
+
+    @Value("${app.rollup.max-query-buckets:10000}")
+    private int maxQueryBuckets = 10000;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int batchSize = 50;
+
+    private final Object rebuildLock = new Object();
+    private volatile Snapshot snapshot = new Snapshot(new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+    private volatile long[] coveredFrom = initialCoverage();
+    // Changes committed while a rebuild runs, null when none does; guarded by this
+    private List<Consumer<Snapshot>> pending;
+    private final Set<RollupKey> stale = ConcurrentHashMap.newKeySet();
+    private final Set<Integer> unresolved = ConcurrentHashMap.newKeySet();
+    private final Map<RollupKey, RollupBucket> evicted = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor for RollupService.
+     *
+     * @param tradeRepository       the repository the rollups are computed from
+     * @param tradeRollupRepository the repository the completed buckets are written to
+     * @param tradeArchive          the archived trades, read when backfilling a past range
+     * @param entityManager         the entity manager the buckets are written with
+     */
+    public RollupService(TradeRepository tradeRepository, TradeRollupRepository tradeRollupRepository,
+                         TradeArchive tradeArchive, EntityManager entityManager) {
+        this.tradeRepository = tradeRepository;
+        this.tradeRollupRepository = tradeRollupRepository;
+        this.tradeArchive = tradeArchive;
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Add a new trade to the buckets of its security and date.
+     * Inside a transaction, the buckets are only updated once it commits.
+     *
+     * @param trade the saved Trade, with its id assigned
+     */
+    @Override
+    public void apply(Trade trade) {
+        applyAll(List.of(trade));
+    }
+
+    /**
+     * Add new trades to the buckets of their security and date, with a single update registered
+     * for the current transaction. Inside a transaction, the buckets are only updated once it commits.
+     *
+     * @param trades the saved Trades, with their ids assigned
+     */
+    @Override
+    public void applyAll(Collection<Trade> trades) {
+        List<Execution> executions = trades.stream()
+                .filter(trade -> trade.getTradeId() != null && trade.getSecurity() != null
+                        && trade.getTradeDate() != null
+                        && (RollupBucket.isExecution(trade.getBuyQuantity(), trade.getBuyPrice())
+                        || RollupBucket.isExecution(trade.getSellQuantity(), trade.getSellPrice())))
+                .map(Execution::new)
+                .toList();
+        if (!executions.isEmpty()) {
+            AfterCommit.run(() -> update(current -> executions.forEach(execution -> add(current, execution))));
+        }
+    }
+
+    private void add(Snapshot current, Execution execution) {
+        TradeStamp stamp = new TradeStamp(execution.security, execution.time);
+        if (current.stamps.putIfAbsent(execution.tradeId, stamp) != null) {
+            return;
+        }
+        RollupRing[] securityRings = ringsOf(current, execution.security);
+        for (RollupInterval interval : RollupInterval.values()) {
+            if (!securityRings[interval.ordinal()].add(execution.time, execution.tradeId, execution.buyQuantity,
+                    execution.buyPrice, execution.sellQuantity, execution.sellPrice, this::evict)) {
+                stale.add(RollupKey.of(execution.security, interval, execution.time));
+            }
+        }
+    }
+
+    /**
+     * Mark the buckets of a stored trade for recomputation, once the current transaction commits,
+     * without reading the database. A trade older than the rings is looked up at the next flush.
+     *
+     * @param tradeId the id of the changed or deleted trade
+     */
+    @Override
+    public void invalidate(Integer tradeId) {
+        TradeStamp stamp = snapshot.stamps.get(tradeId);
+        if (stamp == null) {
+            AfterCommit.run(() -> unresolved.add(tradeId));
+        } else {
+            List<RollupKey> keys = keysOf(stamp.security, stamp.time);
+            AfterCommit.run(() -> stale.addAll(keys));
+        }
+    }
+
+    /**
+     * Mark the buckets of a trade for recomputation, once the current transaction commits.
+     *
+     * @param trade the trade as saved
+     */
+    @Override
+    public void invalidate(Trade trade) {
+        if (trade.getSecurity() == null || trade.getTradeDate() == null) {
+            return;
+        }
+        TradeStamp stamp = new TradeStamp(trade.getSecurity(), trade.getTradeDate().getTime());
+        List<RollupKey> keys = keysOf(stamp.security, stamp.time);
+        Integer tradeId = trade.getTradeId();
+        AfterCommit.run(() -> {
+            if (tradeId != null) {
+                update(current -> current.stamps.put(tradeId, stamp));
+            }
+            stale.addAll(keys);
+        });
+    }
+
+    private static List<RollupKey> keysOf(String security, long time) {
+        return Arrays.stream(RollupInterval.values())
+                .map(interval -> RollupKey.of(security, interval, time))
+                .toList();
+    }
+
+    /**
+     * Read the buckets of a security starting in a time range, oldest first.
+     * <p>
+     * Buckets still covered by the rings are read from memory, older ones from the rollup
+     * table. Buckets without any trade are left out.
+     * </p>
+     *
+     * @param security the security
+     * @param interval the width of the buckets
+     * @param from     the start of the range; the bucket holding it is included
+     * @param to       the end of the range, exclusive
+     * @return the buckets of the range
+     * @throws IllegalArgumentException if the security is blank, the range is empty, or it spans
+     *                                  more than {@code app.rollup.max-query-buckets} buckets
+     */
+    @Override
+    public List<RollupBar> getBars(String security, RollupInterval interval, LocalDateTime from, LocalDateTime to) {
+        if (!StringUtils.hasText(security)) {
+            throw new IllegalArgumentException("Rollup security is required");
+        }
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new IllegalArgumentException("Rollup range needs from before to");
+        }
+        long fromMillis = interval.bucketStart(Timestamp.valueOf(from).getTime());
+        long toMillis = Timestamp.valueOf(to).getTime();
+        if ((toMillis - fromMillis - 1) / interval.getMillis() + 1 > maxQueryBuckets) {
+            throw new IllegalArgumentException("Rollup range spans more than " + maxQueryBuckets + " buckets");
+        }
+
+        RollupRing[] securityRings = snapshot.rings.get(security);
+        RollupRing ring = securityRings == null ? null : securityRings[interval.ordinal()];
+        long split = Math.min(Math.max(ring == null ? coveredFrom[interval.ordinal()] : ring.firstCovered(),
+                fromMillis), toMillis);
+
+        TreeMap<Long, RollupBar> bars = new TreeMap<>();
+        if (split > fromMillis) {
+            for (TradeRollup row : tradeRollupRepository.findRange(security, interval, new Timestamp(fromMillis),
+                    new Timestamp(split))) {
+                bars.put(row.getBucketStart().getTime(), toBar(row));
+            }
+            // Buckets pushed out of a ring before the last flush are not in the table yet
+            for (RollupBucket bucket : evicted.values()) {
+                if (bucket.getSecurity().equals(security) && bucket.getInterval() == interval
+                        && bucket.getStart() >= fromMillis && bucket.getStart() < split) {
+                    if (bucket.isEmpty()) {
+                        bars.remove(bucket.getStart());
+                    } else {
+                        bars.put(bucket.getStart(), toBar(bucket));
+                    }
+                }
+            }
+        }
+        if (ring != null) {
+            ring.forEach(split, toMillis, bucket -> bars.put(bucket.getStart(), toBar(bucket)));
+        }
+        return new ArrayList<>(bars.values());
+    }
+
+    /**
+     * Recompute the buckets marked stale, then write every completed bucket changed since
+     * the previous flush to the rollup table.
+     *
+     * @return the number of buckets written or deleted
+     */
+    @Override
+    @Transactional
+    public int flush() {
+        long start = System.nanoTime();
+        List<RollupBucket> changed = new ArrayList<>();
+        for (Iterator<Integer> ids = unresolved.iterator(); ids.hasNext(); ) {
+            Integer tradeId = ids.next();
+            ids.remove();
+            tradeRepository.findBlotterById(tradeId)
+                    .filter(row -> row.getSecurity() != null && row.getTradeDate() != null)
+                    .ifPresent(row -> stale.addAll(keysOf(row.getSecurity(),
+                            Timestamp.valueOf(row.getTradeDate()).getTime())));
+        }
+        int recomputed = 0;
+        for (Iterator<RollupKey> keys = stale.iterator(); keys.hasNext(); ) {
+            RollupKey key = keys.next();
+            keys.remove();
+            RollupBucket bucket = recompute(key);
+            boolean[] outside = new boolean[1];
+            update(current -> outside[0] = !ringsOf(current, key.getSecurity())[key.getInterval().ordinal()]
+                    .put(bucket, this::evict));
+            if (outside[0]) {
+                changed.add(bucket);
+            }
+            recomputed++;
+        }
+        long now = System.currentTimeMillis();
+        pruneStamps(now);
+        for (RollupRing[] securityRings : snapshot.rings.values()) {
+            for (RollupRing ring : securityRings) {
+                ring.drainCompleted(now, changed::add);
+            }
+        }
+        for (RollupKey key : evicted.keySet()) {
+            RollupBucket bucket = evicted.remove(key);
+            if (bucket != null) {
+                changed.add(bucket);
+            }
+        }
+        if (changed.isEmpty()) {
+            return 0;
+        }
+        try {
+            write(changed, true);
+        } catch (RuntimeException e) {
+            changed.forEach(bucket -> evicted.putIfAbsent(RollupKey.of(bucket), bucket));
+            throw e;
+        }
+        logger.info("Rollups flushed: {} buckets written, {} recomputed in {} ms", changed.size(), recomputed,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return changed.size();
+    }
+
+    /**
+     * Move the coverage of new rings along with the clock, then forget the trades no ring of their
+     * security covers any more. Such a trade edited or deleted is looked up at the next flush.
+     */
+    private void pruneStamps(long now) {
+        long[] from = coverageAt(now);
+        long[] covered = coveredFrom;
+        for (int i = 0; i < from.length; i++) {
+            from[i] = Math.max(from[i], covered[i]);
+        }
+        coveredFrom = from;
+
+        Snapshot current = snapshot;
+        Map<String, Long> oldestCovered = new HashMap<>();
+        current.rings.forEach((security, securityRings) -> {
+            long oldest = Long.MAX_VALUE;
+            for (int i = 0; i < securityRings.length; i++) {
+                oldest = Math.min(oldest, Math.max(securityRings[i].firstCovered(), from[i]));
+            }
+            oldestCovered.put(security, oldest);
+        });
+        current.stamps.values().removeIf(stamp ->
+                stamp.time < oldestCovered.getOrDefault(stamp.security, Long.MAX_VALUE));
+    }
+
+    /**
+     * Reload the rings from the trade table, on startup: the last {@code app.rollup.minute-buckets}
+     * minutes and {@code app.rollup.hour-buckets} hours, read with one indexed range scan.
+     *
+     * @return the number of trades read
+     */
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public long rebuild() {
+        synchronized (rebuildLock) {
+            synchronized (this) {
+                pending = new ArrayList<>();
+            }
+            try {
+                long start = System.nanoTime();
+                long now = System.currentTimeMillis();
+                long[] from = coverageAt(now);
+                Snapshot rebuilt = new Snapshot(new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+                long count = 0;
+                try (Stream<BlotterRow> rows = tradeRepository.streamBlotterSince(
+                        new Timestamp(Arrays.stream(from).min().orElse(now)))) {
+                    for (Iterator<BlotterRow> iterator = rows.iterator(); iterator.hasNext(); ) {
+                        BlotterRow row = iterator.next();
+                        if (row.getSecurity() == null || row.getTradeDate() == null) {
+                            continue;
+                        }
+                        RollupRing[] securityRings = rebuilt.rings.computeIfAbsent(row.getSecurity(),
+                                s -> newRings(s, from));
+                        long time = Timestamp.valueOf(row.getTradeDate()).getTime();
+                        rebuilt.stamps.put(row.getTradeId(), new TradeStamp(row.getSecurity(), time));
+                        for (RollupRing ring : securityRings) {
+                            ring.add(time, row.getTradeId(), row.getBuyQuantity(), row.getBuyPrice(),
+                                    row.getSellQuantity(), row.getSellPrice(), this::evict);
+                        }
+                        count++;
+                    }
+                }
+                synchronized (this) {
+                    coveredFrom = from;
+                    pending.forEach(change -> change.accept(rebuilt));
+                    snapshot = rebuilt;
+                }
+                logger.info("Rollups rebuilt: {} trades over {} securities in {} ms", count, rebuilt.rings.size(),
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                return count;
+            } finally {
+                synchronized (this) {
+                    pending = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Recompute every bucket of a past range from the trade table and the archive, replacing
+     * the rows of the rollup table. The range is widened to whole hours.
+     *
+     * @param from the start of the range
+     * @param to   the end of the range
+     * @return the number of trades read and buckets written
+     * @throws IllegalArgumentException if the range is empty
+     */
+    @Override
+    @Transactional
+    public RollupBackfillResult backfill(LocalDateTime from, LocalDateTime to) {
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new IllegalArgumentException("Rollup backfill needs from before to");
+        }
+        long start = System.nanoTime();
+        long hour = RollupInterval.HOUR.getMillis();
+        Timestamp fromTime = new Timestamp(RollupInterval.HOUR.bucketStart(Timestamp.valueOf(from).getTime()));
+        Timestamp toTime = new Timestamp(RollupInterval.HOUR.bucketStart(Timestamp.valueOf(to).getTime() + hour - 1));
+
+        Map<RollupKey, RollupBucket> buckets = new HashMap<>();
+        long[] trades = {0};
+        try (Stream<BlotterRow> rows = tradeRepository.streamBlotterBetween(fromTime, toTime)) {
+            rows.forEach(row -> {
+                if (row.getSecurity() != null && row.getTradeDate() != null) {
+                    trades[0]++;
+                    addTo(buckets, row.getSecurity(), Timestamp.valueOf(row.getTradeDate()).getTime(),
+                            row.getTradeId(), row.getBuyQuantity(), row.getBuyPrice(), row.getSellQuantity(),
+                            row.getSellPrice());
+                }
+            });
+        }
+        tradeArchive.scan(fromTime, toTime, ROLLUP_COLUMNS, trade -> {
+            if (trade.getSecurity() != null && trade.getTradeDate() != null) {
+                trades[0]++;
+                addTo(buckets, trade.getSecurity(), trade.getTradeDate().getTime(), trade.getTradeId(),
+                        trade.getBuyQuantity(), trade.getBuyPrice(), trade.getSellQuantity(), trade.getSellPrice());
+            }
+        });
+
+        tradeRollupRepository.deleteRange(fromTime, toTime);
+        List<RollupBucket> filled = buckets.values().stream().filter(bucket -> !bucket.isEmpty()).toList();
+        write(filled, false);
+        update(current -> filled.forEach(bucket ->
+                ringsOf(current, bucket.getSecurity())[bucket.getInterval().ordinal()].put(bucket, this::evict)));
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        logger.info("Rollups backfilled from {} to {}: {} trades, {} buckets in {} ms", fromTime, toTime, trades[0],
+                filled.size(), elapsedMillis);
+        return new RollupBackfillResult(fromTime.toLocalDateTime(), toTime.toLocalDateTime(), trades[0],
+                filled.size(), elapsedMillis);
+    }
+
+    private static void addTo(Map<RollupKey, RollupBucket> buckets, String security, long time, int tradeId,
+                              Double buyQuantity, Double buyPrice, Double sellQuantity, Double sellPrice) {
+        for (RollupInterval interval : RollupInterval.values()) {
+            buckets.computeIfAbsent(RollupKey.of(security, interval, time),
+                            key -> new RollupBucket(security, interval, key.getStart()))
+                    .add(time, tradeId, buyQuantity, buyPrice, sellQuantity, sellPrice);
+        }
+    }
+
+    private RollupBucket recompute(RollupKey key) {
+        RollupBucket bucket = new RollupBucket(key.getSecurity(), key.getInterval(), key.getStart());
+        for (BlotterRow row : tradeRepository.findBlotterOfSecurity(key.getSecurity(), new Timestamp(key.getStart()),
+                new Timestamp(key.getStart() + key.getInterval().getMillis()))) {
+            bucket.add(Timestamp.valueOf(row.getTradeDate()).getTime(), row.getTradeId(), row.getBuyQuantity(),
+                    row.getBuyPrice(), row.getSellQuantity(), row.getSellPrice());
+        }
+        return bucket;
+    }
+
+    /**
+     * Insert or update the rows of the given buckets, deleting those of empty buckets.
+     *
+     * @param lookup false if the rows are known not to exist
+     */
+    private void write(List<RollupBucket> buckets, boolean lookup) {
+        int written = 0;
+        for (RollupBucket bucket : buckets) {
+            TradeRollup row = lookup ? tradeRollupRepository.findBySecurityAndBucketIntervalAndBucketStart(
+                    bucket.getSecurity(), bucket.getInterval(), bucket.getStartTimestamp()).orElse(null) : null;
+            if (bucket.isEmpty()) {
+                if (row != null) {
+                    tradeRollupRepository.delete(row);
+                }
+            } else {
+                if (row == null) {
+                    row = new TradeRollup();
+                    row.setSecurity(bucket.getSecurity());
+                    row.setBucketInterval(bucket.getInterval());
+                    row.setBucketStart(bucket.getStartTimestamp());
+                }
+                row.setOpenPrice(bucket.getOpen());
+                row.setHighPrice(bucket.getHigh());
+                row.setLowPrice(bucket.getLow());
+                row.setClosePrice(bucket.getClose());
+                row.setVolume(bucket.getVolume());
+                row.setNotional(bucket.getNotional());
+                row.setTradeCount(bucket.getTradeCount());
+                tradeRollupRepository.save(row);
+            }
+            if (++written % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private synchronized void update(Consumer<Snapshot> change) {
+        change.accept(snapshot);
+        if (pending != null) {
+            pending.add(change);
+        }
+    }
+
+    private RollupRing[] ringsOf(Snapshot current, String security) {
+        return current.rings.computeIfAbsent(security, s -> newRings(s, coveredFrom));
+    }
+
+    private RollupRing[] newRings(String security, long[] from) {
+        RollupRing[] securityRings = new RollupRing[RollupInterval.values().length];
+        for (RollupInterval interval : RollupInterval.values()) {
+            securityRings[interval.ordinal()] = new RollupRing(security, interval, bucketsOf(interval),
+                    from[interval.ordinal()]);
+        }
+        return securityRings;
+    }
+
+    /**
+     * @return for each bucket width, the start of the oldest bucket a ring keeps at a point in time
+     */
+    private long[] coverageAt(long now) {
+        long[] from = new long[RollupInterval.values().length];
+        for (RollupInterval interval : RollupInterval.values()) {
+            from[interval.ordinal()] = interval.bucketStart(now) - (bucketsOf(interval) - 1L) * interval.getMillis();
+        }
+        return from;
+    }
+
+    private int bucketsOf(RollupInterval interval) {
+        return interval == RollupInterval.MINUTE ? minuteBuckets : hourBuckets;
+    }
+
+    private void evict(RollupBucket bucket) {
+        evicted.put(RollupKey.of(bucket), bucket);
+    }
+
+    private static long[] initialCoverage() {
+        long[] from = new long[RollupInterval.values().length];
+        Arrays.fill(from, Long.MAX_VALUE);
+        return from;
+    }
+
+    private static RollupBar toBar(RollupBucket bucket) {
+        return new RollupBar(bucket.getSecurity(), bucket.getInterval(), bucket.getStartTimestamp().toLocalDateTime(),
+                bucket.getOpen(), bucket.getHigh(), bucket.getLow(), bucket.getClose(), bucket.getVolume(),
+                bucket.getNotional() / bucket.getVolume(), bucket.getTradeCount());
+    }
+
+    private static RollupBar toBar(TradeRollup row) {
+        return new RollupBar(row.getSecurity(), row.getBucketInterval(), row.getBucketStart().toLocalDateTime(),
+                row.getOpenPrice(), row.getHighPrice(), row.getLowPrice(), row.getClosePrice(), row.getVolume(),
+                row.getVolume() == 0 ? 0 : row.getNotional() / row.getVolume(), row.getTradeCount());
+    }
+
+    /**
+     * The security and date of a trade the rings cover, to find its buckets again.
+     */
+    /**
+     * The fields of a new trade its buckets are updated with, copied when it is applied.
+     */
+    private static final class Execution {
+
+        private final int tradeId;
+        private final String security;
+        private final long time;
+        private final Double buyQuantity;
+        private final Double buyPrice;
+        private final Double sellQuantity;
+        private final Double sellPrice;
+
+        private Execution(Trade trade) {
+            this.tradeId = trade.getTradeId();
+            this.security = trade.getSecurity();
+            this.time = trade.getTradeDate().getTime();
+            this.buyQuantity = trade.getBuyQuantity();
+            this.buyPrice = trade.getBuyPrice();
+            this.sellQuantity = trade.getSellQuantity();
+            this.sellPrice = trade.getSellPrice();
+        }
+    }
+
+    /**
+     * The rings of every security and the stamps of the trades they cover, published together.
+     */
+    private static final class Snapshot {
+
+        private final Map<String, RollupRing[]> rings;
+        private final Map<Integer, TradeStamp> stamps;
+
+        private Snapshot(Map<String, RollupRing[]> rings, Map<Integer, TradeStamp> stamps) {
+            this.rings = rings;
+            this.stamps = stamps;
+        }
+    }
+
+    private static final class TradeStamp {
+
+        private final String security;
+        private final long time;
+
+        private TradeStamp(String security, long time) {
+            this.security = security;
+            this.time = time;
+        }
+    }
+}
@@ -1,12 +1,16 @@
 package com.nnk.springboot.services;
 
+import com.nnk.springboot.dto.RuleNameSummary;
 import com.nnk.springboot.model.RuleName;
 import com.nnk.springboot.repositories.RuleNameRepository;
 import com.nnk.springboot.services.contracts.IRuleNameService;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Service implementation for managing RuleName entities.
@@ -14,6 +18,8 @@ import java.util.Optional;
 @Service
 public class RuleNameService implements IRuleNameService {
 
+    private static final Set<String> SORTABLE_PROPERTIES = Set.of("name", "description", "template");
+
     private final RuleNameRepository ruleNameRepository;
 
     /**
@@ -46,6 +52,19 @@ public class RuleNameService implements IRuleNameService {
         return ruleNameRepository.findAll();
     }
 
+    /**
+     * Retrieve the rows shown on the rule name list page as read-only projections, sorted in the database.
+     *
+     * @param sort      the property to sort on, or null to sort by id
+     * @param direction the sort direction, or null for ascending
+     * @return a list of RuleName projections
+     * @throws IllegalArgumentException if the property is not sortable
+     */
+    @Override
+    public List<RuleNameSummary> getRuleNameSummaries(String sort, Sort.Direction direction) {
+        return ruleNameRepository.findAllSummaries(ListSorts.of(sort, direction, "id", SORTABLE_PROPERTIES));
+    }
+
     /**
      * Find a RuleName entity by its id.
      *
@@ -58,24 +77,28 @@ public class RuleNameService implements IRuleNameService {
     }
 
     /**
-     * Update a RuleName entity by id.
+     * Update the fields of a RuleName that the update form edits, with a single UPDATE statement.
      *
      * @param id       the id of the RuleName to update
      * @param ruleName the RuleName entity containing updated data
+     * @return true if the RuleName exists and was updated
      */
     @Override
-    public void updateRuleName(Integer id, RuleName ruleName) {
-        ruleName.setId(id);
-        ruleNameRepository.save(ruleName);
+    @Transactional
+    public boolean updateRuleName(Integer id, RuleName ruleName) {
+        return ruleNameRepository.updateEditableFields(id, ruleName.getName(), ruleName.getDescription(), ruleName.getJson(),
+                ruleName.getTemplate(), ruleName.getSqlStr(), ruleName.getSqlPart()) == 1;
     }
 
     /**
-     * Delete a RuleName entity by id.
+     * Delete a RuleName entity by id with a single DELETE statement, without loading it first.
      *
      * @param id the id of the RuleName to delete
+     * @return true if the RuleName existed and was deleted
      */
     @Override
-    public void deleteRuleNameById(Integer id) {
-        ruleNameRepository.deleteById(id);
+    @Transactional
+    public boolean deleteRuleNameById(Integer id) {
+        return ruleNameRepository.deleteRowById(id) == 1;
     }
 }
@@ -0,0 +1,190 @@
+package com.nnk.springboot.services;
+
+import com.nnk.springboot.archive.ArchivePart;
+import com.nnk.springboot.archive.ColumnarTradeFile;
+import com.nnk.springboot.archive.TradeArchive;
+import com.nnk.springboot.archive.TradeColumn;
+import com.nnk.springboot.dto.TradeArchiveResult;
+import com.nnk.springboot.model.Trade;
+import com.nnk.springboot.repositories.TradeRepository;
+import com.nnk.springboot.services.contracts.IDeduplicationService;
+import com.nnk.springboot.services.contracts.IPositionService;
+import com.nnk.springboot.services.contracts.ITradeArchiveService;
+import jakarta.annotation.PostConstruct;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Moves trades older than a configurable age out of the trade table into the {@link TradeArchive}.
+ * <p>
+ * Trades are archived in batches, oldest id first. Each batch is read with a write lock,
+ * written to one pending file per trade month and deleted from the table in the same
+ * transaction; its files are published once the transaction has committed. If the application
+ * stops in between, the pending files are resolved on the next start: published if their trades
+ * are gone from the table, deleted if they are still there.
+ * </p>
+ * <p>
+ * At the end of a run, every month it wrote to is compacted back into a single file.
+ * </p>
+ * <p>
+ * Archived trades keep counting in net positions and P&L, which read both tiers when they are
+ * rebuilt, and are returned by {@link TradeService#getTradeHistory}.
+ * </p>
+ */
+@Service
+public class TradeArchiveService implements ITradeArchiveService {
+
+    private static final Logger logger = LogManager.getLogger(TradeArchiveService.class);
+
+    private final TradeRepository tradeRepository;
+    private final TradeArchive tradeArchive;
+    private final IPositionService positionService;
+    private final IDeduplicationService deduplicationService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.trade-archive.age-days:365}")
+    private int ageDays = 365;
+
+    @Value("${app.trade-archive.batch-size:10000}")
+    private int batchSize = 10000;
+
+    /**
+     * Constructor for TradeArchiveService.
+     *
+     * @param tradeRepository      the repository trades are archived from
+     * @param tradeArchive         the archive trades are moved to
+     * @param positionService      the net positions, which forget the legs of archived trades
+     * @param deduplicationService the duplicate check, which keeps rejecting the sourceListIds of archived trades
+     * @param transactionManager   the transaction manager each batch is committed with
+     */
+    public TradeArchiveService(TradeRepository tradeRepository, TradeArchive tradeArchive,
+                               IPositionService positionService, IDeduplicationService deduplicationService,
+                               PlatformTransactionManager transactionManager) {
+        this.tradeRepository = tradeRepository;
+        this.tradeArchive = tradeArchive;
+        this.positionService = positionService;
+        this.deduplicationService = deduplicationService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Resolve the pending files left by a run that stopped between its commit and publishing its files.
+     *
+     * @throws IOException if reading or moving a pending file fails
+     */
+    @PostConstruct
+    public void recover() throws IOException {
+        for (Path pending : tradeArchive.findPending()) {
+            List<Integer> ids = ColumnarTradeFile.read(pending, EnumSet.of(TradeColumn.TRADE_ID)).stream()
+                    .map(Trade::getTradeId)
+                    .toList();
+            if (tradeRepository.countByTradeIdIn(ids) == 0) {
+                tradeArchive.publish(ColumnarTradeFile.readPart(pending));
+                logger.info("Trade archive recovery: published {} ({} trades)", pending, ids.size());
+            } else {
+                tradeArchive.discard(pending);
+                logger.info("Trade archive recovery: discarded {}, its trades were not archived", pending);
+            }
+        }
+    }
+
+    /**
+     * Archive every trade dated before midnight, {@code app.trade-archive.age-days} days ago.
+     *
+     * @return the number of trades archived and files written
+     * @throws UncheckedIOException if writing or publishing an archive file fails
+     */
+    @Override
+    public synchronized TradeArchiveResult archive() {
+        long start = System.nanoTime();
+        LocalDateTime cutoff = LocalDate.now().minusDays(ageDays).atStartOfDay();
+        long archived = 0;
+        int files = 0;
+        Set<YearMonth> months = new TreeSet<>();
+        int batch;
+        do {
+            List<ArchivePart> pending = new ArrayList<>();
+            try {
+                batch = transactionTemplate.execute(status -> archiveBatch(Timestamp.valueOf(cutoff), pending));
+            } catch (RuntimeException e) {
+                discard(pending);
+                throw e;
+            }
+            for (ArchivePart part : pending) {
+                try {
+                    tradeArchive.publish(part);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                months.add(YearMonth.parse(part.getPath().getParent().getFileName().toString()));
+            }
+            archived += batch;
+            files += pending.size();
+        } while (batch == batchSize);
+        for (YearMonth month : months) {
+            try {
+                tradeArchive.compact(month);
+            } catch (IOException e) {
+                // the trades are archived; the month is compacted again by the next run that writes to it
+                logger.warn("Could not compact the trade archive month {}", month, e);
+            }
+        }
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        logger.info("Trade archival completed: cutoff={}, trades={}, files={}, elapsedMs={}",
+                cutoff, archived, files, elapsedMillis);
+        return new TradeArchiveResult(cutoff, archived, files, elapsedMillis);
+    }
+
+    private int archiveBatch(Timestamp cutoff, List<ArchivePart> pending) {
+        List<Trade> trades = tradeRepository.findArchivable(cutoff, PageRequest.of(0, batchSize));
+        if (trades.isEmpty()) {
+            return 0;
+        }
+        Map<YearMonth, List<Trade>> months = trades.stream().collect(Collectors.groupingBy(
+                trade -> YearMonth.from(trade.getTradeDate().toLocalDateTime()), TreeMap::new, Collectors.toList()));
+        try {
+            for (Map.Entry<YearMonth, List<Trade>> month : months.entrySet()) {
+                pending.add(tradeArchive.writePending(month.getKey(), month.getValue()));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        List<Integer> ids = trades.stream().map(Trade::getTradeId).toList();
+        deduplicationService.archived(trades);
+        tradeRepository.deleteRowsByIdIn(ids);
+        positionService.archived(ids);
+        return trades.size();
+    }
+
+    private void discard(List<ArchivePart> pending) {
+        for (ArchivePart part : pending) {
+            try {
+                tradeArchive.discard(part.getPath());
+            } catch (IOException e) {
+                logger.warn("Could not delete pending archive file {}", part.getPath(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,429 @@
+package com.nnk.springboot.services;
+
+import com.nnk.springboot.dto.TradeImportProgress;
+import com.nnk.springboot.exception.DuplicateSourceListIdException;
+import com.nnk.springboot.export.ExportColumns;
+import com.nnk.springboot.ingest.FileChunk;
+import com.nnk.springboot.ingest.ImportCheckpoint;
+import com.nnk.springboot.ingest.LineAlignedChunks;
+import com.nnk.springboot.ingest.TradeCsvChunkParser;
+import com.nnk.springboot.journal.JournalEntity;
+import com.nnk.springboot.journal.JournalEventKind;
+import com.nnk.springboot.journal.JournalPayloads;
+import com.nnk.springboot.model.Trade;
+import com.nnk.springboot.services.contracts.IBlotterService;
+import com.nnk.springboot.services.contracts.IDeduplicationService;
+import com.nnk.springboot.services.contracts.IJournalService;
+import com.nnk.springboot.services.contracts.IPositionService;
+import com.nnk.springboot.services.contracts.IRollupService;
+import com.nnk.springboot.services.contracts.ITradeImportService;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Imports end-of-day trade files in the Trade CSV format into the trade table.
+ * <p>
+ * The file is split into chunks that end on line boundaries, and the chunks are imported
+ * concurrently on a dedicated fork-join pool. Each chunk is memory-mapped, parsed from its
+ * bytes and inserted in its own transaction, flushing every JDBC batch so that Hibernate sends
+ * batched INSERTs and the persistence context stays small. Once a chunk commits it is recorded
+ * in a checkpoint file next to the import file, so an interrupted import resumes with the
+ * chunks it had not committed and importing a finished file again inserts nothing.
+ * </p>
+ * <p>
+ * Lines that cannot be parsed, that fail Trade validation or whose sourceListId is already
+ * saved are skipped and counted; the first of them are reported by file offset. Only one
+ * import runs at a time.
+ * </p>
+ * <p>
+ * A sourceListId repeated in two chunks imported concurrently passes the duplicate check in
+ * both, and the unique index rolls back the second chunk to commit. That chunk is then imported
+ * again one row per transaction, so that only the repeated rows are rejected as duplicates.
+ * </p>
+ */
+@Service
+public class TradeImportService implements ITradeImportService {
+
+    private static final Logger logger = LogManager.getLogger(TradeImportService.class);
+
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final IPositionService positionService;
+    private final IJournalService journalService;
+    private final IDeduplicationService deduplicationService;
+    private final IRollupService rollupService;
+    private final IBlotterService blotterService;
+    private final ExecutorService launcher = Executors.newSingleThreadExecutor();
+
+    @Value("${app.trade-import.directory:imports}")
+    private String directory = "imports";
+
+    @Value("${app.trade-import.chunk-size:67108864}")
+    private long chunkSize = 64L * 1024 * 1024;
+
+    @Value("${app.trade-import.parallelism:4}")
+    private int parallelism = 4;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int batchSize = 50;
+
+    private volatile ImportRun current;
+
+    /**
+     * Constructor for TradeImportService.
+     *
+     * @param entityManager        the entity manager the imported trades are persisted with
+     * @param transactionManager   the transaction manager each chunk is committed with
+     * @param validator            the validator applied to each imported trade
+     * @param positionService      the net positions kept in step with imported trades
+     * @param journalService       the journal every imported trade is recorded in
+     * @param deduplicationService the check rejecting rows resent with a known sourceListId
+     * @param rollupService        the per-security rollups kept in step with imported trades
+     * @param blotterService       the blotter imported trades are stamped for, one commit per chunk
+     */
+    public TradeImportService(EntityManager entityManager, PlatformTransactionManager transactionManager,
+                              Validator validator, IPositionService positionService,
+                              IJournalService journalService, IDeduplicationService deduplicationService,
+                              IRollupService rollupService, IBlotterService blotterService) {
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.positionService = positionService;
+        this.journalService = journalService;
+        this.deduplicationService = deduplicationService;
+        this.rollupService = rollupService;
+        this.blotterService = blotterService;
+    }
+
+    /**
+     * Import a trade file and wait for the import to finish.
+     *
+     * @param file the file to import
+     * @return the final progress of the import
+     * @throws IOException              if the file cannot be read
+     * @throws IllegalArgumentException if the header of the file is invalid
+     * @throws IllegalStateException    if an import is already running
+     */
+    @Override
+    public TradeImportProgress importFile(Path file) throws IOException {
+        return execute(begin(file.toAbsolutePath().normalize()));
+    }
+
+    /**
+     * Start importing a file of the import directory in the background.
+     *
+     * @param fileName the name of the file, relative to the import directory
+     * @return the progress of the import as it starts
+     * @throws IllegalArgumentException if the import directory has no such file
+     * @throws IllegalStateException    if an import is already running
+     */
+    @Override
+    public TradeImportProgress start(String fileName) {
+        Path root = Path.of(directory).toAbsolutePath().normalize();
+        Path file = root.resolve(fileName).normalize();
+        if (!file.startsWith(root) || !Files.isRegularFile(file)) {
+            throw new IllegalArgumentException("No import file named " + fileName);
+        }
+        ImportRun run = begin(file);
+        launcher.execute(() -> {
+            try {
+                execute(run);
+            } catch (IOException | RuntimeException e) {
+                logger.error("Trade import of {} failed", file, e);
+            }
+        });
+        return run.snapshot();
+    }
+
+    /**
+     * Retrieve the progress of the running import, or of the last one.
+     *
+     * @return the progress, or empty if no import has run
+     */
+    @Override
+    public Optional<TradeImportProgress> getProgress() {
+        return Optional.ofNullable(current).map(ImportRun::snapshot);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        launcher.shutdown();
+    }
+
+    private synchronized ImportRun begin(Path file) {
+        if (current != null && current.state == TradeImportProgress.State.RUNNING) {
+            throw new IllegalStateException("A trade import is already running: " + current.file.getFileName());
+        }
+        current = new ImportRun(file);
+        return current;
+    }
+
+    private TradeImportProgress execute(ImportRun run) throws IOException {
+        try (FileChannel channel = FileChannel.open(run.file, StandardOpenOption.READ)) {
+            TradeCsvChunkParser parser = TradeCsvChunkParser.forHeader(LineAlignedChunks.readFirstLine(channel));
+            ImportCheckpoint checkpoint = ImportCheckpoint.load(run.file, chunkSize);
+            long headerEnd = LineAlignedChunks.nextLineStart(channel, 0, channel.size());
+            List<FileChunk> chunks = LineAlignedChunks.split(channel, headerEnd, checkpoint.getChunkSize());
+            run.totalBytes = channel.size();
+            run.chunks = chunks.size();
+            run.bytesDone.addAndGet(headerEnd);
+
+            List<FileChunk> pending = new ArrayList<>();
+            for (FileChunk chunk : chunks) {
+                if (checkpoint.isDone(chunk)) {
+                    run.chunksSkipped.incrementAndGet();
+                    run.chunksDone.incrementAndGet();
+                    run.bytesDone.addAndGet(chunk.getLength());
+                } else {
+                    pending.add(chunk);
+                }
+            }
+            logger.info("Trade import of {} started: {} bytes, {} chunks, {} already imported",
+                    run.file, run.totalBytes, run.chunks, run.chunksSkipped.get());
+
+            Throwable failure = null;
+            ForkJoinPool pool = new ForkJoinPool(Math.max(1, parallelism));
+            try {
+                List<Future<?>> tasks = new ArrayList<>();
+                for (FileChunk chunk : pending) {
+                    tasks.add(pool.submit(() -> {
+                        importChunk(channel, parser, chunk, run);
+                        checkpoint.markDone(chunk);
+                        return null;
+                    }));
+                }
+                for (Future<?> task : tasks) {
+                    try {
+                        task.get();
+                    } catch (ExecutionException e) {
+                        failure = failure == null ? e.getCause() : failure;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failure = e;
+            } finally {
+                pool.shutdown();
+            }
+
+            if (failure != null) {
+                logger.error("Trade import of {} failed after {} of {} chunks", run.file, run.chunksDone.get(),
+                        run.chunks, failure);
+                run.finish(TradeImportProgress.State.FAILED, failure.getMessage());
+            } else {
+                run.finish(TradeImportProgress.State.COMPLETED, null);
+            }
+            TradeImportProgress progress = run.snapshot();
+            logger.info("Trade import of {} {}: rows={}, rejected={}, elapsedMs={}, rowsPerSecond={}", run.file,
+                    progress.getState(), progress.getRowsImported(), progress.getRowsRejected(),
+                    progress.getElapsedMillis(), progress.getRowsPerSecond());
+            return progress;
+        } catch (IOException | RuntimeException e) {
+            run.finish(TradeImportProgress.State.FAILED, e.getMessage());
+            throw e;
+        }
+    }
+
+    private void importChunk(FileChannel channel, TradeCsvChunkParser parser, FileChunk chunk, ImportRun run)
+            throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, chunk.getStart(), chunk.getLength());
+        ChunkRows rows;
+        try {
+            rows = transactionTemplate.execute(status -> {
+                ChunkRows chunkRows = new ChunkRows();
+                parser.parse(buffer, chunk.getStart(), chunkRows);
+                chunkRows.commitViews();
+                entityManager.flush();
+                entityManager.clear();
+                return chunkRows;
+            });
+        } catch (RuntimeException e) {
+            if (!DuplicateSourceListIdException.isSourceListIdViolation(e)) {
+                throw e;
+            }
+            logger.warn("Trade import of {}: chunk at offset {} repeats a sourceListId imported concurrently, "
+                    + "importing it row by row", run.file.getFileName(), chunk.getStart());
+            RowByRow replay = new RowByRow();
+            parser.parse(channel.map(FileChannel.MapMode.READ_ONLY, chunk.getStart(), chunk.getLength()),
+                    chunk.getStart(), replay);
+            rows = replay.rows;
+        }
+        run.chunkDone(chunk, rows);
+        logger.info("Trade import of {}: {}/{} chunks, {} rows, {} rows/s", run.file.getFileName(),
+                run.chunksDone.get(), run.chunks, run.rowsImported.get(), run.snapshot().getRowsPerSecond());
+    }
+
+    /**
+     * Validates and persists the rows of one chunk inside its transaction, collecting the saved trades
+     * so that the in-memory views register one update each for the whole chunk.
+     */
+    private final class ChunkRows implements TradeCsvChunkParser.RowHandler {
+
+        private int imported;
+        private int rejected;
+        private final List<String> errors = new ArrayList<>();
+        private final List<Trade> saved = new ArrayList<>();
+
+        @Override
+        public void row(Trade trade, long offset) {
+            Set<ConstraintViolation<Trade>> violations = validator.validate(trade);
+            if (!violations.isEmpty()) {
+                reject(offset, violations.stream()
+                        .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                        .collect(Collectors.joining(", ")));
+                return;
+            }
+            if (deduplicationService.isDuplicate(trade)) {
+                reject(offset, "duplicate sourceListId " + trade.getSourceListId());
+                return;
+            }
+            blotterService.stampOnCommit(trade);
+            entityManager.persist(trade);
+            deduplicationService.register(trade);
+            saved.add(trade);
+            if (++imported % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+
+        @Override
+        public void reject(long offset, String reason) {
+            rejected++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add("Offset " + offset + ": " + reason);
+            }
+        }
+
+        /**
+         * Register the trades saved since the last call with the in-memory views, once the transaction commits.
+         */
+        void commitViews() {
+            positionService.applyAll(saved);
+            rollupService.applyAll(saved);
+            Map<Integer, Map<String, Object>> states = new LinkedHashMap<>();
+            saved.forEach(trade -> states.put(trade.getTradeId(), JournalPayloads.state(ExportColumns.TRADE, trade)));
+            journalService.recordAll(JournalEntity.TRADE, JournalEventKind.CREATED, states);
+            saved.clear();
+        }
+    }
+
+    /**
+     * Imports the rows of a chunk one transaction each, rejecting a row that breaks the sourceListId
+     * unique index as a duplicate.
+     */
+    private final class RowByRow implements TradeCsvChunkParser.RowHandler {
+
+        private final ChunkRows rows = new ChunkRows();
+
+        @Override
+        public void row(Trade trade, long offset) {
+            int imported = rows.imported;
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    rows.row(trade, offset);
+                    rows.commitViews();
+                    entityManager.flush();
+                });
+            } catch (RuntimeException e) {
+                if (!DuplicateSourceListIdException.isSourceListIdViolation(e)) {
+                    throw e;
+                }
+                rows.imported = imported;
+                rows.saved.clear();
+                rows.reject(offset, "duplicate sourceListId " + trade.getSourceListId());
+            }
+        }
+
+        @Override
+        public void reject(long offset, String reason) {
+            rows.reject(offset, reason);
+        }
+    }
+
+    /**
+     * Mutable progress of one import, updated by the threads importing its chunks.
+     */
+    private static final class ImportRun {
+
+        private final Path file;
+        private final long startNanos = System.nanoTime();
+        private final AtomicLong bytesDone = new AtomicLong();
+        private final AtomicInteger chunksDone = new AtomicInteger();
+        private final AtomicInteger chunksSkipped = new AtomicInteger();
+        private final AtomicLong rowsImported = new AtomicLong();
+        private final AtomicLong rowsRejected = new AtomicLong();
+        private final List<String> errors = new ArrayList<>();
+        private volatile TradeImportProgress.State state = TradeImportProgress.State.RUNNING;
+        private volatile long totalBytes;
+        private volatile int chunks;
+        private volatile long elapsedNanos = -1;
+
+        ImportRun(Path file) {
+            this.file = file;
+        }
+
+        void chunkDone(FileChunk chunk, ChunkRows rows) {
+            rowsImported.addAndGet(rows.imported);
+            rowsRejected.addAndGet(rows.rejected);
+            addErrors(rows.errors);
+            bytesDone.addAndGet(chunk.getLength());
+            chunksDone.incrementAndGet();
+        }
+
+        void finish(TradeImportProgress.State finalState, String error) {
+            if (error != null) {
+                addErrors(List.of(error));
+            }
+            elapsedNanos = System.nanoTime() - startNanos;
+            state = finalState;
+        }
+
+        private synchronized void addErrors(List<String> newErrors) {
+            for (String error : newErrors) {
+                if (errors.size() < MAX_REPORTED_ERRORS) {
+                    errors.add(error);
+                }
+            }
+        }
+
+        synchronized TradeImportProgress snapshot() {
+            long elapsed = elapsedNanos < 0 ? System.nanoTime() - startNanos : elapsedNanos;
+            return new TradeImportProgress(file.getFileName().toString(), state, totalBytes, bytesDone.get(), chunks,
+                    chunksDone.get(), chunksSkipped.get(), rowsImported.get(), rowsRejected.get(),
+                    elapsed / 1_000_000, errors);
+        }
+    }
+}
@@ -1,12 +1,51 @@
 package com.nnk.springboot.services;
 
+import com.nnk.springboot.archive.MergingIterator;
+import com.nnk.springboot.archive.TradeArchive;
+import com.nnk.springboot.archive.TradeColumn;
+import com.nnk.springboot.concurrency.FieldMerge;
+import com.nnk.springboot.dto.DealFilter;
+import com.nnk.springboot.dto.TradeHistoryPage;
+import com.nnk.springboot.dto.TradeSummary;
+import com.nnk.springboot.exception.ConcurrentUpdateConflictException;
+import com.nnk.springboot.exception.DuplicateSourceListIdException;
+import com.nnk.springboot.export.ExportColumns;
+import com.nnk.springboot.export.ExportFormat;
+import com.nnk.springboot.export.ExportWriter;
+import com.nnk.springboot.journal.JournalEntity;
+import com.nnk.springboot.journal.JournalEventKind;
+import com.nnk.springboot.journal.JournalPayloads;
 import com.nnk.springboot.model.Trade;
 import com.nnk.springboot.repositories.TradeRepository;
+import com.nnk.springboot.repositories.specifications.DealSpecifications;
+import com.nnk.springboot.services.contracts.IBlotterService;
+import com.nnk.springboot.services.contracts.IDeduplicationService;
+import com.nnk.springboot.services.contracts.IJournalService;
+import com.nnk.springboot.services.contracts.IPositionService;
+import com.nnk.springboot.services.contracts.IRollupService;
 import com.nnk.springboot.services.contracts.ITradeService;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Service class for managing Trade entities.
@@ -14,15 +53,54 @@ import java.util.Optional;
 @Service
 public class TradeService implements ITradeService {
 
+    private static final Set<String> SORTABLE_PROPERTIES = Set.of(
+            "account", "type", "buyQuantity", "security", "tradeDate");
+
+    private static final int MAX_UPDATE_ATTEMPTS = 5;
+
+    private static final int DEFAULT_HISTORY_LIMIT = 100;
+    private static final int MAX_HISTORY_LIMIT = 1000;
+
+    private static final Comparator<Trade> HISTORY_ORDER = Comparator
+            .comparing(Trade::getTradeDate, Comparator.nullsFirst(Comparator.<Timestamp>naturalOrder()))
+            .thenComparing(Trade::getTradeId);
+
     private final TradeRepository tradeRepository;
+    private final EntityManager entityManager;
+    private final IPositionService positionService;
+    private final TradeArchive tradeArchive;
+    private final IJournalService journalService;
+    private final IDeduplicationService deduplicationService;
+    private final IRollupService rollupService;
+    private final IBlotterService blotterService;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int batchSize = 50;
 
     /**
      * Constructor with dependency injection.
      *
-     * @param tradeRepository repository for Trade entity
+     * @param tradeRepository      repository for Trade entity
+     * @param entityManager        entity manager used to detach streamed trades
+     * @param positionService      the net positions kept in step with saved, updated and deleted trades
+     * @param tradeArchive         the archived trades merged into historical queries
+     * @param journalService       the journal every change of a trade is recorded in
+     * @param deduplicationService the check rejecting new trades resent with a known sourceListId
+     * @param rollupService        the per-security rollups kept in step with saved, updated and deleted trades
+     * @param blotterService       the blotter new trades are stamped for, so that tails see them in commit order
      */
-    public TradeService(TradeRepository tradeRepository) {
+    public TradeService(TradeRepository tradeRepository, EntityManager entityManager,
+                        IPositionService positionService, TradeArchive tradeArchive,
+                        IJournalService journalService, IDeduplicationService deduplicationService,
+                        IRollupService rollupService, IBlotterService blotterService) {
         this.tradeRepository = tradeRepository;
+        this.entityManager = entityManager;
+        this.positionService = positionService;
+        this.tradeArchive = tradeArchive;
+        this.journalService = journalService;
+        this.deduplicationService = deduplicationService;
+        this.rollupService = rollupService;
+        this.blotterService = blotterService;
     }
 
     /**
@@ -30,10 +108,77 @@ public class TradeService implements ITradeService {
      *
      * @param trade the trade to save
      * @return the saved trade
+     * @throws DuplicateSourceListIdException if its sourceListId is already saved, or is saved by a concurrent insert
      */
     @Override
+    @Transactional
     public Trade saveTrade(Trade trade) {
-        return tradeRepository.save(trade);
+        JournalEventKind kind = trade.getTradeId() == null ? JournalEventKind.CREATED : JournalEventKind.UPDATED;
+        if (kind == JournalEventKind.CREATED && deduplicationService.isDuplicate(trade)) {
+            throw new DuplicateSourceListIdException(Trade.class, trade.getSourceListId());
+        }
+        if (kind == JournalEventKind.CREATED) {
+            blotterService.stampOnCommit(trade);
+        } else {
+            rollupService.invalidate(trade.getTradeId());
+        }
+        Trade saved;
+        try {
+            // flushed here so that a sourceListId inserted concurrently fails as a duplicate, not at commit
+            saved = tradeRepository.saveAndFlush(trade);
+        } catch (DataIntegrityViolationException e) {
+            if (!DuplicateSourceListIdException.isSourceListIdViolation(e)) {
+                throw e;
+            }
+            throw new DuplicateSourceListIdException(Trade.class, trade.getSourceListId());
+        }
+        deduplicationService.register(saved);
+        positionService.apply(saved);
+        if (kind == JournalEventKind.CREATED) {
+            rollupService.apply(saved);
+        } else {
+            rollupService.invalidate(saved);
+        }
+        journalService.record(JournalEntity.TRADE, saved.getTradeId(), kind,
+                JournalPayloads.state(ExportColumns.TRADE, saved));
+        return saved;
+    }
+
+    /**
+     * Saves a batch of new trades in a single transaction.
+     * <p>
+     * Trades are persisted and flushed in chunks of the JDBC batch size, so that Hibernate sends
+     * each chunk as one batched INSERT. Ids are always generated, never taken from the input.
+     * Trades whose sourceListId is already saved, or repeated in the batch, are skipped.
+     * </p>
+     *
+     * @param trades the trades to insert
+     * @return the number of trades saved
+     */
+    @Override
+    @Transactional
+    public int saveTrades(List<Trade> trades) {
+        int saved = 0;
+        for (Trade trade : trades) {
+            if (deduplicationService.isDuplicate(trade)) {
+                continue;
+            }
+            trade.setTradeId(null);
+            blotterService.stampOnCommit(trade);
+            entityManager.persist(trade);
+            deduplicationService.register(trade);
+            positionService.apply(trade);
+            rollupService.apply(trade);
+            journalService.record(JournalEntity.TRADE, trade.getTradeId(), JournalEventKind.CREATED,
+                    JournalPayloads.state(ExportColumns.TRADE, trade));
+            if (++saved % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return saved;
     }
 
     /**
@@ -46,6 +191,157 @@ public class TradeService implements ITradeService {
         return tradeRepository.findAll();
     }
 
+    /**
+     * Retrieves the rows shown on the trade list page as read-only projections,
+     * filtered and sorted in the database.
+     *
+     * @param filter    the list page filters, may be null
+     * @param sort      the property to sort on, or null to sort by id
+     * @param direction the sort direction, or null for ascending
+     * @return a list of Trade projections
+     * @throws IllegalArgumentException if the property is not sortable
+     */
+    @Override
+    public List<TradeSummary> getTradeSummaries(DealFilter filter, String sort, Sort.Direction direction) {
+        return tradeRepository.findSummaries(DealSpecifications.matching(filter, "tradeDate"),
+                ListSorts.of(sort, direction, "tradeId", SORTABLE_PROPERTIES));
+    }
+
+    /**
+     * Streams every trade to the given output stream.
+     * <p>
+     * Rows are read over a forward-only cursor and detached once written, so the
+     * persistence context never holds more than one trade at a time.
+     * </p>
+     *
+     * @param out    the stream to write to; it is flushed but not closed
+     * @param format the export format
+     * @return the number of trades written
+     * @throws IOException if writing to the output stream fails
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long exportTrades(OutputStream out, ExportFormat format) throws IOException {
+        ExportWriter<Trade> writer = new ExportWriter<>(out, format, ExportColumns.TRADE);
+        long count = 0;
+        try (Stream<Trade> trades = tradeRepository.streamAllOrderById()) {
+            Iterator<Trade> iterator = trades.iterator();
+            while (iterator.hasNext()) {
+                Trade trade = iterator.next();
+                writer.write(trade);
+                entityManager.detach(trade);
+                count++;
+            }
+        }
+        writer.flush();
+        return count;
+    }
+
+    /**
+     * Retrieves one page of the trades matching the filters from both the trade table and the
+     * archive, ordered by trade date then id, undated trades first.
+     * <p>
+     * The page is read from the table past the cursor and merged with the archive read from the
+     * cursor date on, a month at a time, so a page never loads more than one archived month.
+     * Archived trades are read-only and carry no version.
+     * </p>
+     *
+     * @param filter    the filters, may be null
+     * @param afterDate trade date of the last trade of the previous page, null if it was undated
+     * @param afterId   trade id of that trade, or null for the first page
+     * @param limit     the page size, or null for the default
+     * @return the page and the cursor of the next one
+     */
+    @Override
+    public TradeHistoryPage getTradeHistory(DealFilter filter, LocalDateTime afterDate, Integer afterId,
+                                            Integer limit) {
+        DealFilter filters = filter == null ? new DealFilter() : filter;
+        int size = limit == null ? DEFAULT_HISTORY_LIMIT : Math.max(1, Math.min(limit, MAX_HISTORY_LIMIT));
+        Timestamp after = afterDate == null ? null : Timestamp.valueOf(afterDate);
+        List<Trade> hot = tradeRepository.findHistoryPage(DealSpecifications.matching(filters, "tradeDate"),
+                after, afterId, size + 1);
+        Iterator<Trade> history = new MergingIterator<>(hot.iterator(), archived(filters, after, afterId),
+                HISTORY_ORDER);
+        List<Trade> trades = new ArrayList<>();
+        while (trades.size() <= size && history.hasNext()) {
+            trades.add(history.next());
+        }
+        boolean hasNext = trades.size() > size;
+        return new TradeHistoryPage(hasNext ? List.copyOf(trades.subList(0, size)) : trades, hasNext);
+    }
+
+    /**
+     * Writes the trades matching the filters from both the trade table and the archive
+     * to the given output stream, ordered by trade date then id, undated trades first.
+     * <p>
+     * The table is read over a forward-only cursor and merged with the archive, read a month at a
+     * time, so only one archived month and the rows of one fetch are held in memory. Table rows are
+     * detached as they are read.
+     * </p>
+     *
+     * @param filter the filters, may be null
+     * @param out    the stream to write to; it is flushed but not closed
+     * @param format the export format
+     * @return the number of trades written
+     * @throws IOException if writing to the output stream fails
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long exportTradeHistory(DealFilter filter, OutputStream out, ExportFormat format) throws IOException {
+        DealFilter filters = filter == null ? new DealFilter() : filter;
+        ExportWriter<Trade> writer = new ExportWriter<>(out, format, ExportColumns.TRADE);
+        long count = 0;
+        try (Stream<Trade> hot = tradeRepository.streamHistory(DealSpecifications.matching(filters, "tradeDate"))) {
+            Iterator<Trade> history = new MergingIterator<>(hot.map(this::detach).iterator(),
+                    archived(filters, null, null), HISTORY_ORDER);
+            while (history.hasNext()) {
+                writer.write(history.next());
+                count++;
+            }
+        }
+        writer.flush();
+        return count;
+    }
+
+    private Iterator<Trade> archived(DealFilter filter, Timestamp afterDate, Integer afterId) {
+        Timestamp from = filter.getFrom() == null ? null : Timestamp.valueOf(filter.getFrom().atStartOfDay());
+        Timestamp to = filter.getTo() == null ? null : Timestamp.valueOf(filter.getTo().plusDays(1).atStartOfDay());
+        if (afterDate != null && (from == null || afterDate.after(from))) {
+            from = afterDate;
+        }
+        Iterator<Trade> archived = tradeArchive.iterate(from, to, TradeColumn.ALL);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(archived, Spliterator.ORDERED), false)
+                .filter(trade -> matches(filter, trade) && isAfter(trade, afterDate, afterId))
+                .iterator();
+    }
+
+    private static boolean isAfter(Trade trade, Timestamp afterDate, Integer afterId) {
+        // archived trades are all dated, so they follow every undated trade
+        if (afterId == null || afterDate == null) {
+            return true;
+        }
+        int byDate = trade.getTradeDate().compareTo(afterDate);
+        return byDate > 0 || (byDate == 0 && trade.getTradeId() > afterId);
+    }
+
+    private Trade detach(Trade trade) {
+        entityManager.detach(trade);
+        return trade;
+    }
+
+    private static boolean matches(DealFilter filter, Trade trade) {
+        return isUnsetOrEqual(filter.getAccount(), trade.getAccount())
+                && isUnsetOrEqual(filter.getType(), trade.getType())
+                && isUnsetOrEqual(filter.getSecurity(), trade.getSecurity())
+                && isUnsetOrEqual(filter.getStatus(), trade.getStatus())
+                && isUnsetOrEqual(filter.getBook(), trade.getBook())
+                && isUnsetOrEqual(filter.getTrader(), trade.getTrader());
+    }
+
+    private static boolean isUnsetOrEqual(String wanted, String actual) {
+        return !StringUtils.hasText(wanted) || wanted.trim().equals(actual);
+    }
+
     /**
      * Finds a trade by its ID.
      *
@@ -58,24 +354,102 @@ public class TradeService implements ITradeService {
     }
 
     /**
-     * Updates a trade by setting its ID and saving it.
+     * Updates the fields of a trade that the update form edits, whatever its current version.
      *
      * @param id    the trade ID to update
      * @param trade the trade data to update with
+     * @return true if the trade exists and was updated
+     */
+    @Override
+    public boolean updateTrade(Integer id, Trade trade) {
+        return updateTrade(id, trade, null);
+    }
+
+    /**
+     * Updates the fields of a trade that the update form edits, with optimistic concurrency.
+     * <p>
+     * A trade submitted with a version is only written at that version. When the trade has
+     * moved on, the submitted values are merged into the latest row field by field and the
+     * write is retried; only a field changed differently on both sides is a conflict.
+     * </p>
+     *
+     * @param id    the trade ID to update
+     * @param trade the trade data to update with, and the version it was edited on
+     * @param base  the trade data the user started from, or null if unknown
+     * @return true if the trade exists and was updated
+     * @throws ConcurrentUpdateConflictException if a concurrent update changed the same field
+     *                                           differently, or the retries ran out
      */
     @Override
-    public void updateTrade(Integer id, Trade trade) {
-        trade.setTradeId(id);
-        tradeRepository.save(trade);
+    public boolean updateTrade(Integer id, Trade trade, Trade base) {
+        if (trade.getVersion() == null) {
+            int updated = tradeRepository.updateEditableFields(id, trade.getAccount(), trade.getType(),
+                    trade.getBuyQuantity());
+            if (updated == 0) {
+                return false;
+            }
+            positionService.applyEdit(id, trade.getAccount(), trade.getBuyQuantity());
+            rollupService.invalidate(id);
+            recordEdit(id, trade);
+            return true;
+        }
+
+        Trade attempt = trade;
+        for (int i = 0; i < MAX_UPDATE_ATTEMPTS; i++) {
+            if (tradeRepository.updateEditableFieldsIfVersion(id, attempt.getVersion(), attempt.getAccount(),
+                    attempt.getType(), attempt.getBuyQuantity()) == 1) {
+                positionService.applyEdit(id, attempt.getAccount(), attempt.getBuyQuantity());
+                rollupService.invalidate(id);
+                recordEdit(id, attempt);
+                return true;
+            }
+            Optional<Trade> current = tradeRepository.findById(id);
+            if (current.isEmpty()) {
+                return false;
+            }
+            entityManager.detach(current.get());
+            attempt = merge(id, base, trade, current.get());
+        }
+        throw new ConcurrentUpdateConflictException(Trade.class, id, List.of());
+    }
+
+    private void recordEdit(Integer id, Trade trade) {
+        journalService.record(JournalEntity.TRADE, id, JournalEventKind.UPDATED, JournalPayloads.fields(
+                "account", trade.getAccount(), "type", trade.getType(), "buyQuantity", trade.getBuyQuantity()));
+    }
+
+    private static Trade merge(Integer id, Trade base, Trade mine, Trade current) {
+        boolean baseKnown = base != null;
+        List<String> conflicts = new ArrayList<>();
+        Trade merged = new Trade();
+        merged.setAccount(FieldMerge.pick("account", baseKnown, baseKnown ? base.getAccount() : null,
+                mine.getAccount(), current.getAccount(), conflicts));
+        merged.setType(FieldMerge.pick("type", baseKnown, baseKnown ? base.getType() : null,
+                mine.getType(), current.getType(), conflicts));
+        merged.setBuyQuantity(FieldMerge.pick("buyQuantity", baseKnown, baseKnown ? base.getBuyQuantity() : null,
+                mine.getBuyQuantity(), current.getBuyQuantity(), conflicts));
+        if (!conflicts.isEmpty()) {
+            throw new ConcurrentUpdateConflictException(Trade.class, id, conflicts);
+        }
+        merged.setVersion(current.getVersion() == null ? 0 : current.getVersion());
+        return merged;
     }
 
     /**
-     * Deletes a trade by its ID.
+     * Deletes a trade by its ID with a single DELETE statement, without loading it first.
      *
      * @param id the trade ID to delete
+     * @return true if the trade existed and was deleted
      */
     @Override
-    public void deleteTradeById(Integer id) {
-        tradeRepository.deleteById(id);
+    @Transactional
+    public boolean deleteTradeById(Integer id) {
+        rollupService.invalidate(id);
+        if (tradeRepository.deleteRowById(id) == 0) {
+            return false;
+        }
+        positionService.remove(id);
+        journalService.record(JournalEntity.TRADE, id, JournalEventKind.DELETED, null);
+        return true;
     }
 }
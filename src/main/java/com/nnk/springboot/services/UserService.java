@@ -0,0 +1,121 @@
+package com.nnk.springboot.services;
+
+import com.nnk.springboot.dto.UserSummary;
+import com.nnk.springboot.model.User;
+import com.nnk.springboot.repositories.UserRepository;
+import com.nnk.springboot.services.contracts.IUserService;
+import org.springframework.data.domain.Sort;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Service implementation for managing User entities.
+ */
+@Service
+public class UserService implements IUserService {
+
+    private static final Set<String> SORTABLE_PROPERTIES = Set.of("username", "fullname", "role");
+
+    private final UserRepository userRepository;
+    private final PasswordEncoder passwordEncoder;
+
+    /**
+     * Constructor for UserService.
+     *
+     * @param userRepository  the repository used for User entity operations
+     * @param passwordEncoder the encoder used to hash user passwords
+     */
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+        this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+    }
+
+    /**
+     * Save a User entity, hashing its password first.
+     *
+     * @param user the User entity to save
+     * @return the saved User entity
+     */
+    @Override
+    public User saveUser(User user) {
+        user.setPassword(passwordEncoder.encode(user.getPassword()));
+        return userRepository.save(user);
+    }
+
+    /**
+     * Retrieve all User entities.
+     *
+     * @return a list of all User entities
+     */
+    @Override
+    public List<User> getAllUsers() {
+        return userRepository.findAll();
+    }
+
+    /**
+     * Retrieve the rows shown on the user list page as read-only projections, sorted in the database.
+     *
+     * @param sort      the property to sort on, or null to sort by id
+     * @param direction the sort direction, or null for ascending
+     * @return a list of User projections
+     * @throws IllegalArgumentException if the property is not sortable
+     */
+    @Override
+    public List<UserSummary> getUserSummaries(String sort, Sort.Direction direction) {
+        return userRepository.findAllSummaries(ListSorts.of(sort, direction, "id", SORTABLE_PROPERTIES));
+    }
+
+    /**
+     * Find a User entity by its username.
+     *
+     * @param username the username to look up
+     * @return an Optional containing the found User or empty if not found
+     */
+    @Override
+    public Optional<User> findByUsername(String username) {
+        return userRepository.findByUsername(username);
+    }
+
+    /**
+     * Find a User entity by its id.
+     *
+     * @param id the id of the User entity
+     * @return an Optional containing the found User or empty if not found
+     */
+    @Override
+    public Optional<User> findById(Integer id) {
+        return userRepository.findById(id);
+    }
+
+    /**
+     * Update the fields of a User that the update form edits, hashing the new password first.
+     * Runs as a single UPDATE statement.
+     *
+     * @param id   the id of the User to update
+     * @param user the User entity containing updated data
+     * @return true if the User exists and was updated
+     */
+    @Override
+    @Transactional
+    public boolean updateUser(Integer id, User user) {
+        return userRepository.updateEditableFields(id, user.getUsername(), passwordEncoder.encode(user.getPassword()),
+                user.getFullname(), user.getRole()) == 1;
+    }
+
+    /**
+     * Delete a User entity by id with a single DELETE statement, without loading it first.
+     *
+     * @param id the id of the User to delete
+     * @return true if the User existed and was deleted
+     */
+    @Override
+    @Transactional
+    public boolean deleteById(Integer id) {
+        return userRepository.deleteRowById(id) == 1;
+    }
+}
@@ -0,0 +1,556 @@
+package com.nnk.springboot.services;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.nnk.springboot.dto.WriteBehindStats;
+import com.nnk.springboot.exception.DuplicateSourceListIdException;
+import com.nnk.springboot.exception.WriteBehindQueueFullException;
+import com.nnk.springboot.journal.EventJournal;
+import com.nnk.springboot.journal.JournalEntity;
+import com.nnk.springboot.journal.JournalEventKind;
+import com.nnk.springboot.model.BidList;
+import com.nnk.springboot.model.Trade;
+import com.nnk.springboot.repositories.WriteBehindAppliedRepository;
+import com.nnk.springboot.services.contracts.IBidListService;
+import com.nnk.springboot.services.contracts.IDeduplicationService;
+import com.nnk.springboot.services.contracts.ITradeService;
+import com.nnk.springboot.services.contracts.IWriteBehindService;
+import com.nnk.springboot.writebehind.MpscArrayQueue;
+import com.nnk.springboot.writebehind.WriteBehindEntry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Optional write-behind mode for new trades and BidList entities, enabled by {@code app.write-behind.enabled}.
+ * <p>
+ * A request thread appends the entity to a local {@link EventJournal}, forces it to disk and returns
+ * the journal offset as its acknowledgement, without taking a database connection. Concurrent
+ * submissions share each fsync. The entity is then handed to a dedicated writer thread through a
+ * lock-free {@link MpscArrayQueue}; the writer drains up to {@code app.write-behind.batch-size}
+ * entries at a time and saves them in one transaction, as batched INSERTs.
+ * </p>
+ * <p>
+ * At most {@code app.write-behind.capacity} entries may be waiting: beyond that a submission waits
+ * for room, then fails with {@link WriteBehindQueueFullException} after
+ * {@code app.write-behind.offer-timeout-ms}. On shutdown, submissions are refused and the writer
+ * drains the queue before the database goes away. Entries it could not write stay in the journal,
+ * past the last applied offset, and are written when the application starts again. The offset of
+ * each entry is inserted in the transaction that saves it, so an entry saved just before a crash is
+ * skipped on replay, with or without a sourceListId.
+ * </p>
+ * <p>
+ * A batch failing with a transient error, such as a deadlock, is retried
+ * {@code app.write-behind.max-attempts} times, then its entries are written one at a time, so that
+ * one bad entry cannot hold back the others. A batch failing because of its data, such as a broken
+ * constraint or an invalid entity, is split at once, and an entry failing that way is not retried.
+ * An entry that still fails is appended with its error to the {@code dead-letter.ndjson} file of
+ * the journal directory and the applied offset moves past it. Failures reaching the database at
+ * all, such as a lost connection, are retried until they stop.
+ * </p>
+ */
+@Service
+public class WriteBehindService implements IWriteBehindService {
+
+    private static final Logger logger = LogManager.getLogger(WriteBehindService.class);
+
+    private static final ObjectMapper JSON = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private static final String APPLIED_FILE = "applied";
+    private static final String DEAD_LETTER_FILE = "dead-letter.ndjson";
+    private static final long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long FULL_BACKOFF_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final long MAX_RETRY_DELAY_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+    private final ITradeService tradeService;
+    private final IBidListService bidListService;
+    private final IDeduplicationService deduplicationService;
+    private final WriteBehindAppliedRepository appliedRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.write-behind.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.write-behind.directory:write-behind}")
+    private String directory = "write-behind";
+
+    @Value("${app.write-behind.segment-size:16777216}")
+    private int segmentSize = 16 * 1024 * 1024;
+
+    @Value("${app.write-behind.capacity:10000}")
+    private int capacity = 10000;
+
+    @Value("${app.write-behind.batch-size:500}")
+    private int batchSize = 500;
+
+    @Value("${app.write-behind.offer-timeout-ms:2000}")
+    private long offerTimeoutMillis = 2000;
+
+    @Value("${app.write-behind.shutdown-timeout-ms:30000}")
+    private long shutdownTimeoutMillis = 30000;
+
+    @Value("${app.write-behind.max-attempts:5}")
+    private int maxAttempts = 5;
+
+    @Value("${app.write-behind.retry-delay-ms:1000}")
+    private long retryDelayMillis = 1000;
+
+    private EventJournal journal;
+    private MpscArrayQueue<WriteBehindEntry> queue;
+    private Thread writer;
+    private volatile boolean accepting;
+
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    // Written by the writer thread only
+    private final PriorityQueue<Long> appliedAhead = new PriorityQueue<>();
+    private volatile long appliedSequence;
+    private long recordedSequence;
+    private long prunedSequence;
+    private volatile long deadLettered;
+    private volatile long written;
+    private volatile long batches;
+    private volatile int lastBatchSize;
+    private volatile long totalDrainNanos;
+    private volatile long maxDrainNanos;
+
+    /**
+     * Constructor for WriteBehindService.
+     *
+     * @param tradeService         the service the queued trades are saved with
+     * @param bidListService       the service the queued BidList entities are saved with
+     * @param deduplicationService the check rejecting submissions resent with a known sourceListId
+     * @param appliedRepository    the offsets of the entries saved, skipped on replay
+     * @param transactionManager   the transaction manager each batch is committed with
+     */
+    public WriteBehindService(ITradeService tradeService, IBidListService bidListService,
+                              IDeduplicationService deduplicationService,
+                              WriteBehindAppliedRepository appliedRepository,
+                              PlatformTransactionManager transactionManager) {
+        this.tradeService = tradeService;
+        this.bidListService = bidListService;
+        this.deduplicationService = deduplicationService;
+        this.appliedRepository = appliedRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Open the journal, write the entries left by the previous run and start the writer.
+     *
+     * @throws IOException if the journal cannot be opened or read
+     */
+    @PostConstruct
+    public void open() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        journal = EventJournal.open(Path.of(directory), segmentSize);
+        appliedSequence = readApplied();
+        recordedSequence = appliedSequence;
+        prunedSequence = appliedSequence;
+        queue = new MpscArrayQueue<>(capacity);
+
+        // Entries committed after the applied file was last written are skipped by offset
+        Set<Long> saved = new HashSet<>(appliedRepository.findSequencesAfter(appliedSequence));
+        List<WriteBehindEntry> pending = new ArrayList<>();
+        List<Long> skipped = new ArrayList<>();
+        journal.scan(appliedSequence + 1, event -> {
+            if (saved.contains(event.getSequence())) {
+                skipped.add(event.getSequence());
+            } else {
+                pending.add(new WriteBehindEntry(event.getSequence(), event.getEntity(), event.getPayload(),
+                        System.nanoTime()));
+            }
+            return true;
+        });
+        applied(skipped);
+        for (int i = 0; i < pending.size(); i += batchSize) {
+            if (!writeOrDeadLetter(pending.subList(i, Math.min(i + batchSize, pending.size())))) {
+                throw new IOException("Write-behind replay interrupted");
+            }
+        }
+        if (!pending.isEmpty() || !skipped.isEmpty()) {
+            logger.info("Write-behind replayed {} entries left by the previous run, skipped {} already saved",
+                    pending.size(), skipped.size());
+        }
+
+        accepting = true;
+        writer = new Thread(this::drain, "write-behind-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Refuse new submissions, wait for the writer to drain the queue and close the journal.
+     *
+     * @throws IOException if the journal cannot be closed
+     */
+    @PreDestroy
+    public void close() throws IOException {
+        if (!enabled || writer == null) {
+            return;
+        }
+        accepting = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(shutdownTimeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer.isAlive()) {
+            logger.warn("Write-behind queue not drained after {} ms: {} entries kept for the next start",
+                    shutdownTimeoutMillis, outstanding.get());
+            writer.interrupt();
+        }
+        journal.close();
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queue a new trade, once it is on disk in the local journal.
+     *
+     * @param trade the new trade, already validated
+     * @return the journal offset acknowledging the trade
+     * @throws DuplicateSourceListIdException if its sourceListId is already saved
+     * @throws WriteBehindQueueFullException  if the queue stayed full
+     */
+    @Override
+    public long submit(Trade trade) {
+        if (deduplicationService.isDuplicate(trade)) {
+            throw new DuplicateSourceListIdException(Trade.class, trade.getSourceListId());
+        }
+        return submit(JournalEntity.TRADE, trade);
+    }
+
+    /**
+     * Queue a new BidList, once it is on disk in the local journal.
+     *
+     * @param bidList the new BidList, already validated
+     * @return the journal offset acknowledging the BidList
+     * @throws DuplicateSourceListIdException if its sourceListId is already saved
+     * @throws WriteBehindQueueFullException  if the queue stayed full
+     */
+    @Override
+    public long submit(BidList bidList) {
+        if (deduplicationService.isDuplicate(bidList)) {
+            throw new DuplicateSourceListIdException(BidList.class, bidList.getSourceListId());
+        }
+        return submit(JournalEntity.BID_LIST, bidList);
+    }
+
+    private long submit(JournalEntity entity, Object value) {
+        if (!enabled) {
+            throw new IllegalStateException("Write-behind is disabled");
+        }
+        byte[] payload;
+        try {
+            payload = JSON.writeValueAsBytes(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        reserve();
+        long sequence;
+        try {
+            if (!accepting) {
+                throw new IllegalStateException("Write-behind is shutting down");
+            }
+            sequence = journal.append(entity, 0, JournalEventKind.CREATED, payload);
+        } catch (IOException e) {
+            outstanding.decrementAndGet();
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            outstanding.decrementAndGet();
+            throw e;
+        }
+        // Queued before the fsync, so that no appended entry can be left out of the queue
+        if (!queue.offer(new WriteBehindEntry(sequence, entity, payload, System.nanoTime()))) {
+            // cannot happen while every entry holds a reserved place; replayed from the journal on restart
+            outstanding.decrementAndGet();
+            throw new IllegalStateException("Write-behind queue refused entry " + sequence
+                    + " despite its reserved place");
+        }
+        enqueued.increment();
+        LockSupport.unpark(writer);
+        journal.force();
+        return sequence;
+    }
+
+    /**
+     * Take one of the {@code capacity} places of the queue, waiting while it is full.
+     */
+    private void reserve() {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(offerTimeoutMillis);
+        while (true) {
+            int current = outstanding.get();
+            if (current < capacity && outstanding.compareAndSet(current, current + 1)) {
+                return;
+            }
+            if (current >= capacity) {
+                if (System.nanoTime() - deadline > 0) {
+                    rejected.increment();
+                    throw new WriteBehindQueueFullException(capacity,
+                            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                }
+                LockSupport.parkNanos(FULL_BACKOFF_NANOS);
+            }
+        }
+    }
+
+    private void drain() {
+        List<WriteBehindEntry> batch = new ArrayList<>(batchSize);
+        while (!Thread.currentThread().isInterrupted()) {
+            WriteBehindEntry entry;
+            while (batch.size() < batchSize && (entry = queue.poll()) != null) {
+                batch.add(entry);
+            }
+            if (batch.isEmpty()) {
+                if (!accepting && outstanding.get() == 0) {
+                    return;
+                }
+                LockSupport.parkNanos(IDLE_NANOS);
+                continue;
+            }
+            if (!writeOrDeadLetter(batch)) {
+                return;
+            }
+            outstanding.addAndGet(-batch.size());
+            batch.clear();
+        }
+    }
+
+    /**
+     * Write a batch, or its entries one at a time once the batch keeps failing, dead-lettering
+     * the entries that still fail.
+     *
+     * @return false if the writer was interrupted or an entry could not be dead-lettered
+     */
+    private boolean writeOrDeadLetter(List<WriteBehindEntry> batch) {
+        try {
+            if (batch.size() > 1) {
+                if (writeWithRetry(batch) == null) {
+                    return true;
+                }
+                logger.warn("Write-behind batch of {} entries failed, writing its entries one at a time",
+                        batch.size());
+            }
+            for (WriteBehindEntry entry : batch) {
+                Exception failure = writeWithRetry(List.of(entry));
+                if (failure != null) {
+                    deadLetter(entry, failure);
+                }
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (IOException e) {
+            logger.error("Write-behind dead letter file cannot be written, writer stopped", e);
+            return false;
+        }
+    }
+
+    /**
+     * Write a batch, retrying a transient failure up to {@code maxAttempts} times, and for as long
+     * as the database cannot be reached. Any other failure is returned at once.
+     *
+     * @return null once written, else the last failure
+     */
+    private Exception writeWithRetry(List<WriteBehindEntry> batch) throws InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                write(batch);
+                return null;
+            } catch (IOException | RuntimeException e) {
+                logger.error("Write-behind batch of {} entries failed, attempt {}", batch.size(), attempt, e);
+                if (!isTransient(e) || (attempt >= maxAttempts && !isUnavailable(e))) {
+                    return e;
+                }
+            }
+            // Slept rather than parked, so that new submissions do not cut the delay short
+            TimeUnit.MILLISECONDS.sleep(Math.min(attempt * retryDelayMillis, MAX_RETRY_DELAY_MILLIS));
+        }
+    }
+
+    /**
+     * @return true if the failure comes from the database being unreachable rather than from the entries
+     */
+    private static boolean isUnavailable(Exception e) {
+        return e instanceof CannotCreateTransactionException || e instanceof DataAccessResourceFailureException
+                || e instanceof RecoverableDataAccessException;
+    }
+
+    /**
+     * @return true if writing the same entries again may succeed; false for a failure caused by the
+     * entries themselves, such as a broken constraint, an invalid entity or an unreadable payload
+     */
+    private static boolean isTransient(Exception e) {
+        return isUnavailable(e) || e instanceof TransientDataAccessException;
+    }
+
+    /**
+     * Save a batch in one transaction, with the offsets of its entries, then move the applied offset
+     * past every entry written.
+     */
+    private void write(List<WriteBehindEntry> batch) throws IOException {
+        List<Trade> trades = new ArrayList<>();
+        List<BidList> bidLists = new ArrayList<>();
+        List<Long> sequences = new ArrayList<>(batch.size());
+        for (WriteBehindEntry entry : batch) {
+            if (entry.getEntity() == JournalEntity.TRADE) {
+                trades.add(JSON.readValue(entry.getPayload(), Trade.class));
+            } else {
+                bidLists.add(JSON.readValue(entry.getPayload(), BidList.class));
+            }
+            sequences.add(entry.getSequence());
+        }
+        long prune = recordedSequence;
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!trades.isEmpty()) {
+                tradeService.saveTrades(trades);
+            }
+            if (!bidLists.isEmpty()) {
+                bidListService.saveBidLists(bidLists);
+            }
+            if (prune > prunedSequence) {
+                appliedRepository.deleteUpTo(prune);
+            }
+            appliedRepository.recordApplied(sequences);
+        });
+        prunedSequence = Math.max(prunedSequence, prune);
+
+        long now = System.nanoTime();
+        long drainNanos = 0;
+        for (WriteBehindEntry entry : batch) {
+            long latency = now - entry.getEnqueuedNanos();
+            drainNanos += latency;
+            maxDrainNanos = Math.max(maxDrainNanos, latency);
+        }
+        totalDrainNanos += drainNanos;
+        written += batch.size();
+        batches++;
+        lastBatchSize = batch.size();
+        applied(sequences);
+    }
+
+    /**
+     * Append an entry that cannot be written to the dead letter file, with its error, and move the
+     * applied offset past it.
+     */
+    private void deadLetter(WriteBehindEntry entry, Exception failure) throws IOException {
+        ObjectNode line = JSON.createObjectNode()
+                .put("sequence", entry.getSequence())
+                .put("entity", entry.getEntity().name())
+                .put("failedAt", Instant.now().toString())
+                .put("error", failure.toString());
+        try {
+            line.set("payload", JSON.readTree(entry.getPayload()));
+        } catch (IOException e) {
+            line.put("payload", new String(entry.getPayload(), StandardCharsets.UTF_8));
+        }
+        Files.write(Path.of(directory, DEAD_LETTER_FILE), (JSON.writeValueAsString(line) + "\n").getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.SYNC);
+        deadLettered++;
+        logger.error("Write-behind entry {} moved to {}", entry.getSequence(), DEAD_LETTER_FILE);
+        applied(List.of(entry.getSequence()));
+    }
+
+    /**
+     * Move the applied offset past the given entries, once every entry before them is applied too.
+     * The entries are already saved or dead-lettered, so a failure to record the offset on disk is
+     * only logged: it is recorded with a later batch, and replay skips the saved entries meanwhile.
+     */
+    private void applied(List<Long> sequences) {
+        appliedAhead.addAll(sequences);
+        long applied = appliedSequence;
+        while (!appliedAhead.isEmpty() && appliedAhead.peek() <= applied + 1) {
+            applied = Math.max(applied, appliedAhead.poll());
+        }
+        appliedSequence = applied;
+        if (applied == recordedSequence) {
+            return;
+        }
+        try {
+            writeApplied(applied);
+            recordedSequence = applied;
+            journal.deleteSegmentsBefore(applied + 1);
+        } catch (IOException e) {
+            logger.warn("Write-behind applied offset {} not recorded", applied, e);
+        }
+    }
+
+    private long readApplied() throws IOException {
+        Path file = Path.of(directory, APPLIED_FILE);
+        return Files.exists(file) ? Long.parseLong(Files.readString(file, StandardCharsets.UTF_8).trim()) : 0;
+    }
+
+    private void writeApplied(long sequence) throws IOException {
+        Path file = Path.of(directory, APPLIED_FILE);
+        Path temporary = Path.of(directory, APPLIED_FILE + ".tmp");
+        Files.writeString(temporary, Long.toString(sequence), StandardCharsets.UTF_8);
+        Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Wait until every acknowledged entry is in the database.
+     *
+     * @param timeoutMillis the longest time to wait
+     * @return true if the queue is empty
+     */
+    @Override
+    public boolean awaitDrained(long timeoutMillis) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (outstanding.get() > 0) {
+            if (System.nanoTime() - deadline > 0) {
+                return false;
+            }
+            LockSupport.parkNanos(IDLE_NANOS);
+        }
+        return true;
+    }
+
+    /**
+     * @return the queue depth, counters and drain latency
+     */
+    @Override
+    public WriteBehindStats getStats() {
+        long count = written;
+        return new WriteBehindStats(enabled, capacity, outstanding.get(), enqueued.sum(), count, rejected.sum(),
+                batches, lastBatchSize, count == 0 ? 0 : totalDrainNanos / 1e6 / count, maxDrainNanos / 1e6,
+                journal == null ? 0 : journal.getDurableSequence(), appliedSequence, deadLettered);
+    }
+}
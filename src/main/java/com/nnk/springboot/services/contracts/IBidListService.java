@@ -1,7 +1,15 @@
 package com.nnk.springboot.services.contracts;
 
+import com.nnk.springboot.dto.BidListSortKey;
+import com.nnk.springboot.dto.BidListSummary;
+import com.nnk.springboot.dto.DealFilter;
+import com.nnk.springboot.export.ExportFormat;
 import com.nnk.springboot.model.BidList;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Optional;
 
@@ -9,11 +17,20 @@ public interface IBidListService {
 
     BidList saveBidList(BidList bidList);
 
+    int saveBidLists(List<BidList> bidLists);
+
     List<BidList> getAllBidLists();
 
+    Window<BidListSummary> getBidListWindow(DealFilter filter, BidListSortKey sortKey, Sort.Direction direction,
+                                            Integer size, Integer afterId, String afterKey);
+
+    long exportBidLists(OutputStream out, ExportFormat format) throws IOException;
+
     Optional<BidList> findBidListById(Integer id);
 
-    void updateBidList(Integer id, BidList bidList);
+    boolean updateBidList(Integer id, BidList bidList);
+
+    boolean updateBidList(Integer id, BidList bidList, BidList base);
 
-    void deleteBidListById(Integer id);
+    boolean deleteBidListById(Integer id);
 }
@@ -0,0 +1,22 @@
+package com.nnk.springboot.services.contracts;
+
+import com.nnk.springboot.dto.BlotterPage;
+import com.nnk.springboot.export.ExportFormat;
+import com.nnk.springboot.model.Trade;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+
+public interface IBlotterService {
+
+    BlotterPage getPage(String book, LocalDateTime from, LocalDateTime to, LocalDateTime afterDate,
+                        Integer afterId, Integer limit);
+
+    BlotterPage tail(String book, Long afterSeq, Integer afterId, Integer limit);
+
+    void stampOnCommit(Trade trade);
+
+    long stream(String book, LocalDateTime from, LocalDateTime to, OutputStream out, ExportFormat format)
+            throws IOException;
+}
@@ -0,0 +1,13 @@
+package com.nnk.springboot.services.contracts;
+
+import com.nnk.springboot.dto.ChartSeries;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface IChartService {
+
+    Optional<ChartSeries> getCurveChart(Integer curveId, LocalDateTime asOfDate, int budget);
+
+    ChartSeries getHistoryChart(Integer curveId, double term, LocalDateTime from, LocalDateTime to, int budget);
+}
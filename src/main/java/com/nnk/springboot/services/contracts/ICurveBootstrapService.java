@@ -0,0 +1,14 @@
+package com.nnk.springboot.services.contracts;
+
+import com.nnk.springboot.curve.BootstrappedCurve;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface ICurveBootstrapService {
+
+    Optional<BootstrappedCurve> bootstrap(Integer curveId, LocalDateTime asOfDate);
+
+    List<BootstrappedCurve> bootstrapAll(List<Integer> curveIds, LocalDateTime asOfDate);
+}
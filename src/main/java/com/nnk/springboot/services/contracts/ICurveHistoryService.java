@@ -0,0 +1,23 @@
+package com.nnk.springboot.services.contracts;
+
+import com.nnk.springboot.dto.CurveSnapshot;
+import com.nnk.springboot.model.CurvePoint;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface ICurveHistoryService {
+
+    void recordSaved(CurvePoint curvePoint);
+
+    void recordUpdated(Integer id, Double term, Double value);
+
+    void recordDeleted(Integer id);
+
+    void recordCurveDeleted(Integer curveId, Timestamp asOfDate, Timestamp recordedAt);
+
+    void recordCurveSaved(Integer curveId, Timestamp asOfDate, Timestamp recordedAt);
+
+    Optional<CurveSnapshot> getSnapshot(Integer curveId, LocalDateTime validAt, LocalDateTime knownAt);
+}
@@ -1,6 +1,11 @@
 package com.nnk.springboot.services.contracts;
 
+import com.nnk.springboot.dto.CurvePointFilter;
+import com.nnk.springboot.dto.CurvePointSummary;
+import com.nnk.springboot.dto.CurveUpload;
+import com.nnk.springboot.dto.CurveUploadResult;
 import com.nnk.springboot.model.CurvePoint;
+import org.springframework.data.domain.Sort;
 
 import java.util.List;
 import java.util.Optional;
@@ -11,9 +16,13 @@ public interface ICurvePointService {
 
     List<CurvePoint> getAllCurvePoints();
 
+    List<CurvePointSummary> getCurvePointSummaries(CurvePointFilter filter, String sort, Sort.Direction direction);
+
     Optional<CurvePoint> findCurvePointById(Integer id);
 
-    void updateCurvePoint(Integer id, CurvePoint curvePoint);
+    boolean updateCurvePoint(Integer id, CurvePoint curvePoint);
+
+    boolean deleteCurvePointById(Integer id);
 
-    void deleteCurvePointById(Integer id);    
+    CurveUploadResult replaceCurve(CurveUpload upload);
 }
@@ -0,0 +1,26 @@
+package com.nnk.springboot.services.contracts;
+
+import com.nnk.springboot.curve.Curve;
+import com.nnk.springboot.curve.Interpolation;
+import com.nnk.springboot.model.CurvePoint;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface ICurveService {
+
+    Optional<Curve> getCurve(Integer curveId, LocalDateTime asOfDate);
+
+    long getCurveVersion(Integer curveId, LocalDateTime asOfDate);
+
+    double[] interpolate(Integer curveId, LocalDateTime asOfDate, double[] terms, Interpolation interpolation);
+
+    void pointSaved(CurvePoint curvePoint);
+
+    void pointUpdated(Integer id, Double term, Double value);
+
+    void pointDeleted(Integer id);
+
+    void curveReplaced(Integer curveId, LocalDateTime asOfDate, List<CurvePoint> curvePoints);
+}
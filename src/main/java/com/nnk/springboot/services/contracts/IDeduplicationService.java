@@ -0,0 +1,21 @@
+package com.nnk.springboot.services.contracts;
+
+import com.nnk.springboot.model.BidList;
+import com.nnk.springboot.model.Trade;
+
+import java.util.Collection;
+
+public interface IDeduplicationService {
+
+    boolean isDuplicate(Trade trade);
+
+    boolean isDuplicate(BidList bidList);
+
+    void register(Trade trade);
+
+    void register(BidList bidList);
+
+    void archived(Collection<Trade> trades);
+
+    long rebuild();
+}
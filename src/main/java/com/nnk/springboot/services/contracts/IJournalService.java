@@ -0,0 +1,26 @@
+package com.nnk.springboot.services.contracts;
+
+import com.nnk.springboot.dto.JournalSnapshotResult;
+import com.nnk.springboot.journal.JournalEntity;
+import com.nnk.springboot.journal.JournalEvent;
+import com.nnk.springboot.journal.JournalEventKind;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public interface IJournalService {
+
+    void record(JournalEntity entity, Integer id, JournalEventKind kind, Map<String, Object> changes);
+
+    void recordAll(JournalEntity entity, JournalEventKind kind, Map<Integer, Map<String, Object>> changesById);
+
+    void flush();
+
+    List<JournalEvent> getHistory(JournalEntity entity, Integer id);
+
+    Optional<Map<String, Object>> getStateAsOf(JournalEntity entity, Integer id, LocalDateTime at);
+
+    JournalSnapshotResult snapshot();
+}
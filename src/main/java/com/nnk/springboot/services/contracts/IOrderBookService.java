@@ -0,0 +1,25 @@
+package com.nnk.springboot.services.contracts;
+
+import com.nnk.springboot.model.BidList;
+import com.nnk.springboot.orderbook.OrderBookDepth;
+import com.nnk.springboot.orderbook.TopOfBook;
+import com.nnk.springboot.orderbook.TopOfBookStats;
+
+import java.util.Optional;
+
+public interface IOrderBookService {
+
+    void apply(BidList bidList);
+
+    void applyBidQuantity(Integer bidListId, Double bidQuantity);
+
+    void remove(Integer bidListId);
+
+    OrderBookDepth getDepth(String security, int depth);
+
+    Optional<TopOfBook> getTopOfBook(String security);
+
+    TopOfBookStats getTopOfBookStats();
+
+    int rebuild();
+}
@@ -0,0 +1,15 @@
+package com.nnk.springboot.services.contracts;
+
+import com.nnk.springboot.pnl.PnlReport;
+import com.nnk.springboot.pnl.TradePnl;
+
+import java.util.Optional;
+
+public interface IPnlService {
+
+    PnlReport getReport();
+
+    PnlReport refresh();
+
+    Optional<TradePnl> getTradePnl(Integer tradeId);
+}
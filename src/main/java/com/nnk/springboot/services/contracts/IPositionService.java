@@ -0,0 +1,27 @@
+package com.nnk.springboot.services.contracts;
+
+import com.nnk.springboot.model.Trade;
+import com.nnk.springboot.position.Position;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface IPositionService {
+
+    void apply(Trade trade);
+
+    void applyAll(Collection<Trade> trades);
+
+    void applyEdit(Integer tradeId, String account, Double buyQuantity);
+
+    void remove(Integer tradeId);
+
+    void archived(Collection<Integer> tradeIds);
+
+    Optional<Position> getPosition(String account, String book, String security);
+
+    List<Position> getPositions(String account);
+
+    int rebuild();
+}
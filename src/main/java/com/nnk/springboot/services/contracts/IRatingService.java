@@ -1,6 +1,8 @@
 package com.nnk.springboot.services.contracts;
 
+import com.nnk.springboot.dto.RatingSummary;
 import com.nnk.springboot.model.Rating;
+import org.springframework.data.domain.Sort;
 
 import java.util.List;
 import java.util.Optional;
@@ -11,9 +13,11 @@ public interface IRatingService {
 
     List<Rating> getAllRatings();
 
+    List<RatingSummary> getRatingSummaries(String sort, Sort.Direction direction);
+
     Optional<Rating> findRatingById(Integer id);
 
-    void updateRating(Integer id, Rating rating);
+    boolean updateRating(Integer id, Rating rating);
 
-    void deleteRatingById(Integer id);
+    boolean deleteRatingById(Integer id);
 }
@@ -0,0 +1,18 @@
+package com.nnk.springboot.services.contracts;
+
+import com.nnk.springboot.dto.ReconciliationResult;
+import com.nnk.springboot.recon.ReconField;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+public interface IReconciliationService {
+
+    ReconciliationResult reconcile(LocalDate date, List<ReconField> keys);
+
+    Optional<ReconciliationResult> getLatest();
+
+    Optional<Path> getReport(String id);
+}
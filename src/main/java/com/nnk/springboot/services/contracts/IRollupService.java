@@ -0,0 +1,29 @@
+package com.nnk.springboot.services.contracts;
+
+import com.nnk.springboot.dto.RollupBackfillResult;
+import com.nnk.springboot.dto.RollupBar;
+import com.nnk.springboot.model.Trade;
+import com.nnk.springboot.rollup.RollupInterval;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface IRollupService {
+
+    void apply(Trade trade);
+
+    void applyAll(Collection<Trade> trades);
+
+    void invalidate(Integer tradeId);
+
+    void invalidate(Trade trade);
+
+    List<RollupBar> getBars(String security, RollupInterval interval, LocalDateTime from, LocalDateTime to);
+
+    int flush();
+
+    long rebuild();
+
+    RollupBackfillResult backfill(LocalDateTime from, LocalDateTime to);
+}
@@ -1,6 +1,8 @@
 package com.nnk.springboot.services.contracts;
 
+import com.nnk.springboot.dto.RuleNameSummary;
 import com.nnk.springboot.model.RuleName;
+import org.springframework.data.domain.Sort;
 
 import java.util.List;
 import java.util.Optional;
@@ -11,9 +13,11 @@ public interface IRuleNameService {
 
     List<RuleName> getAllRuleNames();
 
+    List<RuleNameSummary> getRuleNameSummaries(String sort, Sort.Direction direction);
+
     Optional<RuleName> findRuleNameById(Integer id);
 
-    void updateRuleName(Integer id, RuleName ruleName);
+    boolean updateRuleName(Integer id, RuleName ruleName);
 
-    void deleteRuleNameById(Integer id);
+    boolean deleteRuleNameById(Integer id);
 }
\ No newline at end of file
@@ -0,0 +1,8 @@
+package com.nnk.springboot.services.contracts;
+
+import com.nnk.springboot.dto.TradeArchiveResult;
+
+public interface ITradeArchiveService {
+
+    TradeArchiveResult archive();
+}
@@ -0,0 +1,16 @@
+package com.nnk.springboot.services.contracts;
+
+import com.nnk.springboot.dto.TradeImportProgress;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Optional;
+
+public interface ITradeImportService {
+
+    TradeImportProgress importFile(Path file) throws IOException;
+
+    TradeImportProgress start(String fileName);
+
+    Optional<TradeImportProgress> getProgress();
+}
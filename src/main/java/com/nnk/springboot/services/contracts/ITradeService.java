@@ -1,7 +1,15 @@
 package com.nnk.springboot.services.contracts;
 
+import com.nnk.springboot.dto.DealFilter;
+import com.nnk.springboot.dto.TradeHistoryPage;
+import com.nnk.springboot.dto.TradeSummary;
+import com.nnk.springboot.export.ExportFormat;
 import com.nnk.springboot.model.Trade;
+import org.springframework.data.domain.Sort;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -9,11 +17,23 @@ public interface ITradeService {
 
     Trade saveTrade(Trade trade);
 
+    int saveTrades(List<Trade> trades);
+
     List<Trade> getAllTrades();
 
+    List<TradeSummary> getTradeSummaries(DealFilter filter, String sort, Sort.Direction direction);
+
+    long exportTrades(OutputStream out, ExportFormat format) throws IOException;
+
+    TradeHistoryPage getTradeHistory(DealFilter filter, LocalDateTime afterDate, Integer afterId, Integer limit);
+
+    long exportTradeHistory(DealFilter filter, OutputStream out, ExportFormat format) throws IOException;
+
     Optional<Trade> findTradeById(Integer id);
 
-    void updateTrade(Integer id, Trade trade);
+    boolean updateTrade(Integer id, Trade trade);
+
+    boolean updateTrade(Integer id, Trade trade, Trade base);
 
-    void deleteTradeById(Integer id);
+    boolean deleteTradeById(Integer id);
 }
@@ -1,6 +1,8 @@
 package com.nnk.springboot.services.contracts;
 
+import com.nnk.springboot.dto.UserSummary;
 import com.nnk.springboot.model.User;
+import org.springframework.data.domain.Sort;
 
 import java.util.List;
 import java.util.Optional;
@@ -11,9 +13,13 @@ public interface IUserService {
 
     List<User> getAllUsers();
 
+    List<UserSummary> getUserSummaries(String sort, Sort.Direction direction);
+
     Optional<User> findByUsername(String username);
 
     Optional<User> findById(Integer id);
 
-    void deleteById(Integer user);
+    boolean updateUser(Integer id, User user);
+
+    boolean deleteById(Integer id);
 }
@@ -0,0 +1,18 @@
+package com.nnk.springboot.services.contracts;
+
+import com.nnk.springboot.dto.WriteBehindStats;
+import com.nnk.springboot.model.BidList;
+import com.nnk.springboot.model.Trade;
+
+public interface IWriteBehindService {
+
+    boolean isEnabled();
+
+    long submit(Trade trade);
+
+    long submit(BidList bidList);
+
+    boolean awaitDrained(long timeoutMillis);
+
+    WriteBehindStats getStats();
+}
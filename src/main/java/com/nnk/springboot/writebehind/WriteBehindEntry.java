@@ -0,0 +1,46 @@
+package com.nnk.springboot.writebehind;
+
+import com.nnk.springboot.journal.JournalEntity;
+
+/**
+ * A new trade or BidList waiting in the write-behind queue, as appended to its local journal.
+ */
+public final class WriteBehindEntry {
+
+    private final long sequence;
+    private final JournalEntity entity;
+    private final byte[] payload;
+    private final long enqueuedNanos;
+
+    public WriteBehindEntry(long sequence, JournalEntity entity, byte[] payload, long enqueuedNanos) {
+        this.sequence = sequence;
+        this.entity = entity;
+        this.payload = payload;
+        this.enqueuedNanos = enqueuedNanos;
+    }
+
+    /**
+     * @return the offset of the entry in the write-behind journal
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    public JournalEntity getEntity() {
+        return entity;
+    }
+
+    /**
+     * @return the entity encoded as JSON
+     */
+    public byte[] getPayload() {
+        return payload;
+    }
+
+    /**
+     * @return the {@link System#nanoTime()} at which the entry was queued
+     */
+    public long getEnqueuedNanos() {
+        return enqueuedNanos;
+    }
+}
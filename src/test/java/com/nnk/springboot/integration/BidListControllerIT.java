@@ -12,8 +12,13 @@ import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 
-import static org.hamcrest.Matchers.hasSize;
+import java.sql.Timestamp;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -48,6 +53,93 @@ public class BidListControllerIT {
                 .andExpect(model().attribute("bidLists", hasSize(2)));
     }
 
+    @Test
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void testHome_ShouldSeekPastCursor() throws Exception {
+        mockMvc.perform(get("/bidList/list").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("bidLists", hasSize(1)))
+                .andExpect(model().attribute("bidLists", contains(hasProperty("account", is("Account Test 1")))))
+                .andExpect(model().attribute("hasNext", true))
+                .andExpect(model().attributeExists("nextAfterId"));
+
+        Integer firstId = bidListRepository.findAll().stream()
+                .filter(bid -> bid.getAccount().equals("Account Test 1"))
+                .findFirst().orElseThrow().getBidListId();
+
+        mockMvc.perform(get("/bidList/list").param("size", "1").param("afterId", firstId.toString()))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("bidLists", contains(hasProperty("account", is("Account Test 2")))));
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void testHome_ShouldSeekOnSortKey() throws Exception {
+        mockMvc.perform(get("/bidList/list")
+                        .param("sort", "BID_QUANTITY")
+                        .param("dir", "DESC")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("bidLists", contains(hasProperty("bidQuantity", is(20.0)))))
+                .andExpect(model().attribute("nextAfterKey", "20.0"));
+
+        Integer topId = bidListRepository.findAll().stream()
+                .filter(bid -> bid.getBidQuantity() == 20.0)
+                .findFirst().orElseThrow().getBidListId();
+
+        mockMvc.perform(get("/bidList/list")
+                        .param("sort", "BID_QUANTITY")
+                        .param("dir", "DESC")
+                        .param("size", "1")
+                        .param("afterId", topId.toString())
+                        .param("afterKey", "20.0"))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("bidLists", contains(hasProperty("bidQuantity", is(10.0)))))
+                .andExpect(model().attribute("hasNext", false));
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void testHome_ShouldFilterOnSecurityAndDateRange() throws Exception {
+        BidList inRange = new BidList("Account Test 3", "Type Test 3", 30.0);
+        inRange.setSecurity("FR0000");
+        inRange.setBidListDate(Timestamp.valueOf("2024-03-15 10:30:00"));
+        BidList outOfRange = new BidList("Account Test 4", "Type Test 4", 40.0);
+        outOfRange.setSecurity("FR0000");
+        outOfRange.setBidListDate(Timestamp.valueOf("2024-04-01 00:00:00"));
+        bidListRepository.save(inRange);
+        bidListRepository.save(outOfRange);
+
+        mockMvc.perform(get("/bidList/list")
+                        .param("security", "FR0000")
+                        .param("from", "2024-03-01")
+                        .param("to", "2024-03-31"))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("bidLists", contains(hasProperty("account", is("Account Test 3")))))
+                .andExpect(content().string(containsString("&amp;security=FR0000&amp;from=2024-03-01&amp;to=2024-03-31")));
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void testExport_ShouldStreamCsv() throws Exception {
+        mockMvc.perform(get("/bidList/export"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(header().string("Content-Disposition", containsString("bidlist.csv")))
+                .andExpect(content().string(startsWith("bidListId,account,type,bidQuantity,")))
+                .andExpect(content().string(containsString(",Account Test 2,Type Test 2,20.0,")));
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void testExport_ShouldStreamNdjson() throws Exception {
+        mockMvc.perform(get("/bidList/export").param("format", "NDJSON"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andExpect(content().string(containsString("\"account\":\"Account Test 1\"")))
+                .andExpect(content().string(containsString("\"bidQuantity\":20.0")));
+    }
+
     @Test
     @WithMockUser(username = "admin", roles = {"ADMIN"})
     void testAddBidForm_ShouldDisplayAddForm() throws Exception {
@@ -82,6 +174,134 @@ public class BidListControllerIT {
                 .andExpect(model().hasErrors());
     }
 
+    @Test
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void testValidateBid_ShouldReportIdInsertedConcurrentlyAsDuplicate() throws Exception {
+        // saved behind the duplicate filter's back, as a concurrent insert still in flight would be
+        BidList raced = new BidList("Raced", "Type", 1.0);
+        raced.setSourceListId("SRC-RACED");
+        bidListRepository.save(raced);
+
+        mockMvc.perform(post("/bidList/validate")
+                        .with(csrf())
+                        .param("account", "New Account")
+                        .param("type", "New Type")
+                        .param("bidQuantity", "99.9")
+                        .param("sourceListId", "SRC-RACED")
+                        .contentType(MediaType.APPLICATION_FORM_URLENCODED))
+                .andExpect(status().isOk())
+                .andExpect(view().name("bidList/add"))
+                .andExpect(model().hasErrors());
+
+        assertEquals(3, bidListRepository.count());
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void testBulkIngest_ShouldSaveJsonArray() throws Exception {
+        mockMvc.perform(post("/bidList/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"account\":\"Bulk 1\",\"type\":\"T\",\"bidQuantity\":1.0},"
+                                + "{\"account\":\"Bulk 2\",\"type\":\"T\",\"bidQuantity\":2.0}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.received").value(2))
+                .andExpect(jsonPath("$.saved").value(2));
+
+        assertEquals(4, bidListRepository.count());
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void testBulkIngest_ShouldSaveCsv() throws Exception {
+        mockMvc.perform(post("/bidList/bulk")
+                        .contentType("text/csv")
+                        .content("account,type,bidQuantity,security\n"
+                                + "Csv 1,T,1.5,\"ACME, Inc\"\n"
+                                + "Csv 2,T,2.5,\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.saved").value(2));
+
+        assertEquals(4, bidListRepository.count());
+        assertTrue(bidListRepository.findAll().stream().anyMatch(bid -> "ACME, Inc".equals(bid.getSecurity())));
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void testBulkIngest_ShouldSkipResentSourceListIds() throws Exception {
+        String batch = "[{\"account\":\"Resent 1\",\"type\":\"T\",\"bidQuantity\":1.0,\"sourceListId\":\"SRC-IT-1\"},"
+                + "{\"account\":\"Resent 2\",\"type\":\"T\",\"bidQuantity\":2.0,\"sourceListId\":\"SRC-IT-2\"}]";
+        mockMvc.perform(post("/bidList/bulk").contentType(MediaType.APPLICATION_JSON).content(batch))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.saved").value(2));
+
+        mockMvc.perform(post("/bidList/bulk").contentType(MediaType.APPLICATION_JSON).content(batch))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.saved").value(0))
+                .andExpect(jsonPath("$.duplicates").value(2));
+
+        assertEquals(4, bidListRepository.count());
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void testBulkIngest_ShouldRejectWholeBatchWhenARowIsInvalid() throws Exception {
+        mockMvc.perform(post("/bidList/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"account\":\"Bulk 1\",\"type\":\"T\",\"bidQuantity\":1.0},"
+                                + "{\"type\":\"T\",\"bidQuantity\":-2.0}]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.saved").value(0))
+                .andExpect(jsonPath("$.errors", hasSize(2)));
+
+        assertEquals(2, bidListRepository.count());
+    }
+
+    @Test
+    void testBulkIngest_ShouldChallengeForHttpBasicWithoutCredentials() throws Exception {
+        mockMvc.perform(post("/bidList/bulk").contentType(MediaType.APPLICATION_JSON).content("[]"))
+                .andExpect(status().isUnauthorized())
+                .andExpect(header().string("WWW-Authenticate", startsWith("Basic")));
+    }
+
+    @Test
+    void testHome_ShouldIgnoreHttpBasicAndRedirectToLoginForm() throws Exception {
+        mockMvc.perform(get("/bidList/list").with(httpBasic("nobody", "wrong")))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrlPattern("**/app/login"));
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void testOrderBook_ShouldReflectSavedBids() throws Exception {
+        mockMvc.perform(post("/bidList/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"account\":\"Book 1\",\"type\":\"T\",\"security\":\"BOOK-IT\","
+                                + "\"bid\":99.5,\"bidQuantity\":10.0,\"ask\":100.5,\"askQuantity\":4.0},"
+                                + "{\"account\":\"Book 2\",\"type\":\"T\",\"security\":\"BOOK-IT\","
+                                + "\"bid\":99.75,\"bidQuantity\":2.0,\"ask\":100.5,\"askQuantity\":1.0}]"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/orderBook/BOOK-IT").param("depth", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.security").value("BOOK-IT"))
+                .andExpect(jsonPath("$.bids", hasSize(2)))
+                .andExpect(jsonPath("$.bids[0].price").value(99.75))
+                .andExpect(jsonPath("$.asks", hasSize(1)))
+                .andExpect(jsonPath("$.asks[0].quantity").value(5.0));
+
+        mockMvc.perform(get("/orderBook/BOOK-IT/top"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.bid").value(99.75))
+                .andExpect(jsonPath("$.ask").value(100.5));
+
+        mockMvc.perform(get("/orderBook/NO-SUCH-SECURITY/top"))
+                .andExpect(status().isNotFound());
+
+        mockMvc.perform(get("/orderBook/cache/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.misses").value(greaterThanOrEqualTo(1)));
+    }
+
     @Test
     @WithMockUser(username = "admin", roles = {"ADMIN"})
     void testShowUpdateForm_ShouldDisplayForm() throws Exception {
@@ -108,6 +328,53 @@ public class BidListControllerIT {
                 .andExpect(redirectedUrl("/bidList/list"));
     }
 
+    @Test
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void testUpdateBid_ShouldMergeEditMadeOnStaleVersion() throws Exception {
+        BidList loaded = bidListRepository.findAll().get(0);
+        bidListRepository.updateEditableFields(loaded.getBidListId(), "Changed Meanwhile", loaded.getType(),
+                loaded.getBidQuantity());
+
+        mockMvc.perform(post("/bidList/update/" + loaded.getBidListId())
+                        .with(csrf())
+                        .param("account", loaded.getAccount())
+                        .param("type", loaded.getType())
+                        .param("bidQuantity", "42.0")
+                        .param("version", String.valueOf(loaded.getVersion()))
+                        .param("baseAccount", loaded.getAccount())
+                        .param("baseType", loaded.getType())
+                        .param("baseBidQuantity", String.valueOf(loaded.getBidQuantity())))
+                .andExpect(status().is3xxRedirection());
+
+        BidList saved = bidListRepository.findById(loaded.getBidListId()).orElseThrow();
+        assertEquals("Changed Meanwhile", saved.getAccount());
+        assertEquals(42.0, saved.getBidQuantity());
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void testUpdateBid_ShouldReportConflictOnSameField() throws Exception {
+        BidList loaded = bidListRepository.findAll().get(0);
+        bidListRepository.updateEditableFields(loaded.getBidListId(), "Changed Meanwhile", loaded.getType(),
+                loaded.getBidQuantity());
+
+        mockMvc.perform(post("/bidList/update/" + loaded.getBidListId())
+                        .with(csrf())
+                        .param("account", "Mine")
+                        .param("type", loaded.getType())
+                        .param("bidQuantity", String.valueOf(loaded.getBidQuantity()))
+                        .param("version", String.valueOf(loaded.getVersion()))
+                        .param("baseAccount", loaded.getAccount())
+                        .param("baseType", loaded.getType())
+                        .param("baseBidQuantity", String.valueOf(loaded.getBidQuantity())))
+                .andExpect(status().isOk())
+                .andExpect(view().name("bidList/update"))
+                .andExpect(model().hasErrors())
+                .andExpect(model().attribute("base", hasProperty("account", is("Changed Meanwhile"))));
+
+        assertEquals("Changed Meanwhile", bidListRepository.findById(loaded.getBidListId()).orElseThrow().getAccount());
+    }
+
     @Test
     @WithMockUser(username = "admin", roles = {"ADMIN"})
     void testUpdateBid_FailValidation() throws Exception {
@@ -0,0 +1,153 @@
+package com.nnk.springboot.integration;
+
+import com.jayway.jsonpath.JsonPath;
+import com.nnk.springboot.model.Trade;
+import com.nnk.springboot.repositories.TradeRepository;
+import com.nnk.springboot.services.contracts.ITradeService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser(username = "admin", roles = {"ADMIN"})
+public class BlotterControllerIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TradeRepository tradeRepository;
+
+    @Autowired
+    private ITradeService tradeService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setup() {
+        tradeRepository.deleteAll();
+        tradeRepository.save(trade("Account 1", "BOOK1", "2024-05-02 09:00:00"));
+        tradeRepository.save(trade("Account 2", "BOOK1", "2024-05-02 09:00:00"));
+        tradeRepository.save(trade("Account 3", "BOOK1", "2024-05-02 08:00:00"));
+        tradeRepository.save(trade("Account 4", "BOOK2", "2024-05-02 08:30:00"));
+        tradeRepository.save(trade("Account 5", "BOOK1", "2024-05-03 09:00:00"));
+    }
+
+    @Test
+    void page_ShouldKeysetPaginateOnTradeDateThenId() throws Exception {
+        mockMvc.perform(get("/blotter/BOOK1")
+                        .param("from", "2024-05-02T00:00:00")
+                        .param("to", "2024-05-03T00:00:00")
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rows[*].account", contains("Account 3", "Account 1")))
+                .andExpect(jsonPath("$.hasNext", is(true)))
+                .andExpect(jsonPath("$.nextAfterDate", is("2024-05-02T09:00:00")));
+
+        Integer firstAt9 = tradeRepository.findAll().stream()
+                .filter(trade -> trade.getAccount().equals("Account 1"))
+                .findFirst().orElseThrow().getTradeId();
+
+        mockMvc.perform(get("/blotter/BOOK1")
+                        .param("from", "2024-05-02T00:00:00")
+                        .param("to", "2024-05-03T00:00:00")
+                        .param("afterDate", "2024-05-02T09:00:00")
+                        .param("afterId", firstAt9.toString())
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rows[*].account", contains("Account 2")))
+                .andExpect(jsonPath("$.hasNext", is(false)));
+    }
+
+    @Test
+    void tail_ShouldReturnOnlyTradesSavedAfterCursor() throws Exception {
+        tradeService.saveTrade(trade("Account 6", "BOOK1", "2024-05-01 09:00:00"));
+        String first = mockMvc.perform(get("/blotter/BOOK1/tail"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        tradeService.saveTrade(trade("Account 7", "BOOK1", "2024-05-01 09:00:00"));
+        tradeService.saveTrade(trade("Account 8", "BOOK2", "2024-05-01 09:00:00"));
+
+        mockMvc.perform(get("/blotter/BOOK1/tail")
+                        .param("afterSeq", JsonPath.read(first, "$.nextAfterSeq").toString())
+                        .param("afterId", JsonPath.read(first, "$.nextAfterId").toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rows[*].account", contains("Account 7")));
+    }
+
+    @Test
+    void tail_ShouldDeliverLowerIdCommittedAfterAHigherIdWasRead() throws Exception {
+        CountDownLatch lateSaved = new CountDownLatch(1);
+        CountDownLatch commitLate = new CountDownLatch(1);
+        Trade late = trade("Late", "TAIL", "2024-05-01 09:00:00");
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<?> lateCommit = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+            tradeService.saveTrade(late);
+            lateSaved.countDown();
+            try {
+                commitLate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        try {
+            lateSaved.await();
+            Trade early = tradeService.saveTrade(trade("Early", "TAIL", "2024-05-01 09:00:00"));
+            assertTrue(late.getTradeId() < early.getTradeId());
+
+            String page = mockMvc.perform(get("/blotter/TAIL/tail"))
+                    .andExpect(jsonPath("$.rows[*].account", contains("Early")))
+                    .andReturn().getResponse().getContentAsString();
+
+            commitLate.countDown();
+            lateCommit.get();
+            mockMvc.perform(get("/blotter/TAIL/tail")
+                            .param("afterSeq", JsonPath.read(page, "$.nextAfterSeq").toString())
+                            .param("afterId", JsonPath.read(page, "$.nextAfterId").toString()))
+                    .andExpect(jsonPath("$.rows[*].account", contains("Late")));
+        } finally {
+            commitLate.countDown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void stream_ShouldWriteEveryTradeOfRangeAsNdjson() throws Exception {
+        mockMvc.perform(get("/blotter/BOOK1/stream")
+                        .param("from", "2024-05-02T00:00:00")
+                        .param("to", "2024-05-04T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andExpect(content().string(stringContainsInOrder(
+                        "\"account\":\"Account 3\"", "\"account\":\"Account 1\"",
+                        "\"account\":\"Account 2\"", "\"account\":\"Account 5\"")))
+                .andExpect(content().string(not(containsString("Account 4"))));
+    }
+
+    private static Trade trade(String account, String book, String tradeDate) {
+        Trade trade = new Trade(account, "Type", 10.0);
+        trade.setBook(book);
+        trade.setTradeDate(Timestamp.valueOf(tradeDate));
+        return trade;
+    }
+}
@@ -0,0 +1,160 @@
+package com.nnk.springboot.integration;
+
+import com.nnk.springboot.exception.ConcurrentUpdateConflictException;
+import com.nnk.springboot.model.BidList;
+import com.nnk.springboot.model.Trade;
+import com.nnk.springboot.repositories.BidListRepository;
+import com.nnk.springboot.repositories.TradeRepository;
+import com.nnk.springboot.services.contracts.IBidListService;
+import com.nnk.springboot.services.contracts.ITradeService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Stress tests for concurrent edits of the same BidList or Trade row: edits of different
+ * fields must all be kept, edits of the same field must fail loudly instead of being lost.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class ConcurrentUpdateIT {
+
+    private static final int ROUNDS = 20;
+
+    @Autowired
+    private IBidListService bidListService;
+
+    @Autowired
+    private ITradeService tradeService;
+
+    @Autowired
+    private BidListRepository bidListRepository;
+
+    @Autowired
+    private TradeRepository tradeRepository;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setup() {
+        executor = Executors.newFixedThreadPool(8);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Runs all tasks at once and returns how many of them hit a conflict.
+     */
+    private int runTogether(List<Callable<Boolean>> tasks) throws Exception {
+        CyclicBarrier barrier = new CyclicBarrier(tasks.size());
+        List<Future<Boolean>> futures = new ArrayList<>();
+        for (Callable<Boolean> task : tasks) {
+            futures.add(executor.submit(() -> {
+                barrier.await();
+                return task.call();
+            }));
+        }
+        int conflicts = 0;
+        for (Future<Boolean> future : futures) {
+            try {
+                assertTrue(future.get(30, TimeUnit.SECONDS));
+            } catch (ExecutionException e) {
+                assertInstanceOf(ConcurrentUpdateConflictException.class, e.getCause());
+                conflicts++;
+            }
+        }
+        return conflicts;
+    }
+
+    private static BidList edit(BidList base, String account, String type, Double bidQuantity) {
+        BidList bidList = new BidList(account, type, bidQuantity);
+        bidList.setVersion(base.getVersion());
+        return bidList;
+    }
+
+    @Test
+    void bidList_ConcurrentEditsOfDifferentFieldsShouldAllBeKept() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            BidList base = bidListRepository.save(new BidList("Account", "Type", 1.0));
+            Integer id = base.getBidListId();
+            String account = "Account " + round;
+            String type = "Type " + round;
+            double quantity = 100.0 + round;
+
+            int conflicts = runTogether(List.of(
+                    () -> bidListService.updateBidList(id, edit(base, account, "Type", 1.0), base),
+                    () -> bidListService.updateBidList(id, edit(base, "Account", type, 1.0), base),
+                    () -> bidListService.updateBidList(id, edit(base, "Account", "Type", quantity), base)));
+
+            BidList saved = bidListRepository.findById(id).orElseThrow();
+            assertEquals(0, conflicts);
+            assertEquals(account, saved.getAccount());
+            assertEquals(type, saved.getType());
+            assertEquals(quantity, saved.getBidQuantity());
+            assertEquals(base.getVersion() + 3, saved.getVersion());
+        }
+    }
+
+    @Test
+    void bidList_ConcurrentEditsOfSameFieldShouldKeepExactlyOneAndRejectTheOthers() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            BidList base = bidListRepository.save(new BidList("Account", "Type", 1.0));
+            Integer id = base.getBidListId();
+            List<Callable<Boolean>> tasks = new ArrayList<>();
+            for (int writer = 0; writer < 4; writer++) {
+                double quantity = 10.0 + writer;
+                tasks.add(() -> bidListService.updateBidList(id, edit(base, "Account", "Type", quantity), base));
+            }
+
+            int conflicts = runTogether(tasks);
+
+            BidList saved = bidListRepository.findById(id).orElseThrow();
+            assertEquals(3, conflicts);
+            assertEquals(base.getVersion() + 1, saved.getVersion());
+            assertTrue(saved.getBidQuantity() >= 10.0 && saved.getBidQuantity() <= 13.0);
+        }
+    }
+
+    @Test
+    void trade_ConcurrentEditsOfDifferentFieldsShouldAllBeKept() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            Trade base = tradeRepository.save(new Trade("Account", "Type", 1.0));
+            Integer id = base.getTradeId();
+            String account = "Account " + round;
+            String type = "Type " + round;
+            double quantity = 100.0 + round;
+
+            int conflicts = runTogether(List.of(
+                    () -> tradeService.updateTrade(id, tradeEdit(base, account, "Type", 1.0), base),
+                    () -> tradeService.updateTrade(id, tradeEdit(base, "Account", type, 1.0), base),
+                    () -> tradeService.updateTrade(id, tradeEdit(base, "Account", "Type", quantity), base)));
+
+            Trade saved = tradeRepository.findById(id).orElseThrow();
+            assertEquals(0, conflicts);
+            assertEquals(account, saved.getAccount());
+            assertEquals(type, saved.getType());
+            assertEquals(quantity, saved.getBuyQuantity());
+            assertEquals(base.getVersion() + 3, saved.getVersion());
+        }
+    }
+
+    private static Trade tradeEdit(Trade base, String account, String type, Double buyQuantity) {
+        Trade trade = new Trade(account, type, buyQuantity);
+        trade.setVersion(base.getVersion());
+        return trade;
+    }
+}
@@ -0,0 +1,155 @@
+package com.nnk.springboot.integration;
+
+import com.nnk.springboot.model.*;
+import com.nnk.springboot.repositories.*;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks that each update and delete handler costs exactly one SQL statement.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser(username = "admin", roles = {"ADMIN"})
+public class CrudQueryCountIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private BidListRepository bidListRepository;
+
+    @Autowired
+    private CurvePointRepository curvePointRepository;
+
+    @Autowired
+    private RatingRepository ratingRepository;
+
+    @Autowired
+    private RuleNameRepository ruleNameRepository;
+
+    @Autowired
+    private TradeRepository tradeRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setup() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private long statementsFor(MockHttpServletRequestBuilder request) throws Exception {
+        statistics.clear();
+        mockMvc.perform(request).andExpect(status().is3xxRedirection());
+        return statistics.getPrepareStatementCount();
+    }
+
+    @Test
+    void bidList_UpdateAndDeleteShouldRunOneStatementEach() throws Exception {
+        Integer id = bidListRepository.save(new BidList("Account", "Type", 10.0)).getBidListId();
+
+        assertEquals(1, statementsFor(post("/bidList/update/" + id).with(csrf())
+                .param("account", "Updated").param("type", "Type").param("bidQuantity", "20")));
+        assertEquals("Updated", bidListRepository.findById(id).orElseThrow().getAccount());
+
+        assertEquals(1, statementsFor(get("/bidList/delete/" + id)));
+        assertFalse(bidListRepository.existsById(id));
+    }
+
+    @Test
+    void curvePoint_UpdateAndDeleteShouldRunOneStatementEachPlusTheirVersion() throws Exception {
+        CurvePoint curvePoint = new CurvePoint();
+        curvePoint.setCurveId(1);
+        curvePoint.setTerm(1.0);
+        curvePoint.setValue(2.0);
+        Integer id = curvePointRepository.save(curvePoint).getId();
+
+        // Each write also inserts the version of the point kept for as-of queries
+        assertEquals(2, statementsFor(post("/curvePoint/update/" + id).with(csrf())
+                .param("curveId", "1").param("term", "3.0").param("value", "4.0")));
+        assertEquals(4.0, curvePointRepository.findById(id).orElseThrow().getValue());
+
+        assertEquals(2, statementsFor(get("/curvePoint/delete/" + id)));
+        assertFalse(curvePointRepository.existsById(id));
+    }
+
+    @Test
+    void rating_UpdateAndDeleteShouldRunOneStatementEach() throws Exception {
+        Rating rating = new Rating();
+        rating.setMoodysRating("Aaa");
+        rating.setSandPRating("AAA");
+        rating.setFitchRating("AAA");
+        rating.setOrderNumber(1);
+        Integer id = ratingRepository.save(rating).getId();
+
+        assertEquals(1, statementsFor(post("/rating/update/" + id).with(csrf())
+                .param("moodysRating", "Baa").param("sandPRating", "BBB")
+                .param("fitchRating", "BBB").param("orderNumber", "2")));
+        assertEquals("Baa", ratingRepository.findById(id).orElseThrow().getMoodysRating());
+
+        assertEquals(1, statementsFor(get("/rating/delete/" + id)));
+        assertFalse(ratingRepository.existsById(id));
+    }
+
+    @Test
+    void ruleName_UpdateAndDeleteShouldRunOneStatementEach() throws Exception {
+        Integer id = ruleNameRepository.save(new RuleName("Name", "Description", "Json", "Template", "Sql", "Part"))
+                .getId();
+
+        assertEquals(1, statementsFor(post("/ruleName/update/" + id).with(csrf())
+                .param("name", "Updated").param("description", "Description").param("json", "Json")
+                .param("template", "Template").param("sqlStr", "Sql").param("sqlPart", "Part")));
+        assertEquals("Updated", ruleNameRepository.findById(id).orElseThrow().getName());
+
+        assertEquals(1, statementsFor(get("/ruleName/delete/" + id)));
+        assertFalse(ruleNameRepository.existsById(id));
+    }
+
+    @Test
+    void trade_UpdateAndDeleteShouldRunOneStatementEach() throws Exception {
+        Integer id = tradeRepository.save(new Trade("Account", "Type", 10.0)).getTradeId();
+
+        assertEquals(1, statementsFor(post("/trade/update/" + id).with(csrf())
+                .param("account", "Updated").param("type", "Type").param("buyQuantity", "20")));
+        assertEquals("Updated", tradeRepository.findById(id).orElseThrow().getAccount());
+
+        assertEquals(1, statementsFor(get("/trade/delete/" + id)));
+        assertFalse(tradeRepository.existsById(id));
+    }
+
+    @Test
+    void user_UpdateAndDeleteShouldRunOneStatementEach() throws Exception {
+        Integer id = userRepository.save(new User("counted", "Password1!", "Counted User", "USER")).getId();
+
+        assertEquals(1, statementsFor(post("/user/update/" + id).with(csrf())
+                .param("username", "counted2").param("password", "Password2!")
+                .param("fullname", "Counted User").param("role", "USER")));
+        assertEquals("counted2", userRepository.findById(id).orElseThrow().getUsername());
+
+        assertEquals(1, statementsFor(get("/user/delete/" + id)));
+        assertFalse(userRepository.existsById(id));
+    }
+}
@@ -0,0 +1,224 @@
+package com.nnk.springboot.integration;
+
+import com.nnk.springboot.model.CurvePoint;
+import com.nnk.springboot.services.contracts.ICurvePointService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser(username = "admin", roles = {"ADMIN"})
+public class CurveValueControllerIT {
+
+    private static final int CURVE_ID = 4711;
+    private static final LocalDateTime AS_OF = LocalDateTime.of(2024, 5, 31, 0, 0);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ICurvePointService curvePointService;
+
+    private CurvePoint save(double term, double value) {
+        return save(CURVE_ID, term, value);
+    }
+
+    private CurvePoint save(int curveId, double term, double value) {
+        return save(curveId, AS_OF, term, value);
+    }
+
+    private CurvePoint save(int curveId, LocalDateTime asOfDate, double term, double value) {
+        CurvePoint curvePoint = new CurvePoint();
+        curvePoint.setCurveId(curveId);
+        curvePoint.setAsOfDate(Timestamp.valueOf(asOfDate));
+        curvePoint.setTerm(term);
+        curvePoint.setValue(value);
+        return curvePointService.saveCurvePoint(curvePoint);
+    }
+
+    @Test
+    public void values_ShouldFollowCurvePointWrites() throws Exception {
+        save(1.0, 10.0);
+        CurvePoint middle = save(2.0, 20.0);
+        save(3.0, 10.0);
+
+        mockMvc.perform(get("/curves/{curveId}/values", CURVE_ID)
+                        .param("asOfDate", AS_OF.toString())
+                        .param("term", "0.5", "1.5", "2.5", "4.0"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", contains(10.0, 15.0, 15.0, 10.0)));
+
+        CurvePoint edit = new CurvePoint();
+        edit.setTerm(2.0);
+        edit.setValue(40.0);
+        curvePointService.updateCurvePoint(middle.getId(), edit);
+        save(2.5, 20.0);
+
+        mockMvc.perform(get("/curves/{curveId}/values", CURVE_ID)
+                        .param("asOfDate", AS_OF.toString())
+                        .param("term", "1.5", "2.75")
+                        .param("interpolation", "LOG_LINEAR"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0]", closeTo(20.0, 1e-9)))
+                .andExpect(jsonPath("$[1]", closeTo(Math.sqrt(200.0), 1e-9)));
+
+        curvePointService.deleteCurvePointById(middle.getId());
+
+        mockMvc.perform(get("/curves/{curveId}/values", CURVE_ID)
+                        .param("asOfDate", AS_OF.toString())
+                        .param("term", "2.0"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0]", closeTo(10.0 + 10.0 / 1.5, 1e-9)));
+
+        mockMvc.perform(get("/curves/{curveId}/values", CURVE_ID + 1)
+                        .param("term", "1.0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void snapshot_ShouldRebuildTheCurveAsKnownAtAPastTime() throws Exception {
+        CurvePoint first = save(CURVE_ID + 2, 1.0, 10.0);
+        save(CURVE_ID + 2, 2.0, 20.0);
+        Thread.sleep(5);
+        LocalDateTime before = LocalDateTime.now();
+        Thread.sleep(5);
+        CurvePoint edit = new CurvePoint();
+        edit.setTerm(1.0);
+        edit.setValue(15.0);
+        curvePointService.updateCurvePoint(first.getId(), edit);
+        curvePointService.deleteCurvePointById(first.getId());
+
+        mockMvc.perform(get("/curves/{curveId}/snapshot", CURVE_ID + 2))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.curve.terms", contains(2.0)));
+
+        mockMvc.perform(get("/curves/{curveId}/snapshot", CURVE_ID + 2)
+                        .param("validAt", AS_OF.plusDays(1).toString())
+                        .param("knownAt", before.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.asOfDate", startsWith("2024-05-31")))
+                .andExpect(jsonPath("$.curve.terms", contains(1.0, 2.0)))
+                .andExpect(jsonPath("$.curve.values", contains(10.0, 20.0)));
+
+        mockMvc.perform(get("/curves/{curveId}/snapshot", CURVE_ID + 2)
+                        .param("validAt", AS_OF.minusDays(1).toString()))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void bulk_ShouldReplaceTheWholeCurveAtOnce() throws Exception {
+        int curveId = CURVE_ID + 3;
+        save(curveId, 1.0, 10.0);
+        save(curveId, 5.0, 50.0);
+        String body = "{\"curveId\": " + curveId + ", \"asOfDate\": \"" + AS_OF + "\", "
+                + "\"terms\": [0.5, 2.0, 4.0], \"values\": [1.0, 2.0, 4.0]}";
+
+        mockMvc.perform(get("/curves/{curveId}/values", curveId)
+                        .param("asOfDate", AS_OF.toString())
+                        .param("term", "3.0"))
+                .andExpect(jsonPath("$[0]", closeTo(30.0, 1e-9)));
+
+        mockMvc.perform(post("/curvePoint/bulk").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.replaced").value(2))
+                .andExpect(jsonPath("$.saved").value(3));
+
+        mockMvc.perform(get("/curves/{curveId}/values", curveId)
+                        .param("asOfDate", AS_OF.toString())
+                        .param("term", "3.0", "5.0"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", contains(3.0, 4.0)));
+        mockMvc.perform(get("/curves/{curveId}/snapshot", curveId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.curve.terms", contains(0.5, 2.0, 4.0)));
+
+        mockMvc.perform(post("/curvePoint/bulk").contentType(MediaType.APPLICATION_JSON)
+                        .content(body.replace("[0.5, 2.0, 4.0]", "[0.5, 4.0, 2.0]")))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string(containsString("strictly ascending")));
+        mockMvc.perform(get("/curves/{curveId}/values", curveId)
+                        .param("asOfDate", AS_OF.toString())
+                        .param("term", "5.0"))
+                .andExpect(jsonPath("$[0]", closeTo(4.0, 1e-9)));
+    }
+
+    @Test
+    public void bootstrap_ShouldFollowCurvePointWrites() throws Exception {
+        int curveId = CURVE_ID + 4;
+        CurvePoint year = save(curveId, 1.0, 5.0);
+        save(curveId + 1, 1.0, 4.0);
+
+        mockMvc.perform(get("/curves/{curveId}/bootstrap", curveId)
+                        .param("asOfDate", AS_OF.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.discountFactors[0]", closeTo(1 / 1.05, 1e-12)))
+                .andExpect(jsonPath("$.forwardRates[0]", closeTo(5.0, 1e-9)));
+
+        CurvePoint edit = new CurvePoint();
+        edit.setTerm(1.0);
+        edit.setValue(10.0);
+        curvePointService.updateCurvePoint(year.getId(), edit);
+
+        mockMvc.perform(get("/curves/bootstrap")
+                        .param("curveId", String.valueOf(curveId), String.valueOf(curveId + 1),
+                                String.valueOf(curveId + 2))
+                        .param("asOfDate", AS_OF.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].discountFactors[0]", closeTo(1 / 1.1, 1e-12)))
+                .andExpect(jsonPath("$[1].discountFactors[0]", closeTo(1 / 1.04, 1e-12)));
+
+        mockMvc.perform(get("/curves/{curveId}/bootstrap", curveId + 2)
+                        .param("asOfDate", AS_OF.toString()))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void charts_ShouldStayWithinThePointBudget() throws Exception {
+        int curveId = CURVE_ID + 10;
+        for (int day = 0; day < 40; day++) {
+            save(curveId, AS_OF.plusDays(day), 1.0, day == 20 ? 50.0 : 5.0);
+        }
+        save(curveId, AS_OF, 2.0, 6.0);
+
+        mockMvc.perform(get("/curves/{curveId}/history-chart", curveId)
+                        .param("term", "1.0")
+                        .param("points", "6"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.sourcePoints").value(40))
+                .andExpect(jsonPath("$.x", hasSize(6)))
+                .andExpect(jsonPath("$.y", hasItem(50.0)));
+
+        mockMvc.perform(get("/curves/{curveId}/history-chart", curveId)
+                        .param("term", "1.0")
+                        .param("from", AS_OF.plusDays(30).toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.x", hasSize(10)));
+
+        mockMvc.perform(get("/curves/{curveId}/chart", curveId)
+                        .param("asOfDate", AS_OF.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.x", contains(1.0, 2.0)))
+                .andExpect(jsonPath("$.y", contains(5.0, 6.0)));
+
+        mockMvc.perform(get("/curves/{curveId}/chart", curveId)
+                        .param("asOfDate", AS_OF.toString())
+                        .param("points", "2"))
+                .andExpect(status().isBadRequest());
+    }
+}
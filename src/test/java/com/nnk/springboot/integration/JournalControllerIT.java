@@ -0,0 +1,89 @@
+package com.nnk.springboot.integration;
+
+import com.nnk.springboot.model.Trade;
+import com.nnk.springboot.services.contracts.IJournalService;
+import com.nnk.springboot.services.contracts.ITradeService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser(username = "admin", roles = {"ADMIN"})
+public class JournalControllerIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ITradeService tradeService;
+
+    @Autowired
+    private IJournalService journalService;
+
+    @Test
+    public void history_ShouldListEveryChangeOfATradeInOrder() throws Exception {
+        Trade trade = tradeService.saveTrade(new Trade("Journal A", "Type", 10.0));
+        tradeService.updateTrade(trade.getTradeId(), new Trade("Journal B", "Type", 15.0));
+        tradeService.deleteTradeById(trade.getTradeId());
+
+        mockMvc.perform(get("/admin/journal/TRADE/{id}", trade.getTradeId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3)))
+                .andExpect(jsonPath("$[*].kind", contains("CREATED", "UPDATED", "DELETED")))
+                .andExpect(jsonPath("$[0].changes.account").value("Journal A"))
+                .andExpect(jsonPath("$[0].changes.tradeId").value(trade.getTradeId()))
+                .andExpect(jsonPath("$[1].changes.account").value("Journal B"))
+                .andExpect(jsonPath("$[1].changes.buyQuantity").value(15.0));
+    }
+
+    @Test
+    public void asOf_ShouldRebuildTradeAsItStoodAcrossASnapshot() throws Exception {
+        Trade trade = tradeService.saveTrade(new Trade("Journal C", "Type", 10.0));
+        Thread.sleep(5);
+        LocalDateTime beforeUpdate = LocalDateTime.now();
+        Thread.sleep(5);
+
+        mockMvc.perform(post("/admin/journal/snapshots"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.sequence", greaterThan(0)));
+
+        tradeService.updateTrade(trade.getTradeId(), new Trade("Journal D", "Type", 12.0));
+        journalService.flush();
+
+        mockMvc.perform(get("/admin/journal/TRADE/{id}/as-of", trade.getTradeId())
+                        .param("at", beforeUpdate.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.account").value("Journal C"))
+                .andExpect(jsonPath("$.buyQuantity").value(10.0));
+
+        mockMvc.perform(get("/admin/journal/TRADE/{id}/as-of", trade.getTradeId())
+                        .param("at", LocalDateTime.now().toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.account").value("Journal D"))
+                .andExpect(jsonPath("$.buyQuantity").value(12.0))
+                .andExpect(jsonPath("$.security").isEmpty());
+    }
+
+    @Test
+    public void asOf_ShouldReturnNotFoundBeforeTheEntityExisted() throws Exception {
+        LocalDateTime beforeCreation = LocalDateTime.now().minusSeconds(1);
+        Trade trade = tradeService.saveTrade(new Trade("Journal E", "Type", 1.0));
+
+        mockMvc.perform(get("/admin/journal/TRADE/{id}/as-of", trade.getTradeId())
+                        .param("at", beforeCreation.toString()))
+                .andExpect(status().isNotFound());
+    }
+}
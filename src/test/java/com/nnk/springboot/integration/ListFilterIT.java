@@ -0,0 +1,121 @@
+package com.nnk.springboot.integration;
+
+import com.nnk.springboot.model.CurvePoint;
+import com.nnk.springboot.model.Rating;
+import com.nnk.springboot.model.Trade;
+import com.nnk.springboot.repositories.CurvePointRepository;
+import com.nnk.springboot.repositories.RatingRepository;
+import com.nnk.springboot.repositories.TradeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.sql.Timestamp;
+
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser(username = "admin", roles = {"ADMIN"})
+public class ListFilterIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TradeRepository tradeRepository;
+
+    @Autowired
+    private CurvePointRepository curvePointRepository;
+
+    @Autowired
+    private RatingRepository ratingRepository;
+
+    @BeforeEach
+    void setup() {
+        tradeRepository.deleteAll();
+        curvePointRepository.deleteAll();
+        ratingRepository.deleteAll();
+
+        tradeRepository.save(trade("Account A", "BOOK1", "TraderX", "2024-05-02 09:00:00", 10.0));
+        tradeRepository.save(trade("Account B", "BOOK1", "TraderY", "2024-05-03 09:00:00", 30.0));
+        tradeRepository.save(trade("Account C", "BOOK2", "TraderX", "2024-05-03 09:00:00", 20.0));
+
+        curvePointRepository.save(curvePoint(1, "2024-01-10 00:00:00", 1.0));
+        curvePointRepository.save(curvePoint(1, "2024-02-10 00:00:00", 2.0));
+        curvePointRepository.save(curvePoint(2, "2024-01-10 00:00:00", 3.0));
+
+        ratingRepository.save(rating("Aaa", 2));
+        ratingRepository.save(rating("Baa", 1));
+    }
+
+    @Test
+    void tradeList_ShouldFilterOnBookAndTrader() throws Exception {
+        mockMvc.perform(get("/trade/list").param("book", "BOOK1").param("trader", "TraderX"))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("trades", contains(hasProperty("account", is("Account A")))));
+    }
+
+    @Test
+    void tradeList_ShouldFilterOnDateRangeAndSort() throws Exception {
+        mockMvc.perform(get("/trade/list")
+                        .param("from", "2024-05-03")
+                        .param("to", "2024-05-03")
+                        .param("sort", "buyQuantity")
+                        .param("dir", "DESC"))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("trades", contains(
+                        hasProperty("account", is("Account B")),
+                        hasProperty("account", is("Account C")))));
+    }
+
+    @Test
+    void curvePointList_ShouldFilterOnCurveAndAsOfDate() throws Exception {
+        mockMvc.perform(get("/curvePoint/list").param("curveId", "1").param("from", "2024-02-01"))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("curvePoints", contains(hasProperty("term", is(2.0)))));
+    }
+
+    @Test
+    void ratingList_ShouldSortOnRequestedColumn() throws Exception {
+        mockMvc.perform(get("/rating/list").param("sort", "orderNumber"))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("ratings", contains(
+                        hasProperty("moodysRating", is("Baa")),
+                        hasProperty("moodysRating", is("Aaa")))));
+    }
+
+    private static Trade trade(String account, String book, String trader, String tradeDate, Double buyQuantity) {
+        Trade trade = new Trade(account, "Type", buyQuantity);
+        trade.setBook(book);
+        trade.setTrader(trader);
+        trade.setTradeDate(Timestamp.valueOf(tradeDate));
+        return trade;
+    }
+
+    private static Rating rating(String moodysRating, Integer orderNumber) {
+        Rating rating = new Rating();
+        rating.setMoodysRating(moodysRating);
+        rating.setSandPRating("AAA");
+        rating.setFitchRating("AAA");
+        rating.setOrderNumber(orderNumber);
+        return rating;
+    }
+
+    private static CurvePoint curvePoint(Integer curveId, String asOfDate, Double term) {
+        CurvePoint curvePoint = new CurvePoint();
+        curvePoint.setCurveId(curveId);
+        curvePoint.setAsOfDate(Timestamp.valueOf(asOfDate));
+        curvePoint.setTerm(term);
+        curvePoint.setValue(1.0);
+        return curvePoint;
+    }
+}
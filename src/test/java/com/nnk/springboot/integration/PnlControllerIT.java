@@ -0,0 +1,92 @@
+package com.nnk.springboot.integration;
+
+import com.nnk.springboot.model.BidList;
+import com.nnk.springboot.model.Trade;
+import com.nnk.springboot.repositories.TradeRepository;
+import com.nnk.springboot.services.contracts.IBidListService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser(username = "admin", roles = {"ADMIN"})
+public class PnlControllerIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TradeRepository tradeRepository;
+
+    @Autowired
+    private IBidListService bidListService;
+
+    private Integer longTradeId;
+
+    @BeforeEach
+    void setup() {
+        tradeRepository.deleteAll();
+
+        BidList quote = new BidList("Account", "Type", 10.0);
+        quote.setSecurity("PNL-SEC");
+        quote.setBid(11.0);
+        quote.setAsk(13.0);
+        quote.setAskQuantity(10.0);
+        bidListService.saveBidList(quote);
+
+        longTradeId = tradeRepository.save(trade("BOOK-A", 100.0, 10.0, 0.0, null)).getTradeId();
+        tradeRepository.save(trade("BOOK-A", 10.0, 10.0, 10.0, 15.0));
+        tradeRepository.save(trade("BOOK-B", 0.0, null, 20.0, 14.0));
+    }
+
+    @Test
+    void refresh_ShouldMarkOpenQuantitiesAtTopOfBookMid() throws Exception {
+        mockMvc.perform(post("/pnl/refresh").with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tradeCount", is(3)))
+                .andExpect(jsonPath("$.books", hasSize(2)))
+                .andExpect(jsonPath("$.books[0].book", is("BOOK-A")))
+                .andExpect(jsonPath("$.books[0].realized", is(50.0)))
+                .andExpect(jsonPath("$.books[0].unrealized", is(200.0)))
+                .andExpect(jsonPath("$.books[1].unrealized", is(40.0)));
+
+        mockMvc.perform(get("/pnl"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total", is(290.0)));
+    }
+
+    @Test
+    void trade_ShouldReturnSingleTradePnl() throws Exception {
+        mockMvc.perform(get("/pnl/trades/{id}", longTradeId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.markPrice", is(12.0)))
+                .andExpect(jsonPath("$.unrealized", is(200.0)));
+
+        mockMvc.perform(get("/pnl/trades/{id}", -1))
+                .andExpect(status().isNotFound());
+    }
+
+    private static Trade trade(String book, Double buyQuantity, Double buyPrice, Double sellQuantity,
+                               Double sellPrice) {
+        Trade trade = new Trade("Account", "Type", buyQuantity);
+        trade.setBook(book);
+        trade.setSecurity("PNL-SEC");
+        trade.setBuyPrice(buyPrice);
+        trade.setSellQuantity(sellQuantity);
+        trade.setSellPrice(sellPrice);
+        return trade;
+    }
+}
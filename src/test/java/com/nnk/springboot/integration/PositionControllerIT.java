@@ -0,0 +1,97 @@
+package com.nnk.springboot.integration;
+
+import com.nnk.springboot.model.Trade;
+import com.nnk.springboot.repositories.TradeRepository;
+import com.nnk.springboot.services.contracts.IPositionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser(username = "admin", roles = {"ADMIN"})
+public class PositionControllerIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TradeRepository tradeRepository;
+
+    @Autowired
+    private IPositionService positionService;
+
+    @BeforeEach
+    void setup() {
+        tradeRepository.deleteAll();
+        tradeRepository.save(trade("Account A", 100.0, 40.0));
+        tradeRepository.save(trade("Account A", 10.0, null));
+        tradeRepository.save(trade("Account B", 0.0, 5.0));
+        positionService.rebuild();
+    }
+
+    @Test
+    void positions_ShouldReturnRebuiltNetPositions() throws Exception {
+        mockMvc.perform(get("/positions"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].account", is("Account A")))
+                .andExpect(jsonPath("$[0].netQuantity", is(70.0)))
+                .andExpect(jsonPath("$[0].tradeCount", is(2)))
+                .andExpect(jsonPath("$[1].netQuantity", is(-5.0)));
+    }
+
+    @Test
+    void position_ShouldFollowTradeWrites() throws Exception {
+        mockMvc.perform(post("/trade/validate")
+                        .with(csrf())
+                        .param("account", "Account A")
+                        .param("type", "Type")
+                        .param("buyQuantity", "20.0")
+                        .param("book", "BOOK1")
+                        .param("security", "AAPL"))
+                .andExpect(status().is3xxRedirection());
+
+        mockMvc.perform(get("/positions/position")
+                        .param("account", "Account A")
+                        .param("book", "BOOK1")
+                        .param("security", "AAPL"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.netQuantity", is(90.0)))
+                .andExpect(jsonPath("$.tradeCount", is(3)));
+
+        Integer id = tradeRepository.findAll().stream()
+                .filter(trade -> "Account B".equals(trade.getAccount()))
+                .findFirst().orElseThrow().getTradeId();
+        mockMvc.perform(get("/trade/delete/{id}", id))
+                .andExpect(status().is3xxRedirection());
+
+        mockMvc.perform(get("/positions/position")
+                        .param("account", "Account B")
+                        .param("book", "BOOK1")
+                        .param("security", "AAPL"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/positions").param("account", "Account B"))
+                .andExpect(jsonPath("$", empty()));
+    }
+
+    private static Trade trade(String account, Double buyQuantity, Double sellQuantity) {
+        Trade trade = new Trade(account, "Type", buyQuantity);
+        trade.setSellQuantity(sellQuantity);
+        trade.setBook("BOOK1");
+        trade.setSecurity("AAPL");
+        return trade;
+    }
+}
@@ -0,0 +1,99 @@
+package com.nnk.springboot.integration;
+
+import com.nnk.springboot.model.BidList;
+import com.nnk.springboot.model.Trade;
+import com.nnk.springboot.repositories.BidListRepository;
+import com.nnk.springboot.repositories.TradeRepository;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser(username = "admin", roles = {"ADMIN"})
+public class ReconciliationControllerIT {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2019, 6, 12, 9, 30);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BidListRepository bidListRepository;
+
+    @Autowired
+    private TradeRepository tradeRepository;
+
+    private BidList bidList(String dealName, String sourceListId, double quantity) {
+        BidList bidList = new BidList("Recon", "Type", quantity);
+        bidList.setDealName(dealName);
+        bidList.setSourceListId(sourceListId);
+        bidList.setBidListDate(Timestamp.valueOf(DAY));
+        return bidListRepository.save(bidList);
+    }
+
+    private Trade trade(String dealName, String sourceListId, double quantity) {
+        Trade trade = new Trade("Recon", "Type", quantity);
+        trade.setDealName(dealName);
+        trade.setSourceListId(sourceListId);
+        trade.setTradeDate(Timestamp.valueOf(DAY.plusHours(2)));
+        return tradeRepository.save(trade);
+    }
+
+    @Test
+    public void reconcile_ShouldReportBreaksOfTheDay() throws Exception {
+        bidList("Recon deal", "RECON-1", 10.0);
+        trade("Recon deal", "RECON-1", 10.0);
+        bidList("Recon deal", "RECON-2", 10.0);
+        trade("Recon deal", "RECON-2", 7.0);
+        Integer unmatched = bidList("Recon deal", "RECON-3", 3.0).getBidListId();
+
+        String body = mockMvc.perform(post("/admin/reconciliations")
+                        .param("date", DAY.toLocalDate().toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.keys", contains("DEAL_NAME", "SOURCE_LIST_ID")))
+                .andExpect(jsonPath("$.bidLists").value(3))
+                .andExpect(jsonPath("$.trades").value(2))
+                .andExpect(jsonPath("$.matched").value(1))
+                .andExpect(jsonPath("$.quantityMismatches").value(1))
+                .andExpect(jsonPath("$.unmatchedBids").value(1))
+                .andExpect(jsonPath("$.breaks[?(@.type == 'UNMATCHED_BID')].bidListIds[0]").value(unmatched))
+                .andReturn().getResponse().getContentAsString();
+        String id = JsonPath.read(body, "$.id");
+
+        mockMvc.perform(get("/admin/reconciliations/latest"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(id));
+
+        mockMvc.perform(get("/admin/reconciliations/{id}/breaks", id))
+                .andExpect(status().isOk())
+                .andExpect(content().string(startsWith("type,key,")))
+                .andExpect(content().string(containsString("QUANTITY_MISMATCH,Recon deal|RECON-2,1,1,10.0,7.0")));
+
+        mockMvc.perform(post("/admin/reconciliations")
+                        .param("date", DAY.toLocalDate().toString())
+                        .param("keys", "DEAL_NAME,ACCOUNT"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.matched").value(0))
+                .andExpect(jsonPath("$.breaks[0].key").value("Recon deal|Recon"))
+                .andExpect(jsonPath("$.breaks[0].bidQuantity").value(23.0))
+                .andExpect(jsonPath("$.breaks[0].buyQuantity").value(17.0));
+
+        mockMvc.perform(get("/admin/reconciliations/{id}/breaks", "recon-unknown"))
+                .andExpect(status().isNotFound());
+    }
+}
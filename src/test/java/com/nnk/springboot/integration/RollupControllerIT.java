@@ -0,0 +1,115 @@
+package com.nnk.springboot.integration;
+
+import com.nnk.springboot.model.Trade;
+import com.nnk.springboot.repositories.TradeRepository;
+import com.nnk.springboot.repositories.TradeRollupRepository;
+import com.nnk.springboot.rollup.RollupInterval;
+import com.nnk.springboot.services.contracts.IRollupService;
+import com.nnk.springboot.services.contracts.ITradeService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser(username = "admin", roles = {"ADMIN"})
+public class RollupControllerIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ITradeService tradeService;
+
+    @Autowired
+    private IRollupService rollupService;
+
+    @Autowired
+    private TradeRepository tradeRepository;
+
+    @Autowired
+    private TradeRollupRepository tradeRollupRepository;
+
+    private static Trade trade(String security, LocalDateTime tradeDate, double quantity, double price) {
+        Trade trade = new Trade("Rollup", "Type", quantity);
+        trade.setSecurity(security);
+        trade.setTradeDate(Timestamp.valueOf(tradeDate));
+        trade.setBuyPrice(price);
+        return trade;
+    }
+
+    @Test
+    public void bars_ShouldFollowSavedAndDeletedTrades() throws Exception {
+        LocalDateTime minute = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).minusHours(1).plusMinutes(10);
+        tradeService.saveTrade(trade("ROLL-A", minute.plusSeconds(5), 10.0, 100.0));
+        Trade high = tradeService.saveTrade(trade("ROLL-A", minute.plusSeconds(20), 10.0, 104.0));
+        tradeService.saveTrade(trade("ROLL-A", minute.plusSeconds(40), 20.0, 101.0));
+
+        mockMvc.perform(get("/rollups/{security}", "ROLL-A")
+                        .param("interval", "MINUTE")
+                        .param("from", minute.toString())
+                        .param("to", minute.plusMinutes(1).toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].open").value(100.0))
+                .andExpect(jsonPath("$[0].high").value(104.0))
+                .andExpect(jsonPath("$[0].close").value(101.0))
+                .andExpect(jsonPath("$[0].volume").value(40.0))
+                .andExpect(jsonPath("$[0].vwap").value(101.5))
+                .andExpect(jsonPath("$[0].tradeCount").value(3));
+
+        tradeService.deleteTradeById(high.getTradeId());
+        rollupService.flush();
+
+        mockMvc.perform(get("/rollups/{security}", "ROLL-A")
+                        .param("interval", "HOUR")
+                        .param("from", minute.toString())
+                        .param("to", minute.plusMinutes(1).toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].high").value(101.0))
+                .andExpect(jsonPath("$[0].volume").value(30.0))
+                .andExpect(jsonPath("$[0].tradeCount").value(2));
+        assertEquals(2, tradeRollupRepository.findRange("ROLL-A", RollupInterval.MINUTE,
+                Timestamp.valueOf(minute.minusHours(1)), Timestamp.valueOf(minute.plusHours(1))).get(0).getTradeCount());
+    }
+
+    @Test
+    public void backfill_ShouldRollUpTradesSavedBehindTheRings() throws Exception {
+        LocalDateTime old = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).minusDays(40);
+        tradeRepository.save(trade("ROLL-B", old.plusMinutes(1), 5.0, 10.0));
+        tradeRepository.save(trade("ROLL-B", old.plusMinutes(59), 5.0, 12.0));
+
+        mockMvc.perform(post("/admin/rollups/backfill")
+                        .param("from", old.toString())
+                        .param("to", old.plusMinutes(30).toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.trades", greaterThanOrEqualTo(2)))
+                .andExpect(jsonPath("$.buckets", greaterThanOrEqualTo(3)));
+
+        mockMvc.perform(get("/rollups/{security}", "ROLL-B")
+                        .param("interval", "HOUR")
+                        .param("from", old.minusHours(2).toString())
+                        .param("to", old.plusHours(2).toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].open").value(10.0))
+                .andExpect(jsonPath("$[0].close").value(12.0))
+                .andExpect(jsonPath("$[0].vwap").value(11.0));
+    }
+}
@@ -0,0 +1,154 @@
+package com.nnk.springboot.integration;
+
+import com.jayway.jsonpath.JsonPath;
+import com.nnk.springboot.archive.TradeArchive;
+import com.nnk.springboot.model.Trade;
+import com.nnk.springboot.repositories.TradeRepository;
+import com.nnk.springboot.services.contracts.IPositionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.util.FileSystemUtils;
+
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser(username = "admin", roles = {"ADMIN"})
+public class TradeArchiveControllerIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TradeRepository tradeRepository;
+
+    @Autowired
+    private TradeArchive tradeArchive;
+
+    @Autowired
+    private IPositionService positionService;
+
+    @Value("${app.trade-archive.directory}")
+    private String directory;
+
+    @BeforeEach
+    void setup() throws Exception {
+        clearArchive();
+        tradeRepository.deleteAll();
+        tradeRepository.save(trade("Archive A", 100.0, "2020-01-15T10:00:00"));
+        tradeRepository.save(trade("Archive A", 20.0, "2020-02-03T10:00:00"));
+        tradeRepository.save(trade("Archive B", 5.0, "2020-02-04T10:00:00"));
+        tradeRepository.save(trade("Archive A", 1.0, LocalDateTime.now().toString()));
+        positionService.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        clearArchive();
+        positionService.rebuild();
+    }
+
+    @Test
+    void archive_ShouldMoveOldTradesOutOfTheTable() throws Exception {
+        mockMvc.perform(post("/admin/trades/archive"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.archivedTrades", is(3)))
+                .andExpect(jsonPath("$.filesWritten", is(2)));
+
+        assertEquals(1, tradeRepository.count());
+        assertEquals(2, tradeArchive.getParts().size());
+
+        positionService.rebuild();
+        assertEquals(121.0, positionService.getPosition("Archive A", "BOOK", "AAPL").orElseThrow().getNetQuantity());
+    }
+
+    @Test
+    void history_ShouldMergeArchivedAndHotTradesInDateOrder() throws Exception {
+        mockMvc.perform(post("/admin/trades/archive")).andExpect(status().isOk());
+
+        mockMvc.perform(get("/trade/history").param("account", "Archive A").param("format", "NDJSON"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(stringContainsInOrder(
+                        "\"buyQuantity\":100.0", "\"buyQuantity\":20.0", "\"buyQuantity\":1.0")))
+                .andExpect(content().string(not(containsString("Archive B"))));
+
+        mockMvc.perform(get("/trade/history").param("from", "2020-02-01").param("to", "2020-02-29"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("Archive B")))
+                .andExpect(content().string(not(containsString("2020-01-15"))));
+    }
+
+    @Test
+    void historyPage_ShouldPageAcrossTheArchiveAndTheTable() throws Exception {
+        mockMvc.perform(post("/admin/trades/archive")).andExpect(status().isOk());
+
+        String first = mockMvc.perform(get("/trade/history/page").param("account", "Archive A").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.trades[*].buyQuantity", contains(100.0, 20.0)))
+                .andExpect(jsonPath("$.hasNext", is(true)))
+                .andExpect(jsonPath("$.nextAfterDate", startsWith("2020-02-03T10:00")))
+                .andReturn().getResponse().getContentAsString();
+
+        mockMvc.perform(get("/trade/history/page").param("account", "Archive A").param("limit", "2")
+                        .param("afterDate", JsonPath.<String>read(first, "$.nextAfterDate"))
+                        .param("afterId", String.valueOf(JsonPath.<Integer>read(first, "$.nextAfterId"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.trades[*].buyQuantity", contains(1.0)))
+                .andExpect(jsonPath("$.hasNext", is(false)));
+    }
+
+    @Test
+    void archive_ShouldKeepOneFilePerMonthAcrossRuns() throws Exception {
+        mockMvc.perform(post("/admin/trades/archive")).andExpect(status().isOk());
+        tradeRepository.save(trade("Archive C", 7.0, "2020-02-10T10:00:00"));
+
+        mockMvc.perform(post("/admin/trades/archive"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.archivedTrades", is(1)));
+
+        assertEquals(2, tradeArchive.getParts().size());
+        mockMvc.perform(get("/trade/history").param("from", "2020-02-01").param("to", "2020-02-29"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(stringContainsInOrder("Archive A", "Archive B", "Archive C")));
+    }
+
+    @Test
+    void archive_ShouldArchiveNothingTwice() throws Exception {
+        mockMvc.perform(post("/admin/trades/archive")).andExpect(status().isOk());
+
+        mockMvc.perform(post("/admin/trades/archive"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.archivedTrades", is(0)));
+        assertEquals(2, tradeArchive.getParts().size());
+    }
+
+    private void clearArchive() throws Exception {
+        FileSystemUtils.deleteRecursively(Path.of(directory));
+        tradeArchive.load();
+    }
+
+    private static Trade trade(String account, Double buyQuantity, String tradeDate) {
+        Trade trade = new Trade(account, "Type", buyQuantity);
+        trade.setBook("BOOK");
+        trade.setSecurity("AAPL");
+        trade.setTradeDate(Timestamp.valueOf(LocalDateTime.parse(tradeDate)));
+        return trade;
+    }
+}
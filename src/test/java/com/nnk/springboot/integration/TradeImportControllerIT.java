@@ -0,0 +1,130 @@
+package com.nnk.springboot.integration;
+
+import com.nnk.springboot.dto.TradeImportProgress;
+import com.nnk.springboot.model.Trade;
+import com.nnk.springboot.repositories.TradeRepository;
+import com.nnk.springboot.services.contracts.IPositionService;
+import com.nnk.springboot.services.contracts.ITradeImportService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser(username = "admin", roles = {"ADMIN"})
+public class TradeImportControllerIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TradeRepository tradeRepository;
+
+    @Autowired
+    private IPositionService positionService;
+
+    @Autowired
+    private ITradeImportService tradeImportService;
+
+    @Value("${app.trade-import.directory}")
+    private String directory;
+
+    private Path file;
+
+    @BeforeEach
+    void setup() throws Exception {
+        tradeRepository.deleteAll();
+        positionService.rebuild();
+        Path root = Files.createDirectories(Path.of(directory));
+        file = root.resolve("eod-trades.csv");
+        Files.deleteIfExists(root.resolve("eod-trades.csv.checkpoint"));
+
+        List<String> lines = new ArrayList<>();
+        lines.add("account,type,buyQuantity,sellQuantity,tradeDate,security,book");
+        for (int i = 0; i < 40; i++) {
+            lines.add("Import " + (i % 2) + ",Type,10,,2024-05-01T09:00:00,AAPL,BOOK");
+        }
+        lines.add(",Type,10,,,AAPL,BOOK");
+        Files.write(file, lines);
+    }
+
+    @Test
+    void start_ShouldImportFileInBackgroundAndReportProgress() throws Exception {
+        mockMvc.perform(post("/admin/trades/import").param("file", "eod-trades.csv"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.file", is("eod-trades.csv")));
+
+        TradeImportProgress progress = awaitImport();
+
+        assertEquals(TradeImportProgress.State.COMPLETED, progress.getState());
+        mockMvc.perform(get("/admin/trades/import"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.state", is("COMPLETED")))
+                .andExpect(jsonPath("$.rowsImported", is(40)))
+                .andExpect(jsonPath("$.rowsRejected", is(1)))
+                .andExpect(jsonPath("$.chunks", greaterThan(1)))
+                .andExpect(jsonPath("$.percentDone", is(100.0)))
+                .andExpect(jsonPath("$.errors", hasSize(1)));
+
+        List<Trade> trades = tradeRepository.findAll();
+        assertEquals(40, trades.size());
+        assertTrue(trades.stream().allMatch(trade -> trade.getTradeDate() != null));
+        assertEquals(200.0, positionService.getPosition("Import 1", "BOOK", "AAPL").orElseThrow().getNetQuantity());
+    }
+
+    @Test
+    void start_ShouldNotImportCommittedChunksTwice() throws Exception {
+        mockMvc.perform(post("/admin/trades/import").param("file", "eod-trades.csv"))
+                .andExpect(status().isAccepted());
+        awaitImport();
+
+        mockMvc.perform(post("/admin/trades/import").param("file", "eod-trades.csv"))
+                .andExpect(status().isAccepted());
+        TradeImportProgress progress = awaitImport();
+
+        assertEquals(progress.getChunks(), progress.getChunksSkipped());
+        assertEquals(40, tradeRepository.count());
+    }
+
+    @Test
+    void start_ShouldRejectFileOutsideImportDirectory() throws Exception {
+        mockMvc.perform(post("/admin/trades/import").param("file", "../../pom.xml"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    void start_ShouldBeForbiddenToNonAdmins() throws Exception {
+        mockMvc.perform(post("/admin/trades/import").param("file", "eod-trades.csv"))
+                .andExpect(status().isForbidden());
+    }
+
+    private TradeImportProgress awaitImport() throws InterruptedException {
+        for (int i = 0; i < 200; i++) {
+            TradeImportProgress progress = tradeImportService.getProgress().orElseThrow();
+            if (progress.getState() != TradeImportProgress.State.RUNNING) {
+                return progress;
+            }
+            Thread.sleep(50);
+        }
+        return fail("Trade import did not finish");
+    }
+}
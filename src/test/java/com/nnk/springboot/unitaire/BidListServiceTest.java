@@ -1,15 +1,31 @@
 package com.nnk.springboot.unitaire;
 
+import com.nnk.springboot.dto.BidListSortKey;
+import com.nnk.springboot.dto.BidListSummary;
+import com.nnk.springboot.exception.ConcurrentUpdateConflictException;
+import com.nnk.springboot.export.ExportFormat;
 import com.nnk.springboot.model.BidList;
 import com.nnk.springboot.repositories.BidListRepository;
 import com.nnk.springboot.services.BidListService;
+import com.nnk.springboot.journal.JournalEntity;
+import com.nnk.springboot.journal.JournalEventKind;
+import com.nnk.springboot.services.contracts.IDeduplicationService;
+import com.nnk.springboot.services.contracts.IJournalService;
+import com.nnk.springboot.services.contracts.IOrderBookService;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -19,6 +35,18 @@ class BidListServiceTest {
     @Mock
     private BidListRepository bidListRepository;
 
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private IOrderBookService orderBookService;
+
+    @Mock
+    private IJournalService journalService;
+
+    @Mock
+    private IDeduplicationService deduplicationService;
+
     @InjectMocks
     private BidListService bidListService;
 
@@ -42,9 +70,48 @@ class BidListServiceTest {
         BidList savedBidList = bidListService.saveBidList(bidList);
 
         verify(bidListRepository, times(1)).save(bidList);
+        verify(orderBookService, times(1)).apply(bidList);
         assertEquals(bidList, savedBidList);
     }
 
+    @Test
+    void saveBidLists_ShouldPersistAndFlushInBatches() {
+        List<BidList> bidLists = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            BidList bid = new BidList("Account" + i, "Type", 1.0);
+            bid.setBidListId(i);
+            bidLists.add(bid);
+        }
+
+        int saved = bidListService.saveBidLists(bidLists);
+
+        assertEquals(120, saved);
+        verify(entityManager, times(120)).persist(any(BidList.class));
+        verify(orderBookService, times(120)).apply(any(BidList.class));
+        verify(journalService, times(120)).record(eq(JournalEntity.BID_LIST), any(), eq(JournalEventKind.CREATED),
+                anyMap());
+        verify(entityManager, times(3)).flush();
+        verify(entityManager, times(3)).clear();
+        assertTrue(bidLists.stream().allMatch(bid -> bid.getBidListId() == null));
+    }
+
+    @Test
+    void saveBidLists_ShouldSkipBidListsWithKnownSourceListId() {
+        BidList fresh = new BidList("Account", "Type", 1.0);
+        fresh.setSourceListId("SRC-1");
+        BidList resent = new BidList("Account", "Type", 1.0);
+        resent.setSourceListId("SRC-2");
+        when(deduplicationService.isDuplicate(resent)).thenReturn(true);
+
+        int saved = bidListService.saveBidLists(List.of(fresh, resent));
+
+        assertEquals(1, saved);
+        verify(entityManager, times(1)).persist(fresh);
+        verify(entityManager, never()).persist(resent);
+        verify(deduplicationService, times(1)).register(fresh);
+        verify(orderBookService, never()).apply(resent);
+    }
+
     @Test
     void getAllBidLists_ShouldReturnListOfBidLists() {
         List<BidList> bidLists = Arrays.asList(bidList, new BidList());
@@ -57,6 +124,70 @@ class BidListServiceTest {
         assertEquals(2, result.size());
     }
 
+    @Test
+    void getBidListWindow_ShouldFetchOneExtraRowToDetectNextWindow() {
+        List<BidListSummary> rows = List.of(
+                new BidListSummary(1, "Account1", "Type1", 100.0),
+                new BidListSummary(2, "Account2", "Type2", 200.0),
+                new BidListSummary(3, "Account3", "Type3", 300.0));
+        when(bidListRepository.findSummariesAfter(any(), eq(BidListSortKey.ID), eq(Sort.Direction.ASC), isNull(), isNull(), eq(3)))
+                .thenReturn(rows);
+
+        Window<BidListSummary> result = bidListService.getBidListWindow(null, BidListSortKey.ID, Sort.Direction.ASC, 2, null, null);
+
+        verify(bidListRepository, times(1))
+                .findSummariesAfter(any(), eq(BidListSortKey.ID), eq(Sort.Direction.ASC), isNull(), isNull(), eq(3));
+        verify(bidListRepository, never()).findAll();
+        assertEquals(2, result.size());
+        assertTrue(result.hasNext());
+    }
+
+    @Test
+    void getBidListWindow_ShouldParseCursorValueForSortKey() {
+        when(bidListRepository.findSummariesAfter(any(), eq(BidListSortKey.BID_QUANTITY), eq(Sort.Direction.DESC), eq(7),
+                eq(150.0), eq(11)))
+                .thenReturn(List.of(new BidListSummary(3, "Account3", "Type3", 100.0)));
+
+        Window<BidListSummary> result = bidListService.getBidListWindow(null, BidListSortKey.BID_QUANTITY, Sort.Direction.DESC, 10, 7, "150.0");
+
+        assertEquals(1, result.size());
+        assertFalse(result.hasNext());
+    }
+
+    @Test
+    void getBidListWindow_ShouldRejectCursorWithoutSortKeyValue() {
+        assertThrows(IllegalArgumentException.class, () ->
+                bidListService.getBidListWindow(null, BidListSortKey.ACCOUNT, Sort.Direction.ASC, 10, 5, null));
+    }
+
+    @Test
+    void exportBidLists_ShouldWriteCsvAndDetachEachRow() throws Exception {
+        when(bidListRepository.streamAllOrderById()).thenReturn(Stream.of(bidList));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = bidListService.exportBidLists(out, ExportFormat.CSV);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(1, count);
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("bidListId,account,type,bidQuantity"));
+        assertTrue(lines[1].startsWith("1,Account1,Type1,"));
+        verify(entityManager, times(1)).detach(bidList);
+    }
+
+    @Test
+    void exportBidLists_ShouldWriteOneJsonObjectPerLine() throws Exception {
+        when(bidListRepository.streamAllOrderById()).thenReturn(Stream.of(bidList, bidList));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = bidListService.exportBidLists(out, ExportFormat.NDJSON);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, count);
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{\"bidListId\":1,\"account\":\"Account1\""));
+    }
+
     @Test
     void findBidListById_ShouldReturnBidList() {
         when(bidListRepository.findById(1)).thenReturn(Optional.of(bidList));
@@ -69,32 +200,89 @@ class BidListServiceTest {
     }
 
     @Test
-    void updateBidList_ShouldSetIdAndSave() {
+    void updateBidList_ShouldUpdateEditableFieldsInOneStatement() {
         BidList updatedBidList = new BidList();
         updatedBidList.setAccount("AccountUpdated");
         updatedBidList.setType("TypeUpdated");
         updatedBidList.setBidQuantity(200.0);
 
-        when(bidListRepository.save(any(BidList.class))).thenReturn(updatedBidList);
+        when(bidListRepository.updateEditableFields(1, "AccountUpdated", "TypeUpdated", 200.0)).thenReturn(1);
+
+        assertTrue(bidListService.updateBidList(1, updatedBidList));
+
+        verify(bidListRepository, times(1)).updateEditableFields(1, "AccountUpdated", "TypeUpdated", 200.0);
+        verify(bidListRepository, never()).findById(any());
+        verify(bidListRepository, never()).save(any(BidList.class));
+        verify(orderBookService, times(1)).applyBidQuantity(1, 200.0);
+    }
+
+    @Test
+    void updateBidList_ShouldReturnFalseWhenIdDoesNotExist() {
+        when(bidListRepository.updateEditableFields(anyInt(), any(), any(), any())).thenReturn(0);
+
+        assertFalse(bidListService.updateBidList(99, bidList));
+        verifyNoInteractions(orderBookService);
+        verifyNoInteractions(journalService);
+    }
+
+    @Test
+    void updateBidList_ShouldMergeConcurrentChangeOfAnotherFieldAndRetry() {
+        BidList base = new BidList("Account1", "Type1", 100.0);
+        BidList mine = new BidList("Account1", "Type1", 150.0);
+        mine.setVersion(3);
+        BidList current = new BidList("AccountChanged", "Type1", 100.0);
+        current.setBidListId(1);
+        current.setVersion(4);
 
-        bidListService.updateBidList(1, updatedBidList);
+        when(bidListRepository.updateEditableFieldsIfVersion(1, 3, "Account1", "Type1", 150.0)).thenReturn(0);
+        when(bidListRepository.findById(1)).thenReturn(Optional.of(current));
+        when(bidListRepository.updateEditableFieldsIfVersion(1, 4, "AccountChanged", "Type1", 150.0)).thenReturn(1);
 
-        ArgumentCaptor<BidList> captor = ArgumentCaptor.forClass(BidList.class);
-        verify(bidListRepository).save(captor.capture());
-        BidList savedBidList = captor.getValue();
+        assertTrue(bidListService.updateBidList(1, mine, base));
 
-        assertEquals(1, savedBidList.getBidListId());
-        assertEquals("AccountUpdated", savedBidList.getAccount());
-        assertEquals("TypeUpdated", savedBidList.getType());
-        assertEquals(200.0, savedBidList.getBidQuantity());
+        verify(entityManager, times(1)).detach(current);
+        verify(bidListRepository, never()).updateEditableFields(anyInt(), any(), any(), any());
+        verify(orderBookService, times(1)).applyBidQuantity(1, 150.0);
     }
 
     @Test
-    void deleteBidListById_ShouldCallDeleteById() {
-        doNothing().when(bidListRepository).deleteById(1);
+    void updateBidList_ShouldRejectConflictingChangeOfSameField() {
+        BidList base = new BidList("Account1", "Type1", 100.0);
+        BidList mine = new BidList("Account1", "Type1", 150.0);
+        mine.setVersion(3);
+        BidList current = new BidList("Account1", "Type1", 175.0);
+        current.setVersion(4);
+
+        when(bidListRepository.updateEditableFieldsIfVersion(anyInt(), anyInt(), any(), any(), any())).thenReturn(0);
+        when(bidListRepository.findById(1)).thenReturn(Optional.of(current));
 
-        bidListService.deleteBidListById(1);
+        ConcurrentUpdateConflictException e = assertThrows(ConcurrentUpdateConflictException.class,
+                () -> bidListService.updateBidList(1, mine, base));
+
+        assertEquals(List.of("bidQuantity"), e.getConflictingFields());
+        verify(bidListRepository, times(1)).updateEditableFieldsIfVersion(anyInt(), anyInt(), any(), any(), any());
+        verifyNoInteractions(orderBookService);
+        verifyNoInteractions(journalService);
+    }
+
+    @Test
+    void deleteBidListById_ShouldDeleteInOneStatement() {
+        when(bidListRepository.deleteRowById(1)).thenReturn(1);
+
+        assertTrue(bidListService.deleteBidListById(1));
+
+        verify(bidListRepository, times(1)).deleteRowById(1);
+        verify(bidListRepository, never()).findById(any());
+        verify(orderBookService, times(1)).remove(1);
+        verify(journalService, times(1)).record(JournalEntity.BID_LIST, 1, JournalEventKind.DELETED, null);
+    }
+
+    @Test
+    void deleteBidListById_ShouldReturnFalseWhenIdDoesNotExist() {
+        when(bidListRepository.deleteRowById(99)).thenReturn(0);
 
-        verify(bidListRepository, times(1)).deleteById(1);
+        assertFalse(bidListService.deleteBidListById(99));
+        verifyNoInteractions(orderBookService);
+        verifyNoInteractions(journalService);
     }
 }
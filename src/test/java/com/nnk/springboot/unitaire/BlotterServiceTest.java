@@ -0,0 +1,135 @@
+package com.nnk.springboot.unitaire;
+
+import com.nnk.springboot.dto.BlotterPage;
+import com.nnk.springboot.dto.BlotterRow;
+import com.nnk.springboot.model.Trade;
+import com.nnk.springboot.repositories.TradeRepository;
+import com.nnk.springboot.services.BlotterService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class BlotterServiceTest {
+
+    private static final LocalDateTime FROM = LocalDateTime.of(2024, 5, 1, 0, 0);
+    private static final LocalDateTime TO = LocalDateTime.of(2024, 5, 2, 0, 0);
+
+    @Mock
+    private TradeRepository tradeRepository;
+
+    @InjectMocks
+    private BlotterService blotterService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    private static BlotterRow row(int id, String tradeDate) {
+        return new BlotterRow(id, Timestamp.valueOf(tradeDate), "BOOK", "Account", "Type", "AAPL", "BUY",
+                10.0, 1.0, null, null, "NEW", "Trader");
+    }
+
+    @Test
+    void getPage_ShouldFetchOneExtraRowAndReturnCursorOfLastRow() {
+        when(tradeRepository.findBlotterFirst(eq("BOOK"), any(), any(), eq(PageRequest.of(0, 3))))
+                .thenReturn(List.of(row(1, "2024-05-01 09:00:00"), row(2, "2024-05-01 10:00:00"),
+                        row(3, "2024-05-01 11:00:00")));
+
+        BlotterPage page = blotterService.getPage("BOOK", FROM, TO, null, null, 2);
+
+        assertEquals(2, page.getRows().size());
+        assertTrue(page.isHasNext());
+        assertEquals(2, page.getNextAfterId());
+        assertEquals(LocalDateTime.of(2024, 5, 1, 10, 0), page.getNextAfterDate());
+        verify(tradeRepository, never()).findBlotterAfter(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void getPage_ShouldSeekPastCursor() {
+        LocalDateTime afterDate = LocalDateTime.of(2024, 5, 1, 10, 0);
+        when(tradeRepository.findBlotterAfter(eq("BOOK"), any(), any(), eq(Timestamp.valueOf(afterDate)), eq(2),
+                any())).thenReturn(List.of(row(3, "2024-05-01 11:00:00")));
+
+        BlotterPage page = blotterService.getPage("BOOK", FROM, TO, afterDate, 2, null);
+
+        assertEquals(1, page.getRows().size());
+        assertFalse(page.isHasNext());
+    }
+
+    @Test
+    void getPage_ShouldRejectHalfCursor() {
+        assertThrows(IllegalArgumentException.class, () ->
+                blotterService.getPage("BOOK", FROM, TO, null, 5, null));
+        verifyNoInteractions(tradeRepository);
+    }
+
+    @Test
+    void tail_ShouldStartFromFirstCommitWithoutCursor() {
+        when(tradeRepository.findBlotterCommittedAfter("BOOK", 0L, 0, PageRequest.of(0, 101))).thenReturn(List.of());
+
+        BlotterPage page = blotterService.tail("BOOK", null, null, null);
+
+        assertTrue(page.getRows().isEmpty());
+        assertNull(page.getNextAfterSeq());
+    }
+
+    @Test
+    void tail_ShouldReturnCommitSequenceOfLastRowAsCursor() {
+        when(tradeRepository.findBlotterCommittedAfter("BOOK", 7L, 40, PageRequest.of(0, 101))).thenReturn(List.of(
+                new BlotterRow(12, null, "BOOK", "Account", "Type", "AAPL", "BUY", 10.0, 1.0, null, null, "NEW",
+                        "Trader", 8L)));
+
+        BlotterPage page = blotterService.tail("BOOK", 7L, 40, null);
+
+        assertEquals(8L, page.getNextAfterSeq());
+        assertEquals(12, page.getNextAfterId());
+    }
+
+    @Test
+    void tail_ShouldRejectHalfCursor() {
+        assertThrows(IllegalArgumentException.class, () -> blotterService.tail("BOOK", 7L, null, null));
+        verifyNoInteractions(tradeRepository);
+    }
+
+    @Test
+    void stampOnCommit_ShouldShareOneTokenPerTransactionAndRecordItBeforeCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            Trade first = new Trade("Account", "Type", 1.0);
+            Trade second = new Trade("Account", "Type", 2.0);
+            blotterService.stampOnCommit(first);
+            blotterService.stampOnCommit(second);
+
+            assertNotNull(first.getCommitToken());
+            assertEquals(first.getCommitToken(), second.getCommitToken());
+            verify(tradeRepository, never()).recordCommit(anyLong());
+
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            assertEquals(1, synchronizations.size());
+            synchronizations.forEach(synchronization -> synchronization.beforeCommit(false));
+            synchronizations.forEach(synchronization ->
+                    synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+            verify(tradeRepository).recordCommit(first.getCommitToken());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void stampOnCommit_ShouldRequireTransaction() {
+        assertThrows(IllegalStateException.class, () -> blotterService.stampOnCommit(new Trade("A", "T", 1.0)));
+    }
+}
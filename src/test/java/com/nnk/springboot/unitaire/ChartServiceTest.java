@@ -0,0 +1,88 @@
+package com.nnk.springboot.unitaire;
+
+import com.nnk.springboot.curve.Curve;
+import com.nnk.springboot.dto.ChartSeries;
+import com.nnk.springboot.dto.CurveSeriesPoint;
+import com.nnk.springboot.repositories.CurvePointRepository;
+import com.nnk.springboot.services.ChartService;
+import com.nnk.springboot.services.contracts.ICurveService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ChartServiceTest {
+
+    private static final LocalDateTime AS_OF = LocalDateTime.of(2024, 1, 2, 0, 0);
+
+    @Mock
+    private ICurveService curveService;
+
+    @Mock
+    private CurvePointRepository curvePointRepository;
+
+    private ChartService chartService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        chartService = new ChartService(curveService, curvePointRepository);
+    }
+
+    @Test
+    void getHistoryChart_ShouldKeepTheEndsAndThePeakWithinTheBudget() {
+        List<CurveSeriesPoint> points = new ArrayList<>();
+        for (int day = 0; day < 1000; day++) {
+            double value = day == 500 ? 99.0 : 1.0 + (day % 3) * 0.01;
+            points.add(new CurveSeriesPoint(day, Timestamp.valueOf(AS_OF.plusDays(day)), value));
+        }
+        // A second point of the same as-of date replaces the first one
+        points.add(new CurveSeriesPoint(5000, Timestamp.valueOf(AS_OF.plusDays(999)), 7.0));
+        when(curvePointRepository.findSeries(eq(1), eq(2.0), any(), any())).thenReturn(points);
+
+        ChartSeries chart = chartService.getHistoryChart(1, 2.0, null, null, 10);
+
+        assertEquals(10, chart.getX().length);
+        assertEquals(1000, chart.getSourcePoints());
+        assertEquals(Timestamp.valueOf(AS_OF).getTime(), chart.getX()[0]);
+        assertEquals(Timestamp.valueOf(AS_OF.plusDays(999)).getTime(), chart.getX()[9]);
+        assertEquals(7.0, chart.getY()[9]);
+        assertTrue(Arrays.stream(chart.getY()).anyMatch(value -> value == 99.0));
+        for (int i = 1; i < chart.getX().length; i++) {
+            assertTrue(chart.getX()[i] > chart.getX()[i - 1]);
+        }
+    }
+
+    @Test
+    void getCurveChart_ShouldReturnEveryPointOfACurveWithinTheBudget() {
+        when(curveService.getCurve(1, AS_OF)).thenReturn(Optional.of(
+                Curve.of(new int[]{1, 2, 3}, new double[]{2.0, 1.0, 3.0}, new double[]{20.0, 10.0, 30.0})));
+
+        ChartSeries chart = chartService.getCurveChart(1, AS_OF, 500).orElseThrow();
+
+        assertArrayEquals(new double[]{1.0, 2.0, 3.0}, chart.getX());
+        assertArrayEquals(new double[]{10.0, 20.0, 30.0}, chart.getY());
+        assertEquals(3, chart.getSourcePoints());
+        assertTrue(chartService.getCurveChart(2, AS_OF, 500).isEmpty());
+    }
+
+    @Test
+    void charts_ShouldRejectBudgetsOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> chartService.getCurveChart(1, AS_OF, 2));
+        assertThrows(IllegalArgumentException.class,
+                () -> chartService.getHistoryChart(1, 1.0, null, null, 2001));
+        verifyNoInteractions(curveService, curvePointRepository);
+    }
+}
@@ -0,0 +1,115 @@
+package com.nnk.springboot.unitaire;
+
+import com.nnk.springboot.curve.BootstrappedCurve;
+import com.nnk.springboot.curve.Curve;
+import com.nnk.springboot.services.CurveBootstrapService;
+import com.nnk.springboot.services.contracts.ICurveService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CurveBootstrapServiceTest {
+
+    private static final LocalDateTime AS_OF = LocalDateTime.of(2024, 1, 2, 0, 0);
+
+    @Mock
+    private ICurveService curveService;
+
+    private CurveBootstrapService curveBootstrapService;
+    private long version;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        curveBootstrapService = new CurveBootstrapService(curveService);
+    }
+
+    private void given(int curveId, Curve curve) {
+        when(curveService.getCurveVersion(curveId, AS_OF)).thenReturn(curve == null ? 0 : ++version);
+        when(curveService.getCurve(curveId, AS_OF)).thenReturn(Optional.ofNullable(curve));
+    }
+
+    @Test
+    void bootstrap_ShouldDeriveDiscountFactorsAndForwardRatesFromParRates() {
+        given(1, Curve.of(new int[]{1, 2, 3}, new double[]{2.0, 0.5, 1.0}, new double[]{6.0, 4.0, 5.0}));
+
+        BootstrappedCurve curve = curveBootstrapService.bootstrap(1, AS_OF).orElseThrow();
+
+        double df1 = 1 / (1 + 0.04 * 0.5);
+        double df2 = (1 - 0.05 * 0.5 * df1) / (1 + 0.05 * 0.5);
+        double df3 = (1 - 0.06 * (0.5 * df1 + 0.5 * df2)) / (1 + 0.06);
+        assertArrayEquals(new double[]{0.5, 1.0, 2.0}, curve.getTerms());
+        assertArrayEquals(new double[]{df1, df2, df3}, curve.getDiscountFactors(), 1e-12);
+        assertArrayEquals(new double[]{4.0, (df1 / df2 - 1) / 0.5 * 100, (df2 / df3 - 1) * 100},
+                curve.getForwardRates(), 1e-9);
+        assertEquals(AS_OF, curve.getAsOfDate());
+    }
+
+    @Test
+    void bootstrap_ShouldReuseTheResultUntilTheCurveChanges() {
+        Curve curve = Curve.of(new int[]{1}, new double[]{1.0}, new double[]{5.0});
+        given(1, curve);
+
+        BootstrappedCurve first = curveBootstrapService.bootstrap(1, AS_OF).orElseThrow();
+        assertSame(first, curveBootstrapService.bootstrap(1, AS_OF).orElseThrow());
+        verify(curveService, times(1)).getCurve(1, AS_OF);
+
+        given(1, curve.withPoint(2, 2.0, 6.0));
+        BootstrappedCurve second = curveBootstrapService.bootstrap(1, AS_OF).orElseThrow();
+        assertNotSame(first, second);
+        assertEquals(2, second.getTerms().length);
+
+        given(1, null);
+        assertTrue(curveBootstrapService.bootstrap(1, AS_OF).isEmpty());
+    }
+
+    @Test
+    void bootstrap_ShouldKeepOnlyTheResultsUsedLast() {
+        ReflectionTestUtils.setField(curveBootstrapService, "hotCurves", 2);
+        for (int curveId = 1; curveId <= 3; curveId++) {
+            given(curveId, Curve.of(new int[]{curveId}, new double[]{1.0}, new double[]{5.0}));
+        }
+
+        BootstrappedCurve first = curveBootstrapService.bootstrap(1, AS_OF).orElseThrow();
+        BootstrappedCurve second = curveBootstrapService.bootstrap(2, AS_OF).orElseThrow();
+        assertSame(first, curveBootstrapService.bootstrap(1, AS_OF).orElseThrow());
+        curveBootstrapService.bootstrap(3, AS_OF);
+
+        assertSame(first, curveBootstrapService.bootstrap(1, AS_OF).orElseThrow());
+        assertNotSame(second, curveBootstrapService.bootstrap(2, AS_OF).orElseThrow());
+        assertEquals(2, ((Map<?, ?>) ReflectionTestUtils.getField(curveBootstrapService, "bootstrapped")).size());
+    }
+
+    @Test
+    void bootstrapAll_ShouldKeepTheOrderOfTheIdsAndLeaveOutMissingCurves() {
+        for (int curveId = 1; curveId <= 50; curveId++) {
+            given(curveId, Curve.of(new int[]{curveId}, new double[]{1.0}, new double[]{curveId / 10.0}));
+        }
+        given(99, null);
+
+        List<BootstrappedCurve> curves = curveBootstrapService.bootstrapAll(
+                List.of(7, 99, 3, 7, 50, 1), AS_OF);
+
+        assertEquals(List.of(7, 3, 50, 1), curves.stream().map(BootstrappedCurve::getCurveId).toList());
+        assertEquals(1 / 1.001, curves.get(3).getDiscountFactors()[0], 1e-12);
+    }
+
+    @Test
+    void bootstrap_ShouldRejectRatesGivingANegativeDiscountFactor() {
+        given(1, Curve.of(new int[]{1, 2, 3}, new double[]{1.0, 2.0, 30.0},
+                new double[]{1.0, 1.0, 500.0}));
+
+        assertThrows(IllegalArgumentException.class, () -> curveBootstrapService.bootstrap(1, AS_OF));
+        assertThrows(IllegalArgumentException.class, () -> curveBootstrapService.bootstrapAll(List.of(1), AS_OF));
+    }
+}
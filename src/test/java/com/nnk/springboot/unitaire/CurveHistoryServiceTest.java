@@ -0,0 +1,128 @@
+package com.nnk.springboot.unitaire;
+
+import com.nnk.springboot.dto.CurveSnapshot;
+import com.nnk.springboot.model.CurvePoint;
+import com.nnk.springboot.model.CurvePointVersion;
+import com.nnk.springboot.repositories.CurvePointVersionRepository;
+import com.nnk.springboot.services.CurveHistoryService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class CurveHistoryServiceTest {
+
+    private static final Timestamp MONDAY = Timestamp.valueOf("2024-06-03 00:00:00");
+    private static final Timestamp TUESDAY = Timestamp.valueOf("2024-06-04 00:00:00");
+
+    @Mock
+    private CurvePointVersionRepository curvePointVersionRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private Query query;
+
+    private CurveHistoryService curveHistoryService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(entityManager.createQuery(anyString())).thenReturn(query);
+        when(query.setParameter(anyString(), any())).thenReturn(query);
+        curveHistoryService = new CurveHistoryService(curvePointVersionRepository, entityManager);
+    }
+
+    private static CurvePointVersion version(int id, Timestamp asOfDate, double term, double value) {
+        CurvePoint curvePoint = new CurvePoint();
+        curvePoint.setId(id);
+        curvePoint.setCurveId(1);
+        curvePoint.setAsOfDate(asOfDate);
+        curvePoint.setTerm(term);
+        curvePoint.setValue(value);
+        return new CurvePointVersion(curvePoint, MONDAY);
+    }
+
+    @Test
+    void getSnapshot_ShouldFallBackToAnEarlierAsOfDateWithPoints() {
+        when(curvePointVersionRepository.findAsOfDates(eq(1), any(), any(), any())).thenReturn(List.of(TUESDAY, MONDAY));
+        when(curvePointVersionRepository.findKnownAt(eq(1), eq(TUESDAY), any())).thenReturn(List.of());
+        when(curvePointVersionRepository.findKnownAt(eq(1), eq(MONDAY), any())).thenReturn(List.of(
+                version(2, MONDAY, 2.0, 20.0), version(1, MONDAY, 1.0, 10.0)));
+        LocalDateTime knownAt = LocalDateTime.of(2024, 6, 4, 18, 0);
+
+        CurveSnapshot snapshot = curveHistoryService.getSnapshot(1, LocalDateTime.of(2024, 6, 5, 0, 0), knownAt)
+                .orElseThrow();
+
+        assertEquals(MONDAY.toLocalDateTime(), snapshot.getAsOfDate());
+        assertEquals(knownAt, snapshot.getKnownAt());
+        assertArrayEquals(new double[]{1.0, 2.0}, snapshot.getCurve().getTerms());
+        verify(curvePointVersionRepository).findAsOfDates(1, Timestamp.valueOf("2024-06-05 00:00:00"),
+                Timestamp.valueOf(knownAt), PageRequest.of(0, 8));
+    }
+
+    @Test
+    void getSnapshot_ShouldCacheSettledSnapshotsAndTheLatestUntilAWrite() {
+        when(curvePointVersionRepository.findAsOfDates(eq(1), any(), any(), any())).thenReturn(List.of(MONDAY));
+        when(curvePointVersionRepository.findKnownAt(eq(1), eq(MONDAY), any())).thenReturn(List.of(
+                version(1, MONDAY, 1.0, 10.0)));
+        LocalDateTime settled = LocalDateTime.now().minusDays(1);
+
+        assertSame(curveHistoryService.getSnapshot(1, null, settled).orElseThrow(),
+                curveHistoryService.getSnapshot(1, null, settled).orElseThrow());
+        CurveSnapshot current = curveHistoryService.getSnapshot(1, null, null).orElseThrow();
+        assertSame(current, curveHistoryService.getSnapshot(1, null, null).orElseThrow());
+        curveHistoryService.getSnapshot(1, null, LocalDateTime.now());
+        verify(curvePointVersionRepository, times(3)).findKnownAt(any(), any(), any());
+
+        curveHistoryService.recordUpdated(1, 1.0, 11.0);
+        verify(query).setParameter("value", 11.0);
+        verify(query).executeUpdate();
+        assertNotSame(current, curveHistoryService.getSnapshot(1, null, null).orElseThrow());
+        verify(curvePointVersionRepository, times(4)).findKnownAt(any(), any(), any());
+    }
+
+    @Test
+    void recordUpdated_ShouldOnlyEvictTheLatestSnapshotOfTheCurveOfThePoint() {
+        when(curvePointVersionRepository.findAsOfDates(any(), any(), any(), any())).thenReturn(List.of(MONDAY));
+        when(curvePointVersionRepository.findKnownAt(eq(1), eq(MONDAY), any())).thenReturn(List.of(
+                version(1, MONDAY, 1.0, 10.0), version(2, MONDAY, 2.0, 20.0)));
+        when(curvePointVersionRepository.findKnownAt(eq(2), eq(MONDAY), any())).thenReturn(List.of(
+                version(3, MONDAY, 1.0, 30.0)));
+        CurveSnapshot first = curveHistoryService.getSnapshot(1, null, null).orElseThrow();
+        CurveSnapshot second = curveHistoryService.getSnapshot(2, null, null).orElseThrow();
+
+        curveHistoryService.recordUpdated(2, 2.0, 21.0);
+
+        Map<?, ?> latestPointCurves = (Map<?, ?>) ReflectionTestUtils.getField(curveHistoryService,
+                "latestPointCurves");
+        assertEquals(Map.of(3, 2), latestPointCurves);
+        assertSame(second, curveHistoryService.getSnapshot(2, null, null).orElseThrow());
+        assertNotSame(first, curveHistoryService.getSnapshot(1, null, null).orElseThrow());
+        verify(curvePointVersionRepository, times(3)).findKnownAt(any(), any(), any());
+    }
+
+    @Test
+    void getSnapshot_ShouldBeEmptyForACurveWithoutPointsThen() {
+        when(curvePointVersionRepository.findAsOfDates(any(), any(), any(), any())).thenReturn(List.of());
+
+        assertTrue(curveHistoryService.getSnapshot(7, null, null).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> curveHistoryService.getSnapshot(null, null, null));
+    }
+}
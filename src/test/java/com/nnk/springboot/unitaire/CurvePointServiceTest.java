@@ -1,12 +1,21 @@
 package com.nnk.springboot.unitaire;
 
+import com.nnk.springboot.dto.CurvePointFilter;
+import com.nnk.springboot.dto.CurvePointSummary;
+import com.nnk.springboot.dto.CurveUpload;
+import com.nnk.springboot.dto.CurveUploadResult;
 import com.nnk.springboot.model.CurvePoint;
 import com.nnk.springboot.repositories.CurvePointRepository;
 import com.nnk.springboot.services.CurvePointService;
+import com.nnk.springboot.services.contracts.ICurveHistoryService;
+import com.nnk.springboot.services.contracts.ICurveService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
+import org.springframework.data.domain.Sort;
 
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -19,6 +28,12 @@ class CurvePointServiceTest {
     @Mock
     private CurvePointRepository curvePointRepository;
 
+    @Mock
+    private ICurveService curveService;
+
+    @Mock
+    private ICurveHistoryService curveHistoryService;
+
     @InjectMocks
     private CurvePointService curvePointService;
 
@@ -41,6 +56,7 @@ class CurvePointServiceTest {
         CurvePoint savedCurvePoint = curvePointService.saveCurvePoint(curvePoint);
 
         verify(curvePointRepository, times(1)).save(curvePoint);
+        verify(curveHistoryService).recordSaved(curvePoint);
         assertEquals(curvePoint, savedCurvePoint);
     }
 
@@ -56,6 +72,19 @@ class CurvePointServiceTest {
         assertEquals(2, result.size());
     }
 
+    @Test
+    void getCurvePointSummaries_ShouldReturnProjections() {
+        when(curvePointRepository.findSummaries(any(), eq(Sort.by("id"))))
+                .thenReturn(List.of(new CurvePointSummary(1, 10, 1.5, 2.5)));
+
+        List<CurvePointSummary> result = curvePointService.getCurvePointSummaries(new CurvePointFilter(), null, null);
+
+        verify(curvePointRepository, times(1)).findSummaries(any(), eq(Sort.by("id")));
+        verify(curvePointRepository, never()).findAll();
+        assertEquals(1, result.size());
+        assertEquals(1.5, result.get(0).getTerm());
+    }
+
     @Test
     void findCurvePointById_ShouldReturnCurvePoint() {
         when(curvePointRepository.findById(1)).thenReturn(Optional.of(curvePoint));
@@ -68,30 +97,75 @@ class CurvePointServiceTest {
     }
 
     @Test
-    void updateCurvePoint_ShouldSetIdAndSave() {
+    void updateCurvePoint_ShouldUpdateEditableFieldsInOneStatement() {
         CurvePoint updatedCurvePoint = new CurvePoint();
         updatedCurvePoint.setTerm(15.0);
         updatedCurvePoint.setValue(25.0);
 
-        when(curvePointRepository.save(any(CurvePoint.class))).thenReturn(updatedCurvePoint);
+        when(curvePointRepository.updateEditableFields(1, 15.0, 25.0)).thenReturn(1);
 
-        curvePointService.updateCurvePoint(1, updatedCurvePoint);
+        assertTrue(curvePointService.updateCurvePoint(1, updatedCurvePoint));
 
-        ArgumentCaptor<CurvePoint> captor = ArgumentCaptor.forClass(CurvePoint.class);
-        verify(curvePointRepository).save(captor.capture());
-        CurvePoint savedCurvePoint = captor.getValue();
-
-        assertEquals(1, savedCurvePoint.getCurveId());
-        assertEquals(15.0, savedCurvePoint.getTerm());
-        assertEquals(25.0, savedCurvePoint.getValue());
+        verify(curvePointRepository, times(1)).updateEditableFields(1, 15.0, 25.0);
+        verify(curvePointRepository, never()).save(any(CurvePoint.class));
+        verify(curveHistoryService).recordUpdated(1, 15.0, 25.0);
+        verify(curveService).pointUpdated(1, 15.0, 25.0);
     }
 
     @Test
-    void deleteCurvePointById_ShouldCallDeleteById() {
-        doNothing().when(curvePointRepository).deleteById(1);
+    void deleteCurvePointById_ShouldDeleteInOneStatement() {
+        when(curvePointRepository.deleteRowById(1)).thenReturn(1);
+
+        assertTrue(curvePointService.deleteCurvePointById(1));
+        assertFalse(curvePointService.deleteCurvePointById(2));
 
-        curvePointService.deleteCurvePointById(1);
+        verify(curvePointRepository, times(1)).deleteRowById(1);
+        verify(curvePointRepository, never()).findById(any());
+        verify(curveHistoryService).recordDeleted(1);
+        verify(curveService).pointDeleted(1);
+        verify(curveService, never()).pointDeleted(2);
+    }
+
+    private static CurveUpload upload(double[] terms, double[] values) {
+        CurveUpload upload = new CurveUpload();
+        upload.setCurveId(1);
+        upload.setAsOfDate(LocalDateTime.of(2024, 1, 2, 0, 0));
+        upload.setTerms(terms);
+        upload.setValues(values);
+        return upload;
+    }
 
-        verify(curvePointRepository, times(1)).deleteById(1);
+    @Test
+    void replaceCurve_ShouldRecordDeleteAndSaveTheWholeCurveInOrder() {
+        Timestamp asOfDate = Timestamp.valueOf("2024-01-02 00:00:00");
+        when(curvePointRepository.deleteCurve(1, asOfDate)).thenReturn(3);
+
+        CurveUploadResult result = curvePointService.replaceCurve(upload(new double[]{1.0, 2.0}, new double[]{5.0, 6.0}));
+
+        assertEquals(3, result.getReplaced());
+        assertEquals(2, result.getSaved());
+        InOrder inOrder = inOrder(curveHistoryService, curvePointRepository, curveService);
+        inOrder.verify(curveHistoryService).recordCurveDeleted(eq(1), eq(asOfDate), any());
+        inOrder.verify(curvePointRepository).deleteCurve(1, asOfDate);
+        inOrder.verify(curvePointRepository).saveAllAndFlush(argThat(points -> ((List<CurvePoint>) points).size() == 2));
+        inOrder.verify(curveHistoryService).recordCurveSaved(eq(1), eq(asOfDate), any());
+        inOrder.verify(curveService).curveReplaced(eq(1), eq(LocalDateTime.of(2024, 1, 2, 0, 0)),
+                argThat(points -> points.get(1).getTerm() == 2.0 && points.get(1).getValue() == 6.0));
+    }
+
+    @Test
+    void replaceCurve_ShouldRejectInvalidCurvesWithoutWriting() {
+        assertThrows(IllegalArgumentException.class,
+                () -> curvePointService.replaceCurve(upload(new double[]{1.0, 1.0}, new double[]{5.0, 6.0})));
+        assertThrows(IllegalArgumentException.class,
+                () -> curvePointService.replaceCurve(upload(new double[]{2.0, 1.0}, new double[]{5.0, 6.0})));
+        assertThrows(IllegalArgumentException.class,
+                () -> curvePointService.replaceCurve(upload(new double[]{1.0}, new double[]{5.0, 6.0})));
+        assertThrows(IllegalArgumentException.class,
+                () -> curvePointService.replaceCurve(upload(new double[]{1.0}, new double[]{Double.NaN})));
+        assertThrows(IllegalArgumentException.class,
+                () -> curvePointService.replaceCurve(upload(new double[0], new double[0])));
+
+        verifyNoInteractions(curvePointRepository, curveHistoryService, curveService);
     }
 }
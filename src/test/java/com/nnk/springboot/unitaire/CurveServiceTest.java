@@ -0,0 +1,231 @@
+package com.nnk.springboot.unitaire;
+
+import com.nnk.springboot.curve.Curve;
+import com.nnk.springboot.curve.CurveKey;
+import com.nnk.springboot.curve.Interpolation;
+import com.nnk.springboot.curve.OffHeapCurveStore;
+import com.nnk.springboot.model.CurvePoint;
+import com.nnk.springboot.repositories.CurvePointRepository;
+import com.nnk.springboot.services.CurveService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class CurveServiceTest {
+
+    private static final LocalDateTime AS_OF = LocalDateTime.of(2024, 1, 2, 0, 0);
+
+    @Mock
+    private CurvePointRepository curvePointRepository;
+
+    private CurveService curveService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        curveService = new CurveService(curvePointRepository);
+        curveService.open();
+    }
+
+    private static CurvePoint point(int id, double term, double value) {
+        CurvePoint curvePoint = new CurvePoint();
+        curvePoint.setId(id);
+        curvePoint.setCurveId(1);
+        curvePoint.setAsOfDate(Timestamp.valueOf(AS_OF));
+        curvePoint.setTerm(term);
+        curvePoint.setValue(value);
+        return curvePoint;
+    }
+
+    private void given(CurvePoint... points) {
+        when(curvePointRepository.findByCurveIdAndAsOfDateOrderByTermAscIdAsc(1, Timestamp.valueOf(AS_OF)))
+                .thenReturn(List.of(points));
+    }
+
+    @Test
+    void interpolate_ShouldEvaluateEachMethodAndExtrapolateFlat() {
+        given(point(1, 1.0, 1.0), point(2, 2.0, 4.0), point(3, 4.0, 16.0));
+
+        assertArrayEquals(new double[]{1.0, 2.5, 10.0, 16.0},
+                curveService.interpolate(1, AS_OF, new double[]{0.5, 1.5, 3.0, 9.0}, Interpolation.LINEAR), 1e-12);
+        assertEquals(2.0, curveService.interpolate(1, AS_OF, new double[]{1.5}, Interpolation.LOG_LINEAR)[0], 1e-12);
+        assertEquals(8.0, curveService.interpolate(1, AS_OF, new double[]{3.0}, Interpolation.LOG_LINEAR)[0], 1e-12);
+
+        // Natural spline through (1,1), (2,4), (4,16): second derivatives 0, 3, 0
+        double[] spline = curveService.interpolate(1, AS_OF, new double[]{1.0, 1.5, 2.0, 3.0}, Interpolation.CUBIC_SPLINE);
+        assertEquals(1.0, spline[0], 1e-12);
+        assertEquals(2.5 - 0.375 * 3 / 6, spline[1], 1e-12);
+        assertEquals(4.0, spline[2], 1e-12);
+        assertEquals(10.0 - 0.375 * 3 * 4 / 6, spline[3], 1e-12);
+        verify(curvePointRepository, times(1)).findByCurveIdAndAsOfDateOrderByTermAscIdAsc(any(), any());
+    }
+
+    @Test
+    void interpolate_ShouldRejectUnknownCurvesAndNonPositiveLogValues() {
+        given(point(1, 1.0, 0.0), point(2, 2.0, 4.0));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> curveService.interpolate(1, AS_OF, new double[]{1.5}, Interpolation.LOG_LINEAR));
+        assertThrows(IllegalArgumentException.class,
+                () -> curveService.interpolate(2, AS_OF, new double[]{1.5}, Interpolation.LINEAR));
+        assertTrue(curveService.getCurve(2, AS_OF).isEmpty());
+    }
+
+    @Test
+    void pointWrites_ShouldPatchTheLoadedCurveWithoutReloading() {
+        given(point(1, 1.0, 10.0), point(2, 3.0, 30.0));
+        assertEquals(20.0, curveService.getCurve(1, AS_OF).orElseThrow().valueAt(2.0, Interpolation.LINEAR));
+
+        curveService.pointSaved(point(3, 2.0, 40.0));
+        assertEquals(40.0, curveService.getCurve(1, AS_OF).orElseThrow().valueAt(2.0, Interpolation.LINEAR));
+
+        curveService.pointUpdated(3, 2.0, 12.0);
+        curveService.pointUpdated(99, 2.0, 50.0);
+        assertEquals(12.0, curveService.getCurve(1, AS_OF).orElseThrow().valueAt(2.0, Interpolation.LINEAR));
+
+        curveService.pointDeleted(3);
+        curveService.pointDeleted(1);
+        Curve curve = curveService.getCurve(1, AS_OF).orElseThrow();
+        assertArrayEquals(new double[]{3.0}, curve.getTerms());
+        assertEquals(30.0, curve.valueAt(0.0, Interpolation.CUBIC_SPLINE));
+
+        curveService.pointDeleted(2);
+        assertTrue(curveService.getCurve(1, AS_OF).isPresent());
+        verify(curvePointRepository, times(2)).findByCurveIdAndAsOfDateOrderByTermAscIdAsc(any(), any());
+    }
+
+    @Test
+    void getCurve_ShouldOnlyReloadForWritesOfTheCurveBeingLoaded() {
+        List<CurvePoint> points = List.of(point(1, 1.0, 10.0), point(2, 3.0, 30.0));
+        when(curvePointRepository.findByCurveIdAndAsOfDateOrderByTermAscIdAsc(1, Timestamp.valueOf(AS_OF)))
+                .thenAnswer(invocation -> {
+                    curveService.curveReplaced(2, AS_OF, List.of(point(7, 1.0, 1.0)));
+                    curveService.pointDeleted(8);
+                    return points;
+                })
+                .thenAnswer(invocation -> {
+                    curveService.pointUpdated(2, 3.0, 60.0);
+                    return points;
+                })
+                .thenReturn(List.of(point(1, 1.0, 10.0), point(2, 3.0, 60.0)));
+
+        assertEquals(20.0, curveService.getCurve(1, AS_OF).orElseThrow().valueAt(2.0, Interpolation.LINEAR));
+        verify(curvePointRepository, times(1)).findByCurveIdAndAsOfDateOrderByTermAscIdAsc(any(), any());
+
+        curveService.curveReplaced(1, AS_OF, List.of());
+        assertTrue(curveService.getCurve(1, AS_OF).isPresent());
+        assertEquals(60.0, curveService.getCurve(1, AS_OF).orElseThrow().valueAt(3.0, Interpolation.LINEAR));
+        verify(curvePointRepository, times(3)).findByCurveIdAndAsOfDateOrderByTermAscIdAsc(any(), any());
+    }
+
+    @Test
+    void getCurve_ShouldStopRetryingAndServeTheLastReadWithoutStoringIt() {
+        when(curvePointRepository.findByCurveIdAndAsOfDateOrderByTermAscIdAsc(1, Timestamp.valueOf(AS_OF)))
+                .thenAnswer(invocation -> {
+                    curveService.pointUpdated(1, 1.0, 10.0);
+                    return List.of(point(1, 1.0, 10.0));
+                });
+
+        assertEquals(10.0, curveService.getCurve(1, AS_OF).orElseThrow().valueAt(1.0, Interpolation.LINEAR));
+        assertEquals(0, curveService.getCurveVersion(1, AS_OF));
+        verify(curvePointRepository, times(3)).findByCurveIdAndAsOfDateOrderByTermAscIdAsc(any(), any());
+    }
+
+    @Test
+    void curve_ShouldKeepTheLatestPointOfATermAndSupportBatchEvaluation() {
+        Curve curve = Curve.of(new int[]{5, 2, 9}, new double[]{2.0, 1.0, 2.0}, new double[]{7.0, 1.0, 3.0});
+
+        assertArrayEquals(new double[]{1.0, 2.0}, curve.getTerms());
+        assertArrayEquals(new double[]{1.0, 3.0}, curve.getValues());
+        assertEquals(7.0, curve.withoutPoint(9).valueAt(2.0, Interpolation.LINEAR));
+
+        double[] terms = new double[1000];
+        double[] values = new double[terms.length];
+        for (int i = 0; i < terms.length; i++) {
+            terms[i] = i / 500.0;
+        }
+        curve.valuesAt(terms, Interpolation.LINEAR, values);
+        for (int i = 0; i < terms.length; i++) {
+            assertEquals(curve.valueAt(terms[i], Interpolation.LINEAR), values[i], 1e-12);
+        }
+    }
+
+    @Test
+    void curveReplaced_ShouldSwapTheWholeCurve() {
+        given(point(1, 1.0, 1.0), point(2, 2.0, 2.0));
+        Curve before = curveService.getCurve(1, AS_OF).orElseThrow();
+        long version = curveService.getCurveVersion(1, AS_OF);
+
+        curveService.curveReplaced(1, AS_OF, List.of(point(5, 1.0, 10.0), point(6, 3.0, 30.0)));
+
+        Curve after = curveService.getCurve(1, AS_OF).orElseThrow();
+        assertNotSame(before, after);
+        assertTrue(curveService.getCurveVersion(1, AS_OF) > version);
+        assertEquals(0, curveService.getCurveVersion(2, AS_OF));
+        assertArrayEquals(new double[]{1.0, 3.0}, after.getTerms());
+        assertArrayEquals(new double[]{10.0, 30.0}, after.getValues());
+        version = curveService.getCurveVersion(1, AS_OF);
+        curveService.pointDeleted(2);
+        assertSame(after, curveService.getCurve(1, AS_OF).orElseThrow());
+        assertEquals(version, curveService.getCurveVersion(1, AS_OF));
+        curveService.pointUpdated(6, 3.0, 60.0);
+        assertTrue(curveService.getCurveVersion(1, AS_OF) > version);
+        assertEquals(60.0, curveService.interpolate(1, AS_OF, new double[]{3.0}, Interpolation.LINEAR)[0]);
+        verify(curvePointRepository, times(1)).findByCurveIdAndAsOfDateOrderByTermAscIdAsc(any(), any());
+    }
+
+    @Test
+    void offHeapCurveStore_ShouldKeepEveryCurveAndPointThroughRewritesAndCompaction() {
+        OffHeapCurveStore store = new OffHeapCurveStore(512, 2);
+        int curves = 300;
+        for (int c = 0; c < curves; c++) {
+            int first = c * 10;
+            store.compute(new CurveKey(c, AS_OF), current -> Curve.of(new int[]{first + 1, first + 2, first + 3},
+                    new double[]{3.0, 1.0, 2.0}, new double[]{30.0 + first, 10.0 + first, 20.0 + first}));
+        }
+        // Rewrite every curve a few times, leaving garbage to compact, and move one point per curve
+        for (int round = 0; round < 4; round++) {
+            for (int c = 0; c < curves; c++) {
+                int first = c * 10;
+                double value = 100.0 * round + c;
+                store.compute(new CurveKey(c, AS_OF), current -> current.withPoint(first + 2, 1.0, value));
+            }
+        }
+        for (int c = 0; c < curves; c += 2) {
+            int first = c * 10;
+            store.compute(new CurveKey(c, AS_OF), current -> current.withoutPoint(first + 3));
+            store.compute(new CurveKey(c + 1, AS_OF), current -> current.withPoint(first + 3, 4.0, 40.0));
+        }
+        store.compute(new CurveKey(0, AS_OF), current -> null);
+
+        assertEquals(curves - 1, store.size());
+        assertNull(store.get(new CurveKey(0, AS_OF)));
+        assertNull(store.keyOfPoint(1));
+        // Compaction keeps the garbage below the live records plus the slabs being filled
+        assertTrue(store.getAllocatedBytes() < 3 * store.getLiveBytes() + 8 * 1024 + 4 * 512);
+        for (int c = 1; c < curves; c++) {
+            int first = c * 10;
+            Curve curve = store.get(new CurveKey(c, AS_OF));
+            assertEquals(300.0 + c, curve.valueAt(1.0, Interpolation.LINEAR));
+            assertEquals(30.0 + first, curve.valueAt(3.0, Interpolation.LINEAR));
+            assertEquals(new CurveKey(c, AS_OF), store.keyOfPoint(first + 2));
+            if (c % 2 == 0) {
+                assertEquals(2, curve.size());
+                assertEquals(new CurveKey(c + 1, AS_OF), store.keyOfPoint(first + 3));
+            } else {
+                assertEquals(4, curve.size());
+                assertEquals(20.0 + first, curve.valueAt(2.0, Interpolation.LINEAR));
+                assertEquals(40.0, curve.valueAt(4.0, Interpolation.LINEAR));
+            }
+        }
+    }
+}
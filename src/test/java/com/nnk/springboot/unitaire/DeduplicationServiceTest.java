@@ -0,0 +1,146 @@
+package com.nnk.springboot.unitaire;
+
+import com.nnk.springboot.archive.TradeArchive;
+import com.nnk.springboot.dedup.BloomFilter;
+import com.nnk.springboot.model.BidList;
+import com.nnk.springboot.model.Trade;
+import com.nnk.springboot.repositories.BidListRepository;
+import com.nnk.springboot.repositories.TradeRepository;
+import com.nnk.springboot.services.DeduplicationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class DeduplicationServiceTest {
+
+    @Mock
+    private TradeRepository tradeRepository;
+
+    @Mock
+    private BidListRepository bidListRepository;
+
+    @Mock
+    private TradeArchive tradeArchive;
+
+    private DeduplicationService deduplicationService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        deduplicationService = new DeduplicationService(tradeRepository, bidListRepository, tradeArchive);
+        ReflectionTestUtils.setField(deduplicationService, "expectedIds", 1000L);
+        when(tradeRepository.countBySourceListIdNotNull()).thenReturn(2L);
+        when(tradeRepository.streamSourceListIds()).thenReturn(Stream.of("T-1", "T-2"));
+        when(bidListRepository.countBySourceListIdNotNull()).thenReturn(1L);
+        when(bidListRepository.streamSourceListIds()).thenReturn(Stream.of("B-1"));
+        doAnswer(invocation -> {
+            Consumer<Trade> consumer = invocation.getArgument(3);
+            consumer.accept(trade("A-1"));
+            consumer.accept(trade(null));
+            return null;
+        }).when(tradeArchive).scan(isNull(), isNull(), any(), any());
+    }
+
+    private static Trade trade(String sourceListId) {
+        Trade trade = new Trade("Account", "Type", 1.0);
+        trade.setSourceListId(sourceListId);
+        return trade;
+    }
+
+    @Test
+    void rebuild_ShouldLoadEveryStoredSourceListId() {
+        assertEquals(4, deduplicationService.rebuild());
+
+        verify(tradeRepository).streamSourceListIds();
+        verify(bidListRepository).streamSourceListIds();
+    }
+
+    @Test
+    void isDuplicate_ShouldAcceptUnseenIdWithoutQuery() {
+        deduplicationService.rebuild();
+
+        assertFalse(deduplicationService.isDuplicate(trade("T-3")));
+
+        verify(tradeRepository, never()).existsBySourceListId(any());
+        verify(tradeArchive, never()).containsSourceListId(any());
+    }
+
+    @Test
+    void isDuplicate_ShouldConfirmPossibleDuplicateInArchive() {
+        deduplicationService.rebuild();
+        when(tradeArchive.containsSourceListId("A-1")).thenReturn(true);
+
+        assertTrue(deduplicationService.isDuplicate(trade("A-1")));
+        verify(tradeArchive).containsSourceListId("A-1");
+    }
+
+    @Test
+    void isDuplicate_ShouldKnowIdsArchivedSinceRebuild() {
+        deduplicationService.rebuild();
+        deduplicationService.archived(List.of(trade("A-2")));
+        when(tradeArchive.containsSourceListId("A-2")).thenReturn(true);
+
+        assertTrue(deduplicationService.isDuplicate(trade("A-2")));
+    }
+
+    @Test
+    void isDuplicate_ShouldConfirmPossibleDuplicateInDatabase() {
+        deduplicationService.rebuild();
+        when(tradeRepository.existsBySourceListId("T-1")).thenReturn(true);
+
+        assertTrue(deduplicationService.isDuplicate(trade("T-1")));
+        verify(tradeRepository).existsBySourceListId("T-1");
+    }
+
+    @Test
+    void isDuplicate_ShouldKnowRegisteredIdsAndKeepEntityTypesApart() {
+        deduplicationService.rebuild();
+        Trade saved = trade("T-9");
+        deduplicationService.register(saved);
+        when(tradeRepository.existsBySourceListId("T-9")).thenReturn(true);
+
+        assertTrue(deduplicationService.isDuplicate(trade("T-9")));
+
+        BidList bidList = new BidList("Account", "Type", 1.0);
+        bidList.setSourceListId("T-9");
+        assertFalse(deduplicationService.isDuplicate(bidList));
+        verify(bidListRepository, never()).existsBySourceListId(any());
+    }
+
+    @Test
+    void isDuplicate_ShouldClearBlankSourceListId() {
+        Trade trade = trade("  ");
+
+        assertFalse(deduplicationService.isDuplicate(trade));
+
+        assertNull(trade.getSourceListId());
+        verify(tradeRepository, never()).existsBySourceListId(any());
+    }
+
+    @Test
+    void isDuplicate_ShouldQueryBeforeFiltersAreBuilt() {
+        when(tradeRepository.existsBySourceListId("T-1")).thenReturn(true);
+
+        assertTrue(deduplicationService.isDuplicate(trade("T-1")));
+    }
+
+    @Test
+    void bloomFilter_ShouldStayNearItsFalsePositiveRate() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        IntStream.range(0, 10_000).forEach(i -> filter.add("SRC-" + i));
+
+        assertTrue(IntStream.range(0, 10_000).allMatch(i -> filter.mightContain("SRC-" + i)));
+        long falsePositives = IntStream.range(10_000, 110_000).filter(i -> filter.mightContain("SRC-" + i)).count();
+        assertTrue(falsePositives < 2_000, "false positives: " + falsePositives);
+    }
+}
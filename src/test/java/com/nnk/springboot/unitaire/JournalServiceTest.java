@@ -0,0 +1,166 @@
+package com.nnk.springboot.unitaire;
+
+import com.nnk.springboot.dto.JournalSnapshotResult;
+import com.nnk.springboot.journal.JournalEntity;
+import com.nnk.springboot.journal.JournalEvent;
+import com.nnk.springboot.journal.JournalEventKind;
+import com.nnk.springboot.journal.JournalPayloads;
+import com.nnk.springboot.services.JournalService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournalServiceTest {
+
+    @TempDir
+    Path directory;
+
+    private JournalService journalService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        journalService = open();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        journalService.close();
+    }
+
+    private JournalService open() throws IOException {
+        JournalService service = new JournalService();
+        ReflectionTestUtils.setField(service, "directory", directory.toString());
+        ReflectionTestUtils.setField(service, "segmentSize", 256);
+        ReflectionTestUtils.setField(service, "flushIntervalMillis", 1000L);
+        service.open();
+        return service;
+    }
+
+    private void created(int id, String account) {
+        journalService.record(JournalEntity.TRADE, id, JournalEventKind.CREATED,
+                JournalPayloads.fields("tradeId", id, "account", account, "buyQuantity", 10.0));
+    }
+
+    @Test
+    void getHistory_ShouldReturnEventsOfOneEntityAcrossSegments() throws IOException {
+        for (int i = 0; i < 20; i++) {
+            created(i, "Account" + i);
+        }
+        journalService.record(JournalEntity.TRADE, 7, JournalEventKind.UPDATED,
+                JournalPayloads.fields("account", "Moved", "type", null));
+        journalService.record(JournalEntity.BID_LIST, 7, JournalEventKind.DELETED, null);
+
+        List<JournalEvent> history = journalService.getHistory(JournalEntity.TRADE, 7);
+
+        assertEquals(2, history.size());
+        assertEquals(JournalEventKind.CREATED, history.get(0).getKind());
+        assertEquals("Account7", history.get(0).getChanges().get("account"));
+        assertEquals("Moved", history.get(1).getChanges().get("account"));
+        assertTrue(history.get(1).getChanges().containsKey("type"));
+        assertEquals(22, journalService.getHistory(JournalEntity.BID_LIST, 7).get(0).getSequence());
+        assertTrue(segments().size() > 1);
+    }
+
+    @Test
+    void open_ShouldContinueTheSequenceAfterRestart() throws IOException {
+        created(1, "A");
+        created(2, "B");
+        journalService.close();
+
+        journalService = open();
+        created(3, "C");
+
+        assertEquals(3, journalService.getHistory(JournalEntity.TRADE, 3).get(0).getSequence());
+    }
+
+    @Test
+    void getHistory_ShouldReadTheIndexRebuiltOnOpen() throws IOException {
+        for (int i = 0; i < 20; i++) {
+            created(i % 4, "Account" + i);
+        }
+        journalService.close();
+
+        journalService = open();
+        journalService.record(JournalEntity.TRADE, 2, JournalEventKind.DELETED, null);
+
+        List<JournalEvent> history = journalService.getHistory(JournalEntity.TRADE, 2);
+        assertEquals(List.of(3L, 7L, 11L, 15L, 19L, 21L), history.stream().map(JournalEvent::getSequence).toList());
+        assertEquals("Account18", history.get(4).getChanges().get("account"));
+        assertEquals(JournalEventKind.DELETED, history.get(5).getKind());
+        assertTrue(journalService.getHistory(JournalEntity.TRADE, 9).isEmpty());
+    }
+
+    @Test
+    void open_ShouldDropATornRecordAtTheEndOfTheLog() throws IOException {
+        created(1, "A");
+        created(2, "B");
+        journalService.close();
+        Path segment = segments().get(segments().size() - 1);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // Corrupt the checksum of the last record, as a page lost in a crash would
+            int length = channel.map(FileChannel.MapMode.READ_ONLY, 0, 4).getInt(0);
+            int secondRecord = 8 + length;
+            channel.write(ByteBuffer.allocate(4).putInt(0, 42), secondRecord + 4);
+        }
+
+        journalService = open();
+        created(3, "C");
+
+        assertEquals(1, journalService.getHistory(JournalEntity.TRADE, 1).size());
+        assertTrue(journalService.getHistory(JournalEntity.TRADE, 2).isEmpty());
+        assertEquals(2, journalService.getHistory(JournalEntity.TRADE, 3).get(0).getSequence());
+    }
+
+    @Test
+    void getStateAsOf_ShouldReplayEventsOnTopOfTheLatestSnapshot() throws Exception {
+        created(1, "Before");
+        created(2, "Other");
+        Thread.sleep(5);
+        LocalDateTime beforeUpdate = LocalDateTime.now();
+        Thread.sleep(5);
+
+        JournalSnapshotResult first = journalService.snapshot();
+        journalService.record(JournalEntity.TRADE, 1, JournalEventKind.UPDATED,
+                JournalPayloads.fields("account", "After"));
+        journalService.record(JournalEntity.TRADE, 2, JournalEventKind.DELETED, null);
+        JournalSnapshotResult second = journalService.snapshot();
+
+        assertEquals(2, first.getSequence());
+        assertEquals(2, first.getEntities());
+        assertEquals(4, second.getSequence());
+        assertEquals(2, second.getEventsApplied());
+        assertEquals(1, second.getEntities());
+
+        Map<String, Object> before = journalService.getStateAsOf(JournalEntity.TRADE, 1, beforeUpdate).orElseThrow();
+        assertEquals("Before", before.get("account"));
+        assertEquals(10.0, before.get("buyQuantity"));
+        Map<String, Object> now = journalService.getStateAsOf(JournalEntity.TRADE, 1, LocalDateTime.now())
+                .orElseThrow();
+        assertEquals("After", now.get("account"));
+        assertEquals(10.0, now.get("buyQuantity"));
+        assertTrue(journalService.getStateAsOf(JournalEntity.TRADE, 2, beforeUpdate).isPresent());
+        assertTrue(journalService.getStateAsOf(JournalEntity.TRADE, 2, LocalDateTime.now()).isEmpty());
+        assertTrue(journalService.getStateAsOf(JournalEntity.TRADE, 1, beforeUpdate.minusDays(1)).isEmpty());
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".log")).sorted().toList();
+        }
+    }
+}
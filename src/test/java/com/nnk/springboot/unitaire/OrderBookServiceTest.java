@@ -0,0 +1,208 @@
+package com.nnk.springboot.unitaire;
+
+import com.nnk.springboot.dto.BidListQuote;
+import com.nnk.springboot.model.BidList;
+import com.nnk.springboot.orderbook.OrderBookDepth;
+import com.nnk.springboot.orderbook.TopOfBook;
+import com.nnk.springboot.orderbook.TopOfBookCache;
+import com.nnk.springboot.repositories.BidListRepository;
+import com.nnk.springboot.services.OrderBookService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class OrderBookServiceTest {
+
+    @Mock
+    private BidListRepository bidListRepository;
+
+    private OrderBookService orderBookService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        orderBookService = new OrderBookService(bidListRepository, new TopOfBookCache());
+    }
+
+    private static BidList quote(int id, String security, Double bid, Double bidQuantity, Double ask, Double askQuantity) {
+        BidList bidList = new BidList("Account", "Type", bidQuantity);
+        bidList.setBidListId(id);
+        bidList.setSecurity(security);
+        bidList.setBid(bid);
+        bidList.setAsk(ask);
+        bidList.setAskQuantity(askQuantity);
+        return bidList;
+    }
+
+    @Test
+    void getDepth_ShouldAggregateLevelsAndSortEachSide() {
+        orderBookService.apply(quote(1, "AAPL", 10.0, 5.0, 11.0, 2.0));
+        orderBookService.apply(quote(2, "AAPL", 10.5, 1.0, 11.0, 3.0));
+        orderBookService.apply(quote(3, "AAPL", 9.5, 4.0, 12.0, 1.0));
+        orderBookService.apply(quote(4, "MSFT", 50.0, 1.0, null, null));
+
+        OrderBookDepth depth = orderBookService.getDepth("AAPL", 2);
+
+        assertEquals(2, depth.getBids().size());
+        assertEquals(10.5, depth.getBids().get(0).getPrice());
+        assertEquals(10.0, depth.getBids().get(1).getPrice());
+        assertEquals(2, depth.getAsks().size());
+        assertEquals(11.0, depth.getAsks().get(0).getPrice());
+        assertEquals(5.0, depth.getAsks().get(0).getQuantity());
+        verifyNoInteractions(bidListRepository);
+    }
+
+    @Test
+    void apply_ShouldReplacePreviousQuoteOfSameBidList() {
+        orderBookService.apply(quote(1, "AAPL", 10.0, 5.0, 11.0, 2.0));
+        orderBookService.apply(quote(1, "MSFT", 20.0, 1.0, null, null));
+
+        OrderBookDepth aapl = orderBookService.getDepth("AAPL", 10);
+        OrderBookDepth msft = orderBookService.getDepth("MSFT", 10);
+
+        assertTrue(aapl.getBids().isEmpty());
+        assertTrue(aapl.getAsks().isEmpty());
+        assertEquals(20.0, msft.getBids().get(0).getPrice());
+    }
+
+    @Test
+    void applyBidQuantity_ShouldKeepPricesOfPreviousQuote() {
+        orderBookService.apply(quote(1, "AAPL", 10.0, 5.0, 11.0, 2.0));
+
+        orderBookService.applyBidQuantity(1, 8.0);
+        orderBookService.applyBidQuantity(42, 1.0);
+
+        OrderBookDepth depth = orderBookService.getDepth("AAPL", 10);
+        assertEquals(1, depth.getBids().size());
+        assertEquals(8.0, depth.getBids().get(0).getQuantity());
+        assertEquals(2.0, depth.getAsks().get(0).getQuantity());
+    }
+
+    @Test
+    void remove_ShouldWithdrawQuantityAndDropEmptyLevels() {
+        orderBookService.apply(quote(1, "AAPL", 10.0, 5.0, null, null));
+        orderBookService.apply(quote(2, "AAPL", 10.0, 3.0, null, null));
+
+        orderBookService.remove(1);
+        assertEquals(3.0, orderBookService.getDepth("AAPL", 10).getBids().get(0).getQuantity());
+
+        orderBookService.remove(2);
+        assertTrue(orderBookService.getDepth("AAPL", 10).getBids().isEmpty());
+    }
+
+    @Test
+    void rebuild_ShouldLoadQuotesFromRepository() {
+        when(bidListRepository.streamAllQuotes()).thenReturn(Stream.of(
+                new BidListQuote(1, "AAPL", 10.0, 5.0, 11.0, 2.0),
+                new BidListQuote(2, "AAPL", 10.0, 1.0, null, null)));
+
+        int loaded = orderBookService.rebuild();
+
+        assertEquals(2, loaded);
+        assertEquals(6.0, orderBookService.getDepth("AAPL", 10).getBids().get(0).getQuantity());
+        orderBookService.remove(2);
+        assertEquals(5.0, orderBookService.getDepth("AAPL", 10).getBids().get(0).getQuantity());
+        assertEquals(1, orderBookService.getTopOfBookStats().getRebuilds());
+    }
+
+    @Test
+    void rebuild_ShouldReplayChangesCommittedWhileReadingTheTable() {
+        orderBookService.apply(quote(1, "AAPL", 10.0, 5.0, null, null));
+        when(bidListRepository.streamAllQuotes()).thenAnswer(invocation -> {
+            // Committed while the table is read: quote 2 is read, the new quote 3 and the delete of 1 are not
+            orderBookService.apply(quote(2, "AAPL", 10.0, 1.0, null, null));
+            orderBookService.apply(quote(3, "MSFT", 20.0, 2.0, null, null));
+            orderBookService.remove(1);
+            return Stream.of(new BidListQuote(1, "AAPL", 10.0, 5.0, null, null),
+                    new BidListQuote(2, "AAPL", 10.0, 1.0, null, null));
+        });
+
+        assertEquals(2, orderBookService.rebuild());
+
+        assertEquals(1.0, orderBookService.getDepth("AAPL", 10).getBids().get(0).getQuantity());
+        assertEquals(2.0, orderBookService.getDepth("MSFT", 10).getBids().get(0).getQuantity());
+
+        orderBookService.apply(quote(4, "AAPL", 10.0, 3.0, null, null));
+        assertEquals(4.0, orderBookService.getDepth("AAPL", 10).getBids().get(0).getQuantity());
+    }
+
+    @Test
+    void remove_ShouldDropTheBookOfItsLastQuote() {
+        orderBookService.apply(quote(1, "AAPL", 10.0, 5.0, null, null));
+        orderBookService.remove(1);
+        when(bidListRepository.streamAllQuotes()).thenAnswer(invocation -> {
+            orderBookService.apply(quote(2, "MSFT", 20.0, 2.0, null, null));
+            orderBookService.remove(2);
+            return Stream.empty();
+        });
+
+        orderBookService.rebuild();
+
+        assertEquals(0, orderBookService.getTopOfBookStats().getSecurities());
+        Object snapshot = ReflectionTestUtils.getField(orderBookService, "snapshot");
+        assertEquals(Map.of(), ReflectionTestUtils.getField(snapshot, "books"));
+    }
+
+    @Test
+    void getTopOfBook_ShouldFollowBestLevels() {
+        orderBookService.apply(quote(1, "AAPL", 10.0, 5.0, 11.0, 2.0));
+        orderBookService.apply(quote(2, "AAPL", 10.5, 1.0, null, null));
+
+        TopOfBook top = orderBookService.getTopOfBook("AAPL").orElseThrow();
+        assertEquals(10.5, top.getBid());
+        assertEquals(1.0, top.getBidQuantity());
+        assertEquals(11.0, top.getAsk());
+
+        orderBookService.remove(2);
+        assertEquals(10.0, orderBookService.getTopOfBook("AAPL").orElseThrow().getBid());
+
+        orderBookService.remove(1);
+        assertTrue(orderBookService.getTopOfBook("AAPL").isEmpty());
+    }
+
+    @Test
+    void getTopOfBook_ShouldShowChangesCommittedDuringARebuild() throws InterruptedException {
+        orderBookService.apply(quote(1, "AAPL", 10.0, 5.0, 11.0, 2.0));
+        when(bidListRepository.streamAllQuotes()).thenAnswer(invocation -> {
+            Thread writer = new Thread(() -> {
+                orderBookService.apply(quote(2, "AAPL", 10.5, 1.0, null, null));
+                orderBookService.remove(1);
+                orderBookService.apply(quote(3, "MSFT", 20.0, 2.0, null, null));
+            });
+            writer.start();
+            writer.join();
+            assertEquals(10.5, orderBookService.getTopOfBook("AAPL").orElseThrow().getBid());
+            return Stream.of(new BidListQuote(1, "AAPL", 10.0, 5.0, 11.0, 2.0));
+        });
+
+        orderBookService.rebuild();
+
+        TopOfBook top = orderBookService.getTopOfBook("AAPL").orElseThrow();
+        assertEquals(10.5, top.getBid());
+        assertEquals(1.0, top.getBidQuantity());
+        assertNull(top.getAsk());
+        assertEquals(20.0, orderBookService.getTopOfBook("MSFT").orElseThrow().getBid());
+        assertEquals(2, orderBookService.getTopOfBookStats().getSecurities());
+    }
+
+    @Test
+    void getTopOfBook_ShouldCountHitsAndMisses() {
+        orderBookService.apply(quote(1, "AAPL", 10.0, 5.0, null, null));
+
+        orderBookService.getTopOfBook("AAPL");
+        orderBookService.getTopOfBook("AAPL");
+        orderBookService.getTopOfBook("MSFT");
+
+        assertEquals(2, orderBookService.getTopOfBookStats().getHits());
+        assertEquals(1, orderBookService.getTopOfBookStats().getMisses());
+        assertEquals(1, orderBookService.getTopOfBookStats().getSecurities());
+    }
+}
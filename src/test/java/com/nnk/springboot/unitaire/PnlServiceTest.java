@@ -0,0 +1,119 @@
+package com.nnk.springboot.unitaire;
+
+import com.nnk.springboot.archive.TradeArchive;
+import com.nnk.springboot.dto.PricedTrade;
+import com.nnk.springboot.pnl.BookPnl;
+import com.nnk.springboot.pnl.MarkPriceSource;
+import com.nnk.springboot.pnl.PnlReport;
+import com.nnk.springboot.pnl.TradePnl;
+import com.nnk.springboot.repositories.TradeRepository;
+import com.nnk.springboot.services.PnlService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class PnlServiceTest {
+
+    @Mock
+    private TradeRepository tradeRepository;
+
+    @Mock
+    private TradeArchive tradeArchive;
+
+    @Mock
+    private MarkPriceSource markPriceSource;
+
+    private PnlService pnlService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        pnlService = new PnlService(tradeRepository, markPriceSource, tradeArchive);
+    }
+
+    @Test
+    void tradePnl_ShouldRealizeMatchedQuantityAndMarkOpenLong() {
+        PricedTrade trade = new PricedTrade(1, "BOOK", "AAPL", 100.0, 10.0, 40.0, 12.0);
+
+        TradePnl pnl = TradePnl.of(trade, 11.0);
+
+        assertEquals(80.0, pnl.getRealized());
+        assertEquals(60.0, pnl.getOpenQuantity());
+        assertEquals(60.0, pnl.getUnrealized());
+    }
+
+    @Test
+    void tradePnl_ShouldMarkOpenShortAgainstSellPrice() {
+        PricedTrade trade = new PricedTrade(1, "BOOK", "AAPL", null, null, 50.0, 20.0);
+
+        TradePnl pnl = TradePnl.of(trade, 18.0);
+
+        assertEquals(0.0, pnl.getRealized());
+        assertEquals(100.0, pnl.getUnrealized());
+    }
+
+    @Test
+    void tradePnl_ShouldLeaveUnrealizedUnknownWithoutMark() {
+        PricedTrade trade = new PricedTrade(1, "BOOK", "AAPL", 10.0, 5.0, null, null);
+
+        assertNull(TradePnl.of(trade, null).getUnrealized());
+    }
+
+    @Test
+    void refresh_ShouldSumEveryChunkPerBookAndMarkEachSecurityOnce() {
+        ReflectionTestUtils.setField(pnlService, "chunkSize", 3);
+        when(tradeRepository.findMinTradeId()).thenReturn(1);
+        when(tradeRepository.findMaxTradeId()).thenReturn(10);
+        when(tradeRepository.findPricedInIdRange(anyInt(), anyInt())).thenAnswer(invocation -> {
+            int from = invocation.getArgument(0);
+            int to = invocation.getArgument(1);
+            return IntStream.range(from, to)
+                    .mapToObj(id -> new PricedTrade(id, id % 2 == 0 ? "EVEN" : "ODD", "AAPL", 10.0, 1.0, null, null))
+                    .toList();
+        });
+        when(markPriceSource.markPrice("AAPL")).thenReturn(2.0);
+
+        PnlReport report = pnlService.refresh();
+
+        assertEquals(10, report.getTradeCount());
+        assertEquals(100.0, report.getUnrealized());
+        assertEquals(2, report.getBooks().size());
+        BookPnl even = report.getBooks().get(0);
+        assertEquals("EVEN", even.getBook());
+        assertEquals(5, even.getTradeCount());
+        assertEquals(50.0, even.getTotal());
+        verify(markPriceSource, times(1)).markPrice("AAPL");
+        assertSame(report, pnlService.getReport());
+    }
+
+    @Test
+    void refresh_ShouldCountUnmarkedTrades() {
+        when(tradeRepository.findMinTradeId()).thenReturn(1);
+        when(tradeRepository.findMaxTradeId()).thenReturn(1);
+        when(tradeRepository.findPricedInIdRange(1, 2))
+                .thenReturn(List.of(new PricedTrade(1, "BOOK", "UNQUOTED", 10.0, 1.0, null, null)));
+        when(markPriceSource.markPrice("UNQUOTED")).thenReturn(null);
+
+        PnlReport report = pnlService.refresh();
+
+        assertEquals(1, report.getBooks().get(0).getUnmarkedTradeCount());
+        assertEquals(0.0, report.getUnrealized());
+    }
+
+    @Test
+    void getTradePnl_ShouldReturnEmptyForUnknownTrade() {
+        when(tradeRepository.findPricedById(42)).thenReturn(Optional.empty());
+
+        assertTrue(pnlService.getTradePnl(42).isEmpty());
+        verifyNoInteractions(markPriceSource);
+    }
+}
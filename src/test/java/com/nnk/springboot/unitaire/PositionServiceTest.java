@@ -0,0 +1,178 @@
+package com.nnk.springboot.unitaire;
+
+import com.nnk.springboot.archive.TradeArchive;
+import com.nnk.springboot.dto.TradeLeg;
+import com.nnk.springboot.model.Trade;
+import com.nnk.springboot.position.Position;
+import com.nnk.springboot.repositories.TradeRepository;
+import com.nnk.springboot.services.PositionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class PositionServiceTest {
+
+    @Mock
+    private TradeRepository tradeRepository;
+
+    @Mock
+    private TradeArchive tradeArchive;
+
+    private PositionService positionService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        positionService = new PositionService(tradeRepository, tradeArchive);
+    }
+
+    private static Trade trade(int id, String account, String book, String security, Double buy, Double sell) {
+        Trade trade = new Trade(account, "Type", buy);
+        trade.setTradeId(id);
+        trade.setBook(book);
+        trade.setSecurity(security);
+        trade.setSellQuantity(sell);
+        return trade;
+    }
+
+    @Test
+    void apply_ShouldNetBuysAgainstSellsPerKey() {
+        positionService.apply(trade(1, "ACC", "BOOK", "AAPL", 100.0, null));
+        positionService.apply(trade(2, "ACC", "BOOK", "AAPL", null, 30.0));
+        positionService.apply(trade(3, "ACC", "OTHER", "AAPL", 5.0, null));
+
+        Position position = positionService.getPosition("ACC", "BOOK", "AAPL").orElseThrow();
+
+        assertEquals(100.0, position.getBuyQuantity());
+        assertEquals(30.0, position.getSellQuantity());
+        assertEquals(70.0, position.getNetQuantity());
+        assertEquals(2, position.getTradeCount());
+        assertEquals(2, positionService.getPositions("ACC").size());
+        verifyNoInteractions(tradeRepository);
+    }
+
+    @Test
+    void applyEdit_ShouldMoveTradeToNewAccount() {
+        positionService.apply(trade(1, "ACC", "BOOK", "AAPL", 100.0, null));
+        positionService.apply(trade(2, "ACC", "BOOK", "AAPL", 10.0, null));
+
+        positionService.applyEdit(1, "ACC2", 40.0);
+
+        assertEquals(10.0, positionService.getPosition("ACC", "BOOK", "AAPL").orElseThrow().getNetQuantity());
+        assertEquals(40.0, positionService.getPosition("ACC2", "BOOK", "AAPL").orElseThrow().getNetQuantity());
+    }
+
+    @Test
+    void remove_ShouldDropPositionWithItsLastTrade() {
+        positionService.apply(trade(1, "ACC", "BOOK", "AAPL", 100.0, null));
+
+        positionService.remove(1);
+
+        assertTrue(positionService.getPosition("ACC", "BOOK", "AAPL").isEmpty());
+        assertTrue(positionService.getPositions(null).isEmpty());
+    }
+
+    @Test
+    void applyEdit_ShouldDropPositionLeftWithoutTrades() {
+        positionService.apply(trade(1, "ACC", "BOOK", "AAPL", 100.0, null));
+
+        positionService.applyEdit(1, "ACC2", 100.0);
+
+        assertTrue(positionService.getPosition("ACC", "BOOK", "AAPL").isEmpty());
+        assertEquals(1, positionService.getPositions(null).size());
+    }
+
+    @Test
+    void archived_ShouldForgetLegsButKeepCountingTheTrades() {
+        positionService.apply(trade(1, "ACC", "BOOK", "AAPL", 100.0, null));
+
+        positionService.archived(List.of(1));
+        positionService.remove(1);
+
+        assertEquals(100.0, positionService.getPosition("ACC", "BOOK", "AAPL").orElseThrow().getNetQuantity());
+    }
+
+    @Test
+    void rebuild_ShouldReplayChangesCommittedWhileReadingTheTable() {
+        positionService.apply(trade(1, "ACC", "BOOK", "AAPL", 100.0, null));
+        when(tradeRepository.findMinTradeId()).thenReturn(1);
+        when(tradeRepository.findMaxTradeId()).thenReturn(2);
+        when(tradeRepository.findLegsInIdRange(anyInt(), anyInt())).thenAnswer(invocation -> {
+            // Committed while the table is read: trade 2 is read, the new trade 3 and the delete of 1 are not
+            positionService.apply(trade(2, "ACC", "BOOK", "AAPL", 10.0, null));
+            positionService.apply(trade(3, "ACC", "BOOK", "AAPL", 1.0, null));
+            positionService.remove(1);
+            return List.of(new TradeLeg(1, "ACC", "BOOK", "AAPL", 100.0, null),
+                    new TradeLeg(2, "ACC", "BOOK", "AAPL", 10.0, null));
+        });
+
+        positionService.rebuild();
+
+        Position position = positionService.getPosition("ACC", "BOOK", "AAPL").orElseThrow();
+        assertEquals(11.0, position.getNetQuantity());
+        assertEquals(2, position.getTradeCount());
+
+        positionService.apply(trade(4, "ACC", "BOOK", "AAPL", 5.0, null));
+        assertEquals(16.0, positionService.getPosition("ACC", "BOOK", "AAPL").orElseThrow().getNetQuantity());
+    }
+
+    @Test
+    void rebuild_ShouldAggregateEveryIdRangeInParallel() {
+        ReflectionTestUtils.setField(positionService, "chunkSize", 2);
+        when(tradeRepository.findMinTradeId()).thenReturn(1);
+        when(tradeRepository.findMaxTradeId()).thenReturn(6);
+        when(tradeRepository.findLegsInIdRange(anyInt(), anyInt())).thenAnswer(invocation -> {
+            int from = invocation.getArgument(0);
+            int to = invocation.getArgument(1);
+            return IntStream.range(from, to)
+                    .mapToObj(id -> new TradeLeg(id, "ACC", "BOOK", id % 2 == 0 ? "AAPL" : "MSFT", 10.0, 1.0))
+                    .toList();
+        });
+
+        int loaded = positionService.rebuild();
+
+        assertEquals(6, loaded);
+        verify(tradeRepository, atLeast(3)).findLegsInIdRange(anyInt(), anyInt());
+        List<Position> positions = positionService.getPositions("ACC");
+        assertEquals(2, positions.size());
+        assertEquals("AAPL", positions.get(0).getSecurity());
+        assertEquals(27.0, positions.get(0).getNetQuantity());
+        assertEquals(3, positions.get(1).getTradeCount());
+    }
+
+    @Test
+    void rebuild_ShouldHandleEmptyTable() {
+        when(tradeRepository.findMinTradeId()).thenReturn(null);
+        when(tradeRepository.findMaxTradeId()).thenReturn(null);
+
+        assertEquals(0, positionService.rebuild());
+        verify(tradeRepository, never()).findLegsInIdRange(anyInt(), anyInt());
+    }
+
+    @Test
+    void rebuild_ShouldAddArchivedTrades() {
+        when(tradeRepository.findMinTradeId()).thenReturn(5);
+        when(tradeRepository.findMaxTradeId()).thenReturn(5);
+        when(tradeRepository.findLegsInIdRange(anyInt(), anyInt()))
+                .thenReturn(List.of(new TradeLeg(5, "ACC", "BOOK", "AAPL", 10.0, null)));
+        doAnswer(invocation -> {
+            Consumer<Trade> consumer = invocation.getArgument(3);
+            consumer.accept(trade(1, "ACC", "BOOK", "AAPL", 100.0, 30.0));
+            return null;
+        }).when(tradeArchive).scan(isNull(), isNull(), any(), any());
+
+        assertEquals(2, positionService.rebuild());
+        Position position = positionService.getPosition("ACC", "BOOK", "AAPL").orElseThrow();
+        assertEquals(80.0, position.getNetQuantity());
+        assertEquals(2, position.getTradeCount());
+    }
+}
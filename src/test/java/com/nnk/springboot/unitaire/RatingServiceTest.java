@@ -1,11 +1,13 @@
 package com.nnk.springboot.unitaire;
 
+import com.nnk.springboot.dto.RatingSummary;
 import com.nnk.springboot.model.Rating;
 import com.nnk.springboot.repositories.RatingRepository;
 import com.nnk.springboot.services.RatingService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
+import org.springframework.data.domain.Sort;
 
 import java.util.Arrays;
 import java.util.List;
@@ -58,6 +60,24 @@ class RatingServiceTest {
         assertEquals(2, result.size());
     }
 
+    @Test
+    void getRatingSummaries_ShouldReturnProjections() {
+        when(ratingRepository.findAllSummaries(Sort.by("id"))).thenReturn(List.of(new RatingSummary(1, "Aaa", "AA+", "AAA", 1)));
+
+        List<RatingSummary> result = ratingService.getRatingSummaries(null, null);
+
+        verify(ratingRepository, times(1)).findAllSummaries(Sort.by("id"));
+        verify(ratingRepository, never()).findAll();
+        assertEquals(1, result.size());
+        assertEquals("Aaa", result.get(0).getMoodysRating());
+    }
+
+    @Test
+    void getRatingSummaries_ShouldRejectUnsupportedSortProperty() {
+        assertThrows(IllegalArgumentException.class, () -> ratingService.getRatingSummaries("password", Sort.Direction.ASC));
+        verify(ratingRepository, never()).findAllSummaries(any());
+    }
+
     @Test
     void findRatingById_ShouldReturnRating() {
         when(ratingRepository.findById(1)).thenReturn(Optional.of(rating));
@@ -70,28 +90,26 @@ class RatingServiceTest {
     }
 
     @Test
-    void updateRating_ShouldSetIdAndSave() {
+    void updateRating_ShouldUpdateEditableFieldsInOneStatement() {
         Rating updatedRating = new Rating();
         updatedRating.setMoodysRating("Baa");
 
-        when(ratingRepository.save(any(Rating.class))).thenReturn(updatedRating);
-
-        ratingService.updateRating(1, updatedRating);
+        when(ratingRepository.updateEditableFields(1, "Baa", null, null, null)).thenReturn(1);
 
-        ArgumentCaptor<Rating> captor = ArgumentCaptor.forClass(Rating.class);
-        verify(ratingRepository).save(captor.capture());
-        Rating savedRating = captor.getValue();
+        assertTrue(ratingService.updateRating(1, updatedRating));
 
-        assertEquals(1, savedRating.getId());
-        assertEquals("Baa", savedRating.getMoodysRating());
+        verify(ratingRepository, times(1)).updateEditableFields(1, "Baa", null, null, null);
+        verify(ratingRepository, never()).save(any(Rating.class));
     }
 
     @Test
-    void deleteRatingById_ShouldCallDeleteById() {
-        doNothing().when(ratingRepository).deleteById(1);
+    void deleteRatingById_ShouldDeleteInOneStatement() {
+        when(ratingRepository.deleteRowById(1)).thenReturn(1);
 
-        ratingService.deleteRatingById(1);
+        assertTrue(ratingService.deleteRatingById(1));
+        assertFalse(ratingService.deleteRatingById(2));
 
-        verify(ratingRepository, times(1)).deleteById(1);
+        verify(ratingRepository, times(1)).deleteRowById(1);
+        verify(ratingRepository, never()).findById(any());
     }
 }
@@ -0,0 +1,144 @@
+package com.nnk.springboot.unitaire;
+
+import com.nnk.springboot.dto.ReconBreak;
+import com.nnk.springboot.dto.ReconRow;
+import com.nnk.springboot.dto.ReconciliationResult;
+import com.nnk.springboot.recon.ReconBreakType;
+import com.nnk.springboot.recon.ReconField;
+import com.nnk.springboot.repositories.BidListRepository;
+import com.nnk.springboot.repositories.TradeRepository;
+import com.nnk.springboot.services.ReconciliationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+class ReconciliationServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 15);
+    private static final List<ReconField> KEYS = List.of(ReconField.DEAL_NAME, ReconField.SOURCE_LIST_ID);
+
+    @TempDir
+    Path directory;
+
+    @Mock
+    private BidListRepository bidListRepository;
+
+    @Mock
+    private TradeRepository tradeRepository;
+
+    private ReconciliationService reconciliationService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        reconciliationService = new ReconciliationService(bidListRepository, tradeRepository);
+        ReflectionTestUtils.setField(reconciliationService, "directory", directory.toString());
+    }
+
+    private static ReconRow row(int id, String dealName, String sourceListId, Double quantity, Double opposite) {
+        return new ReconRow(id, dealName, "Type", sourceListId, "Account", "Book", "SEC", quantity, opposite);
+    }
+
+    private void given(List<ReconRow> bids, List<ReconRow> trades) {
+        when(bidListRepository.streamReconRows(any(), any())).thenAnswer(invocation -> bids.stream());
+        when(tradeRepository.streamReconRows(any(), any())).thenAnswer(invocation -> trades.stream());
+    }
+
+    @Test
+    void reconcile_ShouldClassifyEveryKey() throws IOException {
+        given(List.of(
+                        row(1, "Deal", "S-1", 10.0, null),
+                        row(2, "Deal", "S-2", 10.0, 5.0),
+                        row(3, "Deal", "S-3", 10.0, null),
+                        row(4, "Deal", "S-5", 3.0, null),
+                        row(5, "Deal", "S-5", 2.0, null),
+                        row(6, null, "S-6", 1.0, null)),
+                List.of(
+                        row(11, "Deal", "S-1", 10.0, null),
+                        row(12, "Deal", "S-2", 10.0, 4.0),
+                        row(14, "Deal", "S-4", 1.0, null),
+                        row(15, "Deal", "S-5", 5.0, 0.0)));
+
+        ReconciliationResult result = reconciliationService.reconcile(DAY, KEYS);
+
+        assertEquals(6, result.getBidLists());
+        assertEquals(4, result.getTrades());
+        assertEquals(2, result.getMatched());
+        assertEquals(1, result.getUnmatchedBids());
+        assertEquals(1, result.getUnmatchedTrades());
+        assertEquals(1, result.getQuantityMismatches());
+        assertEquals(1, result.getMissingKeys());
+        assertEquals(0, result.getSpilledPartitions());
+        Map<String, ReconBreak> breaks = result.getBreaks().stream()
+                .filter(reconBreak -> reconBreak.getKey() != null)
+                .collect(Collectors.toMap(ReconBreak::getKey, reconBreak -> reconBreak));
+        assertEquals(ReconBreakType.QUANTITY_MISMATCH, breaks.get("Deal|S-2").getType());
+        assertEquals(5.0, breaks.get("Deal|S-2").getAskQuantity());
+        assertEquals(4.0, breaks.get("Deal|S-2").getSellQuantity());
+        assertEquals(ReconBreakType.UNMATCHED_BID, breaks.get("Deal|S-3").getType());
+        assertEquals(List.of(14), breaks.get("Deal|S-4").getTradeIds());
+
+        Path report = reconciliationService.getReport(result.getId()).orElseThrow();
+        List<String> lines = Files.readAllLines(report);
+        assertEquals("type,key,bidCount,tradeCount,bidQuantity,buyQuantity,askQuantity,sellQuantity,bidListIds,tradeIds",
+                lines.get(0));
+        assertEquals(5, lines.size());
+        assertTrue(lines.contains("MISSING_KEY,,1,0,1.0,0.0,0.0,0.0,6,"));
+        assertSame(result, reconciliationService.getLatest().orElseThrow());
+    }
+
+    @Test
+    void reconcile_ShouldSpillToDiskAndFindTheSameBreaks() throws IOException {
+        List<ReconRow> bids = new ArrayList<>();
+        List<ReconRow> trades = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            bids.add(row(i, "Deal", "S-" + i, 1.0, null));
+            if (i % 10 != 0) {
+                trades.add(row(1000 + i, "Deal", "S-" + i, i % 7 == 0 ? 2.0 : 1.0, null));
+            }
+        }
+        trades.add(row(2000, "Deal", "S-extra", 1.0, null));
+        given(bids, trades);
+        ReconciliationResult inMemory = reconciliationService.reconcile(DAY, KEYS);
+
+        ReflectionTestUtils.setField(reconciliationService, "maxGroupsInMemory", 40);
+        ReflectionTestUtils.setField(reconciliationService, "spillPartitions", 4);
+        ReconciliationResult spilled = reconciliationService.reconcile(DAY, KEYS);
+
+        assertEquals(0, inMemory.getSpilledPartitions());
+        assertEquals(4, spilled.getSpilledPartitions());
+        assertEquals(50, spilled.getUnmatchedBids());
+        assertEquals(1, spilled.getUnmatchedTrades());
+        assertEquals(64, spilled.getQuantityMismatches());
+        assertEquals(386, spilled.getMatched());
+        assertEquals(inMemory.getMatched(), spilled.getMatched());
+        assertEquals(inMemory.getQuantityMismatches(), spilled.getQuantityMismatches());
+        assertEquals(100, spilled.getBreaks().size());
+        try (Stream<Path> files = Files.list(directory)) {
+            assertTrue(files.allMatch(file -> file.getFileName().toString().endsWith(".csv")));
+        }
+    }
+
+    @Test
+    void reconcile_ShouldRejectAnEmptyKeyList() {
+        assertThrows(IllegalArgumentException.class, () -> reconciliationService.reconcile(DAY, List.of()));
+        assertTrue(reconciliationService.getReport("../secret").isEmpty());
+    }
+}
@@ -0,0 +1,256 @@
+package com.nnk.springboot.unitaire;
+
+import com.nnk.springboot.archive.TradeArchive;
+import com.nnk.springboot.dto.BlotterRow;
+import com.nnk.springboot.dto.RollupBar;
+import com.nnk.springboot.model.Trade;
+import com.nnk.springboot.model.TradeRollup;
+import com.nnk.springboot.repositories.TradeRepository;
+import com.nnk.springboot.repositories.TradeRollupRepository;
+import com.nnk.springboot.rollup.RollupInterval;
+import com.nnk.springboot.services.RollupService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class RollupServiceTest {
+
+    private static final long MINUTE = RollupInterval.MINUTE.getMillis();
+    private static final long HOUR = RollupInterval.HOUR.getMillis();
+
+    @Mock
+    private TradeRepository tradeRepository;
+
+    @Mock
+    private TradeRollupRepository tradeRollupRepository;
+
+    @Mock
+    private TradeArchive tradeArchive;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private RollupService rollupService;
+    private long previousHour;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        rollupService = new RollupService(tradeRepository, tradeRollupRepository, tradeArchive, entityManager);
+        when(tradeRepository.streamBlotterSince(any())).thenReturn(Stream.empty());
+        rollupService.rebuild();
+        previousHour = RollupInterval.HOUR.bucketStart(System.currentTimeMillis()) - HOUR;
+    }
+
+    private static Trade trade(int id, long time, Double buyQuantity, Double buyPrice, Double sellQuantity,
+                               Double sellPrice) {
+        Trade trade = new Trade("Account", "Type", buyQuantity);
+        trade.setTradeId(id);
+        trade.setSecurity("SEC");
+        trade.setTradeDate(new Timestamp(time));
+        trade.setBuyPrice(buyPrice);
+        trade.setSellQuantity(sellQuantity);
+        trade.setSellPrice(sellPrice);
+        return trade;
+    }
+
+    private static LocalDateTime at(long millis) {
+        return new Timestamp(millis).toLocalDateTime();
+    }
+
+    @Test
+    void apply_ShouldAggregateOhlcVolumeAndVwapInAnyOrder() {
+        long minute = previousHour + 5 * MINUTE;
+        rollupService.apply(trade(3, minute + 30_000, 10.0, 12.0, null, null));
+        rollupService.apply(trade(1, minute + 1_000, 10.0, 10.0, 5.0, 11.0));
+        rollupService.apply(trade(2, minute + 20_000, 20.0, 9.0, null, null));
+        rollupService.apply(trade(4, minute + 61_000, 1.0, 20.0, null, null));
+        rollupService.apply(trade(5, minute + 2_000, 0.0, 99.0, null, null));
+
+        List<RollupBar> bars = rollupService.getBars("SEC", RollupInterval.MINUTE, at(minute), at(minute + 2 * MINUTE));
+
+        assertEquals(2, bars.size());
+        RollupBar first = bars.get(0);
+        assertEquals(at(minute), first.getStart());
+        assertEquals(10.0, first.getOpen());
+        assertEquals(12.0, first.getHigh());
+        assertEquals(9.0, first.getLow());
+        assertEquals(12.0, first.getClose());
+        assertEquals(45.0, first.getVolume());
+        assertEquals((100.0 + 55.0 + 180.0 + 120.0) / 45.0, first.getVwap(), 1e-9);
+        assertEquals(3, first.getTradeCount());
+        assertEquals(20.0, bars.get(1).getClose());
+
+        List<RollupBar> hours = rollupService.getBars("SEC", RollupInterval.HOUR, at(previousHour),
+                at(previousHour + HOUR));
+        assertEquals(1, hours.size());
+        assertEquals(46.0, hours.get(0).getVolume());
+        assertEquals(20.0, hours.get(0).getHigh());
+        assertEquals(4, hours.get(0).getTradeCount());
+        verifyNoInteractions(tradeRollupRepository);
+    }
+
+    @Test
+    void getBars_ShouldReadBucketsBeforeTheRingsFromTheTable() {
+        long old = RollupInterval.HOUR.bucketStart(System.currentTimeMillis()) - 30 * 24 * HOUR;
+        TradeRollup row = new TradeRollup();
+        row.setSecurity("SEC");
+        row.setBucketInterval(RollupInterval.HOUR);
+        row.setBucketStart(new Timestamp(old));
+        row.setOpenPrice(5.0);
+        row.setHighPrice(6.0);
+        row.setLowPrice(4.0);
+        row.setClosePrice(5.5);
+        row.setVolume(10.0);
+        row.setNotional(52.0);
+        row.setTradeCount(2);
+        when(tradeRollupRepository.findRange(eq("SEC"), eq(RollupInterval.HOUR), any(), any())).thenReturn(List.of(row));
+        rollupService.apply(trade(1, previousHour, 1.0, 7.0, null, null));
+
+        List<RollupBar> bars = rollupService.getBars("SEC", RollupInterval.HOUR, at(old),
+                at(previousHour + HOUR));
+
+        assertEquals(2, bars.size());
+        assertEquals(5.2, bars.get(0).getVwap(), 1e-9);
+        assertEquals(7.0, bars.get(1).getOpen());
+        ArgumentCaptor<Timestamp> to = ArgumentCaptor.forClass(Timestamp.class);
+        verify(tradeRollupRepository).findRange(eq("SEC"), eq(RollupInterval.HOUR), eq(new Timestamp(old)), to.capture());
+        assertTrue(to.getValue().getTime() <= previousHour);
+    }
+
+    @Test
+    void flush_ShouldWriteCompletedBucketsOnce() {
+        rollupService.apply(trade(1, previousHour + MINUTE, 2.0, 10.0, null, null));
+        rollupService.apply(trade(2, System.currentTimeMillis(), 2.0, 10.0, null, null));
+
+        assertEquals(2, rollupService.flush());
+
+        ArgumentCaptor<TradeRollup> saved = ArgumentCaptor.forClass(TradeRollup.class);
+        verify(tradeRollupRepository, times(2)).save(saved.capture());
+        assertEquals(Set.of(RollupInterval.MINUTE, RollupInterval.HOUR),
+                saved.getAllValues().stream().map(TradeRollup::getBucketInterval).collect(Collectors.toSet()));
+        assertTrue(saved.getAllValues().stream().allMatch(row -> row.getNotional() == 20.0));
+        assertEquals(0, rollupService.flush());
+    }
+
+    @Test
+    void invalidate_ShouldRecomputeBucketsFromTheTradeTableAtFlush() {
+        long old = RollupInterval.HOUR.bucketStart(System.currentTimeMillis()) - 30 * 24 * HOUR;
+        Trade trade = trade(7, old + MINUTE, 4.0, 10.0, null, null);
+        when(tradeRepository.findBlotterOfSecurity(eq("SEC"), any(), any())).thenReturn(List.of(
+                new BlotterRow(7, new Timestamp(old + MINUTE), "Book", "Account", "Type", "SEC", null, 4.0, 10.0,
+                        null, null, null, null),
+                new BlotterRow(8, new Timestamp(old + MINUTE), "Book", "Account", "Type", "SEC", null, 1.0, 15.0,
+                        null, null, null, null)));
+        TradeRollup existing = new TradeRollup();
+        existing.setId(3);
+        when(tradeRollupRepository.findBySecurityAndBucketIntervalAndBucketStart("SEC", RollupInterval.HOUR,
+                new Timestamp(old))).thenReturn(Optional.of(existing));
+
+        rollupService.apply(trade);
+        verify(tradeRepository, never()).findBlotterOfSecurity(any(), any(), any());
+
+        assertEquals(2, rollupService.flush());
+
+        verify(tradeRepository).findBlotterOfSecurity("SEC", new Timestamp(old), new Timestamp(old + HOUR));
+        verify(tradeRepository).findBlotterOfSecurity("SEC", new Timestamp(old + MINUTE),
+                new Timestamp(old + 2 * MINUTE));
+        verify(tradeRollupRepository).save(existing);
+        assertEquals(5.0, existing.getVolume());
+        assertEquals(15.0, existing.getClosePrice());
+        assertEquals(2, existing.getTradeCount());
+    }
+
+    @Test
+    void invalidateById_ShouldNotReadTheDatabaseUntilFlush() {
+        long minute = previousHour + 5 * MINUTE;
+        rollupService.apply(trade(1, minute + 1_000, 2.0, 10.0, null, null));
+        when(tradeRepository.findBlotterById(9)).thenReturn(Optional.of(
+                new BlotterRow(9, new Timestamp(minute), "Book", "Account", "Type", "OLD", null,
+                        1.0, 10.0, null, null, null, null)));
+
+        rollupService.invalidate(1);
+        rollupService.invalidate(9);
+        verify(tradeRepository, never()).findBlotterById(any());
+
+        rollupService.flush();
+
+        verify(tradeRepository).findBlotterById(9);
+        verify(tradeRepository, never()).findBlotterById(1);
+        verify(tradeRepository).findBlotterOfSecurity("SEC", new Timestamp(minute), new Timestamp(minute + MINUTE));
+        verify(tradeRepository).findBlotterOfSecurity("OLD", new Timestamp(minute), new Timestamp(minute + MINUTE));
+    }
+
+    @Test
+    void flush_ShouldForgetTradesTheRingsNoLongerCover() {
+        ReflectionTestUtils.setField(rollupService, "minuteBuckets", 2);
+        ReflectionTestUtils.setField(rollupService, "hourBuckets", 2);
+        when(tradeRepository.streamBlotterSince(any())).thenReturn(Stream.empty());
+        rollupService.rebuild();
+        long old = RollupInterval.HOUR.bucketStart(System.currentTimeMillis()) - 30 * 24 * HOUR;
+        rollupService.invalidate(trade(1, old, 1.0, 10.0, null, null));
+        for (int id = 2; id <= 100; id++) {
+            rollupService.apply(trade(id, previousHour + (id - 100) * HOUR, 1.0, 10.0, null, null));
+        }
+
+        rollupService.flush();
+
+        Object snapshot = ReflectionTestUtils.getField(rollupService, "snapshot");
+        Map<?, ?> stamps = (Map<?, ?>) ReflectionTestUtils.getField(snapshot, "stamps");
+        assertTrue(stamps.size() <= 2);
+        assertTrue(Set.of(99, 100).containsAll(stamps.keySet()));
+        rollupService.invalidate(1);
+        rollupService.flush();
+        verify(tradeRepository).findBlotterById(1);
+    }
+
+    @Test
+    void rebuild_ShouldReplayTradesCommittedWhileReadingTheTable() {
+        long minute = previousHour + 5 * MINUTE;
+        when(tradeRepository.streamBlotterSince(any())).thenAnswer(invocation -> {
+            // Committed while the table is read: trade 1 is read, trade 2 is not
+            rollupService.apply(trade(1, minute, 10.0, 10.0, null, null));
+            rollupService.apply(trade(2, minute + 1_000, 5.0, 12.0, null, null));
+            return Stream.of(new BlotterRow(1, new Timestamp(minute), "Book", "Account", "Type", "SEC", null,
+                    10.0, 10.0, null, null, null, null));
+        });
+
+        rollupService.rebuild();
+
+        List<RollupBar> bars = rollupService.getBars("SEC", RollupInterval.MINUTE, at(minute), at(minute + MINUTE));
+        assertEquals(1, bars.size());
+        assertEquals(15.0, bars.get(0).getVolume());
+        assertEquals(2, bars.get(0).getTradeCount());
+        assertEquals(12.0, bars.get(0).getClose());
+    }
+
+    @Test
+    void getBars_ShouldRejectRangesSpanningTooManyBuckets() {
+        LocalDateTime now = LocalDateTime.now();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> rollupService.getBars("SEC", RollupInterval.MINUTE, now.minusDays(30), now));
+        assertThrows(IllegalArgumentException.class,
+                () -> rollupService.getBars("SEC", RollupInterval.MINUTE, now, now));
+        assertThrows(IllegalArgumentException.class,
+                () -> rollupService.getBars(" ", RollupInterval.MINUTE, now.minusHours(1), now));
+    }
+}
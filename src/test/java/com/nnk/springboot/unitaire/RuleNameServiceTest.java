@@ -1,11 +1,13 @@
 package com.nnk.springboot.unitaire;
 
+import com.nnk.springboot.dto.RuleNameSummary;
 import com.nnk.springboot.model.RuleName;
 import com.nnk.springboot.repositories.RuleNameRepository;
 import com.nnk.springboot.services.RuleNameService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
+import org.springframework.data.domain.Sort;
 
 import java.util.Arrays;
 import java.util.List;
@@ -59,6 +61,18 @@ class RuleNameServiceTest {
         assertEquals(2, result.size());
     }
 
+    @Test
+    void getRuleNameSummaries_ShouldReturnProjections() {
+        when(ruleNameRepository.findAllSummaries(Sort.by("id"))).thenReturn(List.of(new RuleNameSummary(1, "Rule", "Desc", "{}", "Tpl", "SELECT", "WHERE")));
+
+        List<RuleNameSummary> result = ruleNameService.getRuleNameSummaries(null, null);
+
+        verify(ruleNameRepository, times(1)).findAllSummaries(Sort.by("id"));
+        verify(ruleNameRepository, never()).findAll();
+        assertEquals(1, result.size());
+        assertEquals("Rule", result.get(0).getName());
+    }
+
     @Test
     void findRuleNameById_ShouldReturnRuleName() {
         when(ruleNameRepository.findById(1)).thenReturn(Optional.of(ruleName));
@@ -71,28 +85,26 @@ class RuleNameServiceTest {
     }
 
     @Test
-    void updateRuleName_ShouldSetIdAndSave() {
+    void updateRuleName_ShouldUpdateEditableFieldsInOneStatement() {
         RuleName updatedRuleName = new RuleName();
         updatedRuleName.setName("Updated Name");
 
-        when(ruleNameRepository.save(any(RuleName.class))).thenReturn(updatedRuleName);
-
-        ruleNameService.updateRuleName(1, updatedRuleName);
+        when(ruleNameRepository.updateEditableFields(1, "Updated Name", null, null, null, null, null)).thenReturn(1);
 
-        ArgumentCaptor<RuleName> captor = ArgumentCaptor.forClass(RuleName.class);
-        verify(ruleNameRepository).save(captor.capture());
-        RuleName savedRuleName = captor.getValue();
+        assertTrue(ruleNameService.updateRuleName(1, updatedRuleName));
 
-        assertEquals(1, savedRuleName.getId());
-        assertEquals("Updated Name", savedRuleName.getName());
+        verify(ruleNameRepository, times(1)).updateEditableFields(1, "Updated Name", null, null, null, null, null);
+        verify(ruleNameRepository, never()).save(any(RuleName.class));
     }
 
     @Test
-    void deleteRuleNameById_ShouldCallDeleteById() {
-        doNothing().when(ruleNameRepository).deleteById(1);
+    void deleteRuleNameById_ShouldDeleteInOneStatement() {
+        when(ruleNameRepository.deleteRowById(1)).thenReturn(1);
 
-        ruleNameService.deleteRuleNameById(1);
+        assertTrue(ruleNameService.deleteRuleNameById(1));
+        assertFalse(ruleNameService.deleteRuleNameById(2));
 
-        verify(ruleNameRepository, times(1)).deleteById(1);
+        verify(ruleNameRepository, times(1)).deleteRowById(1);
+        verify(ruleNameRepository, never()).findById(any());
     }
 }
@@ -0,0 +1,267 @@
+package com.nnk.springboot.unitaire;
+
+import com.nnk.springboot.archive.ArchivePart;
+import com.nnk.springboot.archive.ColumnarTradeFile;
+import com.nnk.springboot.archive.TradeArchive;
+import com.nnk.springboot.archive.TradeColumn;
+import com.nnk.springboot.dto.TradeArchiveResult;
+import com.nnk.springboot.model.Trade;
+import com.nnk.springboot.repositories.TradeRepository;
+import com.nnk.springboot.services.TradeArchiveService;
+import com.nnk.springboot.services.contracts.IDeduplicationService;
+import com.nnk.springboot.services.contracts.IPositionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TradeArchiveServiceTest {
+
+    @Mock
+    private TradeRepository tradeRepository;
+
+    @Mock
+    private IPositionService positionService;
+
+    @Mock
+    private IDeduplicationService deduplicationService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path directory;
+
+    private TradeArchive tradeArchive;
+    private TradeArchiveService tradeArchiveService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        MockitoAnnotations.openMocks(this);
+        tradeArchive = new TradeArchive();
+        ReflectionTestUtils.setField(tradeArchive, "directory", directory.toString());
+        tradeArchive.load();
+        tradeArchiveService = new TradeArchiveService(tradeRepository, tradeArchive, positionService,
+                deduplicationService, transactionManager);
+        ReflectionTestUtils.setField(tradeArchiveService, "batchSize", 3);
+    }
+
+    private static Trade trade(int id, String book, String tradeDate) {
+        Trade trade = new Trade("Account " + id, "Type", id * 10.0);
+        trade.setTradeId(id);
+        trade.setBook(book);
+        trade.setSecurity("AAPL");
+        trade.setBuyPrice(id % 2 == 0 ? null : 1.5);
+        trade.setTradeDate(Timestamp.valueOf(tradeDate));
+        return trade;
+    }
+
+    @Test
+    void archive_ShouldMoveOldTradesToOneFilePerMonthAndCompactEachMonth() {
+        when(tradeRepository.findArchivable(any(), any())).thenReturn(
+                List.of(trade(1, "BOOK", "2022-01-10 09:00:00"), trade(2, "BOOK", "2022-01-20 09:00:00"),
+                        trade(3, "OTHER", "2022-02-01 09:00:00")),
+                List.of(trade(4, "BOOK", "2022-02-15 09:00:00")));
+
+        TradeArchiveResult result = tradeArchiveService.archive();
+
+        assertEquals(4, result.getArchivedTrades());
+        assertEquals(3, result.getFilesWritten());
+        verify(tradeRepository).deleteRowsByIdIn(List.of(1, 2, 3));
+        verify(tradeRepository).deleteRowsByIdIn(List.of(4));
+        verify(positionService).archived(List.of(1, 2, 3));
+        verify(positionService).archived(List.of(4));
+        verify(deduplicationService, times(2)).archived(any());
+        verify(transactionManager, times(2)).commit(any());
+
+        List<ArchivePart> parts = tradeArchive.getParts();
+        assertEquals(2, parts.size());
+        assertEquals(1, parts.get(0).getMinTradeId());
+        assertEquals(2, parts.get(0).getMaxTradeId());
+        assertEquals(3, parts.get(1).getMinTradeId());
+        assertEquals(4, parts.get(1).getMaxTradeId());
+        assertTrue(Files.isDirectory(directory.resolve("2022-01")));
+    }
+
+    @Test
+    void compact_ShouldMergeTheFilesOfAMonthInTradeDateOrder() throws IOException {
+        tradeArchive.publish(tradeArchive.writePending(YearMonth.of(2022, 1),
+                List.of(trade(1, "BOOK", "2022-01-20 09:00:00"), trade(2, "BOOK", "2022-01-05 09:00:00"))));
+        tradeArchive.publish(tradeArchive.writePending(YearMonth.of(2022, 1),
+                List.of(trade(3, "BOOK", "2022-01-10 09:00:00"))));
+
+        assertEquals(2, tradeArchive.compact(YearMonth.of(2022, 1)));
+
+        assertEquals(1, tradeArchive.getParts().size());
+        try (Stream<Path> files = Files.list(directory.resolve("2022-01"))) {
+            assertEquals(1, files.count());
+        }
+        List<Integer> ids = new ArrayList<>();
+        tradeArchive.iterate(null, null, EnumSet.of(TradeColumn.TRADE_ID))
+                .forEachRemaining(trade -> ids.add(trade.getTradeId()));
+        assertEquals(List.of(2, 3, 1), ids);
+        assertEquals(ids, ColumnarTradeFile.read(tradeArchive.getParts().get(0).getPath(), TradeColumn.ALL)
+                .stream().map(Trade::getTradeId).toList());
+    }
+
+    @Test
+    void load_ShouldUndoACompactionInterruptedBeforeItsMergedFileWasPublished() throws IOException {
+        tradeArchive.publish(tradeArchive.writePending(YearMonth.of(2022, 1),
+                List.of(trade(1, "BOOK", "2022-01-10 09:00:00"))));
+        Path month = directory.resolve("2022-01");
+        Path part = tradeArchive.getParts().get(0).getPath();
+        Files.move(part, month.resolve(part.getFileName() + ".replaced"));
+        ColumnarTradeFile.write(month.resolve("compacted-1.ptc.compacting"),
+                List.of(trade(1, "BOOK", "2022-01-10 09:00:00")));
+
+        tradeArchive.load();
+
+        assertEquals(1, tradeArchive.getParts().size());
+        assertEquals(part, tradeArchive.getParts().get(0).getPath());
+        try (Stream<Path> files = Files.list(month)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    void load_ShouldCompleteACompactionInterruptedAfterItsMergedFileWasPublished() throws IOException {
+        tradeArchive.publish(tradeArchive.writePending(YearMonth.of(2022, 1),
+                List.of(trade(1, "BOOK", "2022-01-10 09:00:00"))));
+        Path month = directory.resolve("2022-01");
+        Path part = tradeArchive.getParts().get(0).getPath();
+        Files.copy(part, month.resolve("compacted-1.ptc"));
+        Files.move(part, month.resolve(part.getFileName() + ".replaced"));
+
+        tradeArchive.load();
+
+        assertEquals(1, tradeArchive.getParts().size());
+        assertEquals(month.resolve("compacted-1.ptc"), tradeArchive.getParts().get(0).getPath());
+        try (Stream<Path> files = Files.list(month)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    void archive_ShouldDiscardFilesOfRolledBackBatch() throws IOException {
+        when(tradeRepository.findArchivable(any(), any())).thenReturn(List.of(trade(1, "BOOK", "2022-01-10 09:00:00")));
+        when(tradeRepository.deleteRowsByIdIn(any())).thenThrow(new IllegalStateException("lock timeout"));
+
+        assertThrows(IllegalStateException.class, () -> tradeArchiveService.archive());
+
+        verify(transactionManager).rollback(any());
+        assertTrue(tradeArchive.getParts().isEmpty());
+        assertTrue(tradeArchive.findPending().isEmpty());
+    }
+
+    @Test
+    void scan_ShouldReadOnlyRequestedColumnsOfOverlappingFiles() throws IOException {
+        ArchivePart january = tradeArchive.writePending(YearMonth.of(2022, 1),
+                List.of(trade(1, "BOOK", "2022-01-10 09:00:00"), trade(2, "BOOK", "2022-01-20 09:00:00")));
+        ArchivePart march = tradeArchive.writePending(YearMonth.of(2022, 3),
+                List.of(trade(3, "BOOK", "2022-03-10 09:00:00")));
+        tradeArchive.publish(january);
+        tradeArchive.publish(march);
+
+        assertEquals(1, tradeArchive.partsOverlapping(Timestamp.valueOf("2022-01-15 00:00:00"),
+                Timestamp.valueOf("2022-02-01 00:00:00")).size());
+
+        List<Trade> trades = new ArrayList<>();
+        tradeArchive.scan(Timestamp.valueOf("2022-01-15 00:00:00"), Timestamp.valueOf("2022-02-01 00:00:00"),
+                EnumSet.of(TradeColumn.TRADE_ID, TradeColumn.BUY_QUANTITY), trades::add);
+
+        assertEquals(1, trades.size());
+        assertEquals(2, trades.get(0).getTradeId());
+        assertEquals(20.0, trades.get(0).getBuyQuantity());
+        assertNull(trades.get(0).getAccount());
+    }
+
+    @Test
+    void containsSourceListId_ShouldOnlyReadTheFileThatMayHoldTheId() throws IOException {
+        Trade first = trade(1, "BOOK", "2022-01-10 09:00:00");
+        first.setSourceListId("S-1");
+        Trade third = trade(3, "BOOK", "2022-03-10 09:00:00");
+        third.setSourceListId("S-3");
+        ArchivePart january = tradeArchive.writePending(YearMonth.of(2022, 1), List.of(first));
+        ArchivePart march = tradeArchive.writePending(YearMonth.of(2022, 3), List.of(third));
+
+        assertTrue(tradeArchive.containsSourceListId("S-3"));
+
+        tradeArchive.publish(january);
+        tradeArchive.publish(march);
+        Files.delete(tradeArchive.getParts().get(1).getPath());
+
+        assertTrue(tradeArchive.containsSourceListId("S-1"));
+        assertFalse(tradeArchive.containsSourceListId("S-2"));
+    }
+
+    @Test
+    void containsSourceListId_ShouldIndexFilesLoadedFromDisk() throws IOException {
+        Trade first = trade(1, "BOOK", "2022-01-10 09:00:00");
+        first.setSourceListId("S-1");
+        tradeArchive.publish(tradeArchive.writePending(YearMonth.of(2022, 1), List.of(first)));
+        ArchivePart discarded = tradeArchive.writePending(YearMonth.of(2022, 2),
+                List.of(trade(2, "BOOK", "2022-02-10 09:00:00")));
+        tradeArchive.discard(discarded.getPath());
+
+        tradeArchive.load();
+
+        assertTrue(tradeArchive.containsSourceListId("S-1"));
+        assertFalse(tradeArchive.containsSourceListId("S-2"));
+    }
+
+    @Test
+    void columnarFile_ShouldRoundTripEveryColumn() throws IOException {
+        Trade original = trade(7, "BOOK", "2022-01-10 09:00:00.123456789");
+        original.setBenchmark("Benchmark");
+        original.setSide("BUY");
+        Path file = directory.resolve("roundtrip.ptc");
+
+        ColumnarTradeFile.write(file, List.of(original, trade(8, null, "2022-01-11 09:00:00")));
+        List<Trade> trades = ColumnarTradeFile.read(file, TradeColumn.ALL);
+
+        Trade read = trades.get(0);
+        assertEquals(7, read.getTradeId());
+        assertEquals("Account 7", read.getAccount());
+        assertEquals(70.0, read.getBuyQuantity());
+        assertEquals(1.5, read.getBuyPrice());
+        assertEquals(original.getTradeDate(), read.getTradeDate());
+        assertEquals("Benchmark", read.getBenchmark());
+        assertEquals("BUY", read.getSide());
+        assertNull(read.getSellQuantity());
+        assertNull(trades.get(1).getBook());
+        assertNull(trades.get(1).getBuyPrice());
+    }
+
+    @Test
+    void recover_ShouldPublishCommittedAndDiscardRolledBackPendingFiles() throws IOException {
+        tradeArchive.writePending(YearMonth.of(2022, 1), List.of(trade(1, "BOOK", "2022-01-10 09:00:00")));
+        tradeArchive.writePending(YearMonth.of(2022, 1), List.of(trade(2, "BOOK", "2022-01-11 09:00:00")));
+        when(tradeRepository.countByTradeIdIn(List.of(1))).thenReturn(0L);
+        when(tradeRepository.countByTradeIdIn(List.of(2))).thenReturn(1L);
+
+        tradeArchiveService.recover();
+
+        assertEquals(1, tradeArchive.getParts().size());
+        assertEquals(1, tradeArchive.getParts().get(0).getMinTradeId());
+        assertTrue(tradeArchive.findPending().isEmpty());
+        try (Stream<Path> files = Files.list(directory.resolve("2022-01"))) {
+            assertEquals(1, files.count());
+        }
+    }
+}
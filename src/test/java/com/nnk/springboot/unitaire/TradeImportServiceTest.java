@@ -0,0 +1,236 @@
+package com.nnk.springboot.unitaire;
+
+import com.nnk.springboot.dto.TradeImportProgress;
+import com.nnk.springboot.model.Trade;
+import com.nnk.springboot.services.TradeImportService;
+import com.nnk.springboot.services.contracts.IBlotterService;
+import com.nnk.springboot.services.contracts.IDeduplicationService;
+import com.nnk.springboot.services.contracts.IJournalService;
+import com.nnk.springboot.services.contracts.IPositionService;
+import com.nnk.springboot.services.contracts.IRollupService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+class TradeImportServiceTest {
+
+    private static final String HEADER = "tradeId,account,type,buyQuantity,sellQuantity,buyPrice,tradeDate,security,book";
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private IPositionService positionService;
+
+    @Mock
+    private IJournalService journalService;
+
+    @Mock
+    private IDeduplicationService deduplicationService;
+
+    @Mock
+    private IRollupService rollupService;
+
+    @Mock
+    private IBlotterService blotterService;
+
+    @TempDir
+    Path directory;
+
+    private TradeImportService tradeImportService;
+    private final List<Trade> persisted = Collections.synchronizedList(new ArrayList<>());
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        tradeImportService = new TradeImportService(entityManager, transactionManager,
+                Validation.buildDefaultValidatorFactory().getValidator(), positionService, journalService,
+                deduplicationService, rollupService, blotterService);
+        ReflectionTestUtils.setField(tradeImportService, "chunkSize", 100L);
+        ReflectionTestUtils.setField(tradeImportService, "batchSize", 3);
+        doAnswer(invocation -> persisted.add(invocation.getArgument(0))).when(entityManager).persist(any());
+    }
+
+    private Path file(List<String> lines) throws IOException {
+        Path file = directory.resolve("trades.csv");
+        Files.write(file, lines);
+        return file;
+    }
+
+    private static List<String> rows(int count) {
+        List<String> lines = new ArrayList<>(List.of(HEADER));
+        IntStream.rangeClosed(1, count).forEach(i ->
+                lines.add(i + ",Account " + i + ",Type," + i + ".5,,10.25,2024-05-0" + (1 + i % 9) + "T09:30,AAPL,BOOK"));
+        return lines;
+    }
+
+    @Test
+    void importFile_ShouldPersistEveryRowOfEveryChunk() throws IOException {
+        TradeImportProgress progress = tradeImportService.importFile(file(rows(30)));
+
+        assertEquals(TradeImportProgress.State.COMPLETED, progress.getState());
+        assertTrue(progress.getChunks() > 1);
+        assertEquals(progress.getChunks(), progress.getChunksDone());
+        assertEquals(30, progress.getRowsImported());
+        assertEquals(progress.getTotalBytes(), progress.getBytesDone());
+        assertEquals(30, persisted.size());
+        verify(positionService, times(progress.getChunks())).applyAll(anyCollection());
+        verify(rollupService, times(progress.getChunks())).applyAll(anyCollection());
+        verify(journalService, times(progress.getChunks())).recordAll(any(), any(), anyMap());
+        verify(positionService, never()).apply(any());
+
+        Trade first = persisted.stream().filter(trade -> trade.getAccount().equals("Account 1")).findFirst().orElseThrow();
+        assertNull(first.getTradeId());
+        assertEquals(1.5, first.getBuyQuantity());
+        assertNull(first.getSellQuantity());
+        assertEquals(10.25, first.getBuyPrice());
+        assertEquals(Timestamp.valueOf("2024-05-02 09:30:00"), first.getTradeDate());
+        assertEquals("BOOK", first.getBook());
+    }
+
+    @Test
+    void importFile_ShouldDecodeQuotedFieldsAndFractionalValues() throws IOException {
+        tradeImportService.importFile(file(List.of(
+                HEADER,
+                ",\"Smith, \"\"Jr\"\"\",Type,1.25e2,-0.1,\" 3 \",2024-05-01T09:30:15.250,AAPL,\r",
+                "")));
+
+        Trade trade = persisted.get(0);
+        assertEquals("Smith, \"Jr\"", trade.getAccount());
+        assertEquals(125.0, trade.getBuyQuantity());
+        assertEquals(-0.1, trade.getSellQuantity());
+        assertEquals(3.0, trade.getBuyPrice());
+        assertEquals(Timestamp.valueOf("2024-05-01 09:30:15.25"), trade.getTradeDate());
+        assertNull(trade.getBook());
+    }
+
+    @Test
+    void importFile_ShouldSkipAndReportInvalidLines() throws IOException {
+        TradeImportProgress progress = tradeImportService.importFile(file(List.of(
+                HEADER,
+                "1,Account 1,Type,abc,,,,,",
+                "2,,Type,1,,,,,",
+                "3,Account 3,Type,1",
+                "4,Account 4,Type,1,,,2024-13-01T00:00,,",
+                "5,Account 5,Type,1,,,,,")));
+
+        assertEquals(TradeImportProgress.State.COMPLETED, progress.getState());
+        assertEquals(1, progress.getRowsImported());
+        assertEquals(4, progress.getRowsRejected());
+        List<String> errors = progress.getErrors().stream().sorted(Comparator.naturalOrder()).toList();
+        assertEquals(4, errors.size());
+        assertTrue(errors.stream().anyMatch(error -> error.contains("account")), errors::toString);
+        assertTrue(errors.stream().anyMatch(error -> error.contains("expected 9 fields but found 4")), errors::toString);
+        assertEquals("Account 5", persisted.get(0).getAccount());
+    }
+
+    @Test
+    void importFile_ShouldRejectRowsWithKnownSourceListId() throws IOException {
+        when(deduplicationService.isDuplicate(ArgumentMatchers.<Trade>argThat(
+                trade -> trade.getAccount().equals("Account 2")))).thenReturn(true);
+
+        TradeImportProgress progress = tradeImportService.importFile(file(rows(3)));
+
+        assertEquals(2, progress.getRowsImported());
+        assertEquals(1, progress.getRowsRejected());
+        assertTrue(progress.getErrors().get(0).contains("duplicate sourceListId"));
+        assertTrue(persisted.stream().noneMatch(trade -> trade.getAccount().equals("Account 2")));
+        verify(deduplicationService, times(2)).register(any(Trade.class));
+    }
+
+    @Test
+    void importFile_ShouldReplayAChunkRowByRowWhenAnotherChunkInsertedItsSourceListId() throws IOException {
+        doAnswer(invocation -> {
+            Trade trade = invocation.getArgument(0);
+            if (trade.getAccount().equals("Account 2")) {
+                throw new PersistenceException("Unique index or primary key violation: UK_TRADE_SOURCE_LIST_ID");
+            }
+            return persisted.add(trade);
+        }).when(entityManager).persist(any());
+
+        TradeImportProgress progress = tradeImportService.importFile(file(rows(3)));
+
+        assertEquals(TradeImportProgress.State.COMPLETED, progress.getState());
+        assertEquals(2, progress.getRowsImported());
+        assertEquals(1, progress.getRowsRejected());
+        assertTrue(progress.getErrors().get(0).contains("duplicate sourceListId"), progress.getErrors()::toString);
+        verify(transactionManager, atLeast(2)).rollback(any());
+    }
+
+    @Test
+    void importFile_ShouldResumeWithChunksNotCommitted() throws IOException {
+        Path file = file(rows(30));
+        doThrow(new IllegalStateException("connection lost"))
+                .when(entityManager).persist(argThat(trade -> ((Trade) trade).getAccount().equals("Account 17")));
+
+        TradeImportProgress failed = tradeImportService.importFile(file);
+
+        assertEquals(TradeImportProgress.State.FAILED, failed.getState());
+        assertTrue(failed.getErrors().stream().anyMatch(error -> error.contains("connection lost")));
+        verify(transactionManager).rollback(any());
+
+        reset(entityManager);
+        persisted.clear();
+        doAnswer(invocation -> persisted.add(invocation.getArgument(0))).when(entityManager).persist(any());
+
+        TradeImportProgress resumed = tradeImportService.importFile(file);
+
+        assertEquals(TradeImportProgress.State.COMPLETED, resumed.getState());
+        assertEquals(failed.getChunks() - 1, resumed.getChunksSkipped());
+        assertEquals(resumed.getRowsImported(), persisted.size());
+        assertTrue(persisted.stream().anyMatch(trade -> trade.getAccount().equals("Account 17")));
+        assertEquals(30, failed.getRowsImported() + resumed.getRowsImported());
+
+        persisted.clear();
+        TradeImportProgress again = tradeImportService.importFile(file);
+
+        assertEquals(again.getChunks(), again.getChunksSkipped());
+        assertEquals(0, again.getRowsImported());
+        assertTrue(persisted.isEmpty());
+    }
+
+    @Test
+    void importFile_ShouldRejectUnknownColumn() throws IOException {
+        Path file = file(List.of("account,type,price", "A,T,1"));
+
+        assertThrows(IllegalArgumentException.class, () -> tradeImportService.importFile(file));
+        assertEquals(TradeImportProgress.State.FAILED, tradeImportService.getProgress().orElseThrow().getState());
+        verifyNoInteractions(entityManager);
+    }
+
+    @Test
+    void start_ShouldRejectFileOutsideImportDirectory() throws IOException {
+        ReflectionTestUtils.setField(tradeImportService, "directory", directory.resolve("imports").toString());
+        Files.createDirectories(directory.resolve("imports"));
+        file(rows(1));
+
+        assertThrows(IllegalArgumentException.class, () -> tradeImportService.start("../trades.csv"));
+        assertTrue(tradeImportService.getProgress().isEmpty());
+    }
+}
@@ -1,16 +1,39 @@
 package com.nnk.springboot.unitaire;
 
-
+import com.nnk.springboot.archive.TradeArchive;
+import com.nnk.springboot.dto.DealFilter;
+import com.nnk.springboot.dto.TradeHistoryPage;
+import com.nnk.springboot.dto.TradeSummary;
+import com.nnk.springboot.exception.ConcurrentUpdateConflictException;
+import com.nnk.springboot.exception.DuplicateSourceListIdException;
+import com.nnk.springboot.export.ExportFormat;
+import com.nnk.springboot.journal.JournalEntity;
+import com.nnk.springboot.journal.JournalEventKind;
 import com.nnk.springboot.model.Trade;
 import com.nnk.springboot.repositories.TradeRepository;
 import com.nnk.springboot.services.TradeService;
+import com.nnk.springboot.services.contracts.IBlotterService;
+import com.nnk.springboot.services.contracts.IDeduplicationService;
+import com.nnk.springboot.services.contracts.IJournalService;
+import com.nnk.springboot.services.contracts.IPositionService;
+import com.nnk.springboot.services.contracts.IRollupService;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -20,6 +43,27 @@ class TradeServiceTest {
     @Mock
     private TradeRepository tradeRepository;
 
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private IPositionService positionService;
+
+    @Mock
+    private TradeArchive tradeArchive;
+
+    @Mock
+    private IJournalService journalService;
+
+    @Mock
+    private IDeduplicationService deduplicationService;
+
+    @Mock
+    private IRollupService rollupService;
+
+    @Mock
+    private IBlotterService blotterService;
+
     @InjectMocks
     private TradeService tradeService;
 
@@ -37,14 +81,79 @@ class TradeServiceTest {
 
     @Test
     void saveTrade_ShouldReturnSavedTrade() {
-        when(tradeRepository.save(trade)).thenReturn(trade);
+        when(tradeRepository.saveAndFlush(trade)).thenReturn(trade);
 
         Trade savedTrade = tradeService.saveTrade(trade);
 
-        verify(tradeRepository, times(1)).save(trade);
+        verify(tradeRepository, times(1)).saveAndFlush(trade);
+        verify(positionService, times(1)).apply(trade);
+        verify(deduplicationService, never()).isDuplicate(any(Trade.class));
+        verify(deduplicationService).register(trade);
+        verify(journalService).record(eq(JournalEntity.TRADE), eq(1), eq(JournalEventKind.UPDATED),
+                argThat(fields -> "Account1".equals(fields.get("account"))));
         assertEquals(trade, savedTrade);
     }
 
+    @Test
+    void saveTrade_ShouldRejectNewTradeWithKnownSourceListId() {
+        Trade resent = new Trade("Account", "Type", 10.0);
+        resent.setSourceListId("SRC-1");
+        when(deduplicationService.isDuplicate(resent)).thenReturn(true);
+
+        DuplicateSourceListIdException e = assertThrows(DuplicateSourceListIdException.class,
+                () -> tradeService.saveTrade(resent));
+
+        assertEquals("SRC-1", e.getSourceListId());
+        verify(tradeRepository, never()).saveAndFlush(any(Trade.class));
+        verifyNoInteractions(positionService, journalService);
+    }
+
+    @Test
+    void saveTrade_ShouldReportConcurrentInsertOfSameSourceListIdAsDuplicate() {
+        Trade raced = new Trade("Account", "Type", 10.0);
+        raced.setSourceListId("SRC-2");
+        when(tradeRepository.saveAndFlush(raced)).thenThrow(new DataIntegrityViolationException(
+                "could not execute statement", new RuntimeException("Duplicate entry 'SRC-2' for key 'uk_trade_source_list_id'")));
+
+        DuplicateSourceListIdException e = assertThrows(DuplicateSourceListIdException.class,
+                () -> tradeService.saveTrade(raced));
+
+        assertEquals("SRC-2", e.getSourceListId());
+        verifyNoInteractions(positionService, journalService);
+    }
+
+    @Test
+    void saveTrade_ShouldRethrowOtherIntegrityViolations() {
+        when(tradeRepository.saveAndFlush(trade)).thenThrow(new DataIntegrityViolationException("NULL not allowed"));
+
+        assertThrows(DataIntegrityViolationException.class, () -> tradeService.saveTrade(trade));
+        verify(deduplicationService, never()).register(any(Trade.class));
+    }
+
+    @Test
+    void saveTrades_ShouldPersistAndFlushInBatchesSkippingResentTrades() {
+        List<Trade> trades = new ArrayList<>();
+        for (int i = 0; i < 121; i++) {
+            Trade t = new Trade("Account" + i, "Type", 1.0);
+            t.setTradeId(i);
+            trades.add(t);
+        }
+        Trade resent = trades.get(120);
+        when(deduplicationService.isDuplicate(resent)).thenReturn(true);
+
+        int saved = tradeService.saveTrades(trades);
+
+        assertEquals(120, saved);
+        verify(entityManager, times(120)).persist(any(Trade.class));
+        verify(entityManager, never()).persist(resent);
+        verify(positionService, times(120)).apply(any(Trade.class));
+        verify(journalService, times(120)).record(eq(JournalEntity.TRADE), any(), eq(JournalEventKind.CREATED),
+                anyMap());
+        verify(entityManager, times(3)).flush();
+        verify(entityManager, times(3)).clear();
+        assertTrue(trades.subList(0, 120).stream().allMatch(t -> t.getTradeId() == null));
+    }
+
     @Test
     void getAllTrades_ShouldReturnListOfTrades() {
         List<Trade> trades = Arrays.asList(trade, new Trade());
@@ -57,6 +166,64 @@ class TradeServiceTest {
         assertEquals(2, result.size());
     }
 
+    @Test
+    void getTradeSummaries_ShouldReturnProjections() {
+        when(tradeRepository.findSummaries(any(), eq(Sort.by("tradeId"))))
+                .thenReturn(List.of(new TradeSummary(1, "Account1", "Type1", 10.0)));
+
+        List<TradeSummary> result = tradeService.getTradeSummaries(new DealFilter(), null, null);
+
+        verify(tradeRepository, times(1)).findSummaries(any(), eq(Sort.by("tradeId")));
+        verify(tradeRepository, never()).findAll();
+        assertEquals(1, result.size());
+        assertEquals("Account1", result.get(0).getAccount());
+    }
+
+    @Test
+    void getTradeSummaries_ShouldBreakSortTiesById() {
+        when(tradeRepository.findSummaries(any(), any())).thenReturn(List.of());
+
+        tradeService.getTradeSummaries(null, "account", Sort.Direction.DESC);
+
+        verify(tradeRepository, times(1)).findSummaries(any(),
+                eq(Sort.by(Sort.Direction.DESC, "account").and(Sort.by(Sort.Direction.DESC, "tradeId"))));
+    }
+
+    @Test
+    void getTradeSummaries_ShouldRejectUnsupportedSortProperty() {
+        assertThrows(IllegalArgumentException.class, () ->
+                tradeService.getTradeSummaries(null, "creationDate", Sort.Direction.ASC));
+        verify(tradeRepository, never()).findSummaries(any(), any());
+    }
+
+    @Test
+    void exportTrades_ShouldWriteCsvAndDetachEachRow() throws Exception {
+        when(tradeRepository.streamAllOrderById()).thenReturn(Stream.of(trade));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = tradeService.exportTrades(out, ExportFormat.CSV);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(1, count);
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("tradeId,account,type,buyQuantity"));
+        assertTrue(lines[1].startsWith("1,Account1,Type1,"));
+        verify(entityManager, times(1)).detach(trade);
+    }
+
+    @Test
+    void exportTrades_ShouldWriteOneJsonObjectPerLine() throws Exception {
+        when(tradeRepository.streamAllOrderById()).thenReturn(Stream.of(trade, trade));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = tradeService.exportTrades(out, ExportFormat.NDJSON);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, count);
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{\"tradeId\":1,\"account\":\"Account1\""));
+    }
+
     @Test
     void findTradeById_ShouldReturnTrade() {
         when(tradeRepository.findById(1)).thenReturn(Optional.of(trade));
@@ -69,30 +236,132 @@ class TradeServiceTest {
     }
 
     @Test
-    void updateTrade_ShouldSetIdAndSaveTrade() {
+    void updateTrade_ShouldUpdateEditableFieldsInOneStatement() {
         Trade tradeToUpdate = new Trade();
         tradeToUpdate.setAccount("NewAccount");
         tradeToUpdate.setType("NewType");
 
-        when(tradeRepository.save(any(Trade.class))).thenReturn(tradeToUpdate);
+        when(tradeRepository.updateEditableFields(1, "NewAccount", "NewType", null)).thenReturn(1);
+
+        assertTrue(tradeService.updateTrade(1, tradeToUpdate));
+
+        verify(tradeRepository, times(1)).updateEditableFields(1, "NewAccount", "NewType", null);
+        verify(tradeRepository, never()).save(any(Trade.class));
+        verify(journalService).record(eq(JournalEntity.TRADE), eq(1), eq(JournalEventKind.UPDATED),
+                argThat(fields -> "NewType".equals(fields.get("type")) && fields.containsKey("buyQuantity")));
+    }
+
+    @Test
+    void updateTrade_ShouldMergeConcurrentChangeOfAnotherFieldAndRetry() {
+        Trade base = new Trade("Account", "Type", 10.0);
+        Trade mine = new Trade("Account", "NewType", 10.0);
+        mine.setVersion(0);
+        Trade current = new Trade("Account", "Type", 20.0);
+        current.setVersion(1);
+
+        when(tradeRepository.updateEditableFieldsIfVersion(1, 0, "Account", "NewType", 10.0)).thenReturn(0);
+        when(tradeRepository.findById(1)).thenReturn(Optional.of(current));
+        when(tradeRepository.updateEditableFieldsIfVersion(1, 1, "Account", "NewType", 20.0)).thenReturn(1);
+
+        assertTrue(tradeService.updateTrade(1, mine, base));
 
-        tradeService.updateTrade(1, tradeToUpdate);
+        verify(tradeRepository, times(2)).updateEditableFieldsIfVersion(anyInt(), anyInt(), any(), any(), any());
+        verify(journalService, times(1)).record(eq(JournalEntity.TRADE), eq(1), eq(JournalEventKind.UPDATED),
+                argThat(fields -> Double.valueOf(20.0).equals(fields.get("buyQuantity"))));
+    }
+
+    @Test
+    void updateTrade_ShouldRejectConflictingChangeWithoutBase() {
+        Trade mine = new Trade("Account", "NewType", 10.0);
+        mine.setVersion(0);
+        Trade current = new Trade("Account", "OtherType", 10.0);
+        current.setVersion(1);
 
-        ArgumentCaptor<Trade> tradeCaptor = ArgumentCaptor.forClass(Trade.class);
-        verify(tradeRepository).save(tradeCaptor.capture());
-        Trade savedTrade = tradeCaptor.getValue();
+        when(tradeRepository.updateEditableFieldsIfVersion(anyInt(), anyInt(), any(), any(), any())).thenReturn(0);
+        when(tradeRepository.findById(1)).thenReturn(Optional.of(current));
 
-        assertEquals(1, savedTrade.getTradeId());
-        assertEquals("NewAccount", savedTrade.getAccount());
-        assertEquals("NewType", savedTrade.getType());
+        ConcurrentUpdateConflictException e = assertThrows(ConcurrentUpdateConflictException.class,
+                () -> tradeService.updateTrade(1, mine, null));
+
+        assertEquals(List.of("type"), e.getConflictingFields());
     }
 
     @Test
-    void deleteTradeById_ShouldCallDeleteById() {
-        doNothing().when(tradeRepository).deleteById(1);
+    void deleteTradeById_ShouldDeleteInOneStatement() {
+        when(tradeRepository.deleteRowById(1)).thenReturn(1);
+
+        assertTrue(tradeService.deleteTradeById(1));
+        assertFalse(tradeService.deleteTradeById(2));
 
-        tradeService.deleteTradeById(1);
+        verify(tradeRepository, times(1)).deleteRowById(1);
+        verify(tradeRepository, never()).findById(any());
+        verify(positionService, times(1)).remove(1);
+        verify(positionService, never()).remove(2);
+        verify(journalService, times(1)).record(JournalEntity.TRADE, 1, JournalEventKind.DELETED, null);
+        verify(journalService, never()).record(any(), eq(2), any(), any());
+    }
+
+    @Test
+    void getTradeHistory_ShouldMergeMatchingArchivedTradesInDateOrder() {
+        DealFilter filter = new DealFilter();
+        filter.setAccount("Account1");
+        filter.setFrom(LocalDate.of(2023, 1, 1));
+        filter.setTo(LocalDate.of(2023, 12, 31));
+        Trade hot = tradeOn(10, "Account1", "2023-06-01 10:00:00");
+        when(tradeRepository.findHistoryPage(any(), isNull(), isNull(), eq(101))).thenReturn(List.of(hot));
+        when(tradeArchive.iterate(any(), any(), any())).thenReturn(List.of(
+                tradeOn(2, "Account1", "2023-03-01 10:00:00"),
+                tradeOn(3, "Account2", "2023-03-02 10:00:00"),
+                tradeOn(4, "Account1", "2023-07-01 10:00:00")).iterator());
+
+        TradeHistoryPage page = tradeService.getTradeHistory(filter, null, null, null);
+
+        assertEquals(List.of(2, 10, 4), page.getTrades().stream().map(Trade::getTradeId).toList());
+        assertFalse(page.isHasNext());
+        verify(tradeArchive).iterate(eq(Timestamp.valueOf("2023-01-01 00:00:00")),
+                eq(Timestamp.valueOf("2024-01-01 00:00:00")), any());
+    }
+
+    @Test
+    void getTradeHistory_ShouldReadArchiveFromCursorAndStopAtLimit() {
+        Timestamp after = Timestamp.valueOf("2023-03-01 10:00:00");
+        when(tradeRepository.findHistoryPage(any(), eq(after), eq(2), eq(3)))
+                .thenReturn(List.of(tradeOn(10, "Account1", "2023-06-01 10:00:00")));
+        when(tradeArchive.iterate(eq(after), isNull(), any())).thenReturn(List.of(
+                tradeOn(1, "Account1", "2023-03-01 10:00:00"),
+                tradeOn(5, "Account1", "2023-03-01 10:00:00"),
+                tradeOn(6, "Account1", "2023-04-01 10:00:00"),
+                tradeOn(7, "Account1", "2023-07-01 10:00:00")).iterator());
+
+        TradeHistoryPage page = tradeService.getTradeHistory(null, after.toLocalDateTime(), 2, 2);
+
+        assertEquals(List.of(5, 6), page.getTrades().stream().map(Trade::getTradeId).toList());
+        assertTrue(page.isHasNext());
+        assertEquals(6, page.getNextAfterId());
+        assertEquals(Timestamp.valueOf("2023-04-01 10:00:00").toLocalDateTime(), page.getNextAfterDate());
+    }
+
+    @Test
+    void exportTradeHistory_ShouldStreamMergedTradesAndDetachTableRows() throws Exception {
+        Trade hot = tradeOn(10, "Account1", "2023-06-01 10:00:00");
+        when(tradeRepository.streamHistory(any())).thenReturn(Stream.of(hot));
+        when(tradeArchive.iterate(isNull(), isNull(), any()))
+                .thenReturn(List.of(tradeOn(2, "Account1", "2023-03-01 10:00:00")).iterator());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = tradeService.exportTradeHistory(null, out, ExportFormat.NDJSON);
+
+        assertEquals(2, rows);
+        String written = out.toString(StandardCharsets.UTF_8);
+        assertTrue(written.indexOf("\"tradeId\":2") < written.indexOf("\"tradeId\":10"));
+        verify(entityManager).detach(hot);
+        verify(tradeRepository, never()).findAll(ArgumentMatchers.<Specification<Trade>>any());
+    }
 
-        verify(tradeRepository, times(1)).deleteById(1);
+    private static Trade tradeOn(int id, String account, String tradeDate) {
+        Trade trade = new Trade(account, "Type", 1.0);
+        trade.setTradeId(id);
+        trade.setTradeDate(Timestamp.valueOf(tradeDate));
+        return trade;
     }
 }
@@ -1,11 +1,13 @@
 package com.nnk.springboot.unitaire;
 
+import com.nnk.springboot.dto.UserSummary;
 import com.nnk.springboot.model.User;
 import com.nnk.springboot.repositories.UserRepository;
 import com.nnk.springboot.services.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.util.Arrays;
@@ -64,6 +66,18 @@ class UserServiceTest {
         assertEquals(2, result.size());
     }
 
+    @Test
+    void getUserSummaries_ShouldReturnProjections() {
+        when(userRepository.findAllSummaries(Sort.by("id"))).thenReturn(List.of(new UserSummary(1, "testuser", "Test User", "USER")));
+
+        List<UserSummary> result = userService.getUserSummaries(null, null);
+
+        verify(userRepository, times(1)).findAllSummaries(Sort.by("id"));
+        verify(userRepository, never()).findAll();
+        assertEquals(1, result.size());
+        assertEquals("testuser", result.get(0).getUsername());
+    }
+
     @Test
     void findByUsername_ShouldReturnUser() {
         when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
@@ -87,11 +101,26 @@ class UserServiceTest {
     }
 
     @Test
-    void deleteById_ShouldCallDelete() {
-        doNothing().when(userRepository).deleteById(1);
+    void updateUser_ShouldEncodePasswordAndUpdateInOneStatement() {
+        user.setFullname("Test User");
+        user.setRole("USER");
+        when(passwordEncoder.encode("plainPassword")).thenReturn("encodedPassword");
+        when(userRepository.updateEditableFields(1, "testuser", "encodedPassword", "Test User", "USER")).thenReturn(1);
+
+        assertTrue(userService.updateUser(1, user));
+
+        verify(userRepository, times(1)).updateEditableFields(1, "testuser", "encodedPassword", "Test User", "USER");
+        verify(userRepository, never()).save(any(User.class));
+    }
+
+    @Test
+    void deleteById_ShouldDeleteInOneStatement() {
+        when(userRepository.deleteRowById(1)).thenReturn(1);
 
-        userService.deleteById(1);
+        assertTrue(userService.deleteById(1));
+        assertFalse(userService.deleteById(2));
 
-        verify(userRepository, times(1)).deleteById(1);
+        verify(userRepository, times(1)).deleteRowById(1);
+        verify(userRepository, never()).findById(any());
     }
 }
@@ -0,0 +1,311 @@
+package com.nnk.springboot.unitaire;
+
+import com.nnk.springboot.dto.WriteBehindStats;
+import com.nnk.springboot.exception.DuplicateSourceListIdException;
+import com.nnk.springboot.exception.WriteBehindQueueFullException;
+import com.nnk.springboot.model.BidList;
+import com.nnk.springboot.model.Trade;
+import com.nnk.springboot.repositories.WriteBehindAppliedRepository;
+import com.nnk.springboot.services.WriteBehindService;
+import com.nnk.springboot.services.contracts.IBidListService;
+import com.nnk.springboot.services.contracts.IDeduplicationService;
+import com.nnk.springboot.services.contracts.ITradeService;
+import com.nnk.springboot.writebehind.MpscArrayQueue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class WriteBehindServiceTest {
+
+    @TempDir
+    Path directory;
+
+    @Mock
+    private ITradeService tradeService;
+
+    @Mock
+    private IBidListService bidListService;
+
+    @Mock
+    private IDeduplicationService deduplicationService;
+
+    @Mock
+    private WriteBehindAppliedRepository appliedRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final List<Trade> savedTrades = new ArrayList<>();
+    private WriteBehindService writeBehindService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(tradeService.saveTrades(anyList())).thenAnswer(invocation -> {
+            List<Trade> trades = invocation.getArgument(0);
+            synchronized (savedTrades) {
+                savedTrades.addAll(trades);
+            }
+            return trades.size();
+        });
+        when(bidListService.saveBidLists(anyList())).thenAnswer(invocation -> invocation.<List<?>>getArgument(0).size());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (writeBehindService != null) {
+            writeBehindService.close();
+        }
+    }
+
+    private WriteBehindService open(int capacity, long offerTimeoutMillis, long shutdownTimeoutMillis)
+            throws IOException {
+        WriteBehindService service = new WriteBehindService(tradeService, bidListService, deduplicationService,
+                appliedRepository, transactionManager);
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "directory", directory.toString());
+        ReflectionTestUtils.setField(service, "segmentSize", 4096);
+        ReflectionTestUtils.setField(service, "capacity", capacity);
+        ReflectionTestUtils.setField(service, "batchSize", 10);
+        ReflectionTestUtils.setField(service, "offerTimeoutMillis", offerTimeoutMillis);
+        ReflectionTestUtils.setField(service, "shutdownTimeoutMillis", shutdownTimeoutMillis);
+        ReflectionTestUtils.setField(service, "maxAttempts", 3);
+        ReflectionTestUtils.setField(service, "retryDelayMillis", 10L);
+        service.open();
+        return service;
+    }
+
+    private static Trade trade(int i) {
+        Trade trade = new Trade("Account" + i, "Type", 10.0 + i);
+        trade.setSourceListId("T-" + i);
+        return trade;
+    }
+
+    @Test
+    void submit_ShouldAcknowledgeWithOffsetAndSaveInBatches() throws IOException {
+        writeBehindService = open(100, 1000, 5000);
+
+        for (int i = 1; i <= 25; i++) {
+            assertEquals(i, writeBehindService.submit(trade(i)));
+        }
+        writeBehindService.submit(new BidList("Account", "Type", 5.0));
+
+        assertTrue(writeBehindService.awaitDrained(5000));
+        assertEquals(25, savedTrades.size());
+        assertEquals("Account7", savedTrades.get(6).getAccount());
+        assertEquals("T-7", savedTrades.get(6).getSourceListId());
+        verify(bidListService).saveBidLists(argThat(bidLists -> bidLists.size() == 1
+                && bidLists.get(0).getBidQuantity() == 5.0));
+
+        WriteBehindStats stats = writeBehindService.getStats();
+        assertEquals(26, stats.getEnqueued());
+        assertEquals(26, stats.getWritten());
+        assertEquals(0, stats.getDepth());
+        assertEquals(26, stats.getAcknowledgedOffset());
+        assertEquals(26, stats.getAppliedOffset());
+        assertTrue(stats.getBatches() >= 3);
+    }
+
+    @Test
+    void submit_ShouldRejectResentSourceListIdWithoutQueueing() throws IOException {
+        writeBehindService = open(100, 1000, 5000);
+        Trade trade = trade(1);
+        when(deduplicationService.isDuplicate(trade)).thenReturn(true);
+
+        assertThrows(DuplicateSourceListIdException.class, () -> writeBehindService.submit(trade));
+
+        assertEquals(0, writeBehindService.getStats().getEnqueued());
+    }
+
+    @Test
+    void submit_ShouldRejectWhenQueueStaysFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch writing = new CountDownLatch(1);
+        when(tradeService.saveTrades(anyList())).thenAnswer(invocation -> {
+            writing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return 1;
+        });
+        writeBehindService = open(1, 50, 5000);
+
+        writeBehindService.submit(trade(1));
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+
+        assertThrows(WriteBehindQueueFullException.class, () -> writeBehindService.submit(trade(2)));
+        assertEquals(1, writeBehindService.getStats().getRejected());
+
+        release.countDown();
+        assertTrue(writeBehindService.awaitDrained(5000));
+        assertEquals(2, writeBehindService.submit(trade(3)));
+    }
+
+    @Test
+    void open_ShouldReplayEntriesNotWrittenByThePreviousRun() throws IOException {
+        when(tradeService.saveTrades(anyList())).thenThrow(new DataAccessResourceFailureException("Database down"));
+        WriteBehindService failing = open(100, 1000, 100);
+        failing.submit(trade(1));
+        failing.submit(trade(2));
+        failing.close();
+        assertEquals(0, failing.getStats().getAppliedOffset());
+
+        setUp();
+        writeBehindService = open(100, 1000, 5000);
+
+        assertEquals(2, savedTrades.size());
+        assertEquals("T-2", savedTrades.get(1).getSourceListId());
+        assertEquals(2, writeBehindService.getStats().getAppliedOffset());
+        assertEquals(3, writeBehindService.submit(trade(3)));
+    }
+
+    @Test
+    void open_ShouldSkipEntriesWhoseOffsetWasSavedByThePreviousRun() throws IOException {
+        when(tradeService.saveTrades(anyList())).thenThrow(new DataAccessResourceFailureException("Database down"));
+        WriteBehindService failing = open(100, 1000, 100);
+        failing.submit(new Trade("Account1", "Type", 1.0));
+        failing.submit(new Trade("Account2", "Type", 2.0));
+        failing.close();
+
+        setUp();
+        when(appliedRepository.findSequencesAfter(0)).thenReturn(List.of(1L));
+        writeBehindService = open(100, 1000, 5000);
+
+        assertEquals(1, savedTrades.size());
+        assertEquals("Account2", savedTrades.get(0).getAccount());
+        verify(appliedRepository).recordApplied(List.of(2L));
+        assertEquals(2, writeBehindService.getStats().getAppliedOffset());
+    }
+
+    @Test
+    void submit_ShouldDeadLetterAnEntryThatKeepsFailingAndWriteTheOthers() throws IOException {
+        when(tradeService.saveTrades(anyList())).thenAnswer(invocation -> {
+            List<Trade> trades = invocation.getArgument(0);
+            if (trades.stream().anyMatch(trade -> "T-2".equals(trade.getSourceListId()))) {
+                throw new DataIntegrityViolationException("value too long for column account");
+            }
+            synchronized (savedTrades) {
+                savedTrades.addAll(trades);
+            }
+            return trades.size();
+        });
+        CountDownLatch release = new CountDownLatch(1);
+        when(bidListService.saveBidLists(anyList())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return 1;
+        });
+        writeBehindService = open(100, 1000, 5000);
+        // a constraint violation is never retried, so no backoff may delay the drain
+        ReflectionTestUtils.setField(writeBehindService, "retryDelayMillis", 60_000L);
+        writeBehindService.submit(new BidList("Account", "Type", 5.0));
+        for (int i = 1; i <= 3; i++) {
+            writeBehindService.submit(trade(i));
+        }
+        release.countDown();
+
+        assertTrue(writeBehindService.awaitDrained(5000));
+        assertEquals(List.of("T-1", "T-3"), savedTrades.stream().map(Trade::getSourceListId).toList());
+        WriteBehindStats stats = writeBehindService.getStats();
+        assertEquals(1, stats.getDeadLettered());
+        assertEquals(4, stats.getAppliedOffset());
+        List<String> deadLetters = Files.readAllLines(directory.resolve("dead-letter.ndjson"));
+        assertEquals(1, deadLetters.size());
+        assertTrue(deadLetters.get(0).contains("\"sequence\":3"));
+        assertTrue(deadLetters.get(0).contains("value too long"));
+        assertTrue(deadLetters.get(0).contains("\"sourceListId\":\"T-2\""));
+    }
+
+    @Test
+    void submit_ShouldRetryATransientFailure() throws IOException {
+        AtomicInteger attempts = new AtomicInteger();
+        when(tradeService.saveTrades(anyList())).thenAnswer(invocation -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new CannotAcquireLockException("Deadlock found when trying to get lock");
+            }
+            List<Trade> trades = invocation.getArgument(0);
+            synchronized (savedTrades) {
+                savedTrades.addAll(trades);
+            }
+            return trades.size();
+        });
+        writeBehindService = open(100, 1000, 5000);
+
+        writeBehindService.submit(trade(1));
+
+        assertTrue(writeBehindService.awaitDrained(5000));
+        assertEquals(3, attempts.get());
+        assertEquals(1, savedTrades.size());
+        assertEquals(0, writeBehindService.getStats().getDeadLettered());
+    }
+
+    @Test
+    void close_ShouldDrainTheQueueBeforeReturning() throws IOException {
+        writeBehindService = open(100, 1000, 5000);
+        for (int i = 1; i <= 40; i++) {
+            writeBehindService.submit(trade(i));
+        }
+
+        writeBehindService.close();
+
+        assertEquals(40, savedTrades.size());
+        assertEquals(40, writeBehindService.getStats().getAppliedOffset());
+        writeBehindService = null;
+    }
+
+    @Test
+    void mpscArrayQueue_ShouldKeepTheOrderOfEachProducer() throws InterruptedException {
+        MpscArrayQueue<long[]> queue = new MpscArrayQueue<>(100);
+        assertEquals(128, queue.capacity());
+        int producers = 4;
+        int perProducer = 5_000;
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            long producer = p;
+            Thread thread = new Thread(() -> {
+                for (long i = 0; i < perProducer; i++) {
+                    while (!queue.offer(new long[]{producer, i})) {
+                        Thread.yield();
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+
+        long[] next = new long[producers];
+        int received = 0;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (received < producers * perProducer && System.nanoTime() < deadline) {
+            long[] element = queue.poll();
+            if (element != null) {
+                assertEquals(next[(int) element[0]]++, element[1]);
+                received++;
+            }
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(producers * perProducer, received);
+        assertNull(queue.poll());
+    }
+}